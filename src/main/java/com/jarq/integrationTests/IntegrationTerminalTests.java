@@ -4,35 +4,43 @@ import com.jarq.IRoot;
 import com.jarq.system.enums.*;
 import com.jarq.system.helpers.datetimer.DateTimer;
 import com.jarq.system.helpers.datetimer.IDateTimer;
+import com.jarq.system.helpers.codec.DeflateCodec;
+import com.jarq.system.helpers.codec.IContentCodec;
+import com.jarq.system.helpers.delta.LineDeltaEncoder;
 import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
 import com.jarq.system.helpers.repositoryPath.RepositoryPath;
+import com.jarq.system.helpers.tokenizer.Tokenizer;
 import com.jarq.system.log.ILog;
 import com.jarq.system.log.ILogWriter;
 import com.jarq.system.log.LogWriter;
 import com.jarq.system.log.Logger;
 import com.jarq.system.managers.filesManagers.*;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
+import com.jarq.system.managers.indexManagers.SearchIndex;
 import com.jarq.system.models.address.IDaoAddress;
 import com.jarq.system.models.address.SQLiteDaoAddress;
+import com.jarq.system.models.blob.SQLiteDaoBlob;
 import com.jarq.system.models.content.IContent;
 import com.jarq.system.models.content.IDaoContent;
 import com.jarq.system.models.content.SQLiteDaoContent;
 import com.jarq.system.models.repository.IDaoRepository;
 import com.jarq.system.models.repository.IRepository;
-import com.jarq.system.models.repository.SQLiteDaoRepository;
 import com.jarq.system.models.text.IDaoText;
 import com.jarq.system.models.text.IText;
-import com.jarq.system.models.text.SQLiteDaoText;
 
 import com.jarq.system.models.user.IDaoUser;
 import com.jarq.system.models.user.IUser;
-import com.jarq.system.models.user.SQLiteDaoUser;
 import com.jarq.system.policy.*;
 import com.jarq.system.service.IServiceFactory;
 import com.jarq.system.service.ServiceFactory;
 import com.jarq.system.service.address.AddressService;
 import com.jarq.system.service.address.IAddressService;
+import com.jarq.system.service.content.ContentCache;
 import com.jarq.system.service.content.ContentService;
+import com.jarq.system.service.content.IContentCache;
 import com.jarq.system.service.content.IContentService;
+import com.jarq.system.service.content.IVersionStore;
+import com.jarq.system.service.content.VersionStore;
 import com.jarq.system.service.repository.IRepoService;
 import com.jarq.system.service.repository.RepoService;
 import com.jarq.system.service.text.ITextService;
@@ -49,6 +57,8 @@ import com.jarq.integrationTests.views.IRepositoryView;
 import com.jarq.integrationTests.views.RepositoryView;
 import com.jarq.integrationTests.views.RootView;
 
+import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
@@ -61,6 +71,14 @@ public class IntegrationTerminalTests implements IRoot {
     private RootView view;
     private IRepositoryController libraryController;
     private DatabaseManager databaseManager;
+    private IDaoFactory daoFactory;  // single factory - DAOs have to share id allocator
+    private final StatementCache statementCache = PreparedStatementCache.getInstance(32);
+    // autosaves are synced together - what a crash takes is reconciled at startup
+    private final IDurabilityPolicy durabilityPolicy = DurabilityPolicy.grouped(100);
+    private final IContentCache contentCache = ContentCache.getInstance(64 * 1024 * 1024);
+    private final ISearchIndex searchIndex = SearchIndex.getInstance(
+            RepositoryPath.getInstance(RepositoriesPath.FILES_REPOSITORY, FileExtension.MD).indexDir(),
+            Tokenizer.getInstance(StandardCharsets.UTF_8), durabilityPolicy);
 
     private IntegrationTerminalTests() {
         view = new RootView();
@@ -78,6 +96,11 @@ public class IntegrationTerminalTests implements IRoot {
 
     public void runApp() {
 
+        IContentService startupService = createServiceFactory().createSQLiteService(ContentService.class);
+        startupService.recoverFiles();
+        startupService.migrateLegacyFiles();
+        startupService.updateSearchIndex();
+
         // for tests:
 
         try {
@@ -91,9 +114,23 @@ public class IntegrationTerminalTests implements IRoot {
         }
 
         libraryController.runMenu();
+        IContentService contentService = createServiceFactory().createSQLiteService(ContentService.class);
+        contentService.removeUnusedBlobs();
+        contentService.compactPacks();
+        createDaoFactory().getGroupCommitter().shutdown();
+        closeSearchIndex();
+        durabilityPolicy.shutdown();
         databaseManager.closeConnection();
     }
 
+    private void closeSearchIndex() {
+        try {
+            searchIndex.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     private IRepositoryController createLibraryController() {
 
         IRepositoryView view = new RepositoryView();
@@ -102,13 +139,18 @@ public class IntegrationTerminalTests implements IRoot {
     }
 
     private IDaoFactory createDaoFactory() {
-        JDBCProcessManager processManager = SQLProcessManager.getInstance();
+        if(daoFactory != null) {
+            return daoFactory;
+        }
+        JDBCProcessManager processManager = SQLProcessManager.getInstance(statementCache);
         IDateTimer dateTimer = DateTimer.getInstance();
         IRepositoryPath repositoryPath = RepositoryPath
                 .getInstance(RepositoriesPath.FILES_REPOSITORY,
                         FileExtension.MD);
-        return SqlDaoFactory
-                .getInstance(databaseManager, processManager, dateTimer, repositoryPath);
+        int entityCacheCapacity = 1024;  // parents imported on every save stay in memory
+        daoFactory = SqlDaoFactory
+                .getInstance(databaseManager, processManager, dateTimer, repositoryPath, entityCacheCapacity);
+        return daoFactory;
     }
 
     private IServiceFactory createServiceFactory() {
@@ -119,10 +161,24 @@ public class IntegrationTerminalTests implements IRoot {
                         FileExtension.MD);
         IRepositoryManager repositoryManager = RepositoryManager
                 .getInstance(repositoryPath);
-        IContentReader<String> contentReader = TextReader
-                .getInstance(StandardCharsets.UTF_8);
-        IContentWriter<String> contentWriter = TextWriter
-                .getInstance(StandardCharsets.UTF_8);
+        int compressionThreshold = 512;  // shorter notes don't shrink enough to pay for inflating
+        IContentCodec codec = DeflateCodec.getInstance(compressionThreshold);
+        long mappingThreshold = 1024 * 1024;  // large files written before blobs are mapped, not copied
+        long offHeapCacheSize = 256 * 1024 * 1024;  // plain notes read again come from direct memory
+        IContentReader<String> contentReader = OffHeapContentReader
+                .getInstance(MappedTextReader.getInstance(StandardCharsets.UTF_8, mappingThreshold),
+                        StandardCharsets.UTF_8, offHeapCacheSize);
+        IBlobStore blobStore = BlobStore
+                .getInstance(repositoryPath, StandardCharsets.UTF_8, durabilityPolicy);
+        long maxPackSize = 32 * 1024 * 1024;
+        IPackStore packStore = PackStore
+                .getInstance(repositoryPath, maxPackSize, durabilityPolicy);
+        int keyframeInterval = 16;  // versions in between are kept as deltas
+        IVersionStore versionStore = VersionStore
+                .getInstance(blobStore, daoFactory.createDAO(SQLiteDaoBlob.class), contentReader, packStore, codec,
+                        LineDeltaEncoder.getInstance(), keyframeInterval, StandardCharsets.UTF_8);
+
+        int streamFetchSize = 200;  // rows read ahead while texts & versions are streamed
 
         IDateTimer dateTimer = getDateTimer();
         IEmailPolicy emailPolicy = new EmailPolicy();
@@ -133,24 +189,29 @@ public class IntegrationTerminalTests implements IRoot {
         ILog log = Logger.getInstance(loggerDateTimer, logWriter);
 
         return ServiceFactory.getInstance(daoFactory,
-                repositoryManager, contentReader, contentWriter,
-                repositoryPath, dateTimer, emailPolicy,
+                repositoryManager, versionStore, contentCache, searchIndex, streamFetchSize, dateTimer, emailPolicy,
                 passwordPolicy, addressPolicy, log);
     }
 
     private DatabaseManager createSQLiteManager() {
 
-        if (! isDatabaseValid() ) {
-            try {
+        try {
+            if (new File(databaseConfig.getFilepath()).exists() ) {
+                getDatabaseMigrator().migrate();  // bring existing database up to date before validation
+            }
+            if (! isDatabaseValid() ) {
                 executeSQLiteCreationProcess();
-            } catch (DatabaseCreationFailure e) {
-                e.printStackTrace();
-                view.displayMessage(e.getMessage());
-                view.displayMessage("Can't run application without database - closing the program..");
-                System.exit(0);
             }
+        } catch (DatabaseCreationFailure e) {
+            e.printStackTrace();
+            view.displayMessage(e.getMessage());
+            view.displayMessage("Can't run application without database - closing the program..");
+            System.exit(0);
         }
-        return SQLiteManager.getSQLiteManager(databaseConfig);
+        int readersCount = 4;
+        long checkoutTimeoutMillis = 200;
+        return SQLitePoolManager
+                .getSQLitePoolManager(databaseConfig, readersCount, checkoutTimeoutMillis, statementCache);
     }
 
     private boolean isDatabaseValid() {
@@ -170,15 +231,20 @@ public class IntegrationTerminalTests implements IRoot {
                 .toLowerCase();
 
         if (userChoice.equals("y") ) {
-            SQLiteCreator.getInstance(databaseConfig, DbFilePath.DB_SETUP_SCRIPT).createDatabase();
+            SQLiteCreator.getInstance(databaseConfig, getDatabaseMigrator(), DbFilePath.DB_SETUP_SCRIPT)
+                    .createDatabase();
             System.out.println("tworze baze danych");
         } else {
             throw new DatabaseCreationFailure();
         }
     }
 
+    private DatabaseMigrator getDatabaseMigrator() {
+        return SQLiteMigrator.getInstance(databaseConfig, DbFilePath.DB_MIGRATIONS);
+    }
+
     private IDaoUser getDaoUser() {
-        return createDaoFactory().createDAO(SQLiteDaoUser.class);
+        return createDaoFactory().createDAO(IDaoUser.class);
     }
 
 
@@ -187,7 +253,7 @@ public class IntegrationTerminalTests implements IRoot {
     }
 
     private IDaoText getDaoText() {
-        return createDaoFactory().createDAO(SQLiteDaoText.class);
+        return createDaoFactory().createDAO(IDaoText.class);
     }
 
     private IDaoAddress getDaoAddress() {
@@ -195,7 +261,7 @@ public class IntegrationTerminalTests implements IRoot {
     }
 
     private IDaoRepository getDaoRepository() {
-        return createDaoFactory().createDAO(SQLiteDaoRepository.class);
+        return createDaoFactory().createDAO(IDaoRepository.class);
     }
 
 
@@ -0,0 +1,39 @@
+package com.jarq.system.dao;
+
+public final class CurrentUnitOfWork {
+
+    /**
+     * unit of work running in current thread (own or grouped one) - lets DAO decorators undo their side effects
+     * (ie. cached entities) when writes they followed are rolled back, and DAOs defer what's safe only after commit
+     */
+
+    private static final ThreadLocal<IUnitOfWork> current = new ThreadLocal<>();
+
+    private CurrentUnitOfWork() {}
+
+    // without unit of work write is committed at once - nothing to undo then
+    public static void onRollback(IUnitOfWork.Compensation compensation) {
+        IUnitOfWork unitOfWork = current.get();
+        if(unitOfWork != null) {
+            unitOfWork.onRollback(compensation);
+        }
+    }
+
+    // without unit of work write is already committed - hook runs at once
+    public static void onCommit(IUnitOfWork.CommitHook commitHook) {
+        IUnitOfWork unitOfWork = current.get();
+        if(unitOfWork != null) {
+            unitOfWork.onCommit(commitHook);
+        } else {
+            commitHook.afterCommit();
+        }
+    }
+
+    static void bind(IUnitOfWork unitOfWork) {
+        current.set(unitOfWork);
+    }
+
+    static void unbind() {
+        current.remove();
+    }
+}
@@ -0,0 +1,98 @@
+package com.jarq.system.dao;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Predicate;
+
+public class EntityCache<T> implements IEntityCache<T> {
+
+    /**
+     * bounded LRU of entities - any write moves stamp on, so row read before the write
+     * (maybe older than written one) doesn't replace it
+     */
+
+    private final int capacity;
+    private final LinkedHashMap<Integer, T> entities;
+
+    private long stamp;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public static <T> IEntityCache<T> getInstance(int capacity) {
+        return new EntityCache<>(capacity);
+    }
+
+    private EntityCache(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.entities = new LinkedHashMap<>(this.capacity, 0.75f, true);
+    }
+
+    @Override
+    public synchronized T get(int id) {
+        T entity = entities.get(id);
+        if(entity != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return entity;
+    }
+
+    @Override
+    public synchronized long stamp() {
+        return stamp;
+    }
+
+    @Override
+    public synchronized void put(int id, T entity) {
+        stamp++;
+        entities.put(id, entity);
+        evictOverflow();
+    }
+
+    @Override
+    public synchronized void putIfUnchanged(int id, T entity, long stamp) {
+        if(this.stamp != stamp || entities.containsKey(id)) {
+            return;
+        }
+        entities.put(id, entity);
+        evictOverflow();
+    }
+
+    @Override
+    public synchronized void invalidate(int id) {
+        stamp++;
+        entities.remove(id);
+    }
+
+    @Override
+    public synchronized void invalidateIf(Predicate<T> predicate) {
+        stamp++;
+        entities.values().removeIf(predicate);
+    }
+
+    @Override
+    public synchronized long getHitsCount() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMissesCount() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictionsCount() {
+        return evictions;
+    }
+
+    private void evictOverflow() {
+        Iterator<T> iterator = entities.values().iterator();
+        while(entities.size() > capacity && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+}
@@ -1,6 +1,14 @@
 package com.jarq.system.dao;
 
+import com.jarq.system.exceptions.DaoFailure;
+
 public interface IDaoFactory {
 
     <T extends Dao> T createDAO(Class<T> daoType);
+
+    // use with try-with-resources - not committed work is rolled back on close
+    IUnitOfWork beginUnitOfWork() throws DaoFailure;
+
+    // shared by all callers - coalesces concurrent writes into common transactions
+    IGroupCommitter getGroupCommitter();
 }
@@ -0,0 +1,34 @@
+package com.jarq.system.dao;
+
+import java.util.function.Predicate;
+
+public interface IEntityCache<T> {
+
+    /**
+     * entities keyed by id, shared by all DAO decorators of one factory - decorators keep their own copies
+     * (entities are mutable), read rows are put only if nothing was written since the read began (see stamp)
+     */
+
+    // null if not cached
+    T get(int id);
+
+    // take before reading row - changes with every write
+    long stamp();
+
+    // written entity
+    void put(int id, T entity);
+
+    // read entity - skipped if the same id is cached already or anything was written since stamp was taken
+    void putIfUnchanged(int id, T entity, long stamp);
+
+    void invalidate(int id);
+
+    // ie. rows removed by cascade
+    void invalidateIf(Predicate<T> predicate);
+
+    long getHitsCount();
+
+    long getMissesCount();
+
+    long getEvictionsCount();
+}
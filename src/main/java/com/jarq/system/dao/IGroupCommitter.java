@@ -0,0 +1,25 @@
+package com.jarq.system.dao;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface IGroupCommitter {
+
+    // works submitted by concurrent callers are run one after another by single worker thread
+    // and committed together - one commit (fsync) per group instead of one per caller
+
+    interface GroupedWork<T> {
+        // unit of work is scoped to this work only (savepoint) - commit() marks it as done,
+        // returning without commit() or throwing rolls back only this work
+        T run(IUnitOfWork unitOfWork) throws Exception;
+    }
+
+    // future completes after shared commit, exceptionally when work or commit failed
+    <T> CompletableFuture<T> submit(GroupedWork<T> work);
+
+    // waits for already submitted works
+    void shutdown();
+
+    long getCommitsCount();
+
+    long getCommittedWorksCount();
+}
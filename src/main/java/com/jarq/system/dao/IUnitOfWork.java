@@ -0,0 +1,31 @@
+package com.jarq.system.dao;
+
+import com.jarq.system.exceptions.DaoFailure;
+
+public interface IUnitOfWork extends AutoCloseable {
+
+    // all DAO writes of current thread go into one transaction until commit/rollback;
+    // unit of work has to be finished by the thread which started it
+
+    interface Compensation {
+        void compensate() throws Exception;
+    }
+
+    interface CommitHook {
+        void afterCommit();
+    }
+
+    // undo for side effects outside database (ie. created files), run in reverse order on rollback
+    void onRollback(Compensation compensation);
+
+    // run once changes are committed (ie. giving back ids of removed records), dropped on rollback
+    void onCommit(CommitHook commitHook);
+
+    void commit() throws DaoFailure;
+
+    void rollback();
+
+    // rolls back if not committed
+    @Override
+    void close();
+}
@@ -0,0 +1,50 @@
+package com.jarq.system.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+public class Page<T> {
+
+    private final List<T> items;
+    private final PageCursor nextCursor;
+
+    public static <T> Page<T> empty() {
+        return new Page<>(Collections.emptyList(), null);
+    }
+
+    public static <T> Page<T> of(List<T> rows, int pageSize, Function<T, PageCursor> cursorOf) {
+        // rows are expected to be fetched with LIMIT pageSize + 1 - extra row only signals next page
+        if(rows.size() <= pageSize) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = new ArrayList<>(rows.subList(0, pageSize));
+        return new Page<>(items, cursorOf.apply(items.get(pageSize - 1)));
+    }
+
+    private Page(List<T> items, PageCursor nextCursor) {
+        this.items = Collections.unmodifiableList(items);
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public PageCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public <R> Page<R> map(Function<T, R> mapper) {
+        List<R> mapped = new ArrayList<>(items.size());
+        for(T item : items) {
+            mapped.add(mapper.apply(item));
+        }
+        return new Page<>(mapped, nextCursor);
+    }
+}
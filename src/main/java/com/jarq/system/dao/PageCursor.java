@@ -0,0 +1,49 @@
+package com.jarq.system.dao;
+
+public class PageCursor {
+
+    // position of last row of previous page - (sort key, id) pair used by keyset (seek) queries
+
+    private final boolean first;
+    private final String sortKey;
+    private final int id;
+
+    public static PageCursor first() {
+        return new PageCursor(true, null, 0);
+    }
+
+    public static PageCursor after(String sortKey, int id) {
+        return new PageCursor(false, sortKey, id);
+    }
+
+    public static PageCursor after(int id) {
+        return new PageCursor(false, null, id);
+    }
+
+    private PageCursor(boolean first, String sortKey, int id) {
+        this.first = first;
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    public boolean isFirst() {
+        return first;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" +
+                "first=" + first +
+                ", sortKey='" + sortKey + '\'' +
+                ", id=" + id +
+                '}';
+    }
+}
@@ -1,82 +1,183 @@
 package com.jarq.system.dao;
 
 import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
 import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
+import com.jarq.system.managers.databaseManagers.RowMapper;
+import com.jarq.system.managers.databaseManagers.StatementBinder;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 public abstract class SqlDao implements Dao {
 
-    private Connection connection;
+    private static final int MAX_IDS_PER_STATEMENT = 500;  // sqlite allows 999 parameters
+
+    private final DatabaseManager databaseManager;
     private JDBCProcessManager processManager;
+    private final IIdAllocator idAllocator;
 
-    public SqlDao(Connection connection, JDBCProcessManager processManager) {
-        this.connection = connection;
+    public SqlDao(DatabaseManager databaseManager, JDBCProcessManager processManager,
+                  IIdAllocator idAllocator) {
+        this.databaseManager = databaseManager;
         this.processManager = processManager;
+        this.idAllocator = idAllocator;
     }
 
     protected Connection getConnection() {
-        return connection;
+        // writer connection - manager reopens it when it's not valid anymore
+        return databaseManager.getConnection();
+    }
+
+    protected Connection getReadConnection() throws DaoFailure {
+        if( databaseManager.getWriterLock().isHeldByCurrentThread() ) {
+            // inside unit of work - reads have to see its uncommitted changes
+            return getConnection();
+        }
+        try {
+            return databaseManager.getReadConnection();
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    protected void releaseReadConnection(Connection connection) {
+        databaseManager.releaseReadConnection(connection);
     }
 
     protected JDBCProcessManager getProcessManager() {
         return processManager;
     }
 
-    protected int[] gatherIdFromNestedList(List<String[]> nestedList)
-            throws DaoFailure {
-        int ID_INDEX = 0;
-        int[] ids = new int[nestedList.size()];
-        int counter = 0;
+    protected PreparedStatement prepareStatement(Connection connection, String query)
+            throws SQLException {
+        // statement is reused - it's given back by process manager after execution
+        return processManager.prepareStatement(connection, query);
+    }
+
+    protected <T> T withStatement(Connection connection, String query, StatementBinder binder,
+                                  StatementExecutor<T> executor) throws SQLException, DaoFailure {
+        // executor hands statement to process manager which releases it - otherwise it's released here
+        PreparedStatement preparedStatement = prepareStatement(connection, query);
+        boolean isHandedOver = false;
         try {
-            for(String[] table : nestedList) {
-                ids[counter] = Integer.parseInt(table[ID_INDEX]);
-                counter++;
+            binder.bind(preparedStatement);
+            isHandedOver = true;
+            return executor.execute(preparedStatement);
+        } finally {
+            if(! isHandedOver) {
+                processManager.releaseStatement(preparedStatement);
             }
-            return ids;
-        } catch (Exception ex) {
-            throw new DaoFailure(ex.getMessage());
         }
     }
 
-    protected int getLowestFreeIdFromGivenTable(String databaseTable) throws DaoFailure {
-        // to avoid relying on database autoincrement mechanic
-        final String ID_LABEL = "id";
-        final int MINIMUM_ID_VALUE = 1;
-        String EXCEPTION_INFO = "Couldn't gather lowest free id, exception occurred. ";
-
-        String query = String.format("SELECT %s FROM %s", ID_LABEL, databaseTable);
+    protected boolean executeStatement(PreparedStatement preparedStatement) throws SQLException {
+        return executeUpdate(preparedStatement) != 0;
+    }
 
-        try ( PreparedStatement preparedStatement = connection.prepareStatement(query);
-              ResultSet resultSet = preparedStatement.executeQuery() ) {
+    protected int executeUpdate(PreparedStatement preparedStatement) throws SQLException {
+        // waits while other thread's unit of work is open on writer connection
+        ReentrantLock writerLock = databaseManager.getWriterLock();
+        writerLock.lock();
+        try {
+            return processManager.executeUpdate(preparedStatement);
+        } finally {
+            writerLock.unlock();
+        }
+    }
 
-            List<Integer> idCollection = new ArrayList<>();
-            while( resultSet.next() ) {
-                idCollection.add(resultSet.getInt(ID_LABEL));
+    protected int removeByIds(String databaseTable, Collection<Integer> ids) throws DaoFailure {
+        // set based delete in one transaction - dependent rows go by ON DELETE CASCADE;
+        // removed ids aren't given back to allocator (cascaded ones are unknown anyway)
+        if(ids.isEmpty()) {
+            return 0;
+        }
+        List<Integer> idList = new ArrayList<>(ids);
+        boolean isInUnitOfWork = databaseManager.getWriterLock().isHeldByCurrentThread();
+        IUnitOfWork unitOfWork = isInUnitOfWork ? null : SqlUnitOfWork.begin(databaseManager);
+        try {
+            int removedCount = 0;
+            for(int from = 0; from < idList.size(); from += MAX_IDS_PER_STATEMENT) {
+                List<Integer> chunk = idList.subList(from, Math.min(idList.size(), from + MAX_IDS_PER_STATEMENT));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                String query = String.format("DELETE FROM %s WHERE id IN (%s)", databaseTable, placeholders);
+
+                // not cached - statement text depends on chunk size
+                try (PreparedStatement preparedStatement = getConnection().prepareStatement(query)) {
+                    for(int i = 0; i < chunk.size(); i++) {
+                        preparedStatement.setInt(i + 1, chunk.get(i));
+                    }
+                    removedCount += executeUpdate(preparedStatement);
+                }
             }
-
-            int idCollectionLength = idCollection.size();
-
-            if(idCollectionLength == 0) {
-                return MINIMUM_ID_VALUE;
+            if(unitOfWork != null) {
+                unitOfWork.commit();
             }
+            return removedCount;
 
-            Collections.sort(idCollection);
-
-            for(int i=MINIMUM_ID_VALUE; i<=idCollectionLength+1; i++) {
-                if(! idCollection.contains(i) ) {
-                    return i;  // return first not occupied lowest value
-                }
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            if(unitOfWork != null) {
+                unitOfWork.close();
             }
-            throw new DaoFailure(EXCEPTION_INFO);
+        }
+    }
+
+    protected <T> Stream<T> streamObjects(String query, StatementBinder binder,
+                                          RowMapper<T> rowMapper, int fetchSize) throws SQLException, DaoFailure {
+        // read connection & statement (not cached) are kept until the stream is closed
+        Connection connection = getReadConnection();
+        PreparedStatement preparedStatement;
+        try {
+            preparedStatement = connection.prepareStatement(query);
+        } catch (SQLException ex) {
+            releaseReadConnection(connection);
+            throw ex;
+        }
+        try {
+            binder.bind(preparedStatement);
+            preparedStatement.setFetchSize(fetchSize);
         } catch (SQLException ex) {
-            throw new DaoFailure(EXCEPTION_INFO + ex.getMessage());
+            preparedStatement.close();
+            releaseReadConnection(connection);
+            throw ex;
+        }
+        // on query failure the stream source releases resources itself
+        return processManager.getObjectsStream(preparedStatement, rowMapper,
+                () -> releaseReadConnection(connection));
+    }
+
+    protected interface StatementExecutor<T> {
+        T execute(PreparedStatement preparedStatement) throws SQLException, DaoFailure;
+    }
+
+    protected void checkPageSize(int pageSize) throws DaoFailure {
+        if(pageSize < 1) {
+            throw new DaoFailure("Page size must be positive!");
         }
     }
+
+    protected int getLowestFreeIdFromGivenTable(String databaseTable) throws DaoFailure {
+        // to avoid relying on database autoincrement mechanic
+        return idAllocator.allocate(getConnection(), databaseTable);
+    }
+
+    protected void releaseId(String databaseTable, int id) {
+        // id is free again (record removed or insert failed)
+        idAllocator.release(databaseTable, id);
+    }
+
+    protected void releaseRemovedId(String databaseTable, int id) {
+        // removal may still be rolled back - id can't be handed out before it's committed
+        CurrentUnitOfWork.onCommit(() -> releaseId(databaseTable, id));
+    }
 }
@@ -1,74 +1,136 @@
 package com.jarq.system.dao;
 
 import com.jarq.system.enums.DbTable;
+import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.helpers.datetimer.IDateTimer;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
+import com.jarq.system.helpers.idAllocator.IdAllocator;
 import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
 import com.jarq.system.managers.databaseManagers.DatabaseManager;
 import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
 import com.jarq.system.models.address.SQLiteDaoAddress;
+import com.jarq.system.models.blob.SQLiteDaoBlob;
 import com.jarq.system.models.content.SQLiteDaoContent;
+import com.jarq.system.models.repository.CachedDaoRepository;
+import com.jarq.system.models.repository.IDaoRepository;
+import com.jarq.system.models.repository.IRepository;
 import com.jarq.system.models.repository.SQLiteDaoRepository;
+import com.jarq.system.models.text.CachedDaoText;
+import com.jarq.system.models.text.IDaoText;
+import com.jarq.system.models.text.IText;
 import com.jarq.system.models.text.SQLiteDaoText;
+import com.jarq.system.models.user.CachedDaoUser;
+import com.jarq.system.models.user.IDaoUser;
+import com.jarq.system.models.user.IUser;
 import com.jarq.system.models.user.SQLiteDaoUser;
 
-import java.sql.Connection;
-
 public class SqlDaoFactory implements IDaoFactory {
 
     private final DatabaseManager dbManager;
     private final JDBCProcessManager processManager;
-    private Connection connection;
     private final IDateTimer dateTimer;
     private final IRepositoryPath repositoryPath;
+    private final IIdAllocator idAllocator;  // shared by all created DAOs
+    private final IGroupCommitter groupCommitter;
+    // shared by all cached DAOs - null if entities aren't cached
+    private final IEntityCache<IUser> users;
+    private final IEntityCache<IRepository> repositories;
+    private final IEntityCache<IText> texts;
 
     public static IDaoFactory getInstance(DatabaseManager dbManager,
                                           JDBCProcessManager processManager,
                                           IDateTimer dateTimer,
                                           IRepositoryPath repositoryPath) {
 
-        return new SqlDaoFactory(dbManager, processManager, dateTimer, repositoryPath);
+        return new SqlDaoFactory(dbManager, processManager, dateTimer, repositoryPath, 0);
+    }
+
+    // DAOs requested by interface (IDaoUser, IDaoRepository, IDaoText) keep up to entityCacheCapacity
+    // entities of each kind in memory
+    public static IDaoFactory getInstance(DatabaseManager dbManager,
+                                          JDBCProcessManager processManager,
+                                          IDateTimer dateTimer,
+                                          IRepositoryPath repositoryPath,
+                                          int entityCacheCapacity) {
+
+        return new SqlDaoFactory(dbManager, processManager, dateTimer, repositoryPath, entityCacheCapacity);
     }
 
     private SqlDaoFactory(DatabaseManager dbManager,
                           JDBCProcessManager processManager,
                           IDateTimer dateTimer,
-                          IRepositoryPath repositoryPath) {
+                          IRepositoryPath repositoryPath,
+                          int entityCacheCapacity) {
 
         this.dbManager = dbManager;
         this.processManager = processManager;
-        connection = dbManager.getConnection();
         this.dateTimer = dateTimer;
         this.repositoryPath = repositoryPath;
+        this.idAllocator = IdAllocator.getInstance();
+        int maxGroupSize = 64;
+        long maxWaitMillis = 2;
+        this.groupCommitter = SqlGroupCommitter.getInstance(dbManager, maxGroupSize, maxWaitMillis);
+        boolean isCaching = entityCacheCapacity > 0;
+        this.users = isCaching ? EntityCache.getInstance(entityCacheCapacity) : null;
+        this.repositories = isCaching ? EntityCache.getInstance(entityCacheCapacity) : null;
+        this.texts = isCaching ? EntityCache.getInstance(entityCacheCapacity) : null;
     }
 
     public <T extends Dao> T createDAO(Class<T> daoType) {
 
-        if( ! dbManager.isConnectionValid(connection) ) {
-            connection = dbManager.getConnection();
-        }
-
         String daoName = daoType.getSimpleName();
-        SqlDao dao = null;
+        Dao dao = null;
 
         switch(daoName) {
+            // by interface - cached (if enabled), all writers have to use these to keep caches valid
+            case("IDaoText"):
+                IDaoText daoText = createDAO(SQLiteDaoText.class);
+                dao = texts == null ? daoText : CachedDaoText.getInstance(daoText, texts);
+                break;
+            case("IDaoUser"):
+                IDaoUser daoUser = createDAO(SQLiteDaoUser.class);
+                dao = users == null ? daoUser : CachedDaoUser.getInstance(daoUser, users, repositories, texts);
+                break;
+            case("IDaoRepository"):
+                IDaoRepository daoRepository = createDAO(SQLiteDaoRepository.class);
+                dao = repositories == null ? daoRepository
+                        : CachedDaoRepository.getInstance(daoRepository, repositories, texts);
+                break;
             case("SQLiteDaoText"):
-                dao = new SQLiteDaoText(connection, processManager, DbTable.TEXTS, dateTimer);
+                dao = new SQLiteDaoText(dbManager, processManager, idAllocator,
+                        DbTable.TEXTS, dateTimer);
                 break;
             case("SQLiteDaoAddress"):
-                dao = new SQLiteDaoAddress(connection, processManager, DbTable.ADDRESSES);
+                dao = new SQLiteDaoAddress(dbManager, processManager, idAllocator,
+                        DbTable.ADDRESSES);
                 break;
             case("SQLiteDaoUser"):
-                dao = new SQLiteDaoUser(connection, processManager, DbTable.USERS);
+                dao = new SQLiteDaoUser(dbManager, processManager, idAllocator,
+                        DbTable.USERS);
                 break;
             case("SQLiteDaoRepository"):
-                dao = new SQLiteDaoRepository(connection, processManager,
+                dao = new SQLiteDaoRepository(dbManager, processManager, idAllocator,
                         DbTable.REPOSITORIES, dateTimer);
                 break;
             case("SQLiteDaoContent"):
-                dao = new SQLiteDaoContent(connection, processManager, DbTable.CONTENTS,
-                        repositoryPath);
+                dao = new SQLiteDaoContent(dbManager, processManager, idAllocator,
+                        DbTable.CONTENTS, repositoryPath);
+                break;
+            case("SQLiteDaoBlob"):
+                dao = new SQLiteDaoBlob(dbManager, processManager, idAllocator,
+                        DbTable.BLOBS);
                 break;
         }
         return daoType.cast(dao);
     }
+
+    @Override
+    public IUnitOfWork beginUnitOfWork() throws DaoFailure {
+        return SqlUnitOfWork.begin(dbManager);
+    }
+
+    @Override
+    public IGroupCommitter getGroupCommitter() {
+        return groupCommitter;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,304 @@
+package com.jarq.system.dao;
+
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SqlGroupCommitter implements IGroupCommitter {
+
+    private final DatabaseManager databaseManager;
+    private final int maxGroupSize;
+    private final long maxWaitNanos;
+    private final BlockingQueue<PendingWork<?>> pendingWorks = new LinkedBlockingQueue<>();
+
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong committedWorks = new AtomicLong();
+
+    private Thread worker;
+    private volatile boolean isShutdown;
+
+    public static IGroupCommitter getInstance(DatabaseManager databaseManager,
+                                              int maxGroupSize, long maxWaitMillis) {
+        return new SqlGroupCommitter(databaseManager, maxGroupSize, maxWaitMillis);
+    }
+
+    private SqlGroupCommitter(DatabaseManager databaseManager, int maxGroupSize, long maxWaitMillis) {
+        this.databaseManager = databaseManager;
+        this.maxGroupSize = Math.max(1, maxGroupSize);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> submit(GroupedWork<T> work) {
+        PendingWork<T> pendingWork = new PendingWork<>(work);
+        if( isShutdown || databaseManager.getWriterLock().isHeldByCurrentThread() ) {
+            // worker would wait for lock held by caller
+            pendingWork.future.completeExceptionally(
+                    new DaoFailure("Can't group work - committer is shut down or unit of work is opened!"));
+            return pendingWork.future;
+        }
+        startWorker();
+        pendingWorks.add(pendingWork);
+        return pendingWork.future;
+    }
+
+    @Override
+    public void shutdown() {
+        Thread runningWorker;
+        synchronized (this) {
+            isShutdown = true;
+            runningWorker = worker;
+        }
+        if(runningWorker != null) {
+            try {
+                runningWorker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // submitted while shutting down
+        PendingWork<?> lateWork;
+        while((lateWork = pendingWorks.poll()) != null) {
+            lateWork.future.completeExceptionally(new DaoFailure("Group committer is shut down!"));
+        }
+    }
+
+    @Override
+    public long getCommitsCount() {
+        return commits.get();
+    }
+
+    @Override
+    public long getCommittedWorksCount() {
+        return committedWorks.get();
+    }
+
+    private synchronized void startWorker() {
+        if(worker == null || ! worker.isAlive() ) {
+            worker = new Thread(this::processGroups, "group-commit");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void processGroups() {
+        List<PendingWork<?>> group = new ArrayList<>();
+        while(! isShutdown || ! pendingWorks.isEmpty() ) {
+            try {
+                PendingWork<?> first = pendingWorks.poll(100, TimeUnit.MILLISECONDS);
+                if(first == null) {
+                    continue;
+                }
+                group.add(first);
+                collectGroup(group);
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | Error ex) {
+                // worker has to survive - otherwise every later save waits forever
+                ex.printStackTrace();
+                for(PendingWork<?> pendingWork : group) {
+                    pendingWork.fail(new DaoFailure(ex.toString()));
+                }
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void collectGroup(List<PendingWork<?>> group) throws InterruptedException {
+        // whatever was queued during previous commit goes without waiting
+        pendingWorks.drainTo(group, maxGroupSize - group.size());
+        long deadline = System.nanoTime() + maxWaitNanos;
+        while(group.size() < maxGroupSize) {
+            long timeLeft = deadline - System.nanoTime();
+            PendingWork<?> next = timeLeft > 0 ? pendingWorks.poll(timeLeft, TimeUnit.NANOSECONDS) : null;
+            if(next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    private void commitGroup(List<PendingWork<?>> group) {
+        ReentrantLock writerLock = databaseManager.getWriterLock();
+        writerLock.lock();
+        List<PendingWork<?>> done = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = databaseManager.getConnection();
+            connection.setAutoCommit(false);
+            for(PendingWork<?> pendingWork : group) {
+                if( pendingWork.runInSavepoint(connection) ) {
+                    done.add(pendingWork);
+                }
+            }
+            connection.commit();
+            commits.incrementAndGet();
+            committedWorks.addAndGet(done.size());
+            done.forEach(PendingWork::complete);
+
+        } catch (SQLException ex) {
+            failGroup(group, connection, new DaoFailure(ex.getMessage()));
+        } catch (RuntimeException | Error ex) {
+            // rolled back before auto-commit is turned on again - driver would commit the group
+            failGroup(group, connection, new DaoFailure(ex.toString()));
+            if(ex instanceof Error) {
+                throw ex;
+            }
+        } finally {
+            setAutoCommitQuietly(connection);
+            writerLock.unlock();
+        }
+    }
+
+    private void failGroup(List<PendingWork<?>> group, Connection connection, DaoFailure failure) {
+        rollbackQuietly(connection);
+        for(PendingWork<?> pendingWork : group) {
+            pendingWork.fail(failure);
+        }
+    }
+
+    private void rollbackQuietly(Connection connection) {
+        try {
+            if(connection != null) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void setAutoCommitQuietly(Connection connection) {
+        try {
+            if(connection != null) {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class PendingWork<T> implements IUnitOfWork {
+
+        private final GroupedWork<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Deque<Compensation> compensations = new ArrayDeque<>();
+        private final List<CommitHook> commitHooks = new ArrayList<>();
+        private Connection connection;
+        private Savepoint savepoint;
+        private boolean isCommitted;
+        private boolean isRolledBack;
+        private T result;
+
+        private PendingWork(GroupedWork<T> work) {
+            this.work = work;
+        }
+
+        // returns true if work waits for shared commit
+        private boolean runInSavepoint(Connection connection) throws SQLException {
+            this.connection = connection;
+            savepoint = connection.setSavepoint();
+            CurrentUnitOfWork.bind(this);
+            try {
+                result = work.run(this);
+            } catch (Exception ex) {
+                rollback();
+                future.completeExceptionally(ex);
+                return false;
+            } catch (Throwable ex) {
+                // ie. out of memory - whole group is rolled back & failed by committer
+                rollback();
+                future.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                CurrentUnitOfWork.unbind();
+            }
+            if(! isCommitted) {
+                rollback();  // work gave up without exception
+                future.complete(result);
+                return false;
+            }
+            connection.releaseSavepoint(savepoint);
+            return true;
+        }
+
+        private void complete() {
+            // group is committed by now
+            SqlUnitOfWork.runCommitHooks(commitHooks);
+            future.complete(result);
+        }
+
+        private void fail(DaoFailure failure) {
+            if( future.isDone() ) {
+                return;  // already rolled back alone
+            }
+            runCompensations();
+            future.completeExceptionally(failure);
+        }
+
+        @Override
+        public void onRollback(Compensation compensation) {
+            compensations.push(compensation);
+        }
+
+        @Override
+        public void onCommit(CommitHook commitHook) {
+            commitHooks.add(commitHook);
+        }
+
+        @Override
+        public void commit() throws DaoFailure {
+            if(isRolledBack) {
+                throw new DaoFailure("Unit of work is already finished!");
+            }
+            isCommitted = true;  // real commit is shared with other works of the group
+        }
+
+        @Override
+        public void rollback() {
+            if(isRolledBack) {
+                return;
+            }
+            isRolledBack = true;
+            isCommitted = false;
+            try {
+                connection.rollback(savepoint);
+                connection.releaseSavepoint(savepoint);
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            runCompensations();
+        }
+
+        @Override
+        public void close() {
+            // finished by group committer
+        }
+
+        private void runCompensations() {
+            commitHooks.clear();
+            while(! compensations.isEmpty() ) {
+                try {
+                    compensations.pop().compensate();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }
+    }
+}
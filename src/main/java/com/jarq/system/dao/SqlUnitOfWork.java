@@ -0,0 +1,121 @@
+package com.jarq.system.dao;
+
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+class SqlUnitOfWork implements IUnitOfWork {
+
+    private final ReentrantLock writerLock;
+    private final Connection connection;
+    private final Deque<Compensation> compensations = new ArrayDeque<>();
+    private final List<CommitHook> commitHooks = new ArrayList<>();
+    private boolean isFinished;
+
+    static IUnitOfWork begin(DatabaseManager databaseManager) throws DaoFailure {
+        ReentrantLock writerLock = databaseManager.getWriterLock();
+        if( writerLock.isHeldByCurrentThread() ) {
+            throw new DaoFailure("Unit of work is already opened in current thread!");
+        }
+        writerLock.lock();  // other threads' writes wait until this one is finished
+        try {
+            Connection connection = databaseManager.getConnection();
+            connection.setAutoCommit(false);
+            IUnitOfWork unitOfWork = new SqlUnitOfWork(writerLock, connection);
+            CurrentUnitOfWork.bind(unitOfWork);
+            return unitOfWork;
+
+        } catch (SQLException ex) {
+            writerLock.unlock();
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    private SqlUnitOfWork(ReentrantLock writerLock, Connection connection) {
+        this.writerLock = writerLock;
+        this.connection = connection;
+    }
+
+    @Override
+    public void onRollback(Compensation compensation) {
+        compensations.push(compensation);
+    }
+
+    @Override
+    public void onCommit(CommitHook commitHook) {
+        commitHooks.add(commitHook);
+    }
+
+    @Override
+    public void commit() throws DaoFailure {
+        if(isFinished) {
+            throw new DaoFailure("Unit of work is already finished!");
+        }
+        try {
+            connection.commit();
+            compensations.clear();
+            finish();
+
+        } catch (SQLException ex) {
+            rollback();
+            throw new DaoFailure(ex.getMessage());
+        }
+        runCommitHooks(commitHooks);
+    }
+
+    @Override
+    public void rollback() {
+        if(isFinished) {
+            return;
+        }
+        try {
+            connection.rollback();
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        }
+        while(! compensations.isEmpty() ) {
+            try {
+                compensations.pop().compensate();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+            }
+        }
+        commitHooks.clear();
+        finish();
+    }
+
+    @Override
+    public void close() {
+        rollback();
+    }
+
+    static void runCommitHooks(List<CommitHook> commitHooks) {
+        for(CommitHook commitHook : commitHooks) {
+            try {
+                commitHook.afterCommit();
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+        commitHooks.clear();
+    }
+
+    private void finish() {
+        isFinished = true;
+        CurrentUnitOfWork.unbind();
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+        } finally {
+            writerLock.unlock();
+        }
+    }
+}
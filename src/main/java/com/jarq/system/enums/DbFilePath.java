@@ -5,6 +5,7 @@ import java.io.File;
 public enum DbFilePath {
 
     DB_SETUP_SCRIPT("src/main/resources/setup_script.sql"),
+    DB_MIGRATIONS("src/main/resources/migrations"),
     SQLITE_DATABASE("src/main/resources/repositoryTmp.db");
 
     private String filePath;
@@ -2,7 +2,7 @@ package com.jarq.system.enums;
 
 public enum DbTable {
 
-    REPOSITORIES, USERS, TEXTS, ADDRESSES, CONTENTS;
+    REPOSITORIES, USERS, TEXTS, ADDRESSES, CONTENTS, BLOBS;
 
     public String getTable() {
         return this.toString().toLowerCase();
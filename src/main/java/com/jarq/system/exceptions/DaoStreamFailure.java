@@ -0,0 +1,16 @@
+package com.jarq.system.exceptions;
+
+public class DaoStreamFailure extends RuntimeException {
+
+    // unchecked - thrown while stream (backed by open result set) is consumed
+
+    private final String message;
+
+    public DaoStreamFailure(String message) {
+        this.message = message;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
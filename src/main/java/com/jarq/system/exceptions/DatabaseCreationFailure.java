@@ -8,6 +8,10 @@ public class DatabaseCreationFailure extends Exception {
         message = "Problem occurred in database creation procedure";
     }
 
+    public DatabaseCreationFailure(String message) {
+        this.message = message;
+    }
+
     public String getMessage() {
         return message;
     }
@@ -0,0 +1,234 @@
+package com.jarq.system.helpers.codec;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.zip.*;
+
+public class DeflateCodec implements IContentCodec {
+
+    /**
+     * header: 0x00 'J' 'Q' + codec id (+ original length for DEFLATE),
+     * data shorter than threshold (or not shrinking) stays raw without header,
+     * deflaters, inflaters and output buffers are reused by every thread,
+     * streamed data (its length isn't known up front) is always deflated - DEFLATE_STREAM without length
+     */
+
+    private static final byte[] MAGIC = {0, 'J', 'Q'};
+    private static final byte RAW = 0;
+    private static final byte DEFLATE = 1;
+    private static final byte DEFLATE_STREAM = 2;
+    private static final int CODEC_INDEX = MAGIC.length;
+    private static final int LENGTH_INDEX = CODEC_INDEX + 1;
+    private static final int DEFLATE_HEADER_LENGTH = LENGTH_INDEX + Integer.BYTES;
+
+    private final int threshold;
+    private final int level;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(Inflater::new);
+    private final ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[8 * 1024]);
+
+    public static IContentCodec getInstance(int threshold) {
+        return new DeflateCodec(threshold, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    public static IContentCodec getInstance(int threshold, int level) {
+        return new DeflateCodec(threshold, level);
+    }
+
+    private DeflateCodec(int threshold, int level) {
+        this.threshold = threshold;
+        this.level = level;
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    @Override
+    public byte[] encode(byte[] data) throws IOException {
+        if(data.length >= threshold) {
+            byte[] compressed = deflate(data);
+            if(compressed != null) {
+                return compressed;
+            }
+        }
+        if(! hasHeader(data) ) {
+            return data;
+        }
+        // raw data looking like encoded one has to be marked
+        byte[] marked = new byte[LENGTH_INDEX + data.length];
+        writeHeader(marked, RAW);
+        System.arraycopy(data, 0, marked, LENGTH_INDEX, data.length);
+        return marked;
+    }
+
+    @Override
+    public byte[] decode(byte[] storedData) throws IOException {
+        if(! hasHeader(storedData) ) {
+            return storedData;
+        }
+        switch (storedData[CODEC_INDEX]) {
+            case RAW:
+                return Arrays.copyOfRange(storedData, LENGTH_INDEX, storedData.length);
+            case DEFLATE:
+                return inflate(storedData);
+            case DEFLATE_STREAM:
+                return readAll(decode(new ByteArrayInputStream(storedData)));
+            default:
+                throw new IOException("Unknown content codec: " + storedData[CODEC_INDEX]);
+        }
+    }
+
+    @Override
+    public boolean isEncoded(byte[] storedData) {
+        return hasHeader(storedData);
+    }
+
+    @Override
+    public OutputStream encode(OutputStream target) throws IOException {
+        byte[] header = new byte[LENGTH_INDEX];
+        writeHeader(header, DEFLATE_STREAM);
+        target.write(header);
+        // own deflater - the stream can stay open while thread encodes something else
+        Deflater deflater = new Deflater(level);
+        return new DeflaterOutputStream(target, deflater, 8 * 1024) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+    }
+
+    @Override
+    public InputStream decode(InputStream storedData) throws IOException {
+        PushbackInputStream data = new PushbackInputStream(storedData, LENGTH_INDEX);
+        byte[] header = new byte[LENGTH_INDEX];
+        int length = 0;
+        int read;
+        while(length < header.length && (read = data.read(header, length, header.length - length)) >= 0) {
+            length += read;
+        }
+        if(length < header.length || ! hasHeader(header) ) {
+            data.unread(header, 0, length);
+            return data;
+        }
+        switch (header[CODEC_INDEX]) {
+            case RAW:
+                return data;
+            case DEFLATE:
+                for(int i = 0; i < Integer.BYTES; i++) {
+                    if(data.read() < 0) {
+                        throw new IOException("Corrupted content - header is too short");
+                    }
+                }
+                return new InflaterInputStream(data);
+            case DEFLATE_STREAM:
+                return new InflaterInputStream(data);
+            default:
+                throw new IOException("Unknown content codec: " + header[CODEC_INDEX]);
+        }
+    }
+
+    private byte[] deflate(byte[] data) {
+        // compressed data (with header) has to be shorter than raw one - buffer doesn't need more
+        byte[] buffer = getBuffer(data.length);
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(data);
+        deflater.finish();
+        int length = DEFLATE_HEADER_LENGTH;
+        while(! deflater.finished() && length < data.length) {
+            length += deflater.deflate(buffer, length, data.length - length);
+        }
+        if(! deflater.finished() || length >= data.length) {
+            return null;
+        }
+        writeHeader(buffer, DEFLATE);
+        writeInt(buffer, LENGTH_INDEX, data.length);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private byte[] inflate(byte[] storedData) throws IOException {
+        if(storedData.length < DEFLATE_HEADER_LENGTH) {
+            throw new IOException("Corrupted content - header is too short");
+        }
+        int dataLength = readInt(storedData, LENGTH_INDEX);
+        if(dataLength < 0) {
+            throw new IOException("Corrupted content - negative length in header");
+        }
+        byte[] data = new byte[dataLength];
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(storedData, DEFLATE_HEADER_LENGTH, storedData.length - DEFLATE_HEADER_LENGTH);
+        try {
+            int length = 0;
+            while(length < data.length && ! inflater.finished() ) {
+                int inflated = inflater.inflate(data, length, data.length - length);
+                if(inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()) ) {
+                    break;
+                }
+                length += inflated;
+            }
+            if(length != data.length) {
+                throw new IOException("Corrupted content - data is shorter than its header says");
+            }
+            return data;
+
+        } catch (DataFormatException ex) {
+            throw new IOException(ex.getMessage());
+        }
+    }
+
+    private byte[] readAll(InputStream data) throws IOException {
+        try (InputStream stream = data) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8 * 1024];
+            int read;
+            while((read = stream.read(buffer)) >= 0) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private byte[] getBuffer(int length) {
+        byte[] buffer = buffers.get();
+        if(buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+            buffers.set(buffer);
+        }
+        return buffer;
+    }
+
+    private boolean hasHeader(byte[] data) {
+        if(data.length < LENGTH_INDEX) {
+            return false;
+        }
+        for(int i = 0; i < MAGIC.length; i++) {
+            if(data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeHeader(byte[] target, byte codec) {
+        System.arraycopy(MAGIC, 0, target, 0, MAGIC.length);
+        target[CODEC_INDEX] = codec;
+    }
+
+    private void writeInt(byte[] target, int index, int value) {
+        for(int i = 0; i < Integer.BYTES; i++) {
+            target[index + i] = (byte) (value >>> (8 * (Integer.BYTES - 1 - i)));
+        }
+    }
+
+    private int readInt(byte[] source, int index) {
+        int value = 0;
+        for(int i = 0; i < Integer.BYTES; i++) {
+            value = (value << 8) | (source[index + i] & 0xFF);
+        }
+        return value;
+    }
+}
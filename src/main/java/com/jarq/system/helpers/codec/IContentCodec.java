@@ -0,0 +1,22 @@
+package com.jarq.system.helpers.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface IContentCodec {
+
+    // encoded data starts with header naming its codec - data without header (written before) is raw
+    byte[] encode(byte[] data) throws IOException;
+
+    byte[] decode(byte[] storedData) throws IOException;
+
+    // false - data is raw (only its first bytes are looked at), it can be read at position
+    boolean isEncoded(byte[] storedData);
+
+    // streaming variants - closing returned stream closes given one
+    OutputStream encode(OutputStream target) throws IOException;
+
+    // decodes data encoded by both variants
+    InputStream decode(InputStream storedData) throws IOException;
+}
@@ -0,0 +1,14 @@
+package com.jarq.system.helpers.delta;
+
+import java.io.IOException;
+
+public interface IDeltaEncoder {
+
+    // delta rebuilds target from base - its size follows size of changes, not size of data
+    byte[] encode(byte[] base, byte[] target) throws IOException;
+
+    // delta of base followed by appended data - base itself isn't needed
+    byte[] encodeAppend(int baseLength, byte[] appended) throws IOException;
+
+    byte[] decode(byte[] base, byte[] delta) throws IOException;
+}
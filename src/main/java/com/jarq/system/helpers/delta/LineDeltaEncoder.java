@@ -0,0 +1,169 @@
+package com.jarq.system.helpers.delta;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LineDeltaEncoder implements IDeltaEncoder {
+
+    /**
+     * delta is a sequence of COPY (offset & length of base bytes) and INSERT (literal bytes) operations,
+     * matches are searched for whole lines (ended with '\n') - notes are edited line by line
+     */
+
+    private static final byte COPY = 1;
+    private static final byte INSERT = 2;
+    private final int MIN_COPY_LENGTH = 16;  // shorter match costs more than literal bytes
+    private final int MAX_CANDIDATES = 8;  // lines like "\n" repeat everywhere
+
+    public static IDeltaEncoder getInstance() {
+        return new LineDeltaEncoder();
+    }
+
+    private LineDeltaEncoder() {}
+
+    @Override
+    public byte[] encode(byte[] base, byte[] target) throws IOException {
+
+        int[] baseLines = findLinesStarts(base);
+        int[] targetLines = findLinesStarts(target);
+        Map<ByteBuffer, List<Integer>> baseIndex = indexLines(base, baseLines);
+
+        ByteArrayOutputStream delta = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(delta);
+        int literalStart = 0;  // target bytes from here aren't covered by any operation yet
+        int line = 0;
+        while(line < targetLines.length - 1) {
+            int matchedBaseLine = -1;
+            int matchedLines = 0;
+            int matchedLength = 0;
+            List<Integer> candidates = baseIndex.get(wrapLine(target, targetLines, line));
+            if(candidates != null) {
+                for(int baseLine : candidates) {
+                    int count = countEqualLines(base, baseLines, baseLine, target, targetLines, line);
+                    int length = targetLines[line + count] - targetLines[line];
+                    if(length > matchedLength) {
+                        matchedBaseLine = baseLine;
+                        matchedLines = count;
+                        matchedLength = length;
+                    }
+                }
+            }
+            if(matchedLength < MIN_COPY_LENGTH) {
+                line++;
+                continue;
+            }
+            writeInsert(output, target, literalStart, targetLines[line]);
+            output.writeByte(COPY);
+            output.writeInt(baseLines[matchedBaseLine]);
+            output.writeInt(matchedLength);
+            line += matchedLines;
+            literalStart = targetLines[line];
+        }
+        writeInsert(output, target, literalStart, target.length);
+        output.flush();
+        return delta.toByteArray();
+    }
+
+    @Override
+    public byte[] encodeAppend(int baseLength, byte[] appended) throws IOException {
+
+        ByteArrayOutputStream delta = new ByteArrayOutputStream(appended.length + 16);
+        DataOutputStream output = new DataOutputStream(delta);
+        if(baseLength > 0) {
+            output.writeByte(COPY);
+            output.writeInt(0);
+            output.writeInt(baseLength);
+        }
+        writeInsert(output, appended, 0, appended.length);
+        output.flush();
+        return delta.toByteArray();
+    }
+
+    @Override
+    public byte[] decode(byte[] base, byte[] delta) throws IOException {
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream(base.length);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(delta));
+        while(input.available() > 0) {
+            byte operation = input.readByte();
+            int length;
+            switch (operation) {
+                case COPY:
+                    int offset = input.readInt();
+                    length = input.readInt();
+                    if(offset < 0 || length < 0 || offset + length > base.length) {
+                        throw new IOException("Corrupted delta - copy out of base range");
+                    }
+                    target.write(base, offset, length);
+                    break;
+                case INSERT:
+                    length = input.readInt();
+                    if(length < 0 || length > input.available()) {
+                        throw new IOException("Corrupted delta - insert out of delta range");
+                    }
+                    byte[] literal = new byte[length];
+                    input.readFully(literal);
+                    target.write(literal, 0, length);
+                    break;
+                default:
+                    throw new IOException("Corrupted delta - unknown operation: " + operation);
+            }
+        }
+        return target.toByteArray();
+    }
+
+    private void writeInsert(DataOutputStream output, byte[] target, int from, int to) throws IOException {
+        if(to > from) {
+            output.writeByte(INSERT);
+            output.writeInt(to - from);
+            output.write(target, from, to - from);
+        }
+    }
+
+    private int[] findLinesStarts(byte[] data) {
+        // line i takes bytes from starts[i] to starts[i + 1], last element is data length
+        List<Integer> starts = new ArrayList<>();
+        starts.add(0);
+        for(int i = 0; i < data.length; i++) {
+            if(data[i] == '\n' && i + 1 < data.length) {
+                starts.add(i + 1);
+            }
+        }
+        if(data.length > 0) {
+            starts.add(data.length);
+        }
+        return starts.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private Map<ByteBuffer, List<Integer>> indexLines(byte[] data, int[] linesStarts) {
+        Map<ByteBuffer, List<Integer>> index = new HashMap<>();
+        for(int line = 0; line < linesStarts.length - 1; line++) {
+            List<Integer> positions = index.computeIfAbsent(wrapLine(data, linesStarts, line),
+                    key -> new ArrayList<>());
+            if(positions.size() < MAX_CANDIDATES) {
+                positions.add(line);
+            }
+        }
+        return index;
+    }
+
+    private ByteBuffer wrapLine(byte[] data, int[] linesStarts, int line) {
+        // ByteBuffer equality & hash code cover remaining bytes only
+        return ByteBuffer.wrap(data, linesStarts[line], linesStarts[line + 1] - linesStarts[line]).slice();
+    }
+
+    private int countEqualLines(byte[] base, int[] baseLines, int baseLine,
+                                byte[] target, int[] targetLines, int targetLine) {
+        int count = 0;
+        while(baseLine + count < baseLines.length - 1 && targetLine + count < targetLines.length - 1
+                && wrapLine(base, baseLines, baseLine + count)
+                        .equals(wrapLine(target, targetLines, targetLine + count))) {
+            count++;
+        }
+        return count;
+    }
+}
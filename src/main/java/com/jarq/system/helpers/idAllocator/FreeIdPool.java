@@ -0,0 +1,70 @@
+package com.jarq.system.helpers.idAllocator;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+class FreeIdPool {
+
+    /**
+     * keeps free ids as disjoint intervals (start -> end, both inclusive),
+     * last interval is always open to Integer.MAX_VALUE - every operation is O(log n)
+     */
+
+    private final TreeMap<Integer, Integer> freeIntervals = new TreeMap<>();
+
+    FreeIdPool(int minimumId) {
+        freeIntervals.put(minimumId, Integer.MAX_VALUE);
+    }
+
+    synchronized int allocate() {
+        Map.Entry<Integer, Integer> lowest = freeIntervals.pollFirstEntry();
+        if(lowest == null) {
+            throw new IllegalStateException("No free id left!");
+        }
+        int id = lowest.getKey();
+        int end = lowest.getValue();
+        if(id < end) {
+            freeIntervals.put(id + 1, end);
+        }
+        return id;
+    }
+
+    synchronized void reserve(int id) {
+        // marks id as occupied (used while seeding from existing records)
+        Map.Entry<Integer, Integer> interval = freeIntervals.floorEntry(id);
+        if(interval == null || interval.getValue() < id) {
+            return;  // already occupied
+        }
+        int start = interval.getKey();
+        int end = interval.getValue();
+        freeIntervals.remove(start);
+        if(start < id) {
+            freeIntervals.put(start, id - 1);
+        }
+        if(id < end) {
+            freeIntervals.put(id + 1, end);
+        }
+    }
+
+    synchronized void release(int id) {
+        Map.Entry<Integer, Integer> lower = freeIntervals.floorEntry(id);
+        if(lower != null && lower.getValue() >= id) {
+            return;  // already free
+        }
+        int start = id;
+        int end = id;
+        if(lower != null && lower.getValue() == id - 1) {
+            start = lower.getKey();
+        }
+        Integer higherEnd = freeIntervals.remove(id + 1);
+        if(higherEnd != null) {
+            end = higherEnd;
+        }
+        freeIntervals.put(start, end);
+    }
+
+    synchronized boolean isFree(int id) {
+        Map.Entry<Integer, Integer> interval = freeIntervals.floorEntry(id);
+        return interval != null && interval.getValue() >= id;
+    }
+}
@@ -0,0 +1,17 @@
+package com.jarq.system.helpers.idAllocator;
+
+import com.jarq.system.exceptions.DaoFailure;
+
+import java.sql.Connection;
+
+public interface IIdAllocator {
+
+    /**
+     * hands out lowest free id from given table,
+     * table is seeded from database (with given connection) only on first request
+     */
+    int allocate(Connection connection, String table) throws DaoFailure;
+
+    // give id back (after record removal or failed insert)
+    void release(String table, int id);
+}
@@ -0,0 +1,72 @@
+package com.jarq.system.helpers.idAllocator;
+
+import com.jarq.system.exceptions.DaoFailure;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class IdAllocator implements IIdAllocator {
+
+    /**
+     * in-memory replacement of "SELECT id FROM table" scan on every insert,
+     * shared by all DAOs created by the same factory (one pool per table)
+     */
+
+    private final int MINIMUM_ID_VALUE = 1;
+    private final Map<String, FreeIdPool> pools = new HashMap<>();
+
+    public static IIdAllocator getInstance() {
+        return new IdAllocator();
+    }
+
+    private IdAllocator() {}
+
+    @Override
+    public int allocate(Connection connection, String table) throws DaoFailure {
+        return getPool(connection, table).allocate();
+    }
+
+    @Override
+    public void release(String table, int id) {
+        FreeIdPool pool;
+        synchronized (pools) {
+            pool = pools.get(table);
+        }
+        if(pool != null && id >= MINIMUM_ID_VALUE) {
+            pool.release(id);
+        }
+    }
+
+    private FreeIdPool getPool(Connection connection, String table) throws DaoFailure {
+        synchronized (pools) {
+            FreeIdPool pool = pools.get(table);
+            if(pool == null) {
+                pool = seedPool(connection, table);
+                pools.put(table, pool);
+            }
+            return pool;
+        }
+    }
+
+    private FreeIdPool seedPool(Connection connection, String table) throws DaoFailure {
+        // single ordered scan over primary key, done once per table
+        String query = String.format("SELECT id FROM %s ORDER BY id", table);
+        FreeIdPool pool = new FreeIdPool(MINIMUM_ID_VALUE);
+
+        try ( PreparedStatement preparedStatement = connection.prepareStatement(query);
+              ResultSet resultSet = preparedStatement.executeQuery() ) {
+
+            while( resultSet.next() ) {
+                pool.reserve(resultSet.getInt(1));
+            }
+            return pool;
+
+        } catch (SQLException ex) {
+            throw new DaoFailure("Couldn't seed id allocator, exception occurred. " + ex.getMessage());
+        }
+    }
+}
@@ -22,6 +22,10 @@ public interface IRepositoryPath {
     // "src/main/resources/repositories/1/2/1/20180501102159.repo" (path to filepath with filepath)
     String filepath(IText text);
 
+    // "src/main/resources/repositories/1/2/1/2018_05_01_10_21_59-17.md" (content id keeps versions
+    // saved within the same second apart)
+    String filepath(IText text, int contentId);
+
     // "src/main/resources/repositories/1/2/1/" (path to directory with contents files)
     String textDir(IText text);
 
@@ -30,4 +34,16 @@ public interface IRepositoryPath {
 
     // eg. return "src/main/resources/repositories/1/" (path to all user's repositories)
     String userDir(IUser user);
+
+    // "src/main/resources/repositories/blobs/" (shared, content addressed files)
+    String blobsDir();
+
+    // "src/main/resources/repositories/blobs/9f/9f86d08...15b0f00a08.md" (file named by content hash)
+    String blobFilepath(String hash);
+
+    // "src/main/resources/repositories/packs/" (append-only pack files with many blobs each)
+    String packsDir();
+
+    // "src/main/resources/repositories/index/" (segments & journal of search index)
+    String indexDir();
 }
@@ -37,6 +37,15 @@ public class RepositoryPath implements IRepositoryPath {
 
     }
 
+    @Override
+    public String filepath(IText text, int contentId) {
+        return String.format("%s%s-%s%s",
+                        textDir(text),
+                        buildFilename(text.getModificationDate()),
+                        contentId,
+                        fileExtension);
+    }
+
     @Override
     public String textDir(IText text) {
         return String.format("%s%s%s%s%s%s%s",
@@ -67,6 +76,32 @@ public class RepositoryPath implements IRepositoryPath {
                 separator);
     }
 
+    @Override
+    public String blobsDir() {
+        return String.format("%sblobs%s", repositoryPath, separator);
+    }
+
+    @Override
+    public String packsDir() {
+        return String.format("%spacks%s", repositoryPath, separator);
+    }
+
+    @Override
+    public String indexDir() {
+        return String.format("%sindex%s", repositoryPath, separator);
+    }
+
+    @Override
+    public String blobFilepath(String hash) {
+        // two chars fan-out keeps directories small
+        return String.format("%s%s%s%s%s",
+                blobsDir(),
+                hash.substring(0, 2),
+                separator,
+                hash,
+                fileExtension);
+    }
+
     private String buildFilename(String textModificationDate) {
         // replace all non alphanumeric with underscore to use as filename
         String underscore = "_";
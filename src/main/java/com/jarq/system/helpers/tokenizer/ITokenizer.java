@@ -0,0 +1,17 @@
+package com.jarq.system.helpers.tokenizer;
+
+import java.util.List;
+
+public interface ITokenizer {
+
+    /**
+     * splits text into terms - lowercase runs of letters & digits, the same way for indexed notes
+     * and for queries (words matched by search)
+     */
+
+    // counts terms of data given in parts (ie. written by version store) - note isn't read into heap
+    TermCounter newTermCounter();
+
+    // distinct terms of (short) text, in order of appearance
+    List<String> tokenize(CharSequence text);
+}
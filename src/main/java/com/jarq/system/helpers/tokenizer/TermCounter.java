@@ -0,0 +1,141 @@
+package com.jarq.system.helpers.tokenizer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class TermCounter implements WritableByteChannel {
+
+    /**
+     * channel counting terms of written data - bytes are decoded in small parts (character split
+     * between writes waits for the rest), counts are complete after getTerms
+     */
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final int maxTermLength;
+    private final int maxDistinctTerms;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer output = CharBuffer.allocate(BUFFER_SIZE);
+    private final Map<String, Integer> terms = new LinkedHashMap<>();
+    private final StringBuilder term = new StringBuilder();
+    private boolean isTermTooLong;
+    private int length;
+    private boolean isFinished;
+
+    TermCounter(Charset charset, int maxTermLength, int maxDistinctTerms) {
+        this.maxTermLength = maxTermLength;
+        this.maxDistinctTerms = maxDistinctTerms;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    @Override
+    public int write(ByteBuffer source) {
+        int count = source.remaining();
+        while(source.hasRemaining()) {
+            int part = Math.min(input.remaining(), source.remaining());
+            ByteBuffer slice = source.duplicate();
+            slice.limit(slice.position() + part);
+            input.put(slice);
+            source.position(source.position() + part);
+            decode(false);
+        }
+        return count;
+    }
+
+    public void add(CharSequence text) {
+        for(int i = 0; i < text.length(); i++) {
+            add(text.charAt(i));
+        }
+    }
+
+    // term -> number of its occurrences
+    public Map<String, Integer> getTerms() {
+        finish();
+        return Collections.unmodifiableMap(terms);
+    }
+
+    // number of counted terms (with repeats)
+    public int getLength() {
+        finish();
+        return length;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return ! isFinished;
+    }
+
+    @Override
+    public void close() {
+        finish();
+    }
+
+    private void decode(boolean isEndOfInput) {
+        input.flip();
+        while(true) {
+            boolean isOverflow = decoder.decode(input, output, isEndOfInput).isOverflow();
+            addDecoded();
+            if(! isOverflow ) {
+                break;
+            }
+        }
+        input.compact();  // the beginning of split character is kept
+    }
+
+    private void addDecoded() {
+        output.flip();
+        while(output.hasRemaining()) {
+            add(output.get());
+        }
+        output.clear();
+    }
+
+    private void add(char character) {
+        // surrogates are kept together with letters around them
+        if( Character.isLetterOrDigit(character) || Character.isSurrogate(character) ) {
+            if(term.length() < maxTermLength) {
+                term.append(Character.toLowerCase(character));
+            } else {
+                isTermTooLong = true;
+            }
+            return;
+        }
+        endTerm();
+    }
+
+    private void endTerm() {
+        if(term.length() > 0 && ! isTermTooLong ) {
+            String word = term.toString();
+            Integer count = terms.get(word);
+            if(count != null) {
+                terms.put(word, count + 1);
+            } else if(terms.size() < maxDistinctTerms) {
+                terms.put(word, 1);
+            }
+            length++;
+        }
+        term.setLength(0);
+        isTermTooLong = false;
+    }
+
+    private void finish() {
+        if(isFinished) {
+            return;
+        }
+        decode(true);
+        decoder.flush(output);
+        addDecoded();
+        endTerm();
+        isFinished = true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.jarq.system.helpers.tokenizer;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Tokenizer implements ITokenizer {
+
+    /**
+     * terms longer than maxTermLength (ie. encoded data, hashes) are skipped, note keeps
+     * at most maxDistinctTerms different terms - the rest only counts into its length
+     */
+
+    private final Charset charset;
+    private final int maxTermLength;
+    private final int maxDistinctTerms;
+
+    public static ITokenizer getInstance(Charset charset) {
+        return new Tokenizer(charset, 64, 1 << 18);
+    }
+
+    public static ITokenizer getInstance(Charset charset, int maxTermLength, int maxDistinctTerms) {
+        return new Tokenizer(charset, maxTermLength, maxDistinctTerms);
+    }
+
+    private Tokenizer(Charset charset, int maxTermLength, int maxDistinctTerms) {
+        this.charset = charset;
+        this.maxTermLength = Math.max(1, maxTermLength);
+        this.maxDistinctTerms = Math.max(1, maxDistinctTerms);
+    }
+
+    @Override
+    public TermCounter newTermCounter() {
+        return new TermCounter(charset, maxTermLength, maxDistinctTerms);
+    }
+
+    @Override
+    public List<String> tokenize(CharSequence text) {
+        TermCounter termCounter = newTermCounter();
+        termCounter.add(text);
+        return new ArrayList<>(termCounter.getTerms().keySet());
+    }
+}
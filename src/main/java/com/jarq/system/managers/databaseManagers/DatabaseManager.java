@@ -1,6 +1,8 @@
 package com.jarq.system.managers.databaseManagers;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.locks.ReentrantLock;
 
 public interface DatabaseManager {
 
@@ -8,4 +10,11 @@ public interface DatabaseManager {
     void closeConnection();
     boolean isConnectionValid(Connection connection);
 
-}
\ No newline at end of file
+    // connection for queries only, have to be given back by releaseReadConnection()
+    Connection getReadConnection() throws SQLException;
+    void releaseReadConnection(Connection connection);
+
+    // guards writer connection - held for single write or for whole unit of work
+    ReentrantLock getWriterLock();
+
+}
@@ -0,0 +1,13 @@
+package com.jarq.system.managers.databaseManagers;
+
+import com.jarq.system.exceptions.DatabaseCreationFailure;
+
+public interface DatabaseMigrator {
+
+    int getSchemaVersion() throws DatabaseCreationFailure;
+
+    int getLatestVersion() throws DatabaseCreationFailure;
+
+    // applies pending migrations in place, returns schema version afterwards
+    int migrate() throws DatabaseCreationFailure;
+}
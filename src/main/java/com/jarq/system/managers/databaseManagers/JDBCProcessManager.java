@@ -4,14 +4,29 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface JDBCProcessManager {
 
-    String[] getObjectData(PreparedStatement preparedStatement) throws SQLException;
+    PreparedStatement prepareStatement(Connection connection, String query) throws SQLException;
 
-    List<String[]> getObjectsDataCollection(PreparedStatement preparedStatement) throws SQLException;
+    // returns null if there's no record
+    <T> T getObject(PreparedStatement preparedStatement, RowMapper<T> rowMapper) throws SQLException;
+
+    <T> List<T> getObjectsCollection(PreparedStatement preparedStatement, RowMapper<T> rowMapper)
+            throws SQLException;
+
+    // lazy stream over open result set - statement is closed (and onClose run) when stream is closed
+    <T> Stream<T> getObjectsStream(PreparedStatement preparedStatement, RowMapper<T> rowMapper,
+                                   Runnable onClose) throws SQLException;
 
     boolean executeBatch(PreparedStatement preparedStatement, Connection connection) throws SQLException;
 
     boolean executeStatement(PreparedStatement preparedStatement) throws SQLException;
+
+    // returns number of affected rows (rows removed by cascade are not counted)
+    int executeUpdate(PreparedStatement preparedStatement) throws SQLException;
+
+    // for statement which won't be executed - methods above release it themselves
+    void releaseStatement(PreparedStatement preparedStatement);
 }
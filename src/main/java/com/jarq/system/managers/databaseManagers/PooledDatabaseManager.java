@@ -0,0 +1,15 @@
+package com.jarq.system.managers.databaseManagers;
+
+public interface PooledDatabaseManager extends DatabaseManager {
+
+    int getReadersCount();
+
+    int getIdleReadersCount();
+
+    long getCheckoutsCount();
+
+    // checkouts which waited too long and failed
+    long getCheckoutTimeoutsCount();
+
+    long getTotalCheckoutWaitNanos();
+}
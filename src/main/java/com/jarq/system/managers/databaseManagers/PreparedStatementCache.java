@@ -0,0 +1,166 @@
+package com.jarq.system.managers.databaseManagers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class PreparedStatementCache implements StatementCache {
+
+    /**
+     * bounded LRU of prepared statements (keyed by sql text) for every connection,
+     * statement in use isn't handed out twice - concurrent caller gets a fresh (not cached) one
+     */
+
+    private final int capacityPerConnection;
+    // statements keep their connection reachable - entries go only by purge()
+    private final Map<Connection, LinkedHashMap<String, CachedStatement>> caches = new IdentityHashMap<>();
+    private final Map<PreparedStatement, CachedStatement> cachedStatements = new IdentityHashMap<>();
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public static StatementCache getInstance(int capacityPerConnection) {
+        return new PreparedStatementCache(capacityPerConnection);
+    }
+
+    private PreparedStatementCache(int capacityPerConnection) {
+        this.capacityPerConnection = Math.max(1, capacityPerConnection);
+    }
+
+    @Override
+    public PreparedStatement prepare(Connection connection, String query) throws SQLException {
+        synchronized (this) {
+            LinkedHashMap<String, CachedStatement> cache = getConnectionCache(connection);
+            CachedStatement cached = cache.get(query);
+            if(cached != null && ! cached.inUse && ! cached.statement.isClosed() ) {
+                cached.inUse = true;
+                hits++;
+                return cached.statement;
+            }
+            misses++;
+            if(cached != null && ! cached.inUse) {
+                // closed statement, forget it
+                cache.remove(query);
+                cachedStatements.remove(cached.statement);
+            } else if(cached != null) {
+                return connection.prepareStatement(query);  // busy - use not cached one
+            }
+        }
+        PreparedStatement statement = connection.prepareStatement(query);
+        synchronized (this) {
+            LinkedHashMap<String, CachedStatement> cache = getConnectionCache(connection);
+            if(cache.containsKey(query)) {
+                return statement;  // other caller cached it in the meantime
+            }
+            CachedStatement cached = new CachedStatement(statement);
+            cached.inUse = true;
+            cache.put(query, cached);
+            cachedStatements.put(statement, cached);
+            evictOverflow(cache);
+        }
+        return statement;
+    }
+
+    @Override
+    public boolean release(PreparedStatement preparedStatement) {
+        synchronized (this) {
+            CachedStatement cached = cachedStatements.get(preparedStatement);
+            if(cached == null) {
+                return false;
+            }
+            cached.inUse = false;
+            if(cached.isEvicted) {
+                cachedStatements.remove(preparedStatement);
+                return false;
+            }
+        }
+        try {
+            preparedStatement.clearParameters();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void purge(Connection connection) {
+        LinkedHashMap<String, CachedStatement> cache;
+        synchronized (this) {
+            cache = caches.remove(connection);
+            if(cache == null) {
+                return;
+            }
+            for(CachedStatement cached : cache.values()) {
+                if(cached.inUse) {
+                    cached.isEvicted = true;  // will be closed by its user
+                } else {
+                    cachedStatements.remove(cached.statement);
+                }
+            }
+        }
+        for(CachedStatement cached : cache.values()) {
+            if(! cached.inUse) {
+                closeQuietly(cached.statement);
+            }
+        }
+    }
+
+    @Override
+    public synchronized long getHitsCount() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMissesCount() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictionsCount() {
+        return evictions;
+    }
+
+    private LinkedHashMap<String, CachedStatement> getConnectionCache(Connection connection) {
+        return caches.computeIfAbsent(connection,
+                notUsed -> new LinkedHashMap<>(capacityPerConnection, 0.75f, true));
+    }
+
+    private void evictOverflow(LinkedHashMap<String, CachedStatement> cache) {
+        Iterator<CachedStatement> iterator = cache.values().iterator();
+        while(cache.size() > capacityPerConnection && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            iterator.remove();
+            evictions++;
+            if(eldest.inUse) {
+                eldest.isEvicted = true;  // will be closed by its user
+            } else {
+                cachedStatements.remove(eldest.statement);
+                closeQuietly(eldest.statement);
+            }
+        }
+    }
+
+    private void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class CachedStatement {
+
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean isEvicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.jarq.system.managers.databaseManagers;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+public interface RowMapper<T> {
+
+    // maps current record of result set (don't move the cursor inside)
+    T mapRow(ResultSet resultSet) throws SQLException;
+}
@@ -1,80 +1,132 @@
 package com.jarq.system.managers.databaseManagers;
 
+import com.jarq.system.exceptions.DaoStreamFailure;
+
 import java.sql.*;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class SQLProcessManager implements JDBCProcessManager {
 
+    private static final int DEFAULT_STATEMENTS_PER_CONNECTION = 32;
+
+    private final StatementCache statementCache;
+
     public static JDBCProcessManager getInstance() {
-        return new SQLProcessManager();
+        return new SQLProcessManager(PreparedStatementCache
+                .getInstance(DEFAULT_STATEMENTS_PER_CONNECTION));
     }
 
-    private SQLProcessManager() {}
+    public static JDBCProcessManager getInstance(StatementCache statementCache) {
+        return new SQLProcessManager(statementCache);
+    }
 
-    public String[] getObjectData(PreparedStatement preparedStatement) throws SQLException {
-        // every array keeps data from a single record
-        String[] objectData = new String[0];
-        try ( ResultSet resultSet = preparedStatement.executeQuery() ) {
+    private SQLProcessManager(StatementCache statementCache) {
+        this.statementCache = statementCache;
+    }
 
-            if (resultSet.isBeforeFirst()) {
-                ResultSetMetaData meta = resultSet.getMetaData();
-                int colCounter = meta.getColumnCount();
-                while (resultSet.next()) {
-                    List<String> columnList = new ArrayList<>();
-                    for (int column = 1; column <= colCounter; ++column) {
-                        Object value = resultSet.getObject(column);
-                        columnList.add(String.valueOf(value));
-                    }
-                    objectData = columnList.toArray(objectData);
-                }
+    public PreparedStatement prepareStatement(Connection connection, String query) throws SQLException {
+        return statementCache.prepare(connection, query);
+    }
+
+    public <T> T getObject(PreparedStatement preparedStatement, RowMapper<T> rowMapper)
+            throws SQLException {
+        // maps first record only
+        try ( ResultSet resultSet = preparedStatement.executeQuery() ) {
+            if (resultSet.next()) {
+                return rowMapper.mapRow(resultSet);
             }
+            return null;
+
         } catch (Exception e) {
             throw new SQLException(e);
         } finally {
             closeResources(preparedStatement);
         }
-
-        return objectData;
     }
 
-    public List<String[]> getObjectsDataCollection(PreparedStatement preparedStatement) throws SQLException {
-        // every nested array in list keeps data from a single record
-        List<String[]> objectsDataCollection = new ArrayList<>();
+    public <T> List<T> getObjectsCollection(PreparedStatement preparedStatement, RowMapper<T> rowMapper)
+            throws SQLException {
+        List<T> objectsCollection = new ArrayList<>();
 
         try ( ResultSet resultSet = preparedStatement.executeQuery() ) {
-
-            if (resultSet.isBeforeFirst()) {
-                ResultSetMetaData meta = resultSet.getMetaData();
-                int colCounter = meta.getColumnCount();
-                while (resultSet.next()) {
-                    List<String> columnList = new ArrayList<>();
-                    for (int column = 1; column <= colCounter; ++column) {
-                        Object value = resultSet.getObject(column);
-                        columnList.add(String.valueOf(value));
-                    }
-                    String[] columnArray = new String[columnList.size()];
-                    columnArray = columnList.toArray(columnArray);
-                    objectsDataCollection.add(columnArray);
-                }
+            while (resultSet.next()) {
+                objectsCollection.add(rowMapper.mapRow(resultSet));
             }
         } catch(Exception e){
             throw new SQLException(e);
         } finally {
             closeResources(preparedStatement);
         }
-        return objectsDataCollection;
+        return objectsCollection;
+    }
+
+    public <T> Stream<T> getObjectsStream(PreparedStatement preparedStatement, RowMapper<T> rowMapper,
+                                          Runnable onClose) throws SQLException {
+        ResultSet resultSet;
+        try {
+            resultSet = preparedStatement.executeQuery();
+        } catch (SQLException e) {
+            closeResources(preparedStatement);
+            onClose.run();
+            throw e;
+        }
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (! resultSet.next() ) {
+                        return false;
+                    }
+                    action.accept(rowMapper.mapRow(resultSet));
+                    return true;
+                } catch (SQLException e) {
+                    throw new DaoStreamFailure(e.getMessage());
+                }
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> {
+                    try {
+                        resultSet.close();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                    closeResources(preparedStatement);
+                    onClose.run();
+                });
     }
 
     public boolean executeBatch(PreparedStatement preparedStatement, Connection connection) throws SQLException {
+        // inside already opened transaction (unit of work) the outer one decides about commit
+        boolean isOwnTransaction = connection.getAutoCommit();
         try {
-            connection.setAutoCommit(false);
+            if(isOwnTransaction) {
+                connection.setAutoCommit(false);
+            }
             preparedStatement.executeBatch();
+            if(isOwnTransaction) {
+                connection.commit();
+            }
         } catch (SQLException e) {
+            if(isOwnTransaction) {
+                connection.rollback();
+            }
             throw new SQLException(e);
         } finally {
             try {
-                connection.setAutoCommit(true);
+                if(isOwnTransaction) {
+                    connection.setAutoCommit(true);
+                }
             } catch (SQLException e) {
                 e.printStackTrace();
             }
@@ -84,8 +136,12 @@ public class SQLProcessManager implements JDBCProcessManager {
     }
 
     public boolean executeStatement(PreparedStatement preparedStatement) throws SQLException {
+        return executeUpdate(preparedStatement) != 0;
+    }
+
+    public int executeUpdate(PreparedStatement preparedStatement) throws SQLException {
         try {
-            return preparedStatement.executeUpdate() != 0;
+            return preparedStatement.executeUpdate();
 
         } catch (SQLException e) {
             throw new SQLException(e);
@@ -94,9 +150,17 @@ public class SQLProcessManager implements JDBCProcessManager {
         }
     }
 
-    private <T extends AutoCloseable> void closeResources(T resources) {
+    public void releaseStatement(PreparedStatement preparedStatement) {
+        closeResources(preparedStatement);
+    }
+
+    private void closeResources(PreparedStatement preparedStatement) {
+        // cached statements stay open for next use
+        if( statementCache.release(preparedStatement) ) {
+            return;
+        }
         try {
-            resources.close();
+            preparedStatement.close();
         } catch (Exception e) {
             e.printStackTrace();
         }
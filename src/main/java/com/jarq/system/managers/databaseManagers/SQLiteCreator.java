@@ -1,6 +1,7 @@
 package com.jarq.system.managers.databaseManagers;
 
 import com.jarq.system.enums.DbFilePath;
+import com.jarq.system.enums.DbTable;
 import com.jarq.system.exceptions.DatabaseCreationFailure;
 
 import java.io.File;
@@ -8,6 +9,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Scanner;
@@ -15,20 +17,39 @@ import java.util.Scanner;
 public class SQLiteCreator implements DatabaseCreator {
 
     private DatabaseConfig databaseConfig;
+    private DatabaseMigrator migrator;
     private String setupScript;
 
-    public static DatabaseCreator getInstance(DatabaseConfig databaseConfig, DbFilePath setupScript) {
-        return new SQLiteCreator(databaseConfig, setupScript);
+    // schema comes from migrator, setup script holds initial data only
+    public static DatabaseCreator getInstance(DatabaseConfig databaseConfig, DatabaseMigrator migrator,
+                                              DbFilePath setupScript) {
+        return new SQLiteCreator(databaseConfig, migrator, setupScript);
     }
 
-    private SQLiteCreator(DatabaseConfig databaseConfig, DbFilePath setupScript) {
+    private SQLiteCreator(DatabaseConfig databaseConfig, DatabaseMigrator migrator, DbFilePath setupScript) {
         this.databaseConfig = databaseConfig;
+        this.migrator = migrator;
         this.setupScript = setupScript.getPath();
     }
 
     public void createDatabase() throws DatabaseCreationFailure {
             createDatabaseFile();
-            updateDatabaseWithSqlFile();
+            migrator.migrate();
+            if( isDatabaseEmpty() ) {
+                updateDatabaseWithSqlFile();
+            }
+    }
+
+    private boolean isDatabaseEmpty() throws DatabaseCreationFailure {
+        // existing data is kept - no more drop & recreate
+        String query = String.format("SELECT count(*) FROM %s", DbTable.USERS.getTable());
+        try (   Connection connection = DriverManager.getConnection(databaseConfig.getUrl());
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(query)   ) {
+            return resultSet.next() && resultSet.getInt(1) == 0;
+        } catch (SQLException ex) {
+            throw new DatabaseCreationFailure(ex.getMessage());
+        }
     }
 
     private void createDatabaseFile() throws DatabaseCreationFailure {
@@ -47,7 +68,7 @@ public class SQLiteCreator implements DatabaseCreator {
         File sqlFile = new File(setupScript);
         try (   Connection connection = DriverManager.getConnection(url);
                 Statement currentStatement = connection.createStatement()   ) {
-            scanner = new Scanner(sqlFile).useDelimiter(delimiter);
+            scanner = new Scanner(sqlFile, "UTF-8").useDelimiter(delimiter);
             connection.setAutoCommit(false);
             while(scanner.hasNext()) {
                 // build transaction
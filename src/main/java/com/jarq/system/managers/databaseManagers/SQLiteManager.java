@@ -4,12 +4,14 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class SQLiteManager implements DatabaseManager {
 
     private final String url;
     private Connection connection;
     private final Properties properties;
+    private final ReentrantLock writerLock = new ReentrantLock();
 
     public static DatabaseManager getSQLiteManager(DatabaseConfig dbConfig) {
         return new SQLiteManager(dbConfig);
@@ -53,4 +55,18 @@ public class SQLiteManager implements DatabaseManager {
             return false;
         }
     }
+
+    @Override
+    public Connection getReadConnection() {
+        // single connection shared by reads and writes
+        return getConnection();
+    }
+
+    @Override
+    public void releaseReadConnection(Connection connection) {}
+
+    @Override
+    public ReentrantLock getWriterLock() {
+        return writerLock;
+    }
 }
@@ -0,0 +1,129 @@
+package com.jarq.system.managers.databaseManagers;
+
+import com.jarq.system.enums.DbFilePath;
+import com.jarq.system.exceptions.DatabaseCreationFailure;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class SQLiteMigrator implements DatabaseMigrator {
+
+    // migration files: V<number>__<description>.sql, applied in number order;
+    // schema version is kept in sqlite header (PRAGMA user_version)
+
+    private static final Pattern MIGRATION_NAME = Pattern.compile("V(\\d+)__\\w+\\.sql");
+
+    private final String url;
+    private final Properties properties;
+    private final String migrationsDirectory;
+
+    public static DatabaseMigrator getInstance(DatabaseConfig databaseConfig, DbFilePath migrationsDirectory) {
+        return new SQLiteMigrator(databaseConfig, migrationsDirectory.getPath());
+    }
+
+    public static DatabaseMigrator getInstance(DatabaseConfig databaseConfig, String migrationsDirectory) {
+        return new SQLiteMigrator(databaseConfig, migrationsDirectory);
+    }
+
+    private SQLiteMigrator(DatabaseConfig databaseConfig, String migrationsDirectory) {
+        this.url = databaseConfig.getUrl();
+        this.properties = databaseConfig.getProperties();
+        this.migrationsDirectory = migrationsDirectory;
+    }
+
+    @Override
+    public int getSchemaVersion() throws DatabaseCreationFailure {
+        try (Connection connection = DriverManager.getConnection(url, properties)) {
+            return readVersion(connection);
+        } catch (SQLException ex) {
+            throw new DatabaseCreationFailure(ex.getMessage());
+        }
+    }
+
+    @Override
+    public int getLatestVersion() throws DatabaseCreationFailure {
+        TreeMap<Integer, File> migrations = loadMigrations();
+        return migrations.isEmpty() ? 0 : migrations.lastKey();
+    }
+
+    @Override
+    public int migrate() throws DatabaseCreationFailure {
+        TreeMap<Integer, File> migrations = loadMigrations();
+        try (Connection connection = DriverManager.getConnection(url, properties)) {
+            int version = readVersion(connection);
+            for(Map.Entry<Integer, File> migration : migrations.tailMap(version, false).entrySet()) {
+                apply(connection, migration.getKey(), migration.getValue());
+                version = migration.getKey();
+            }
+            return version;
+
+        } catch (SQLException ex) {
+            throw new DatabaseCreationFailure(ex.getMessage());
+        }
+    }
+
+    private void apply(Connection connection, int version, File migration) throws DatabaseCreationFailure,
+                                                                                  SQLException {
+        String script = readScript(migration);
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // sqlite-jdbc executes whole multi statement script at once (triggers bodies stay intact)
+            statement.executeUpdate(script);
+            statement.executeUpdate("PRAGMA user_version = " + version);
+            connection.commit();
+
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw new DatabaseCreationFailure(String.format("Migration %s failed: %s",
+                    migration.getName(), ex.getMessage()));
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private int readVersion(Connection connection) throws SQLException {
+        try (   Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("PRAGMA user_version")  ) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private TreeMap<Integer, File> loadMigrations() throws DatabaseCreationFailure {
+        File[] files = new File(migrationsDirectory).listFiles();
+        if(files == null) {
+            throw new DatabaseCreationFailure("There's no migrations directory: " + migrationsDirectory);
+        }
+        TreeMap<Integer, File> migrations = new TreeMap<>();
+        for(File file : files) {
+            Matcher matcher = MIGRATION_NAME.matcher(file.getName());
+            if(! matcher.matches() ) {
+                continue;
+            }
+            int version = Integer.parseInt(matcher.group(1));
+            if(migrations.put(version, file) != null) {
+                throw new DatabaseCreationFailure("Duplicated migration version: " + version);
+            }
+        }
+        return migrations;
+    }
+
+    private String readScript(File migration) throws DatabaseCreationFailure {
+        try {
+            return new String(Files.readAllBytes(migration.toPath()), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new DatabaseCreationFailure(ex.getMessage());
+        }
+    }
+}
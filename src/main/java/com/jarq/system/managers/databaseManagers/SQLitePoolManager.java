@@ -0,0 +1,226 @@
+package com.jarq.system.managers.databaseManagers;
+
+import org.sqlite.SQLiteConfig.JournalMode;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class SQLitePoolManager implements PooledDatabaseManager {
+
+    /**
+     * one writer connection (WAL journal) and a bounded pool of read-only connections,
+     * in WAL mode readers don't wait for writer's transactions
+     */
+
+    private final String url;
+    private final Properties writerProperties;
+    private final Properties readerProperties;
+    private final int readersCount;
+    private final long checkoutTimeoutMillis;
+    private final StatementCache statementCache;  // null if statements aren't cached
+
+    private Connection writer;
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final BlockingQueue<Connection> idleReaders;
+    private final List<Connection> openedReaders = new ArrayList<>();
+
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong checkoutTimeouts = new AtomicLong();
+    private final AtomicLong checkoutWaitNanos = new AtomicLong();
+
+    public static PooledDatabaseManager getSQLitePoolManager(DatabaseConfig dbConfig,
+                                                             int readersCount,
+                                                             long checkoutTimeoutMillis) {
+        return new SQLitePoolManager(dbConfig, readersCount, checkoutTimeoutMillis, null);
+    }
+
+    // statements cached for connections closed by pool are purged from given cache
+    public static PooledDatabaseManager getSQLitePoolManager(DatabaseConfig dbConfig,
+                                                             int readersCount,
+                                                             long checkoutTimeoutMillis,
+                                                             StatementCache statementCache) {
+        return new SQLitePoolManager(dbConfig, readersCount, checkoutTimeoutMillis, statementCache);
+    }
+
+    private SQLitePoolManager(DatabaseConfig dbConfig, int readersCount, long checkoutTimeoutMillis,
+                              StatementCache statementCache) {
+        this.url = dbConfig.getUrl();
+        this.readersCount = Math.max(1, readersCount);
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+        this.statementCache = statementCache;
+        this.idleReaders = new ArrayBlockingQueue<>(this.readersCount);
+        this.writerProperties = createWriterProperties(dbConfig.getProperties());
+        this.readerProperties = createReaderProperties(dbConfig.getProperties());
+    }
+
+    @Override
+    public synchronized Connection getConnection() {
+        try {
+            if(! isConnectionValid(writer) ) {
+                purgeStatements(writer);
+                writer = DriverManager.getConnection(url, writerProperties);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.out.println("JDBC connection problem occurred!");
+            System.exit(1);
+        }
+        return writer;
+    }
+
+    @Override
+    public Connection getReadConnection() throws SQLException {
+        // writer is never lent instead - it may be in the middle of other thread's unit of work
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(checkoutTimeoutMillis);
+        checkouts.incrementAndGet();
+        try {
+            while(true) {
+                Connection reader = idleReaders.poll();
+                if(reader == null) {
+                    reader = openReader();
+                }
+                if(reader == null) {
+                    reader = idleReaders.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+                if(reader == null) {
+                    checkoutTimeouts.incrementAndGet();
+                    throw new SQLException(String.format(
+                            "No read connection available within %d ms!", checkoutTimeoutMillis));
+                }
+                if( isConnectionValid(reader) ) {
+                    return reader;
+                }
+                forgetReader(reader);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for read connection!");
+
+        } finally {
+            checkoutWaitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void releaseReadConnection(Connection connection) {
+        boolean isPooled;
+        synchronized (openedReaders) {
+            isPooled = openedReaders.contains(connection);
+        }
+        if(isPooled && ! idleReaders.offer(connection) ) {
+            forgetReader(connection);
+        }
+    }
+
+    @Override
+    public void closeConnection() {
+        synchronized (this) {
+            purgeStatements(writer);
+            closeQuietly(writer);
+            writer = null;
+        }
+        synchronized (openedReaders) {
+            openedReaders.forEach(this::purgeStatements);
+            openedReaders.forEach(this::closeQuietly);
+            openedReaders.clear();
+            idleReaders.clear();
+        }
+    }
+
+    @Override
+    public boolean isConnectionValid(Connection connection) {
+        try {
+            return ( connection != null ) && (! connection.isClosed() );
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public ReentrantLock getWriterLock() {
+        return writerLock;
+    }
+
+    @Override
+    public int getReadersCount() {
+        return readersCount;
+    }
+
+    @Override
+    public int getIdleReadersCount() {
+        return idleReaders.size();
+    }
+
+    @Override
+    public long getCheckoutsCount() {
+        return checkouts.get();
+    }
+
+    @Override
+    public long getCheckoutTimeoutsCount() {
+        return checkoutTimeouts.get();
+    }
+
+    @Override
+    public long getTotalCheckoutWaitNanos() {
+        return checkoutWaitNanos.get();
+    }
+
+    private Connection openReader() throws SQLException {
+        synchronized (openedReaders) {
+            if(openedReaders.size() >= readersCount) {
+                return null;
+            }
+            getConnection();  // writer switches database file into WAL mode first
+            Connection reader = DriverManager.getConnection(url, readerProperties);
+            openedReaders.add(reader);
+            return reader;
+        }
+    }
+
+    private void forgetReader(Connection reader) {
+        synchronized (openedReaders) {
+            openedReaders.remove(reader);
+        }
+        purgeStatements(reader);
+        closeQuietly(reader);
+    }
+
+    private void purgeStatements(Connection connection) {
+        if(statementCache != null && connection != null) {
+            statementCache.purge(connection);
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        try {
+            if( isConnectionValid(connection) ) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static Properties createWriterProperties(Properties baseProperties) {
+        org.sqlite.SQLiteConfig config = new org.sqlite.SQLiteConfig(baseProperties);
+        config.setJournalMode(JournalMode.WAL);
+        return config.toProperties();
+    }
+
+    private static Properties createReaderProperties(Properties baseProperties) {
+        org.sqlite.SQLiteConfig config = new org.sqlite.SQLiteConfig(baseProperties);
+        config.setReadOnly(true);
+        return config.toProperties();
+    }
+}
@@ -0,0 +1,9 @@
+package com.jarq.system.managers.databaseManagers;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public interface StatementBinder {
+
+    void bind(PreparedStatement preparedStatement) throws SQLException;
+}
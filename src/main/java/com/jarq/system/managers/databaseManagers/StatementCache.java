@@ -0,0 +1,23 @@
+package com.jarq.system.managers.databaseManagers;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+public interface StatementCache {
+
+    // returns statement ready to use (parameters cleared)
+    PreparedStatement prepare(Connection connection, String query) throws SQLException;
+
+    // returns false if statement isn't cached (so caller has to close it)
+    boolean release(PreparedStatement preparedStatement);
+
+    // forgets statements of connection which is closed or about to be - idle ones are closed here
+    void purge(Connection connection);
+
+    long getHitsCount();
+
+    long getMissesCount();
+
+    long getEvictionsCount();
+}
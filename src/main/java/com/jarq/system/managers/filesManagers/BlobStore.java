@@ -0,0 +1,163 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BlobStore extends TextFileOperator implements IBlobStore {
+
+    /**
+     * stores data in file named by SHA-256 of its bytes,
+     * references (contents rows) are counted in database - see blobs table
+     */
+
+    private final IRepositoryPath repositoryPath;
+    private final IDurabilityPolicy durabilityPolicy;
+
+    public static IBlobStore getInstance(IRepositoryPath repositoryPath, Charset charset) {
+        return new BlobStore(repositoryPath, charset, DurabilityPolicy.osManaged());
+    }
+
+    public static IBlobStore getInstance(IRepositoryPath repositoryPath, Charset charset,
+                                         IDurabilityPolicy durabilityPolicy) {
+        return new BlobStore(repositoryPath, charset, durabilityPolicy);
+    }
+
+    private BlobStore(IRepositoryPath repositoryPath, Charset charset, IDurabilityPolicy durabilityPolicy) {
+        super(charset);
+        this.repositoryPath = repositoryPath;
+        this.durabilityPolicy = durabilityPolicy;
+    }
+
+    @Override
+    public StoredBlob store(byte[] data) throws IOException {
+        String hash = hash(data);
+        if( Files.isRegularFile(Paths.get(blobFilepath(hash))) ) {
+            return new StoredBlob(hash, blobFilepath(hash), false);
+        }
+        return store(hash, data);
+    }
+
+    @Override
+    public StoredBlob store(String data) throws IOException {
+        return store(data.getBytes(getEncoding()));
+    }
+
+    @Override
+    public StoredBlob store(String hash, byte[] storedData) throws IOException {
+        String filepath = blobFilepath(hash);
+        Path path = Paths.get(filepath);
+        boolean isNew = ! Files.isRegularFile(path);
+        // readers never see half written blob
+        writeAtomically(path, durabilityPolicy, storedData);
+        return new StoredBlob(hash, filepath, isNew);
+    }
+
+    @Override
+    public String createStagingFile() throws IOException {
+        Path directory = Paths.get(repositoryPath.blobsDir());
+        Files.createDirectories(directory);
+        return Files.createTempFile(directory, "staged", ".tmp").toString();
+    }
+
+    @Override
+    public StoredBlob storeStaged(String hash, String stagedFilepath) throws IOException {
+        String filepath = blobFilepath(hash);
+        Path path = Paths.get(filepath);
+        boolean isNew = ! Files.isRegularFile(path);
+        Files.createDirectories(path.getParent());
+        Path stagedPath = Paths.get(stagedFilepath);
+        try (FileChannel channel = FileChannel.open(stagedPath, StandardOpenOption.WRITE)) {
+            durabilityPolicy.sync(channel, path);
+        }
+        Files.move(stagedPath, path, StandardCopyOption.ATOMIC_MOVE);
+        durabilityPolicy.syncDirectory(path.getParent());
+        return new StoredBlob(hash, filepath, isNew);
+    }
+
+    @Override
+    public byte[] read(String filepath) throws IOException {
+        return Files.readAllBytes(Paths.get(filepath));
+    }
+
+    @Override
+    public InputStream openStream(String filepath) throws IOException {
+        return Files.newInputStream(Paths.get(filepath));
+    }
+
+    @Override
+    public List<String> importStoredFiles() throws IOException {
+        Path directory = Paths.get(repositoryPath.blobsDir());
+        if(! Files.isDirectory(directory) ) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .map(path -> repositoryPath.blobsDir() + directory.relativize(path))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Override
+    public String blobFilepath(String hash) {
+        return repositoryPath.blobFilepath(hash);
+    }
+
+    @Override
+    public boolean isBlob(String filepath) {
+        return filepath.startsWith(repositoryPath.blobsDir());
+    }
+
+    @Override
+    public boolean remove(String filepath) throws IOException {
+        if(! isBlob(filepath) ) {
+            throw new IOException("Given path isn't blob: " + filepath);
+        }
+        Files.deleteIfExists(Paths.get(filepath + LineIndex.EXTENSION));
+        boolean isRemoved = Files.deleteIfExists(Paths.get(filepath));
+        new File(filepath).getParentFile().delete();  // only if empty
+        return isRemoved;
+    }
+
+    @Override
+    public String hash(byte[] data) throws IOException {
+        MessageDigest digest = createDigest();
+        digest.update(data);
+        return hash(digest);
+    }
+
+    @Override
+    public MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex.getMessage());
+        }
+    }
+
+    @Override
+    public String hash(MessageDigest digest) {
+        byte[] hashBytes = digest.digest();
+        StringBuilder hex = new StringBuilder(hashBytes.length * 2);
+        for(byte b : hashBytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
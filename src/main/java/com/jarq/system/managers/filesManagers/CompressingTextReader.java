@@ -0,0 +1,78 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.helpers.codec.IContentCodec;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class CompressingTextReader extends TextFileOperator implements IContentReader<String> {
+
+    // reads files written by CompressingTextWriter as well as raw ones (written before)
+
+    private final IContentCodec codec;
+    private final ILineIndex lineIndex;
+
+    public static IContentReader<String> getInstance(Charset charset, IContentCodec codec) {
+        return new CompressingTextReader(charset, codec);
+    }
+
+    private CompressingTextReader(Charset charset, IContentCodec codec) {
+        super(charset);
+        this.codec = codec;
+        this.lineIndex = LineIndex.getInstance();
+    }
+
+    @Override
+    public String readContent(String filePath) throws IOException {
+        StringBuilder stringBuilder = new StringBuilder();
+        InputStream data = new ByteArrayInputStream(readContentAsBytes(filePath));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(data, getEncoding()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                stringBuilder.append(line);
+                stringBuilder.append("\n");
+            }
+            int len = stringBuilder.length();
+            if(len > 0) {
+                stringBuilder.delete(len-1, len);  // the same text as TextReader returns
+            }
+        }
+        return stringBuilder.toString();
+    }
+
+    @Override
+    public byte[] readContentAsBytes(String filePath) throws IOException {
+        return codec.decode(Files.readAllBytes(Paths.get(filePath)));
+    }
+
+    @Override
+    public ByteBuffer readContentAsBuffer(String filePath) throws IOException {
+        return ByteBuffer.wrap(readContentAsBytes(filePath)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public long readContent(String filePath, WritableByteChannel target) throws IOException {
+        try (InputStream data = codec.decode(Files.newInputStream(Paths.get(filePath)))) {
+            return ContentChannels.copy(data, target);
+        }
+    }
+
+    @Override
+    public byte[] readContent(String filePath, long offset, int length) throws IOException {
+        try (InputStream data = codec.decode(Files.newInputStream(Paths.get(filePath)))) {
+            return readRange(data, offset, length);
+        }
+    }
+
+    @Override
+    public String readLines(String filePath, int firstLine, int lineCount) throws IOException {
+        // encoded file can't be indexed - lines are counted while it's decoded
+        try (InputStream data = codec.decode(Files.newInputStream(Paths.get(filePath)))) {
+            return decodeLines(lineIndex.readLines(data, firstLine, lineCount));
+        }
+    }
+}
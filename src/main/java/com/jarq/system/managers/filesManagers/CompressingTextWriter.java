@@ -0,0 +1,88 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.helpers.codec.IContentCodec;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class CompressingTextWriter extends TextFileOperator implements IContentWriter<String> {
+
+    // content is written encoded by codec (compressed above its threshold) - read it with CompressingTextReader
+
+    private final IContentCodec codec;
+    private final IDurabilityPolicy durabilityPolicy;
+
+    public static IContentWriter<String> getInstance(Charset charset, IContentCodec codec) {
+        return new CompressingTextWriter(charset, codec, DurabilityPolicy.osManaged());
+    }
+
+    public static IContentWriter<String> getInstance(Charset charset, IContentCodec codec,
+                                                     IDurabilityPolicy durabilityPolicy) {
+        return new CompressingTextWriter(charset, codec, durabilityPolicy);
+    }
+
+    private CompressingTextWriter(Charset charset, IContentCodec codec, IDurabilityPolicy durabilityPolicy) {
+        super(charset);
+        this.codec = codec;
+        this.durabilityPolicy = durabilityPolicy;
+    }
+
+    @Override
+    public boolean writeContent(String filePath, String content) throws IOException {
+        return writeContent(filePath, content.getBytes(getEncoding()));
+    }
+
+    @Override
+    public boolean writeContent(String filePath, byte[] content) throws IOException {
+        writeAtomically(Paths.get(filePath), durabilityPolicy, codec.encode(content));
+        return true;
+    }
+
+    @Override
+    public boolean appendContent(String filePath, String content) throws IOException {
+        return appendContent(filePath, content.getBytes(getEncoding()));
+    }
+
+    @Override
+    public boolean appendContent(String filePath, byte[] content) throws IOException {
+        // encoded data can't be extended in place - file is written again
+        Path path = Paths.get(filePath);
+        if(! Files.exists(path) ) {
+            return writeContent(filePath, content);
+        }
+        byte[] data = codec.decode(Files.readAllBytes(path));
+        byte[] appended = Arrays.copyOf(data, data.length + content.length);
+        System.arraycopy(content, 0, appended, data.length, content.length);
+        return writeContent(filePath, appended);
+    }
+
+    @Override
+    public long writeContent(String filePath, ReadableByteChannel source) throws IOException {
+        // length of streamed content isn't known up front - it's always compressed
+        return writeAtomically(Paths.get(filePath), durabilityPolicy, channel -> {
+            // closing encoding stream finishes data - channel itself is synced & closed afterwards
+            OutputStream file = new FilterOutputStream(Channels.newOutputStream(channel)) {
+                @Override
+                public void write(byte[] data, int offset, int length) throws IOException {
+                    out.write(data, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+            try (OutputStream data = codec.encode(file)) {
+                return ContentChannels.copy(source, Channels.newChannel(data));
+            }
+        });
+    }
+}
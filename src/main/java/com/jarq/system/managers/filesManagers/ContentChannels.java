@@ -0,0 +1,55 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public final class ContentChannels {
+
+    /**
+     * streamed content goes through one buffer of constant size - heap use doesn't depend on content size,
+     * file to channel copies are left to the system (no buffer at all)
+     */
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ContentChannels() {}
+
+    public static long copy(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long copied = 0;
+        while(source.read(buffer) >= 0) {
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                copied += target.write(buffer);
+            }
+            buffer.clear();
+        }
+        return copied;
+    }
+
+    public static long copy(InputStream source, WritableByteChannel target) throws IOException {
+        return copy(Channels.newChannel(source), target);
+    }
+
+    public static long transfer(FileChannel source, WritableByteChannel target) throws IOException {
+        long size = source.size();
+        long position = 0;
+        while(position < size) {
+            position += source.transferTo(position, size - position, target);
+        }
+        return size;
+    }
+
+    public static long write(byte[] data, WritableByteChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while(buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        return data.length;
+    }
+}
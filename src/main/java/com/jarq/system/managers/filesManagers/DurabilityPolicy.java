@@ -0,0 +1,165 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class DurabilityPolicy implements IDurabilityPolicy {
+
+    /**
+     * per write - channel is forced before it's closed (and renamed), so returned write is durable,
+     * grouped - written files are remembered and forced together by single thread every intervalMillis,
+     * os managed - nothing is forced; files lost by crash are reconciled at startup (see recoverFiles)
+     */
+
+    private enum Mode { PER_WRITE, GROUPED, OS_MANAGED }
+
+    private final Mode mode;
+    private final long intervalMillis;
+    private final Set<Path> pendingFiles = new LinkedHashSet<>();
+    private final Set<Path> pendingDirectories = new LinkedHashSet<>();
+
+    private Thread worker;
+    private volatile boolean isShutdown;
+
+    public static IDurabilityPolicy perWrite() {
+        return new DurabilityPolicy(Mode.PER_WRITE, 0);
+    }
+
+    public static IDurabilityPolicy grouped(long intervalMillis) {
+        return new DurabilityPolicy(Mode.GROUPED, intervalMillis);
+    }
+
+    public static IDurabilityPolicy osManaged() {
+        return new DurabilityPolicy(Mode.OS_MANAGED, 0);
+    }
+
+    private DurabilityPolicy(Mode mode, long intervalMillis) {
+        this.mode = mode;
+        this.intervalMillis = Math.max(1, intervalMillis);
+    }
+
+    @Override
+    public void sync(FileChannel channel, Path target) throws IOException {
+        switch (mode) {
+            case PER_WRITE:
+                channel.force(true);
+                break;
+            case GROUPED:
+                remember(pendingFiles, target);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void syncDirectory(Path directory) throws IOException {
+        switch (mode) {
+            case PER_WRITE:
+                forceDirectory(directory);
+                break;
+            case GROUPED:
+                remember(pendingDirectories, directory);
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        Path[] files;
+        Path[] directories;
+        synchronized (this) {
+            files = pendingFiles.toArray(new Path[0]);
+            directories = pendingDirectories.toArray(new Path[0]);
+            pendingFiles.clear();
+            pendingDirectories.clear();
+        }
+        // file data first - directory entry shouldn't point at data which isn't there
+        for(Path file : files) {
+            forceFile(file);
+        }
+        for(Path directory : directories) {
+            forceDirectory(directory);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        Thread runningWorker;
+        synchronized (this) {
+            isShutdown = true;
+            runningWorker = worker;
+            notifyAll();
+        }
+        if(runningWorker != null) {
+            try {
+                runningWorker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQuietly();
+    }
+
+    private synchronized void remember(Set<Path> pending, Path path) throws IOException {
+        if(isShutdown) {
+            // nobody would sync it later
+            if(pending == pendingDirectories) {
+                forceDirectory(path);
+            } else {
+                forceFile(path);
+            }
+            return;
+        }
+        pending.add(path);
+        if(worker == null) {
+            worker = new Thread(this::syncGroups, "file-sync");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    private void syncGroups() {
+        while(! isShutdown ) {
+            synchronized (this) {
+                try {
+                    wait(intervalMillis);  // woken up early by shutdown - it flushes the rest
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            flushQuietly();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void forceFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (NoSuchFileException ignored) {
+            // removed meanwhile
+        }
+    }
+
+    private void forceDirectory(Path directory) {
+        // not every system lets directory be opened - entry is synced by file system then
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.List;
+
+public interface IBlobStore {
+
+    // content addressed files - the same data is written to disk only once
+
+    StoredBlob store(byte[] data) throws IOException;
+
+    StoredBlob store(String data) throws IOException;
+
+    // writes (or replaces) file named by given hash - stored data can be encoded form of hashed one
+    StoredBlob store(String hash, byte[] storedData) throws IOException;
+
+    // temporary file for streamed data - moved in by storeStaged (same file system as blobs)
+    String createStagingFile() throws IOException;
+
+    StoredBlob storeStaged(String hash, String stagedFilepath) throws IOException;
+
+    byte[] read(String filepath) throws IOException;
+
+    InputStream openStream(String filepath) throws IOException;
+
+    String hash(byte[] data) throws IOException;
+
+    // digest for data hashed while it's streamed
+    MessageDigest createDigest() throws IOException;
+
+    String hash(MessageDigest digest);
+
+    // every file in blobs directory - also temporary ones & indexes (recovery sorts them out)
+    List<String> importStoredFiles() throws IOException;
+
+    String blobFilepath(String hash);
+
+    boolean isBlob(String filepath);
+
+    boolean remove(String filepath) throws IOException;
+}
@@ -1,9 +1,19 @@
 package com.jarq.system.managers.filesManagers;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 public interface IContentReader<T> {
 
     T readContent(String filePath) throws IOException;
     byte[] readContentAsBytes(String filePath) throws IOException;
+    // read-only view - no copy is made where reader can avoid it
+    ByteBuffer readContentAsBuffer(String filePath) throws IOException;
+    // streams content into target - returns number of written bytes
+    long readContent(String filePath, WritableByteChannel target) throws IOException;
+    // byte range - shorter at the end of file
+    byte[] readContent(String filePath, long offset, int length) throws IOException;
+    // lines counted from 0, ended with '\n' - the last one without it
+    String readLines(String filePath, int firstLine, int lineCount) throws IOException;
 }
@@ -1,10 +1,19 @@
 package com.jarq.system.managers.filesManagers;
 
 import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 
 public interface IContentWriter<T> {
 
     boolean writeContent(String filePath, T content) throws IOException;
 
     boolean writeContent(String filePath, byte[] content) throws IOException;
+
+    // only new data is written - file is created if it doesn't exist
+    boolean appendContent(String filePath, T content) throws IOException;
+
+    boolean appendContent(String filePath, byte[] content) throws IOException;
+
+    // source is read till its end - returns number of read bytes
+    long writeContent(String filePath, ReadableByteChannel source) throws IOException;
 }
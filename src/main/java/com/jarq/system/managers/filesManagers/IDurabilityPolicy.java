@@ -0,0 +1,25 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+public interface IDurabilityPolicy {
+
+    /**
+     * decides when written data reaches the disk - at once (fsync per write), with other writes
+     * every few milliseconds, or whenever system flushes it; data not synced yet can be lost by crash
+     */
+
+    // called before channel is closed - file can be renamed to target afterwards
+    void sync(FileChannel channel, Path target) throws IOException;
+
+    // directory entry of created or renamed file
+    void syncDirectory(Path directory) throws IOException;
+
+    // syncs everything waiting for its group
+    void flush() throws IOException;
+
+    // flushes and stops background syncing
+    void shutdown();
+}
@@ -0,0 +1,19 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ILineIndex {
+
+    /**
+     * lines are counted from 0 and end with '\n' - returned bytes (range) of lines firstLine ..
+     * firstLine + lineCount - 1 don't include end of the last one, range past the end of file is empty
+     */
+    LineRange locate(String filePath, int firstLine, int lineCount) throws IOException;
+
+    // for data which can't be read at position (encoded) - lines are found while data is read
+    byte[] readLines(InputStream data, int firstLine, int lineCount) throws IOException;
+
+    // removes index kept beside file
+    boolean remove(String filePath) throws IOException;
+}
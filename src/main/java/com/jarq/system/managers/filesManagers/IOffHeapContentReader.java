@@ -0,0 +1,19 @@
+package com.jarq.system.managers.filesManagers;
+
+public interface IOffHeapContentReader extends IContentReader<String> {
+
+    /**
+     * reader keeping read files in direct memory (outside of heap) - metrics of its cache
+     */
+
+    long getHitsCount();
+
+    long getMissesCount();
+
+    long getEvictionsCount();
+
+    // memory taken by cached files (whole pages)
+    long getUsedBytes();
+
+    long getMaxBytes();
+}
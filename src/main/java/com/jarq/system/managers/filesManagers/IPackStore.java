@@ -0,0 +1,25 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.util.List;
+
+public interface IPackStore {
+
+    // data is appended to active pack - returned location has to be kept by caller (index)
+    PackLocation append(byte[] data) throws IOException;
+
+    byte[] read(String packPath, long offset, int length) throws IOException;
+
+    // pack new data goes to, null if there's no pack yet
+    String getActivePack() throws IOException;
+
+    List<String> importPacks() throws IOException;
+
+    long size(String packPath) throws IOException;
+
+    // cuts data nothing points at (left by crash in the middle of append) - returns false if there's none
+    boolean truncate(String packPath, long size) throws IOException;
+
+    // active pack is never removed, other packs are synced first (they hold data copied out of removed one)
+    boolean remove(String packPath) throws IOException;
+}
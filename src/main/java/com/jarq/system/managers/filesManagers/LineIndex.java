@@ -0,0 +1,157 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class LineIndex implements ILineIndex {
+
+    /**
+     * sidecar file (filepath + EXTENSION) keeps offset of every line start (8 bytes each) after header
+     * with size & modification time of indexed file - range is located by two positional reads,
+     * index is built at first use and rebuilt when file was changed
+     */
+
+    public static final String EXTENSION = ".lines";
+    private static final int HEADER_LENGTH = 2 * Long.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public static ILineIndex getInstance() {
+        return new LineIndex();
+    }
+
+    private LineIndex() {}
+
+    @Override
+    public LineRange locate(String filePath, int firstLine, int lineCount) throws IOException {
+        checkLines(firstLine, lineCount);
+        Path path = Paths.get(filePath);
+        Path indexPath = Paths.get(filePath + EXTENSION);
+        long size = Files.size(path);
+        long modificationTime = Files.getLastModifiedTime(path).toMillis();
+        if(! isCurrent(indexPath, size, modificationTime) ) {
+            build(path, indexPath, size, modificationTime);
+        }
+        try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            long linesCount = (index.size() - HEADER_LENGTH) / Long.BYTES;
+            if(firstLine >= linesCount || lineCount == 0) {
+                return new LineRange(size, 0);
+            }
+            long start = readLong(index, HEADER_LENGTH + (long) firstLine * Long.BYTES);
+            long lastLine = (long) firstLine + lineCount;
+            long end = lastLine < linesCount
+                    ? readLong(index, HEADER_LENGTH + lastLine * Long.BYTES) - 1  // without '\n'
+                    : findTextEnd(path, size);
+            if(end - start > Integer.MAX_VALUE) {
+                throw new IOException("Lines are too long to be read at once: " + filePath);
+            }
+            return new LineRange(start, (int) (end - start));
+        }
+    }
+
+    @Override
+    public byte[] readLines(InputStream data, int firstLine, int lineCount) throws IOException {
+        checkLines(firstLine, lineCount);
+        ByteArrayOutputStream lines = new ByteArrayOutputStream();
+        InputStream stream = new BufferedInputStream(data, BUFFER_SIZE);  // data is closed by caller
+        long lastLine = (long) firstLine + lineCount;
+        long line = 0;
+        int character = 0;
+        while(line < lastLine && (character = stream.read()) >= 0) {
+            if(line >= firstLine && (character != '\n' || line + 1 < lastLine) ) {
+                lines.write(character);
+            }
+            if(character == '\n') {
+                line++;
+            }
+        }
+        byte[] result = lines.toByteArray();
+        if(character < 0 && result.length > 0 && result[result.length - 1] == '\n') {
+            // the same range as locate returns - end of text isn't a line
+            return Arrays.copyOf(result, result.length - 1);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean remove(String filePath) throws IOException {
+        return Files.deleteIfExists(Paths.get(filePath + EXTENSION));
+    }
+
+    private boolean isCurrent(Path indexPath, long size, long modificationTime) throws IOException {
+        if(! Files.isRegularFile(indexPath) ) {
+            return false;
+        }
+        try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            return index.size() >= HEADER_LENGTH
+                    && readLong(index, 0) == size
+                    && readLong(index, Long.BYTES) == modificationTime;
+        }
+    }
+
+    private void build(Path path, Path indexPath, long size, long modificationTime) throws IOException {
+        // concurrent readers see either old index or the whole new one
+        Path temporaryPath = Files.createTempFile(path.toAbsolutePath().getParent(),
+                path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+                 DataOutputStream index = new DataOutputStream(
+                         new BufferedOutputStream(Files.newOutputStream(temporaryPath), BUFFER_SIZE))) {
+                index.writeLong(size);
+                index.writeLong(modificationTime);
+                if(size > 0) {
+                    index.writeLong(0);
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long position = 0;
+                while(file.read(buffer) >= 0 && position < size) {
+                    buffer.flip();
+                    while(buffer.hasRemaining()) {
+                        if(buffer.get() == '\n' && position + 1 < size) {
+                            index.writeLong(position + 1);
+                        }
+                        position++;
+                    }
+                    buffer.clear();
+                }
+            }
+            Files.move(temporaryPath, indexPath, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    private long findTextEnd(Path path, long size) throws IOException {
+        if(size == 0) {
+            return 0;
+        }
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer lastByte = ByteBuffer.allocate(1);
+            file.read(lastByte, size - 1);
+            return lastByte.get(0) == '\n' ? size - 1 : size;
+        }
+    }
+
+    private long readLong(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Line index is shorter than expected");
+            }
+        }
+        buffer.flip();
+        return buffer.getLong();
+    }
+
+    private void checkLines(int firstLine, int lineCount) throws IOException {
+        if(firstLine < 0 || lineCount < 0) {
+            throw new IOException("Line and line count can't be negative!");
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.jarq.system.managers.filesManagers;
+
+public class LineRange {
+
+    private final long offset;
+    private final int length;
+
+    LineRange(long offset, int length) {
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "LineRange{" +
+                "offset=" + offset +
+                ", length=" + length +
+                '}';
+    }
+}
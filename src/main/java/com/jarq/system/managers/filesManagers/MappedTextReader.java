@@ -0,0 +1,92 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class MappedTextReader extends TextFileOperator implements IContentReader<String> {
+
+    /**
+     * files from mappingThreshold up are mapped into memory - text is decoded straight from the mapping
+     * and byte consumers get read-only view of it, smaller files are read into heap (mapping costs more),
+     * ranges are read at position - lines are located by index kept beside file
+     */
+
+    private final long mappingThreshold;
+    private final ILineIndex lineIndex;
+
+    public static IContentReader<String> getInstance(Charset charset, long mappingThreshold) {
+        return new MappedTextReader(charset, mappingThreshold);
+    }
+
+    private MappedTextReader(Charset charset, long mappingThreshold) {
+        super(charset);
+        this.mappingThreshold = mappingThreshold;
+        this.lineIndex = LineIndex.getInstance();
+    }
+
+    @Override
+    public String readContent(String filePath) throws IOException {
+        CharBuffer text = getEncoding().newDecoder().decode(read(filePath));
+        return unifyLinesEnds(text);
+    }
+
+    @Override
+    public byte[] readContentAsBytes(String filePath) throws IOException {
+        ByteBuffer buffer = read(filePath);
+        if( buffer.hasArray() ) {
+            return buffer.array();  // small file - already read into heap
+        }
+        byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        return content;
+    }
+
+    @Override
+    public ByteBuffer readContentAsBuffer(String filePath) throws IOException {
+        return read(filePath).asReadOnlyBuffer();
+    }
+
+    @Override
+    public long readContent(String filePath, WritableByteChannel target) throws IOException {
+        // no mapping needed - file is transferred straight to target, whatever its size
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return ContentChannels.transfer(channel, target);
+        }
+    }
+
+    private ByteBuffer read(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size > Integer.MAX_VALUE) {
+                throw new IOException("File is too large to be read at once: " + filePath);
+            }
+            if(size >= mappingThreshold) {
+                // mapping stays valid after channel is closed
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while(buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // reads until buffer is full or file ends
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    @Override
+    public byte[] readContent(String filePath, long offset, int length) throws IOException {
+        return readRange(filePath, offset, length);
+    }
+
+    @Override
+    public String readLines(String filePath, int firstLine, int lineCount) throws IOException {
+        LineRange range = lineIndex.locate(filePath, firstLine, lineCount);
+        return decodeLines(readRange(filePath, range.getOffset(), range.getLength()));
+    }
+}
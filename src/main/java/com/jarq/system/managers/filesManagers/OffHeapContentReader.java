@@ -0,0 +1,388 @@
+package com.jarq.system.managers.filesManagers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+public class OffHeapContentReader extends TextFileOperator implements IOffHeapContentReader {
+
+    /**
+     * data given by reader behind (ie. decoded) is kept in pages of direct buffers (slabs allocated when
+     * needed, up to maxBytes), so cached notes add nothing to heap or collector's work - they are streamed
+     * straight from those pages and copied into heap only when bytes or text are asked for; least recently
+     * read files are evicted to make room (file being read is pinned), cached data is valid while file has
+     * the same size & modification time, lines and data too large to be cached are read by reader behind
+     */
+
+    private static final int PAGE_SIZE = 64 * 1024;
+    private static final int PAGES_PER_SLAB = 1024;  // 64 MiB
+
+    private final IContentReader<String> reader;
+    private final int pagesCount;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final ByteBuffer[] slabs;
+    private final int[] freePages;  // stack of released pages
+    private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(64, 0.75f, true);
+
+    private int freePagesCount;
+    private int nextPage;  // pages from here up weren't used yet
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public static IOffHeapContentReader getInstance(IContentReader<String> reader, Charset charset,
+                                                    long maxBytes) {
+        return new OffHeapContentReader(reader, charset, maxBytes);
+    }
+
+    private OffHeapContentReader(IContentReader<String> reader, Charset charset, long maxBytes) {
+        super(charset);
+        this.reader = reader;
+        this.pagesCount = (int) Math.min(Integer.MAX_VALUE, Math.max(0, maxBytes) / PAGE_SIZE);
+        this.maxBytes = (long) pagesCount * PAGE_SIZE;
+        this.maxEntryBytes = Math.min(this.maxBytes / 4, Integer.MAX_VALUE);  // single file can't flush all
+        this.slabs = new ByteBuffer[(pagesCount + PAGES_PER_SLAB - 1) / PAGES_PER_SLAB];
+        this.freePages = new int[pagesCount];
+    }
+
+    @Override
+    public String readContent(String filePath) throws IOException {
+        CachedFile cached = pin(filePath);
+        if(cached == null) {
+            return reader.readContent(filePath);
+        }
+        try {
+            byte[] data = copy(cached, 0, (int) cached.size);
+            return unifyLinesEnds(getEncoding().newDecoder().decode(ByteBuffer.wrap(data)));
+        } finally {
+            unpin(cached);
+        }
+    }
+
+    @Override
+    public byte[] readContentAsBytes(String filePath) throws IOException {
+        CachedFile cached = pin(filePath);
+        if(cached == null) {
+            return reader.readContentAsBytes(filePath);
+        }
+        try {
+            return copy(cached, 0, (int) cached.size);
+        } finally {
+            unpin(cached);
+        }
+    }
+
+    @Override
+    public ByteBuffer readContentAsBuffer(String filePath) throws IOException {
+        // copy - pages are given to other files after eviction, view of them could change under its user
+        return ByteBuffer.wrap(readContentAsBytes(filePath)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public long readContent(String filePath, WritableByteChannel target) throws IOException {
+        CachedFile cached = pin(filePath);
+        if(cached == null) {
+            return reader.readContent(filePath, target);
+        }
+        try {
+            long written = 0;
+            for(int i = 0; i < cached.pages.length; i++) {
+                ByteBuffer page = page(cached.pages[i], pageLength(cached, i));
+                while(page.hasRemaining()) {
+                    written += target.write(page);
+                }
+            }
+            return written;
+        } finally {
+            unpin(cached);
+        }
+    }
+
+    @Override
+    public byte[] readContent(String filePath, long offset, int length) throws IOException {
+        if(offset < 0 || length < 0) {
+            throw new IOException("Offset and length can't be negative!");
+        }
+        CachedFile cached = pin(filePath);
+        if(cached == null) {
+            return reader.readContent(filePath, offset, length);
+        }
+        try {
+            int start = (int) Math.min(offset, cached.size);
+            int end = (int) Math.min((long) start + length, cached.size);
+            return copy(cached, start, end - start);
+        } finally {
+            unpin(cached);
+        }
+    }
+
+    @Override
+    public String readLines(String filePath, int firstLine, int lineCount) throws IOException {
+        return reader.readLines(filePath, firstLine, lineCount);  // located by index - reads only the lines
+    }
+
+    @Override
+    public synchronized long getHitsCount() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMissesCount() {
+        return misses;
+    }
+
+    @Override
+    public synchronized long getEvictionsCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized long getUsedBytes() {
+        return (long) (nextPage - freePagesCount) * PAGE_SIZE;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private CachedFile pin(String filePath) throws IOException {
+        // null if file isn't (and can't be) cached - reader behind reads it
+        Path path = Paths.get(filePath);
+        long size;
+        long modificationTime;
+        try {
+            size = Files.size(path);
+            modificationTime = Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException ex) {
+            synchronized (this) {
+                discard(files.remove(filePath));
+            }
+            return null;
+        }
+        synchronized (this) {
+            CachedFile cached = files.get(filePath);
+            if(cached != null && cached.fileSize == size && cached.modificationTime == modificationTime) {
+                if(cached.isTooLarge) {
+                    misses++;
+                    return null;
+                }
+                hits++;
+                cached.readers++;
+                return cached;
+            }
+            misses++;
+            discard(files.remove(filePath));  // changed file
+        }
+        // data is at least as large as file which holds it (encoded one is smaller)
+        return size <= maxEntryBytes ? load(path, filePath, size, modificationTime) : null;
+    }
+
+    private synchronized void unpin(CachedFile cached) {
+        cached.readers--;
+        if(cached.isEvicted && cached.readers == 0) {
+            releasePages(cached.pages);
+        }
+    }
+
+    private CachedFile load(Path path, String filePath, long fileSize, long modificationTime) {
+        PagesWriter writer = new PagesWriter();
+        boolean isLoaded = false;
+        try {
+            reader.readContent(filePath, writer);
+            isLoaded = Files.size(path) == fileSize
+                    && Files.getLastModifiedTime(path).toMillis() == modificationTime;
+        } catch (IOException ignored) {
+            // read again by reader behind - it reports the failure
+        }
+        synchronized (this) {
+            if(! isLoaded || (writer.isOverflow && ! writer.isTooLarge) ) {
+                releasePages(writer.getPages());
+                return null;
+            }
+            CachedFile loaded = new CachedFile(writer.length, fileSize, modificationTime, writer.getPages());
+            loaded.isTooLarge = writer.isTooLarge;  // remembered - isn't decoded twice at every read
+            discard(files.put(filePath, loaded));  // concurrently loaded copy
+            if(loaded.isTooLarge) {
+                return null;
+            }
+            loaded.readers = 1;
+            return loaded;
+        }
+    }
+
+    private byte[] copy(CachedFile cached, int offset, int length) {
+        byte[] data = new byte[length];
+        int copied = 0;
+        int pageIndex = offset / PAGE_SIZE;
+        int pageOffset = offset % PAGE_SIZE;
+        while(copied < length) {
+            ByteBuffer page = page(cached.pages[pageIndex], pageLength(cached, pageIndex));
+            page.position(pageOffset);
+            int count = Math.min(page.remaining(), length - copied);
+            page.get(data, copied, count);
+            copied += count;
+            pageIndex++;
+            pageOffset = 0;
+        }
+        return data;
+    }
+
+    private class PagesWriter implements WritableByteChannel {
+
+        // data written by reader behind goes into pages reserved one by one
+
+        private int[] pages = new int[8];
+        private int pagesCount;
+        private ByteBuffer page;
+        private long length;
+        private boolean isOverflow;
+        private boolean isTooLarge;  // not just out of free pages
+
+        @Override
+        public int write(ByteBuffer source) {
+            int count = source.remaining();
+            if(! isOverflow && length + count > maxEntryBytes) {
+                isOverflow = isTooLarge = true;
+            }
+            while(! isOverflow && source.hasRemaining()) {
+                if(page == null || ! page.hasRemaining()) {
+                    isOverflow = ! nextPage();
+                    continue;
+                }
+                ByteBuffer part = source.duplicate();
+                part.limit(part.position() + Math.min(page.remaining(), source.remaining()));
+                page.put(part);
+                source.position(part.position());
+            }
+            source.position(source.limit());  // overflowing data is dropped
+            length += count;
+            return count;
+        }
+
+        private boolean nextPage() {
+            int[] reserved = reservePages(1);
+            if(reserved == null) {
+                return false;  // the rest is being read
+            }
+            if(pagesCount == pages.length) {
+                pages = Arrays.copyOf(pages, pagesCount * 2);
+            }
+            pages[pagesCount++] = reserved[0];
+            page = page(reserved[0], PAGE_SIZE);
+            return true;
+        }
+
+        private int[] getPages() {
+            if(isTooLarge) {
+                synchronized (OffHeapContentReader.this) {
+                    releasePages(Arrays.copyOf(pages, pagesCount));
+                }
+                pagesCount = 0;
+            }
+            return Arrays.copyOf(pages, pagesCount);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private synchronized int[] reservePages(int count) {
+        if(count > pagesCount) {
+            return null;
+        }
+        while(freePagesCount + pagesCount - nextPage < count) {
+            if(! evictEldest() ) {
+                return null;
+            }
+        }
+        int[] pages = new int[count];
+        for(int i = 0; i < count; i++) {
+            pages[i] = freePagesCount > 0 ? freePages[--freePagesCount] : takeNextPage();
+        }
+        return pages;
+    }
+
+    private int takeNextPage() {
+        int slabIndex = nextPage / PAGES_PER_SLAB;
+        if(slabs[slabIndex] == null) {
+            int slabPages = Math.min(PAGES_PER_SLAB, pagesCount - slabIndex * PAGES_PER_SLAB);
+            slabs[slabIndex] = ByteBuffer.allocateDirect(slabPages * PAGE_SIZE);
+        }
+        return nextPage++;
+    }
+
+    private boolean evictEldest() {
+        Iterator<CachedFile> iterator = files.values().iterator();
+        while(iterator.hasNext()) {
+            CachedFile cached = iterator.next();
+            if(cached.readers == 0) {
+                iterator.remove();
+                evictions++;
+                discard(cached);
+                return true;
+            }
+        }
+        return false;  // everything is being read
+    }
+
+    private void discard(CachedFile cached) {
+        if(cached == null) {
+            return;
+        }
+        cached.isEvicted = true;
+        if(cached.readers == 0) {
+            releasePages(cached.pages);
+        }
+    }
+
+    private void releasePages(int[] pages) {
+        for(int page : pages) {
+            freePages[freePagesCount++] = page;
+        }
+    }
+
+    private ByteBuffer page(int page, int length) {
+        ByteBuffer slab = slabs[page / PAGES_PER_SLAB].duplicate();  // slab itself is never moved
+        int position = (page % PAGES_PER_SLAB) * PAGE_SIZE;
+        slab.position(position);
+        slab.limit(position + length);
+        return slab.slice();
+    }
+
+    private int pageLength(CachedFile cached, int pageIndex) {
+        return (int) Math.min(PAGE_SIZE, cached.size - (long) pageIndex * PAGE_SIZE);
+    }
+
+    private static class CachedFile {
+
+        private final long size;  // of cached data
+        private final long fileSize;
+        private final long modificationTime;
+        private final int[] pages;
+        private int readers;
+        private boolean isEvicted;
+        private boolean isTooLarge;  // nothing is cached
+
+        private CachedFile(long size, long fileSize, long modificationTime, int[] pages) {
+            this.size = size;
+            this.fileSize = fileSize;
+            this.modificationTime = modificationTime;
+            this.pages = pages;
+        }
+    }
+}
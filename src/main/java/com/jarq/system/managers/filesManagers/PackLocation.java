@@ -0,0 +1,35 @@
+package com.jarq.system.managers.filesManagers;
+
+public class PackLocation {
+
+    private final String packPath;
+    private final long offset;
+    private final int length;
+
+    PackLocation(String packPath, long offset, int length) {
+        this.packPath = packPath;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public String getPackPath() {
+        return packPath;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public String toString() {
+        return "PackLocation{" +
+                "packPath='" + packPath + '\'' +
+                ", offset=" + offset +
+                ", length=" + length +
+                '}';
+    }
+}
@@ -0,0 +1,175 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PackStore implements IPackStore {
+
+    /**
+     * append-only segment files - small versions share one file instead of a file (and directory) each,
+     * pack is closed for appends when it reaches maxPackSize, dead data is reclaimed by compaction
+     */
+
+    private static final Pattern PACK_NAME = Pattern.compile("pack-(\\d+)\\.pack");
+    private final String packsDir;
+    private final long maxPackSize;
+    private final IDurabilityPolicy durabilityPolicy;
+    private String activePack;
+    private int activePackNumber;
+
+    public static IPackStore getInstance(IRepositoryPath repositoryPath, long maxPackSize) {
+        return new PackStore(repositoryPath, maxPackSize, DurabilityPolicy.osManaged());
+    }
+
+    public static IPackStore getInstance(IRepositoryPath repositoryPath, long maxPackSize,
+                                         IDurabilityPolicy durabilityPolicy) {
+        return new PackStore(repositoryPath, maxPackSize, durabilityPolicy);
+    }
+
+    private PackStore(IRepositoryPath repositoryPath, long maxPackSize, IDurabilityPolicy durabilityPolicy) {
+        this.packsDir = repositoryPath.packsDir();
+        this.maxPackSize = maxPackSize;
+        this.durabilityPolicy = durabilityPolicy;
+    }
+
+    @Override
+    public synchronized PackLocation append(byte[] data) throws IOException {
+        Path path = Paths.get(findPackWithSpace(data.length));
+        boolean isNew = ! Files.exists(path);
+        PackLocation location;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long offset = channel.size();
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            durabilityPolicy.sync(channel, path);
+            location = new PackLocation(activePack, offset, data.length);
+        }
+        if(isNew) {
+            durabilityPolicy.syncDirectory(path.getParent());
+        }
+        return location;
+    }
+
+    @Override
+    public byte[] read(String packPath, long offset, int length) throws IOException {
+        byte[] data = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try (FileChannel channel = FileChannel.open(Paths.get(packPath), StandardOpenOption.READ)) {
+            while(buffer.hasRemaining()) {
+                if(channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Pack is shorter than its index: " + packPath);
+                }
+            }
+        }
+        return data;
+    }
+
+    @Override
+    public synchronized String getActivePack() throws IOException {
+        if(activePack == null) {
+            loadLatestPack();
+        }
+        return activePack;
+    }
+
+    @Override
+    public List<String> importPacks() throws IOException {
+        List<String> packs = new ArrayList<>();
+        Path directory = Paths.get(packsDir);
+        if(! Files.isDirectory(directory) ) {
+            return packs;
+        }
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+            for(Path path : paths) {
+                if( PACK_NAME.matcher(path.getFileName().toString()).matches() ) {
+                    packs.add(packsDir + path.getFileName());
+                }
+            }
+        }
+        Collections.sort(packs);
+        return packs;
+    }
+
+    @Override
+    public long size(String packPath) throws IOException {
+        return Files.size(Paths.get(packPath));
+    }
+
+    @Override
+    public synchronized boolean truncate(String packPath, long size) throws IOException {
+        Path path = Paths.get(packPath);
+        if(! Files.exists(path) || size(packPath) <= size) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            durabilityPolicy.sync(channel, path);
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized boolean remove(String packPath) throws IOException {
+        if(packPath.equals(getActivePack()) || ! PACK_NAME.matcher(Paths.get(packPath).getFileName()
+                .toString()).matches() ) {
+            return false;
+        }
+        // blobs copied out of removed pack have to reach the disk before their only other copy is gone -
+        // forcing a pack without unsynced data is cheap
+        durabilityPolicy.flush();
+        for(String pack : importPacks()) {
+            if(! pack.equals(packPath) ) {
+                force(Paths.get(pack));
+            }
+        }
+        return Files.deleteIfExists(Paths.get(packPath));
+    }
+
+    private void force(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private String findPackWithSpace(int dataLength) throws IOException {
+        if(activePack == null) {
+            loadLatestPack();
+        }
+        if(activePack == null) {
+            Files.createDirectories(Paths.get(packsDir));
+            activatePack(1);
+        } else if(Files.exists(Paths.get(activePack)) && size(activePack) > 0
+                && size(activePack) + dataLength > maxPackSize) {
+            activatePack(activePackNumber + 1);
+        }
+        return activePack;
+    }
+
+    private void loadLatestPack() throws IOException {
+        List<String> packs = importPacks();
+        if(! packs.isEmpty() ) {
+            Matcher matcher = PACK_NAME.matcher(Paths.get(packs.get(packs.size() - 1)).getFileName().toString());
+            if( matcher.matches() ) {
+                activatePack(Integer.parseInt(matcher.group(1)));
+            }
+        }
+    }
+
+    private void activatePack(int packNumber) {
+        activePackNumber = packNumber;
+        activePack = String.format("%spack-%06d.pack", packsDir, packNumber);
+    }
+}
@@ -68,6 +68,11 @@ public class RepositoryManager implements IRepositoryManager {
     @Override
     public boolean removeFile(IContent content) throws IOException {
         String filepath = content.getFilepath();
+        if( filepath.startsWith(repositoryPath.blobsDir()) ) {
+            // shared blob - reference is dropped with contents row, unused blobs are collected later
+            return true;
+        }
+        deleteIfExists(Paths.get(filepath + LineIndex.EXTENSION));
         Path path = Paths.get(filepath);
         return deleteIfExists(path);
     }
@@ -0,0 +1,36 @@
+package com.jarq.system.managers.filesManagers;
+
+public class StoredBlob {
+
+    private final String hash;
+    private final String filepath;
+    private final boolean isNew;
+
+    StoredBlob(String hash, String filepath, boolean isNew) {
+        this.hash = hash;
+        this.filepath = filepath;
+        this.isNew = isNew;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getFilepath() {
+        return filepath;
+    }
+
+    // false when file was already there
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @Override
+    public String toString() {
+        return "StoredBlob{" +
+                "hash='" + hash + '\'' +
+                ", filepath='" + filepath + '\'' +
+                ", isNew=" + isNew +
+                '}';
+    }
+}
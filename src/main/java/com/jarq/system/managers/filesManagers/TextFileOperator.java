@@ -1,6 +1,18 @@
 package com.jarq.system.managers.filesManagers;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 public abstract class TextFileOperator {
 
@@ -13,4 +25,116 @@ public abstract class TextFileOperator {
     protected Charset getEncoding() {
         return ENCODING;
     }
+
+    protected interface FileFiller {
+        // writes data to (temporary) file - returns number of written bytes
+        long fill(FileChannel channel) throws IOException;
+    }
+
+    protected long writeAtomically(Path path, IDurabilityPolicy durabilityPolicy, FileFiller filler)
+            throws IOException {
+        // temporary file is synced (by policy) and renamed - readers and crash see old or whole new file
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            long written;
+            try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE)) {
+                written = filler.fill(channel);
+                durabilityPolicy.sync(channel, path);
+            }
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE);
+            durabilityPolicy.syncDirectory(directory);
+            return written;
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    protected long writeAtomically(Path path, IDurabilityPolicy durabilityPolicy, byte[] data)
+            throws IOException {
+        return writeAtomically(path, durabilityPolicy, channel -> ContentChannels.write(data, channel));
+    }
+
+    protected long writeAtomically(Path path, IDurabilityPolicy durabilityPolicy, ReadableByteChannel source)
+            throws IOException {
+        return writeAtomically(path, durabilityPolicy, channel -> ContentChannels.copy(source, channel));
+    }
+
+    protected String unifyLinesEnds(CharBuffer text) {
+        // the same text as TextReader returns - every line ends with '\n', the last one is dropped
+        int length = text.remaining();
+        boolean hasCarriageReturn = false;
+        for(int i = 0; i < length && ! hasCarriageReturn; i++) {
+            hasCarriageReturn = text.get(i) == '\r';
+        }
+        if(! hasCarriageReturn ) {
+            boolean endsWithNewLine = length > 0 && text.get(length - 1) == '\n';
+            return text.subSequence(0, endsWithNewLine ? length - 1 : length).toString();
+        }
+        StringBuilder stringBuilder = new StringBuilder(length);
+        for(int i = 0; i < length; i++) {
+            char character = text.get(i);
+            if(character == '\r') {
+                character = '\n';
+                if(i + 1 < length && text.get(i + 1) == '\n') {
+                    i++;
+                }
+            }
+            stringBuilder.append(character);
+        }
+        int len = stringBuilder.length();
+        if(len > 0 && stringBuilder.charAt(len - 1) == '\n') {
+            stringBuilder.delete(len - 1, len);
+        }
+        return stringBuilder.toString();
+    }
+
+    protected byte[] readRange(String filePath, long offset, int length) throws IOException {
+        // positional read - nothing before offset is touched
+        checkRange(offset, length);
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long available = Math.max(0, channel.size() - offset);
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(length, available));
+            while(buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) >= 0) {
+                // reads until buffer is full or file ends
+            }
+            return buffer.hasRemaining() ? Arrays.copyOf(buffer.array(), buffer.position()) : buffer.array();
+        }
+    }
+
+    protected byte[] readRange(InputStream data, long offset, int length) throws IOException {
+        // for data which can't be read at position - skipped part is still decoded
+        checkRange(offset, length);
+        long skipped = 0;
+        while(skipped < offset) {
+            long count = data.skip(offset - skipped);
+            if(count <= 0) {
+                if(data.read() < 0) {
+                    return new byte[0];
+                }
+                count = 1;
+            }
+            skipped += count;
+        }
+        byte[] range = new byte[length];
+        int read = 0;
+        int count;
+        while(read < length && (count = data.read(range, read, length - read)) >= 0) {
+            read += count;
+        }
+        return read < length ? Arrays.copyOf(range, read) : range;
+    }
+
+    protected String decodeLines(byte[] lines) {
+        // lines end with '\n' whatever file uses
+        String text = new String(lines, ENCODING).replace("\r\n", "\n");
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    private void checkRange(long offset, int length) throws IOException {
+        if(offset < 0 || length < 0) {
+            throw new IOException("Offset and length can't be negative!");
+        }
+    }
 }
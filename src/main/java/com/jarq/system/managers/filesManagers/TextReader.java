@@ -1,19 +1,26 @@
 package com.jarq.system.managers.filesManagers;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class TextReader extends TextFileOperator implements IContentReader<String> {
 
+    private final ILineIndex lineIndex;
+
     public static IContentReader<String> getInstance(Charset charset) {
         return new TextReader(charset);
     }
 
     private TextReader(Charset charset) {
         super(charset);
+        this.lineIndex = LineIndex.getInstance();
     }
 
     @Override
@@ -37,4 +44,27 @@ public class TextReader extends TextFileOperator implements IContentReader<Strin
         Path path = Paths.get(filePath);
         return Files.readAllBytes(path);
     }
+
+    @Override
+    public ByteBuffer readContentAsBuffer(String filePath) throws IOException {
+        return ByteBuffer.wrap(readContentAsBytes(filePath)).asReadOnlyBuffer();
+    }
+
+    @Override
+    public long readContent(String filePath, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            return ContentChannels.transfer(channel, target);
+        }
+    }
+
+    @Override
+    public byte[] readContent(String filePath, long offset, int length) throws IOException {
+        return readRange(filePath, offset, length);
+    }
+
+    @Override
+    public String readLines(String filePath, int firstLine, int lineCount) throws IOException {
+        LineRange range = lineIndex.locate(filePath, firstLine, lineCount);
+        return decodeLines(readRange(filePath, range.getOffset(), range.getLength()));
+    }
 }
@@ -1,37 +1,62 @@
 package com.jarq.system.managers.filesManagers;
 
-import java.io.BufferedWriter;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class TextWriter extends TextFileOperator implements IContentWriter<String> {
 
+    // files are replaced atomically (temporary file renamed) - crash never leaves half written one
+
+    private final IDurabilityPolicy durabilityPolicy;
+
     public static IContentWriter<String> getInstance(Charset charset) {
-        return new TextWriter(charset);
+        return new TextWriter(charset, DurabilityPolicy.osManaged());
     }
 
-    private TextWriter(Charset charset) {
+    public static IContentWriter<String> getInstance(Charset charset, IDurabilityPolicy durabilityPolicy) {
+        return new TextWriter(charset, durabilityPolicy);
+    }
+
+    private TextWriter(Charset charset, IDurabilityPolicy durabilityPolicy) {
         super(charset);
+        this.durabilityPolicy = durabilityPolicy;
     }
 
     @Override
     public boolean writeContent(String filePath, String content) throws IOException {
+        return writeContent(filePath, content.getBytes(getEncoding()));
+    }
+
+    @Override
+    public boolean writeContent(String filePath, byte[] content) throws IOException {
+        writeAtomically(Paths.get(filePath), durabilityPolicy, content);
+        return true;
+    }
+
+    @Override
+    public boolean appendContent(String filePath, String content) throws IOException {
+        return appendContent(filePath, content.getBytes(getEncoding()));
+    }
+
+    @Override
+    public boolean appendContent(String filePath, byte[] content) throws IOException {
+        // appended in place - crash can leave only part of new data
         Path path = Paths.get(filePath);
-        try (BufferedWriter writer = Files.newBufferedWriter(path, getEncoding()) ) {
-                writer.write(content);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ContentChannels.write(content, channel);
+            durabilityPolicy.sync(channel, path);
         }
         return true;
     }
 
     @Override
-    public boolean writeContent(String filePath, byte[] content) throws IOException {
-        try (FileOutputStream stream = new FileOutputStream(filePath) ) {
-            stream.write(content);
-            return true;
-        }
+    public long writeContent(String filePath, ReadableByteChannel source) throws IOException {
+        return writeAtomically(Paths.get(filePath), durabilityPolicy, source);
     }
 }
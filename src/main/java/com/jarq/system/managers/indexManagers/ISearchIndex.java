@@ -0,0 +1,44 @@
+package com.jarq.system.managers.indexManagers;
+
+import com.jarq.system.helpers.tokenizer.TermCounter;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.List;
+
+public interface ISearchIndex {
+
+    /**
+     * full-text index of the newest version of every text - queries are answered from index files,
+     * notes aren't read; version is any number which changes with text's data (ie. 64 bits of hash of filepath)
+     */
+
+    // channel counting terms of text's data - given to put afterwards
+    TermCounter newTermCounter();
+
+    // replaces indexed version of text
+    void put(int textId, int userId, int repositoryId, long version, TermCounter terms) throws IOException;
+
+    boolean remove(int textId) throws IOException;
+
+    // removes texts not in given set - returns number of removed ones
+    int retainAll(BitSet textIds) throws IOException;
+
+    // true if given version of text is indexed
+    boolean isCurrent(int textId, long version) throws IOException;
+
+    // best matching texts first (BM25)
+    List<SearchHit> searchByUser(int userId, String query, int limit) throws IOException;
+
+    List<SearchHit> searchByRepository(int repositoryId, String query, int limit) throws IOException;
+
+    long getTextsCount() throws IOException;
+
+    int getSegmentsCount() throws IOException;
+
+    // buffered changes are written to segment
+    void flush() throws IOException;
+
+    // flushes and stops background merging
+    void close() throws IOException;
+}
@@ -0,0 +1,94 @@
+package com.jarq.system.managers.indexManagers;
+
+import com.jarq.system.managers.filesManagers.IDurabilityPolicy;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+class IndexJournal {
+
+    /**
+     * changes of index not flushed to segment yet - records (length, checksum, data) are appended,
+     * replayed at open and dropped by flush; torn record left by crash ends the journal
+     */
+
+    private static final int RECORD_HEADER_LENGTH = 2 * Integer.BYTES;
+
+    private final Path path;
+    private final IDurabilityPolicy durabilityPolicy;
+
+    interface RecordHandler {
+        void handle(DataInputStream record) throws IOException;
+    }
+
+    IndexJournal(Path path, IDurabilityPolicy durabilityPolicy) {
+        this.path = path;
+        this.durabilityPolicy = durabilityPolicy;
+    }
+
+    void append(byte[] record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_LENGTH + record.length);
+        buffer.putInt(record.length)
+                .putInt(checksum(record, 0, record.length))
+                .put(record);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            durabilityPolicy.sync(channel, path);
+        }
+    }
+
+    // returns number of replayed records
+    int replay(RecordHandler handler) throws IOException {
+        if(! Files.exists(path) ) {
+            return 0;
+        }
+        byte[] data = Files.readAllBytes(path);
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int count = 0;
+        while(buffer.remaining() >= RECORD_HEADER_LENGTH) {
+            int length = buffer.getInt(buffer.position());
+            int checksum = buffer.getInt(buffer.position() + Integer.BYTES);
+            int start = buffer.position() + RECORD_HEADER_LENGTH;
+            if(length < 0 || length > data.length - start || checksum(data, start, length) != checksum) {
+                break;
+            }
+            handler.handle(new DataInputStream(new ByteArrayInputStream(data, start, length)));
+            buffer.position(start + length);
+            count++;
+        }
+        if(buffer.hasRemaining()) {
+            truncate(buffer.position());  // the rest was torn by crash
+        }
+        return count;
+    }
+
+    void clear() throws IOException {
+        if( Files.exists(path) ) {
+            truncate(0);
+        }
+    }
+
+    private void truncate(long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            durabilityPolicy.sync(channel, path);
+        }
+    }
+
+    private int checksum(byte[] data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        return (int) crc.getValue();
+    }
+}
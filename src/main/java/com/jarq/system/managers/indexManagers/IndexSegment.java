@@ -0,0 +1,297 @@
+package com.jarq.system.managers.indexManagers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+class IndexSegment {
+
+    /**
+     * immutable segment file: header, table of texts (ascending ids; id, user id, repository id, long version, length), postings
+     * of every term (ordinal deltas & term frequencies as varints) and dictionary of terms sorted
+     * by their utf-8 bytes (length, bytes, document frequency, postings offset); file is mapped,
+     * texts table and every TERMS_INDEX_INTERVAL-th term are kept in heap, deleted texts are masked
+     */
+
+    static final int MAGIC = 0x4a514958;
+    static final int FORMAT = 2;
+    static final int HEADER_LENGTH = 4 * Integer.BYTES + 2 * Long.BYTES;
+    static final int TERMS_INDEX_INTERVAL = 32;
+
+    private final Path path;
+    private final ByteBuffer data;
+    private final int[] textIds;
+    private final int[] userIds;
+    private final int[] repositoryIds;
+    private final long[] versions;
+    private final int[] lengths;
+    private final int termsCount;
+    private final int postingsOffset;
+    private final int dictionaryOffset;
+    private final byte[][] indexedTerms;
+    private final int[] indexedPositions;
+    private final BitSet deleted;
+
+    static IndexSegment open(Path path, BitSet deleted) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE || channel.size() < HEADER_LENGTH) {
+                throw new IOException("Not a segment of search index: " + path);
+            }
+            // mapping stays valid after channel is closed
+            return new IndexSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), deleted);
+        }
+    }
+
+    private IndexSegment(Path path, ByteBuffer data, BitSet deleted) throws IOException {
+        this.path = path;
+        this.data = data;
+        this.deleted = deleted;
+        if(data.getInt(0) != MAGIC || data.getInt(Integer.BYTES) != FORMAT) {
+            throw new IOException("Not a segment of search index: " + path);
+        }
+        int textsCount = data.getInt(2 * Integer.BYTES);
+        termsCount = data.getInt(3 * Integer.BYTES);
+        postingsOffset = (int) data.getLong(4 * Integer.BYTES);
+        dictionaryOffset = (int) data.getLong(4 * Integer.BYTES + Long.BYTES);
+        textIds = new int[textsCount];
+        userIds = new int[textsCount];
+        repositoryIds = new int[textsCount];
+        versions = new long[textsCount];
+        lengths = new int[textsCount];
+        ByteBuffer texts = data.duplicate();
+        texts.position(HEADER_LENGTH);
+        for(int i = 0; i < textsCount; i++) {
+            textIds[i] = texts.getInt();
+            userIds[i] = texts.getInt();
+            repositoryIds[i] = texts.getInt();
+            versions[i] = texts.getLong();
+            lengths[i] = texts.getInt();
+        }
+        int indexedCount = (termsCount + TERMS_INDEX_INTERVAL - 1) / TERMS_INDEX_INTERVAL;
+        indexedTerms = new byte[indexedCount][];
+        indexedPositions = new int[indexedCount];
+        TermsCursor terms = terms();
+        for(int i = 0; terms.next(); i++) {
+            if(i % TERMS_INDEX_INTERVAL == 0) {
+                indexedTerms[i / TERMS_INDEX_INTERVAL] = terms.getTerm();
+                indexedPositions[i / TERMS_INDEX_INTERVAL] = terms.getEntryPosition();
+            }
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    // bytes of segment file
+    long getSize() {
+        return data.capacity();
+    }
+
+    int getTextsCount() {
+        return textIds.length;
+    }
+
+    int getTextId(int ordinal) {
+        return textIds[ordinal];
+    }
+
+    int getUserId(int ordinal) {
+        return userIds[ordinal];
+    }
+
+    int getRepositoryId(int ordinal) {
+        return repositoryIds[ordinal];
+    }
+
+    long getVersion(int ordinal) {
+        return versions[ordinal];
+    }
+
+    int getLength(int ordinal) {
+        return lengths[ordinal];
+    }
+
+    // guarded by index lock
+    BitSet getDeleted() {
+        return deleted;
+    }
+
+    boolean isLive(int ordinal) {
+        return ! deleted.get(ordinal);
+    }
+
+    // ordinal of text or -1
+    int find(int textId) {
+        int ordinal = Arrays.binarySearch(textIds, textId);
+        return ordinal >= 0 ? ordinal : -1;
+    }
+
+    // postings of term or null
+    PostingsCursor postings(byte[] term) {
+        int block = findBlock(term);
+        if(block < 0) {
+            return null;
+        }
+        TermsCursor terms = new TermsCursor(indexedPositions[block]);
+        int remaining = Math.min(TERMS_INDEX_INTERVAL, termsCount - block * TERMS_INDEX_INTERVAL);
+        for(int i = 0; i < remaining && terms.next(); i++) {
+            int comparison = terms.compareTerm(term);
+            if(comparison == 0) {
+                return terms.getPostings();
+            }
+            if(comparison > 0) {
+                return null;  // dictionary is sorted
+            }
+        }
+        return null;
+    }
+
+    TermsCursor terms() {
+        return new TermsCursor(dictionaryOffset);
+    }
+
+    private int findBlock(byte[] term) {
+        // the last indexed term not greater than given one
+        int low = 0;
+        int high = indexedTerms.length - 1;
+        int found = -1;
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            if(compare(indexedTerms[middle], term) <= 0) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    static int compare(byte[] first, byte[] second) {
+        // unsigned bytes - utf-8 order is the order of code points
+        int length = Math.min(first.length, second.length);
+        for(int i = 0; i < length; i++) {
+            int difference = (first[i] & 0xff) - (second[i] & 0xff);
+            if(difference != 0) {
+                return difference;
+            }
+        }
+        return first.length - second.length;
+    }
+
+    static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte part;
+        do {
+            part = buffer.get();
+            value |= (part & 0x7f) << shift;
+            shift += 7;
+        } while((part & 0x80) != 0);
+        return value;
+    }
+
+    class TermsCursor {
+
+        // reads dictionary entries one by one
+
+        private final ByteBuffer entries;
+        private int entryPosition;
+        private int termPosition;
+        private int termLength;
+        private int frequency;
+        private int postingsPosition;
+
+        private TermsCursor(int position) {
+            entries = data.duplicate();
+            entries.position(position);
+        }
+
+        boolean next() {
+            if(entries.position() >= data.limit()) {
+                return false;
+            }
+            entryPosition = entries.position();
+            termLength = readVarInt(entries);
+            termPosition = entries.position();
+            entries.position(termPosition + termLength);
+            frequency = readVarInt(entries);
+            postingsPosition = postingsOffset + readVarInt(entries);
+            return true;
+        }
+
+        byte[] getTerm() {
+            byte[] term = new byte[termLength];
+            ByteBuffer bytes = data.duplicate();
+            bytes.position(termPosition);
+            bytes.get(term);
+            return term;
+        }
+
+        int compareTerm(byte[] term) {
+            int length = Math.min(termLength, term.length);
+            for(int i = 0; i < length; i++) {
+                int difference = (data.get(termPosition + i) & 0xff) - (term[i] & 0xff);
+                if(difference != 0) {
+                    return difference;
+                }
+            }
+            return termLength - term.length;
+        }
+
+        // number of texts with the term (deleted ones too)
+        int getFrequency() {
+            return frequency;
+        }
+
+        PostingsCursor getPostings() {
+            return new PostingsCursor(postingsPosition, frequency);
+        }
+
+        private int getEntryPosition() {
+            return entryPosition;
+        }
+    }
+
+    class PostingsCursor {
+
+        private final ByteBuffer postings;
+        private int remaining;
+        private int ordinal = -1;
+        private int frequency;
+
+        private PostingsCursor(int position, int count) {
+            postings = data.duplicate();
+            postings.position(position);
+            remaining = count;
+        }
+
+        boolean next() {
+            if(remaining == 0) {
+                return false;
+            }
+            remaining--;
+            ordinal += readVarInt(postings) + 1;
+            frequency = readVarInt(postings);
+            return true;
+        }
+
+        int getOrdinal() {
+            return ordinal;
+        }
+
+        int getFrequency() {
+            return frequency;
+        }
+
+        // postings not read yet
+        int getCount() {
+            return remaining;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.jarq.system.managers.indexManagers;
+
+public class SearchHit {
+
+    private final int textId;
+    private final double score;
+
+    SearchHit(int textId, double score) {
+        this.textId = textId;
+        this.score = score;
+    }
+
+    public int getTextId() {
+        return textId;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchHit{" +
+                "textId=" + textId +
+                ", score=" + score +
+                '}';
+    }
+}
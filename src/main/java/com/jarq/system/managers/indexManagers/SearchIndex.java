@@ -0,0 +1,837 @@
+package com.jarq.system.managers.indexManagers;
+
+import com.jarq.system.helpers.tokenizer.ITokenizer;
+import com.jarq.system.helpers.tokenizer.TermCounter;
+import com.jarq.system.managers.filesManagers.IDurabilityPolicy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+public class SearchIndex implements ISearchIndex {
+
+    /**
+     * recent changes are kept in heap (and journaled), flushed to immutable segment files when buffer
+     * is full, segments are merged in background when there are more than mergeFactor of them;
+     * replaced or removed texts are masked by deletion bits of their segment until merge drops them,
+     * manifest names live segments with their deletions - it's replaced at once by flush and merge,
+     * journal since the last flush is replayed at open
+     */
+
+    private static final String MANIFEST = "index.manifest";
+    private static final String JOURNAL = "index.journal";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.idx");
+    private static final int MANIFEST_MAGIC = 0x4a514d46;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int MAX_BUFFERED_TERMS = 1 << 20;  // terms of all buffered texts
+    private static final long MAX_SEGMENT_SIZE = 1L << 30;  // mapped at once
+    private static final double K1 = 1.2;  // term frequency saturation
+    private static final double B = 0.75;  // text length normalization
+
+    private final Path indexDir;
+    private final ITokenizer tokenizer;
+    private final IDurabilityPolicy durabilityPolicy;
+    private final int maxBufferedTexts;
+    private final int mergeFactor;
+    private final IndexJournal journal;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, BufferedText> buffer = new HashMap<>();
+    private final List<IndexSegment> segments = new ArrayList<>();
+    private final Object mergeMonitor = new Object();
+
+    private volatile boolean isOpen;
+    private volatile boolean isClosed;
+    private int nextSegmentNumber = 1;
+    private long textsCount;  // live ones
+    private long totalLength;
+    private long bufferedTermsCount;
+    private boolean isMergeRequested;
+    private Thread merger;
+
+    public static ISearchIndex getInstance(String indexDir, ITokenizer tokenizer,
+                                           IDurabilityPolicy durabilityPolicy) {
+        return new SearchIndex(indexDir, tokenizer, durabilityPolicy, 1024, 8);
+    }
+
+    public static ISearchIndex getInstance(String indexDir, ITokenizer tokenizer,
+                                           IDurabilityPolicy durabilityPolicy,
+                                           int maxBufferedTexts, int mergeFactor) {
+        return new SearchIndex(indexDir, tokenizer, durabilityPolicy, maxBufferedTexts, mergeFactor);
+    }
+
+    private SearchIndex(String indexDir, ITokenizer tokenizer, IDurabilityPolicy durabilityPolicy,
+                        int maxBufferedTexts, int mergeFactor) {
+        this.indexDir = Paths.get(indexDir);
+        this.tokenizer = tokenizer;
+        this.durabilityPolicy = durabilityPolicy;
+        this.maxBufferedTexts = Math.max(1, maxBufferedTexts);
+        this.mergeFactor = Math.max(2, mergeFactor);
+        this.journal = new IndexJournal(this.indexDir.resolve(JOURNAL), durabilityPolicy);
+    }
+
+    @Override
+    public TermCounter newTermCounter() {
+        return tokenizer.newTermCounter();
+    }
+
+    @Override
+    public void put(int textId, int userId, int repositoryId, long version, TermCounter terms) throws IOException {
+        ensureOpen();
+        BufferedText text = new BufferedText(textId, userId, repositoryId, version,
+                terms.getLength(), terms.getTerms());
+        byte[] record = encode(text);
+        lock.writeLock().lock();
+        try {
+            journal.append(record);
+            apply(text);
+            if( isBufferFull() ) {
+                flushBuffer();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(int textId) throws IOException {
+        ensureOpen();
+        lock.writeLock().lock();
+        try {
+            if(findVersion(textId) == null) {
+                return false;
+            }
+            journal.append(encodeRemove(textId));
+            return delete(textId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int retainAll(BitSet textIds) throws IOException {
+        ensureOpen();
+        lock.writeLock().lock();
+        try {
+            List<Integer> removed = new ArrayList<>();
+            for(int textId : buffer.keySet()) {
+                if(! textIds.get(textId) ) {
+                    removed.add(textId);
+                }
+            }
+            for(IndexSegment segment : segments) {
+                for(int ordinal = 0; ordinal < segment.getTextsCount(); ordinal++) {
+                    if(segment.isLive(ordinal) && ! textIds.get(segment.getTextId(ordinal)) ) {
+                        removed.add(segment.getTextId(ordinal));
+                    }
+                }
+            }
+            for(int textId : removed) {
+                journal.append(encodeRemove(textId));
+                delete(textId);
+            }
+            return removed.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean isCurrent(int textId, long version) throws IOException {
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            Long indexedVersion = findVersion(textId);
+            return indexedVersion != null && indexedVersion == version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<SearchHit> searchByUser(int userId, String query, int limit) throws IOException {
+        return search(query, limit, true, userId);
+    }
+
+    @Override
+    public List<SearchHit> searchByRepository(int repositoryId, String query, int limit) throws IOException {
+        return search(query, limit, false, repositoryId);
+    }
+
+    @Override
+    public long getTextsCount() throws IOException {
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            return textsCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getSegmentsCount() throws IOException {
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        lock.writeLock().lock();
+        try {
+            flushBuffer();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        Thread runningMerger;
+        synchronized (mergeMonitor) {
+            isClosed = true;
+            runningMerger = merger;
+            mergeMonitor.notifyAll();
+        }
+        if(runningMerger != null) {
+            try {
+                runningMerger.join();  // current merge is finished
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if(isOpen) {
+            flush();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if(isOpen) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if(! isOpen ) {
+                load();
+                isOpen = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(indexDir);
+        Set<String> liveSegments = new HashSet<>();
+        Path manifest = indexDir.resolve(MANIFEST);
+        if( Files.exists(manifest) ) {
+            try (DataInputStream input = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(manifest)))) {
+                if(input.readInt() != MANIFEST_MAGIC) {
+                    throw new IOException("Not a manifest of search index: " + manifest);
+                }
+                nextSegmentNumber = input.readInt();
+                int segmentsCount = input.readInt();
+                for(int i = 0; i < segmentsCount; i++) {
+                    String name = input.readUTF();
+                    long[] deleted = new long[input.readInt()];
+                    for(int j = 0; j < deleted.length; j++) {
+                        deleted[j] = input.readLong();
+                    }
+                    segments.add(IndexSegment.open(indexDir.resolve(name), BitSet.valueOf(deleted)));
+                    liveSegments.add(name);
+                }
+            }
+        }
+        removeStrayFiles(liveSegments);
+        for(IndexSegment segment : segments) {
+            for(int ordinal = 0; ordinal < segment.getTextsCount(); ordinal++) {
+                if( segment.isLive(ordinal) ) {
+                    textsCount++;
+                    totalLength += segment.getLength(ordinal);
+                }
+            }
+        }
+        journal.replay(this::replay);
+        if( isBufferFull() ) {
+            flushBuffer();
+        }
+    }
+
+    private void removeStrayFiles(Set<String> liveSegments) throws IOException {
+        // left by crash - segment written but not put into manifest, unfinished files
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(indexDir)) {
+            for(Path path : paths) {
+                String name = path.getFileName().toString();
+                if( name.endsWith(".tmp")
+                        || (SEGMENT_NAME.matcher(name).matches() && ! liveSegments.contains(name)) ) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private void replay(DataInputStream record) throws IOException {
+        byte operation = record.readByte();
+        int textId = record.readInt();
+        if(operation == REMOVE) {
+            delete(textId);
+            return;
+        }
+        int userId = record.readInt();
+        int repositoryId = record.readInt();
+        long version = record.readLong();
+        int length = record.readInt();
+        int termsCount = record.readInt();
+        Map<String, Integer> terms = new LinkedHashMap<>();
+        for(int i = 0; i < termsCount; i++) {
+            terms.put(record.readUTF(), record.readInt());
+        }
+        apply(new BufferedText(textId, userId, repositoryId, version, length, terms));
+    }
+
+    private byte[] encode(BufferedText text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeByte(PUT);
+        record.writeInt(text.textId);
+        record.writeInt(text.userId);
+        record.writeInt(text.repositoryId);
+        record.writeLong(text.version);
+        record.writeInt(text.length);
+        record.writeInt(text.terms.size());
+        for(Map.Entry<String, Integer> term : text.terms.entrySet()) {
+            record.writeUTF(term.getKey());
+            record.writeInt(term.getValue());
+        }
+        record.flush();
+        return bytes.toByteArray();
+    }
+
+    private byte[] encodeRemove(int textId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeByte(REMOVE);
+        record.writeInt(textId);
+        record.flush();
+        return bytes.toByteArray();
+    }
+
+    private void apply(BufferedText text) {
+        delete(text.textId);  // previous version
+        buffer.put(text.textId, text);
+        textsCount++;
+        totalLength += text.length;
+        bufferedTermsCount += text.terms.size();
+    }
+
+    private boolean delete(int textId) {
+        // text has one live copy at most
+        BufferedText buffered = buffer.remove(textId);
+        if(buffered != null) {
+            textsCount--;
+            totalLength -= buffered.length;
+            bufferedTermsCount -= buffered.terms.size();
+            return true;
+        }
+        for(IndexSegment segment : segments) {
+            int ordinal = segment.find(textId);
+            if(ordinal >= 0 && segment.isLive(ordinal) ) {
+                segment.getDeleted().set(ordinal);
+                textsCount--;
+                totalLength -= segment.getLength(ordinal);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Long findVersion(int textId) {
+        BufferedText buffered = buffer.get(textId);
+        if(buffered != null) {
+            return buffered.version;
+        }
+        for(IndexSegment segment : segments) {
+            int ordinal = segment.find(textId);
+            if(ordinal >= 0 && segment.isLive(ordinal) ) {
+                return segment.getVersion(ordinal);
+            }
+        }
+        return null;
+    }
+
+    private boolean isBufferFull() {
+        return buffer.size() >= maxBufferedTexts || bufferedTermsCount >= MAX_BUFFERED_TERMS;
+    }
+
+    private void flushBuffer() throws IOException {
+        // deletions are saved in manifest before journal (which holds them too) is cleared
+        if(! buffer.isEmpty() ) {
+            segments.add(writeBuffer());
+            buffer.clear();
+            bufferedTermsCount = 0;
+        }
+        writeManifest();
+        journal.clear();
+        requestMerge();
+    }
+
+    private IndexSegment writeBuffer() throws IOException {
+        List<BufferedText> texts = new ArrayList<>(buffer.values());
+        texts.sort(Comparator.comparingInt(text -> text.textId));
+        int count = texts.size();
+        int[] textIds = new int[count];
+        int[] userIds = new int[count];
+        int[] repositoryIds = new int[count];
+        long[] versions = new long[count];
+        int[] lengths = new int[count];
+        Map<String, Postings> postings = new HashMap<>();
+        for(int ordinal = 0; ordinal < count; ordinal++) {
+            BufferedText text = texts.get(ordinal);
+            textIds[ordinal] = text.textId;
+            userIds[ordinal] = text.userId;
+            repositoryIds[ordinal] = text.repositoryId;
+            versions[ordinal] = text.version;
+            lengths[ordinal] = text.length;
+            for(Map.Entry<String, Integer> term : text.terms.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), key -> new Postings(key.getBytes(StandardCharsets.UTF_8)))
+                        .add(ordinal, term.getValue());
+            }
+        }
+        List<Postings> terms = new ArrayList<>(postings.values());
+        terms.sort((first, second) -> IndexSegment.compare(first.term, second.term));
+
+        Path path = indexDir.resolve(String.format("segment-%06d.idx", nextSegmentNumber++));
+        try (SegmentWriter writer = new SegmentWriter(path)) {
+            writer.writeTexts(textIds, userIds, repositoryIds, versions, lengths);
+            for(Postings term : terms) {
+                writer.writeTerm(term.term, term.count, term.ordinals, term.frequencies);
+            }
+            writer.commit(durabilityPolicy);
+        }
+        return IndexSegment.open(path, new BitSet());
+    }
+
+    private void writeManifest() throws IOException {
+        Path manifest = indexDir.resolve(MANIFEST);
+        Path temporaryPath = Files.createTempFile(indexDir, MANIFEST, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE)) {
+                DataOutputStream output = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(channel)));
+                output.writeInt(MANIFEST_MAGIC);
+                output.writeInt(nextSegmentNumber);
+                output.writeInt(segments.size());
+                for(IndexSegment segment : segments) {
+                    output.writeUTF(segment.getPath().getFileName().toString());
+                    long[] deleted = segment.getDeleted().toLongArray();
+                    output.writeInt(deleted.length);
+                    for(long word : deleted) {
+                        output.writeLong(word);
+                    }
+                }
+                output.flush();
+                durabilityPolicy.sync(channel, manifest);
+            }
+            Files.move(temporaryPath, manifest, StandardCopyOption.ATOMIC_MOVE);
+            durabilityPolicy.syncDirectory(indexDir);
+        } finally {
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    private List<SearchHit> search(String query, int limit, boolean isByUser, int scopeId) throws IOException {
+        List<String> terms = tokenizer.tokenize(query);
+        if(limit < 1 || terms.isEmpty() ) {
+            return Collections.emptyList();
+        }
+        ensureOpen();
+        lock.readLock().lock();
+        try {
+            if(textsCount == 0) {
+                return Collections.emptyList();
+            }
+            double averageLength = Math.max(1.0, (double) totalLength / textsCount);
+            // worst hit at the head - it goes first when better one comes
+            PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1,
+                    Comparator.comparingDouble(SearchHit::getScore)
+                            .thenComparing(Comparator.comparingInt(SearchHit::getTextId).reversed()));
+            IndexSegment.PostingsCursor[][] postings = new IndexSegment.PostingsCursor[segments.size()][];
+            for(int i = 0; i < segments.size(); i++) {
+                postings[i] = new IndexSegment.PostingsCursor[terms.size()];
+            }
+            double[] weights = new double[terms.size()];
+            for(int t = 0; t < terms.size(); t++) {
+                byte[] term = terms.get(t).getBytes(StandardCharsets.UTF_8);
+                long frequency = 0;
+                for(BufferedText text : buffer.values()) {
+                    frequency += text.terms.containsKey(terms.get(t)) ? 1 : 0;
+                }
+                for(int i = 0; i < segments.size(); i++) {
+                    postings[i][t] = segments.get(i).postings(term);
+                    frequency += postings[i][t] != null ? postings[i][t].getCount() : 0;
+                }
+                frequency = Math.min(frequency, textsCount);  // deleted texts are counted by segments
+                weights[t] = Math.log(1 + (textsCount - frequency + 0.5) / (frequency + 0.5));
+            }
+            for(int i = 0; i < segments.size(); i++) {
+                scoreSegment(segments.get(i), postings[i], weights, averageLength, isByUser, scopeId, best, limit);
+            }
+            for(BufferedText text : buffer.values()) {
+                if((isByUser ? text.userId : text.repositoryId) != scopeId) {
+                    continue;
+                }
+                double score = 0;
+                for(int t = 0; t < terms.size(); t++) {
+                    Integer frequency = text.terms.get(terms.get(t));
+                    if(frequency != null) {
+                        score += weights[t] * saturate(frequency, text.length, averageLength);
+                    }
+                }
+                offer(best, limit, text.textId, score);
+            }
+            List<SearchHit> hits = new ArrayList<>(best);
+            hits.sort(Collections.reverseOrder(best.comparator()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scoreSegment(IndexSegment segment, IndexSegment.PostingsCursor[] postings, double[] weights,
+                              double averageLength, boolean isByUser, int scopeId,
+                              PriorityQueue<SearchHit> best, int limit) {
+        double[] scores = null;
+        for(int t = 0; t < postings.length; t++) {
+            IndexSegment.PostingsCursor cursor = postings[t];
+            if(cursor == null) {
+                continue;
+            }
+            if(scores == null) {
+                scores = new double[segment.getTextsCount()];
+            }
+            while( cursor.next() ) {
+                int ordinal = cursor.getOrdinal();
+                int textScope = isByUser ? segment.getUserId(ordinal) : segment.getRepositoryId(ordinal);
+                if(textScope != scopeId || ! segment.isLive(ordinal) ) {
+                    continue;
+                }
+                scores[ordinal] += weights[t] * saturate(cursor.getFrequency(), segment.getLength(ordinal),
+                        averageLength);
+            }
+        }
+        if(scores == null) {
+            return;
+        }
+        for(int ordinal = 0; ordinal < scores.length; ordinal++) {
+            offer(best, limit, segment.getTextId(ordinal), scores[ordinal]);
+        }
+    }
+
+    private double saturate(int frequency, int length, double averageLength) {
+        return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private void offer(PriorityQueue<SearchHit> best, int limit, int textId, double score) {
+        if(score <= 0) {
+            return;
+        }
+        SearchHit hit = new SearchHit(textId, score);
+        if(best.size() < limit) {
+            best.add(hit);
+        } else if(best.comparator().compare(hit, best.peek()) > 0) {
+            best.poll();
+            best.add(hit);
+        }
+    }
+
+    private void requestMerge() {
+        synchronized (mergeMonitor) {
+            if(isClosed) {
+                return;
+            }
+            isMergeRequested = true;
+            if(merger == null) {
+                merger = new Thread(this::mergeSegments, "index-merge");
+                merger.setDaemon(true);
+                merger.start();
+            }
+            mergeMonitor.notifyAll();
+        }
+    }
+
+    private void mergeSegments() {
+        while(true) {
+            synchronized (mergeMonitor) {
+                while(! isMergeRequested && ! isClosed ) {
+                    try {
+                        mergeMonitor.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if(isClosed) {
+                    return;
+                }
+                isMergeRequested = false;
+            }
+            try {
+                List<IndexSegment> sources;
+                while(! isClosed && (sources = findMergeSources()) != null) {
+                    merge(sources);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private List<IndexSegment> findMergeSources() {
+        // the smallest segments - large ones are merged rarely
+        lock.readLock().lock();
+        try {
+            if(segments.size() <= mergeFactor) {
+                return null;
+            }
+            List<IndexSegment> bySize = new ArrayList<>(segments);
+            bySize.sort(Comparator.comparingLong(IndexSegment::getSize));
+            List<IndexSegment> sources = new ArrayList<>();
+            long size = 0;
+            for(IndexSegment segment : bySize) {
+                if(sources.size() == mergeFactor || size + segment.getSize() > MAX_SEGMENT_SIZE) {
+                    break;
+                }
+                sources.add(segment);
+                size += segment.getSize();
+            }
+            return sources.size() > 1 ? sources : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void merge(List<IndexSegment> sources) throws IOException {
+        // written without lock - texts deleted meanwhile are masked in merged segment before it replaces sources
+        List<BitSet> deletedBefore = new ArrayList<>();
+        Path path;
+        lock.writeLock().lock();
+        try {
+            for(IndexSegment source : sources) {
+                deletedBefore.add((BitSet) source.getDeleted().clone());
+            }
+            path = indexDir.resolve(String.format("segment-%06d.idx", nextSegmentNumber++));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int count = 0;
+        for(int i = 0; i < sources.size(); i++) {
+            count += sources.get(i).getTextsCount() - deletedBefore.get(i).cardinality();
+        }
+        long[] order = new long[count];  // text id & position among live texts of sources
+        int[] sourceIndexes = new int[count];
+        int[] sourceOrdinals = new int[count];
+        int position = 0;
+        for(int i = 0; i < sources.size(); i++) {
+            IndexSegment source = sources.get(i);
+            for(int ordinal = 0; ordinal < source.getTextsCount(); ordinal++) {
+                if(! deletedBefore.get(i).get(ordinal) ) {
+                    order[position] = (long) source.getTextId(ordinal) << 32 | position;
+                    sourceIndexes[position] = i;
+                    sourceOrdinals[position] = ordinal;
+                    position++;
+                }
+            }
+        }
+        Arrays.sort(order);
+        int[][] ordinalMaps = new int[sources.size()][];
+        for(int i = 0; i < sources.size(); i++) {
+            ordinalMaps[i] = new int[sources.get(i).getTextsCount()];
+            Arrays.fill(ordinalMaps[i], -1);
+        }
+        int[] textIds = new int[count];
+        int[] userIds = new int[count];
+        int[] repositoryIds = new int[count];
+        long[] versions = new long[count];
+        int[] lengths = new int[count];
+        for(int ordinal = 0; ordinal < count; ordinal++) {
+            int index = (int) order[ordinal];
+            IndexSegment source = sources.get(sourceIndexes[index]);
+            int sourceOrdinal = sourceOrdinals[index];
+            ordinalMaps[sourceIndexes[index]][sourceOrdinal] = ordinal;
+            textIds[ordinal] = source.getTextId(sourceOrdinal);
+            userIds[ordinal] = source.getUserId(sourceOrdinal);
+            repositoryIds[ordinal] = source.getRepositoryId(sourceOrdinal);
+            versions[ordinal] = source.getVersion(sourceOrdinal);
+            lengths[ordinal] = source.getLength(sourceOrdinal);
+        }
+        try (SegmentWriter writer = new SegmentWriter(path)) {
+            writer.writeTexts(textIds, userIds, repositoryIds, versions, lengths);
+            mergeTerms(sources, ordinalMaps, writer);
+            writer.commit(durabilityPolicy);
+        }
+        IndexSegment merged = IndexSegment.open(path, new BitSet());
+
+        lock.writeLock().lock();
+        try {
+            for(int i = 0; i < sources.size(); i++) {
+                BitSet deletedMeanwhile = (BitSet) sources.get(i).getDeleted().clone();
+                deletedMeanwhile.andNot(deletedBefore.get(i));
+                for(int ordinal = deletedMeanwhile.nextSetBit(0); ordinal >= 0;
+                    ordinal = deletedMeanwhile.nextSetBit(ordinal + 1)) {
+                    merged.getDeleted().set(ordinalMaps[i][ordinal]);
+                }
+            }
+            segments.removeAll(sources);
+            segments.add(merged);
+            writeManifest();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for(IndexSegment source : sources) {
+            Files.deleteIfExists(source.getPath());  // mapping of searches in progress stays valid
+        }
+    }
+
+    private void mergeTerms(List<IndexSegment> sources, int[][] ordinalMaps, SegmentWriter writer)
+            throws IOException {
+        // dictionaries are read side by side - postings of the same term are joined
+        PriorityQueue<SourceTerms> queue = new PriorityQueue<>(sources.size(),
+                (first, second) -> IndexSegment.compare(first.term, second.term));
+        for(int i = 0; i < sources.size(); i++) {
+            SourceTerms sourceTerms = new SourceTerms(i, sources.get(i).terms());
+            if( sourceTerms.next() ) {
+                queue.add(sourceTerms);
+            }
+        }
+        long[] joined = new long[64];  // merged ordinal & frequency
+        Postings postings = new Postings(null);
+        while(! queue.isEmpty() ) {
+            byte[] term = queue.peek().term;
+            int count = 0;
+            while(! queue.isEmpty() && IndexSegment.compare(queue.peek().term, term) == 0) {
+                SourceTerms sourceTerms = queue.poll();
+                IndexSegment.PostingsCursor cursor = sourceTerms.terms.getPostings();
+                while( cursor.next() ) {
+                    int ordinal = ordinalMaps[sourceTerms.index][cursor.getOrdinal()];
+                    if(ordinal < 0) {
+                        continue;  // deleted text
+                    }
+                    if(count == joined.length) {
+                        joined = Arrays.copyOf(joined, count * 2);
+                    }
+                    joined[count++] = (long) ordinal << 32 | cursor.getFrequency();
+                }
+                if( sourceTerms.next() ) {
+                    queue.add(sourceTerms);
+                }
+            }
+            if(count == 0) {
+                continue;
+            }
+            Arrays.sort(joined, 0, count);
+            postings.clear();
+            for(int i = 0; i < count; i++) {
+                postings.add((int) (joined[i] >>> 32), (int) joined[i]);
+            }
+            writer.writeTerm(term, postings.count, postings.ordinals, postings.frequencies);
+        }
+    }
+
+    private static class SourceTerms {
+
+        private final int index;
+        private final IndexSegment.TermsCursor terms;
+        private byte[] term;
+
+        private SourceTerms(int index, IndexSegment.TermsCursor terms) {
+            this.index = index;
+            this.terms = terms;
+        }
+
+        private boolean next() {
+            if(! terms.next() ) {
+                return false;
+            }
+            term = terms.getTerm();
+            return true;
+        }
+    }
+
+    private static class Postings {
+
+        private final byte[] term;
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int count;
+
+        private Postings(byte[] term) {
+            this.term = term;
+        }
+
+        private void add(int ordinal, int frequency) {
+            if(count == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, count * 2);
+                frequencies = Arrays.copyOf(frequencies, count * 2);
+            }
+            ordinals[count] = ordinal;
+            frequencies[count] = frequency;
+            count++;
+        }
+
+        private void clear() {
+            count = 0;
+        }
+    }
+
+    private static class BufferedText {
+
+        private final int textId;
+        private final int userId;
+        private final int repositoryId;
+        private final long version;
+        private final int length;
+        private final Map<String, Integer> terms;
+
+        private BufferedText(int textId, int userId, int repositoryId, long version, int length,
+                             Map<String, Integer> terms) {
+            this.textId = textId;
+            this.userId = userId;
+            this.repositoryId = repositoryId;
+            this.version = version;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.jarq.system.managers.indexManagers;
+
+import com.jarq.system.managers.filesManagers.IDurabilityPolicy;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+class SegmentWriter implements Closeable {
+
+    /**
+     * writes segment (see IndexSegment) into temporary file - texts first, then terms in dictionary
+     * order; dictionary goes to its own temporary file meanwhile and is appended by commit,
+     * which renames the whole segment at once
+     */
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Path temporaryPath;
+    private final Path dictionaryPath;
+    private final FileChannel channel;
+    private final DataOutputStream output;
+    private final DataOutputStream dictionary;
+    private int textsCount;
+    private int termsCount;
+    private long postingsOffset;
+    private boolean isCommitted;
+
+    SegmentWriter(Path path) throws IOException {
+        this.path = path;
+        Path directory = path.toAbsolutePath().getParent();
+        temporaryPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        dictionaryPath = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        channel = FileChannel.open(temporaryPath, StandardOpenOption.WRITE);
+        output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        dictionary = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dictionaryPath),
+                BUFFER_SIZE));
+        output.write(new byte[IndexSegment.HEADER_LENGTH]);  // written by commit
+    }
+
+    void writeTexts(int[] textIds, int[] userIds, int[] repositoryIds, long[] versions, int[] lengths)
+            throws IOException {
+        textsCount = textIds.length;
+        for(int i = 0; i < textsCount; i++) {
+            output.writeInt(textIds[i]);
+            output.writeInt(userIds[i]);
+            output.writeInt(repositoryIds[i]);
+            output.writeLong(versions[i]);
+            output.writeInt(lengths[i]);
+        }
+        postingsOffset = output.size();
+    }
+
+    // ordinals ascending, terms in order of their utf-8 bytes
+    void writeTerm(byte[] term, int count, int[] ordinals, int[] frequencies) throws IOException {
+        long position = output.size() - postingsOffset;
+        int previous = -1;
+        for(int i = 0; i < count; i++) {
+            writeVarInt(output, ordinals[i] - previous - 1);
+            writeVarInt(output, frequencies[i]);
+            previous = ordinals[i];
+        }
+        if(output.size() == Integer.MAX_VALUE) {  // counter stops there
+            throw new IOException("Segment is too large: " + path);
+        }
+        writeVarInt(dictionary, term.length);
+        dictionary.write(term);
+        writeVarInt(dictionary, count);
+        writeVarInt(dictionary, (int) position);
+        termsCount++;
+    }
+
+    void commit(IDurabilityPolicy durabilityPolicy) throws IOException {
+        long dictionaryOffset = output.size();
+        dictionary.close();
+        try (InputStream terms = Files.newInputStream(dictionaryPath)) {
+            copy(terms, output);
+        }
+        output.flush();
+        if(channel.size() > Integer.MAX_VALUE) {
+            throw new IOException("Segment is too large: " + path);
+        }
+        ByteBuffer header = ByteBuffer.allocate(IndexSegment.HEADER_LENGTH);
+        header.putInt(IndexSegment.MAGIC)
+                .putInt(IndexSegment.FORMAT)
+                .putInt(textsCount)
+                .putInt(termsCount)
+                .putLong(postingsOffset)
+                .putLong(dictionaryOffset);
+        header.flip();
+        long position = 0;
+        while(header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        durabilityPolicy.sync(channel, path);
+        channel.close();
+        Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE);
+        durabilityPolicy.syncDirectory(path.toAbsolutePath().getParent());
+        isCommitted = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // not committed segment is dropped
+        try {
+            dictionary.close();
+            channel.close();
+        } finally {
+            Files.deleteIfExists(dictionaryPath);
+            if(! isCommitted ) {
+                Files.deleteIfExists(temporaryPath);
+            }
+        }
+    }
+
+    private static void copy(InputStream source, OutputStream target) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while((read = source.read(buffer)) > 0) {
+            target.write(buffer, 0, read);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream stream, int value) throws IOException {
+        while((value & ~0x7f) != 0) {
+            stream.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        stream.write(value);
+    }
+}
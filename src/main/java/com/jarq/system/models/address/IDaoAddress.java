@@ -5,6 +5,7 @@ import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.models.user.IUser;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IDaoAddress extends Dao {
 
@@ -27,6 +28,9 @@ public interface IDaoAddress extends Dao {
 
     List<IAddress> importAllAddresses() throws DaoFailure;
 
+    // stream keeps read connection until closed - use try-with-resources
+    Stream<IAddress> streamAllAddresses(int fetchSize) throws DaoFailure;
+
     boolean updateAddress(IAddress address) throws DaoFailure;
 
     boolean removeAddressByUserId(int userId) throws DaoFailure;
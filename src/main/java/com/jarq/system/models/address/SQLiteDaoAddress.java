@@ -2,23 +2,27 @@ package com.jarq.system.models.address;
 
 import com.jarq.system.dao.SqlDao;
 import com.jarq.system.enums.DbTable;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
 import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
 import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
 import com.jarq.system.models.user.IUser;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
 
+    private static final String COLUMNS = "id, postal_code, city, street, house_no, apartment_no, user_id";
     private final String defaultTable;
 
-    public SQLiteDaoAddress(Connection connection, JDBCProcessManager processManager,
-                            DbTable defaultTable) {
-        super(connection, processManager);
+    public SQLiteDaoAddress(DatabaseManager databaseManager, JDBCProcessManager processManager,
+                            IIdAllocator idAllocator, DbTable defaultTable) {
+        super(databaseManager, processManager, idAllocator);
         this.defaultTable = defaultTable.getTable();
     }
 
@@ -49,20 +53,21 @@ public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
         String query = String.format("INSERT INTO %s " +
                 "VALUES(?, ?, ?, ?, ?, ?, ?)", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, id);
-            preparedStatement.setString(2, postalCode);
-            preparedStatement.setString(3, city);
-            preparedStatement.setString(4, street);
-            preparedStatement.setString(5, houseNo);
-            preparedStatement.setString(6, apartmentNo);
-            preparedStatement.setInt(7, userId);
-
-            getProcessManager().executeStatement(preparedStatement);
+        try {
+            withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setInt(1, id);
+                preparedStatement.setString(2, postalCode);
+                preparedStatement.setString(3, city);
+                preparedStatement.setString(4, street);
+                preparedStatement.setString(5, houseNo);
+                preparedStatement.setString(6, apartmentNo);
+                preparedStatement.setInt(7, userId);
+            }, this::executeStatement);
 
             return address;
 
         } catch (SQLException ex) {
+            releaseId(defaultTable, id);
             throw new DaoFailure(ex.getMessage());
         }
     }
@@ -70,26 +75,34 @@ public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
     @Override
     public IAddress importAddress(int addressId) throws DaoFailure {
 
-        String query = String.format("SELECT * FROM %s WHERE id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, addressId);
-            return extractAddressFromStatement(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, addressId),
+                    this::extractAddressFromStatement);
 
         } catch(SQLException | DaoFailure ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
     @Override
     public IAddress importAddressByUserId(int userId) throws DaoFailure {
 
-        String query = String.format("SELECT * FROM %s WHERE user_id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, userId);
-            return extractAddressFromStatement(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE user_id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::extractAddressFromStatement);
 
         } catch(SQLException | DaoFailure ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
@@ -101,17 +114,27 @@ public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
     @Override
     public List<IAddress> importAllAddresses() throws DaoFailure {
 
-        List<IAddress> addresses = new ArrayList<>();
-        String query = String.format("SELECT * FROM %s", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
+        String query = String.format("SELECT %s FROM %s", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query, preparedStatement -> {},
+                    this::extractAddresses);
 
-            List<String[]> addressesData = getProcessManager().getObjectsDataCollection(preparedStatement);
-            for(String[] data : addressesData) {
-                addresses.add(extractAddressFromTable(data));
-            }
-            return addresses;
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
 
-        } catch(SQLException | DaoFailure ex){
+    @Override
+    public Stream<IAddress> streamAllAddresses(int fetchSize) throws DaoFailure {
+
+        String query = String.format("SELECT %s FROM %s", COLUMNS, defaultTable);
+        try {
+            return streamObjects(query, preparedStatement -> {}, this::mapAddress, fetchSize);
+
+        } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
         }
     }
@@ -130,16 +153,16 @@ public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
         String query = String.format(   "UPDATE %s SET postal_code=?, city=?, street=?, " +
                                         "house_no=?, apartment_no=?, user_id=? " +
                                         "WHERE id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setString(1, postalCode);
-            preparedStatement.setString(2, city);
-            preparedStatement.setString(3, street);
-            preparedStatement.setString(4, houseNo);
-            preparedStatement.setString(5, apartmentNo);
-            preparedStatement.setInt(6, userId);
-            preparedStatement.setInt(7, id);
-
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            return withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, postalCode);
+                preparedStatement.setString(2, city);
+                preparedStatement.setString(3, street);
+                preparedStatement.setString(4, houseNo);
+                preparedStatement.setString(5, apartmentNo);
+                preparedStatement.setInt(6, userId);
+                preparedStatement.setInt(7, id);
+            }, this::executeStatement);
 
         } catch(SQLException ex){
         throw new DaoFailure(ex.getMessage());
@@ -155,9 +178,14 @@ public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
     public boolean removeAddress(int addressId) throws DaoFailure {
         String query = String.format("DELETE FROM %s WHERE id=?", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, addressId);
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            boolean isRemoved = withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, addressId),
+                    this::executeStatement);
+            if(isRemoved) {
+                releaseRemovedId(defaultTable, addressId);
+            }
+            return isRemoved;
         } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
@@ -167,9 +195,10 @@ public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
     public boolean removeAddressByUserId(int userId) throws DaoFailure {
         String query = String.format("DELETE FROM %s WHERE user_id=?", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, userId);
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            return withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::executeStatement);
         } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
@@ -182,38 +211,36 @@ public class SQLiteDaoAddress extends SqlDao implements IDaoAddress {
 
 
     private IAddress extractAddressFromStatement(PreparedStatement preparedStatement) throws DaoFailure, SQLException {
-        String[] addressData = getProcessManager().getObjectData(preparedStatement);
-        if(addressData.length > 0) {
-            return extractAddressFromTable(addressData);
+        IAddress address = getProcessManager().getObject(preparedStatement, this::mapAddress);
+        if(address != null) {
+            return address;
         } else {
             throw new DaoFailure("There's no such address in database!");
         }
     }
 
-    private IAddress extractAddressFromTable(String[] addressData) throws DaoFailure {
-
-        int ID_INDEX = 0;
-        int POSTAL_CODE_INDEX = 1;
-        int CITY_INDEX = 2;
-        int STREET_INDEX = 3;
-        int HOUSE_NO_INDEX = 4;
-        int APARTMENT_NO_INDEX = 5;
-        int USER_ID_INDEX = 6;
-
-        try {
-            int id = Integer.parseInt(addressData[ID_INDEX]);
-            String postalCode = addressData[POSTAL_CODE_INDEX];
-            String city = addressData[CITY_INDEX];
-            String street = addressData[STREET_INDEX];
-            String houseNo = addressData[HOUSE_NO_INDEX];
-            String apartmentNo = addressData[APARTMENT_NO_INDEX];
-            int userId = Integer.parseInt(addressData[USER_ID_INDEX]);
-            IAddress address = new Address(id, postalCode, city, street, houseNo, userId);
-            address.setApartmentNo(apartmentNo);
-            return address;
+    private List<IAddress> extractAddresses(PreparedStatement preparedStatement) throws SQLException {
+        return getProcessManager().getObjectsCollection(preparedStatement, this::mapAddress);
+    }
 
-        } catch (Exception ex) {
-            throw new DaoFailure(ex.getMessage());
-        }
+    private IAddress mapAddress(ResultSet resultSet) throws SQLException {
+
+        // column indexes follow COLUMNS order
+        final int ID_INDEX = 1;
+        final int POSTAL_CODE_INDEX = 2;
+        final int CITY_INDEX = 3;
+        final int STREET_INDEX = 4;
+        final int HOUSE_NO_INDEX = 5;
+        final int APARTMENT_NO_INDEX = 6;
+        final int USER_ID_INDEX = 7;
+
+        IAddress address = new Address(resultSet.getInt(ID_INDEX),
+                                        resultSet.getString(POSTAL_CODE_INDEX),
+                                        resultSet.getString(CITY_INDEX),
+                                        resultSet.getString(STREET_INDEX),
+                                        resultSet.getString(HOUSE_NO_INDEX),
+                                        resultSet.getInt(USER_ID_INDEX));
+        address.setApartmentNo(resultSet.getString(APARTMENT_NO_INDEX));
+        return address;
     }
 }
@@ -0,0 +1,81 @@
+package com.jarq.system.models.blob;
+
+public class Blob implements IBlob {
+
+    private final String hash;
+    private final String filepath;
+    private final String baseFilepath;
+    private final int depth;
+    private final String packPath;
+    private final long packOffset;
+    private final int packLength;
+
+    Blob(String hash, String filepath, String baseFilepath, int depth,
+         String packPath, long packOffset, int packLength) {
+        this.hash = hash;
+        this.filepath = filepath;
+        this.baseFilepath = baseFilepath;
+        this.depth = depth;
+        this.packPath = packPath;
+        this.packOffset = packOffset;
+        this.packLength = packLength;
+    }
+
+    @Override
+    public String getHash() {
+        return hash;
+    }
+
+    @Override
+    public String getFilepath() {
+        return filepath;
+    }
+
+    @Override
+    public String getBaseFilepath() {
+        return baseFilepath;
+    }
+
+    @Override
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public boolean isDelta() {
+        return baseFilepath != null;
+    }
+
+    @Override
+    public String getPackPath() {
+        return packPath;
+    }
+
+    @Override
+    public long getPackOffset() {
+        return packOffset;
+    }
+
+    @Override
+    public int getPackLength() {
+        return packLength;
+    }
+
+    @Override
+    public boolean isPacked() {
+        return packPath != null;
+    }
+
+    @Override
+    public String toString() {
+        return "Blob{" +
+                "hash='" + hash + '\'' +
+                ", filepath='" + filepath + '\'' +
+                ", baseFilepath='" + baseFilepath + '\'' +
+                ", depth=" + depth +
+                ", packPath='" + packPath + '\'' +
+                ", packOffset=" + packOffset +
+                ", packLength=" + packLength +
+                '}';
+    }
+}
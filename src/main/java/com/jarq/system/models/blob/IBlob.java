@@ -0,0 +1,25 @@
+package com.jarq.system.models.blob;
+
+public interface IBlob {
+
+    String getHash();
+
+    String getFilepath();
+
+    // null when blob keeps whole data (keyframe)
+    String getBaseFilepath();
+
+    // number of deltas to apply on top of keyframe
+    int getDepth();
+
+    boolean isDelta();
+
+    // null when blob has its own file
+    String getPackPath();
+
+    long getPackOffset();
+
+    int getPackLength();
+
+    boolean isPacked();
+}
@@ -0,0 +1,43 @@
+package com.jarq.system.models.blob;
+
+import com.jarq.system.dao.Dao;
+import com.jarq.system.exceptions.DaoFailure;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface IDaoBlob extends Dao {
+
+    // blob rows count contents and deltas referencing them (maintained by triggers)
+
+    // does nothing if blob is already registered
+    boolean registerBlob(String hash, String filepath) throws DaoFailure;
+
+    // blob keeps delta against base blob - base is referenced as long as delta exists
+    boolean registerDelta(String hash, String filepath, String baseFilepath, int depth) throws DaoFailure;
+
+    boolean isBlobRegistered(String filepath) throws DaoFailure;
+
+    IBlob importBlob(String filepath) throws DaoFailure;
+
+    // blob data kept in pack file - also used when compaction moves it to other pack
+    boolean changeBlobLocation(String filepath, String packPath, long offset, int length) throws DaoFailure;
+
+    List<IBlob> importBlobsByPack(String packPath) throws DaoFailure;
+
+    // bytes of given pack still used by registered blobs
+    long importPackLiveBytes(String packPath) throws DaoFailure;
+
+    // end of the last blob data in given pack - anything after it is dead
+    long importPackEnd(String packPath) throws DaoFailure;
+
+    // lazy - close the stream after use
+    Stream<IBlob> streamAllBlobs(int fetchSize) throws DaoFailure;
+
+    int importReferencesCount(String filepath) throws DaoFailure;
+
+    List<String> importUnusedBlobsFilepaths() throws DaoFailure;
+
+    // returns true if blob wasn't referenced anymore and was removed
+    boolean removeUnusedBlob(String filepath) throws DaoFailure;
+}
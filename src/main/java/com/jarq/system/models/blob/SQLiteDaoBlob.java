@@ -0,0 +1,263 @@
+package com.jarq.system.models.blob;
+
+import com.jarq.system.dao.SqlDao;
+import com.jarq.system.enums.DbTable;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class SQLiteDaoBlob extends SqlDao implements IDaoBlob {
+
+    private static final String COLUMNS = "hash, filepath, base_filepath, depth, pack_path, pack_offset, pack_length";
+    private final String defaultTable;
+
+    public SQLiteDaoBlob(DatabaseManager databaseManager, JDBCProcessManager processManager,
+                         IIdAllocator idAllocator, DbTable defaultTable) {
+        super(databaseManager, processManager, idAllocator);
+        this.defaultTable = defaultTable.getTable();
+    }
+
+    @Override
+    public boolean registerBlob(String hash, String filepath) throws DaoFailure {
+
+        String query = String.format("INSERT OR IGNORE INTO %s (hash, filepath, ref_count) " +
+                "VALUES(?, ?, 0)", defaultTable);
+        try {
+            return withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, hash);
+                preparedStatement.setString(2, filepath);
+            }, this::executeStatement);
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    @Override
+    public boolean registerDelta(String hash, String filepath, String baseFilepath, int depth)
+            throws DaoFailure {
+
+        String query = String.format("INSERT OR IGNORE INTO %s (hash, filepath, ref_count, base_filepath, depth) " +
+                "VALUES(?, ?, 0, ?, ?)", defaultTable);
+        try {
+            return withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, hash);
+                preparedStatement.setString(2, filepath);
+                preparedStatement.setString(3, baseFilepath);
+                preparedStatement.setInt(4, depth);
+            }, this::executeStatement);
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isBlobRegistered(String filepath) throws DaoFailure {
+
+        String query = String.format("SELECT 1 FROM %s WHERE filepath=?", defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setString(1, filepath),
+                    preparedStatement -> getProcessManager()
+                            .getObject(preparedStatement, resultSet -> resultSet.getInt(1))) != null;
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public IBlob importBlob(String filepath) throws DaoFailure {
+
+        String query = String.format("SELECT %s FROM %s WHERE filepath=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            IBlob blob = withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setString(1, filepath),
+                    preparedStatement -> getProcessManager().getObject(preparedStatement, this::mapBlob));
+            if(blob == null) {
+                throw new DaoFailure("There's no such blob in database!");
+            }
+            return blob;
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public boolean changeBlobLocation(String filepath, String packPath, long offset, int length)
+            throws DaoFailure {
+
+        String query = String.format("UPDATE %s SET pack_path=?, pack_offset=?, pack_length=? " +
+                "WHERE filepath=?", defaultTable);
+        try {
+            return withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, packPath);
+                preparedStatement.setLong(2, offset);
+                preparedStatement.setInt(3, length);
+                preparedStatement.setString(4, filepath);
+            }, this::executeStatement);
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    @Override
+    public List<IBlob> importBlobsByPack(String packPath) throws DaoFailure {
+
+        String query = String.format("SELECT %s FROM %s WHERE pack_path=? ORDER BY pack_offset",
+                COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setString(1, packPath),
+                    this::extractBlobs);
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public long importPackLiveBytes(String packPath) throws DaoFailure {
+
+        String query = String.format("SELECT TOTAL(pack_length) FROM %s WHERE pack_path=?", defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            Long liveBytes = withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setString(1, packPath),
+                    preparedStatement -> getProcessManager()
+                            .getObject(preparedStatement, resultSet -> resultSet.getLong(1)));
+            return liveBytes != null ? liveBytes : 0;
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public long importPackEnd(String packPath) throws DaoFailure {
+
+        String query = String.format("SELECT MAX(pack_offset + pack_length) FROM %s WHERE pack_path=?",
+                defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            Long packEnd = withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setString(1, packPath),
+                    preparedStatement -> getProcessManager()
+                            .getObject(preparedStatement, resultSet -> resultSet.getLong(1)));
+            return packEnd != null ? packEnd : 0;
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public Stream<IBlob> streamAllBlobs(int fetchSize) throws DaoFailure {
+        String query = String.format("SELECT %s FROM %s", COLUMNS, defaultTable);
+        try {
+            return streamObjects(query, preparedStatement -> {}, this::mapBlob, fetchSize);
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    @Override
+    public int importReferencesCount(String filepath) throws DaoFailure {
+
+        String query = String.format("SELECT ref_count FROM %s WHERE filepath=?", defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            Integer referencesCount = withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setString(1, filepath),
+                    preparedStatement -> getProcessManager()
+                            .getObject(preparedStatement, resultSet -> resultSet.getInt(1)));
+            return referencesCount != null ? referencesCount : 0;
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public List<String> importUnusedBlobsFilepaths() throws DaoFailure {
+
+        String query = String.format("SELECT filepath FROM %s WHERE ref_count <= 0", defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query, preparedStatement -> {},
+                    preparedStatement -> getProcessManager()
+                            .getObjectsCollection(preparedStatement, resultSet -> resultSet.getString(1)));
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public boolean removeUnusedBlob(String filepath) throws DaoFailure {
+
+        // condition is checked in the same statement - blob could be referenced again meanwhile
+        String query = String.format("DELETE FROM %s WHERE filepath=? AND ref_count <= 0", defaultTable);
+        try {
+            return withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setString(1, filepath),
+                    this::executeStatement);
+
+        } catch (SQLException ex) {
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    private List<IBlob> extractBlobs(PreparedStatement preparedStatement) throws SQLException {
+        return getProcessManager().getObjectsCollection(preparedStatement, this::mapBlob);
+    }
+
+    private IBlob mapBlob(ResultSet resultSet) throws SQLException {
+
+        // column indexes follow COLUMNS order
+        final int HASH_INDEX = 1;
+        final int FILE_PATH_INDEX = 2;
+        final int BASE_FILE_PATH_INDEX = 3;
+        final int DEPTH_INDEX = 4;
+        final int PACK_PATH_INDEX = 5;
+        final int PACK_OFFSET_INDEX = 6;
+        final int PACK_LENGTH_INDEX = 7;
+
+        return new Blob(resultSet.getString(HASH_INDEX),
+                        resultSet.getString(FILE_PATH_INDEX),
+                        resultSet.getString(BASE_FILE_PATH_INDEX),
+                        resultSet.getInt(DEPTH_INDEX),
+                        resultSet.getString(PACK_PATH_INDEX),
+                        resultSet.getLong(PACK_OFFSET_INDEX),
+                        resultSet.getInt(PACK_LENGTH_INDEX));
+    }
+}
@@ -1,23 +1,44 @@
 package com.jarq.system.models.content;
 
 import com.jarq.system.dao.Dao;
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.models.text.IText;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IDaoContent extends Dao {
 
     IContent createNullContent();
 
+    // file named by text modification date and content id
     IContent createContent(IText text) throws DaoFailure;
 
+    // content stored in given (ie. blob) file
+    IContent createContent(IText text, String filepath) throws DaoFailure;
+
+    IContent changeContentFilepath(IContent content, String filepath) throws DaoFailure;
+
     IContent importContent(int contentId) throws DaoFailure;
 
     List<IContent> importContentsByTextId(int textId) throws DaoFailure;
 
     List<IContent> importContentsByText(IText text) throws DaoFailure;
 
+    // newest version first
+    Page<IContent> importContentsByTextId(int textId, PageCursor cursor, int pageSize) throws DaoFailure;
+
+    // contents kept in files written before blobs were introduced
+    List<IContent> importContentsWithoutBlob() throws DaoFailure;
+
+    // stream keeps read connection until closed - use try-with-resources
+    Stream<IContent> streamContentsByTextId(int textId, int fetchSize) throws DaoFailure;
+
+    // the newest version of every text which has any
+    Stream<IContent> streamNewestContents(int fetchSize) throws DaoFailure;
+
     boolean removeContent(IContent content) throws DaoFailure;
 
     boolean removeContent(int contentId) throws DaoFailure;
@@ -1,26 +1,33 @@
 package com.jarq.system.models.content;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.dao.SqlDao;
 import com.jarq.system.enums.DbTable;
 import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
 import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
 import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
 import com.jarq.system.models.text.IText;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class SQLiteDaoContent extends SqlDao implements IDaoContent {
 
+    private static final String COLUMNS = "id, filepath, creation_date, text_id";
     private final String defaultTable;
     private final IRepositoryPath repositoryPath;
 
-    public SQLiteDaoContent(Connection connection, JDBCProcessManager processManager,
-                            DbTable defaultTable, IRepositoryPath repositoryPath) {
-        super(connection, processManager);
+    public SQLiteDaoContent(DatabaseManager databaseManager, JDBCProcessManager processManager,
+                            IIdAllocator idAllocator, DbTable defaultTable,
+                            IRepositoryPath repositoryPath) {
+        super(databaseManager, processManager, idAllocator);
         this.defaultTable = defaultTable.getTable();
         this.repositoryPath = repositoryPath;
     }
@@ -32,24 +39,53 @@ public class SQLiteDaoContent extends SqlDao implements IDaoContent {
 
     @Override
     public IContent createContent(IText text) throws DaoFailure {
-
+        // id in filename - many versions can be saved within a second
         int id = getLowestFreeIdFromGivenTable(defaultTable);
-        String filepath = repositoryPath.filepath(text);
+        return insertContent(id, text, repositoryPath.filepath(text, id));
+    }
+
+    @Override
+    public IContent createContent(IText text, String filepath) throws DaoFailure {
+        return insertContent(getLowestFreeIdFromGivenTable(defaultTable), text, filepath);
+    }
+
+    private IContent insertContent(int id, IText text, String filepath) throws DaoFailure {
+
         String creationDate = text.getModificationDate();
         int textId = text.getId();
 
         String query = String.format("INSERT INTO %s " +
                 "VALUES(?, ?, ?, ?)", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, id);
-            preparedStatement.setString(2, filepath);
-            preparedStatement.setString(3, creationDate);
-            preparedStatement.setInt(4, textId);
-
-            getProcessManager().executeStatement(preparedStatement);
+        try {
+            withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setInt(1, id);
+                preparedStatement.setString(2, filepath);
+                preparedStatement.setString(3, creationDate);
+                preparedStatement.setInt(4, textId);
+            }, this::executeStatement);
             return new Content(id, filepath, creationDate, textId);
 
+        } catch (SQLException ex) {
+            releaseId(defaultTable, id);
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    @Override
+    public IContent changeContentFilepath(IContent content, String filepath) throws DaoFailure {
+
+        String query = String.format("UPDATE %s SET filepath=? WHERE id=?", defaultTable);
+        try {
+            boolean isChanged = withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, filepath);
+                preparedStatement.setInt(2, content.getId());
+            }, this::executeStatement);
+            if(! isChanged ) {
+                throw new DaoFailure("There's no such content in database!");
+            }
+            return new Content(content.getId(), filepath, content.getCreationDate(), content.getTextId());
+
         } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
@@ -58,32 +94,34 @@ public class SQLiteDaoContent extends SqlDao implements IDaoContent {
     @Override
     public IContent importContent(int contentId) throws DaoFailure {
 
-        String query = String.format("SELECT * FROM %s WHERE id=?", defaultTable);
-        
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, contentId);
-            return extractContent(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE id=?", COLUMNS, defaultTable);
+
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, contentId),
+                    this::extractContent);
 
         } catch(SQLException | DaoFailure ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
     @Override
     public List<IContent> importContentsByTextId(int textId) throws DaoFailure {
-        String query = String.format("SELECT * FROM %s WHERE text_id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, textId);
-            List<String[]> dataCollection = getProcessManager().getObjectsDataCollection(preparedStatement);
-            List<IContent> contents = new ArrayList<>();
-
-            for(String[] data : dataCollection) {
-                contents.add(extractContentFromTable(data));
-            }
-            return contents;
+        String query = String.format("SELECT %s FROM %s WHERE text_id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, textId),
+                    this::extractContents);
 
-        } catch(SQLException | DaoFailure ex){
+        } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
@@ -92,6 +130,79 @@ public class SQLiteDaoContent extends SqlDao implements IDaoContent {
         return importContentsByTextId(text.getId());
     }
 
+    @Override
+    public Page<IContent> importContentsByTextId(int textId, PageCursor cursor, int pageSize)
+            throws DaoFailure {
+
+        checkPageSize(pageSize);
+        // seek past last row of previous page instead of OFFSET - deep pages cost like the first one
+        String seek = cursor.isFirst() ? "" : " AND (creation_date, id) < (?, ?)";
+        String query = String.format(   "SELECT %s FROM %s WHERE text_id=?%s " +
+                                        "ORDER BY creation_date DESC, id DESC LIMIT ?",
+                                        COLUMNS, defaultTable, seek);
+        Connection connection = getReadConnection();
+        try {
+            List<IContent> rows = withStatement(connection, query, preparedStatement -> {
+                int index = 1;
+                preparedStatement.setInt(index++, textId);
+                if(! cursor.isFirst()) {
+                    preparedStatement.setString(index++, cursor.getSortKey());
+                    preparedStatement.setInt(index++, cursor.getId());
+                }
+                preparedStatement.setInt(index, pageSize + 1);
+            }, this::extractContents);
+            return Page.of(rows, pageSize,
+                    content -> PageCursor.after(content.getCreationDate(), content.getId()));
+
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public List<IContent> importContentsWithoutBlob() throws DaoFailure {
+        String query = String.format("SELECT %s FROM %s WHERE filepath NOT IN (SELECT filepath FROM %s)",
+                COLUMNS, defaultTable, DbTable.BLOBS.getTable());
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query, preparedStatement -> {}, this::extractContents);
+
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public Stream<IContent> streamContentsByTextId(int textId, int fetchSize) throws DaoFailure {
+        String query = String.format("SELECT %s FROM %s WHERE text_id=?", COLUMNS, defaultTable);
+        try {
+            return streamObjects(query, preparedStatement -> preparedStatement.setInt(1, textId),
+                    this::mapContent, fetchSize);
+
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
+    @Override
+    public Stream<IContent> streamNewestContents(int fetchSize) throws DaoFailure {
+        // the same order as pages of versions - one index seek per text
+        String query = String.format(   "SELECT %s FROM %s WHERE id IN (SELECT (SELECT id FROM %s " +
+                                        "WHERE text_id=texts.id ORDER BY creation_date DESC, id DESC LIMIT 1) " +
+                                        "FROM %s texts)",
+                                        COLUMNS, defaultTable, defaultTable, DbTable.TEXTS.getTable());
+        try {
+            return streamObjects(query, preparedStatement -> {}, this::mapContent, fetchSize);
+
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        }
+    }
+
     @Override
     public boolean removeContent(IContent content) throws DaoFailure {
         return removeContent(content.getId());
@@ -101,40 +212,43 @@ public class SQLiteDaoContent extends SqlDao implements IDaoContent {
     public boolean removeContent(int contentId) throws DaoFailure {
         String query = String.format("DELETE FROM %s WHERE id=?", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, contentId);
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            boolean isRemoved = withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, contentId),
+                    this::executeStatement);
+            if(isRemoved) {
+                releaseRemovedId(defaultTable, contentId);
+            }
+            return isRemoved;
         } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
     }
 
     private IContent extractContent(PreparedStatement preparedStatement) throws DaoFailure, SQLException {
-        String[] contentData = getProcessManager().getObjectData(preparedStatement);
-        if(contentData.length > 0) {
-            return extractContentFromTable(contentData);
+        IContent content = getProcessManager().getObject(preparedStatement, this::mapContent);
+        if(content != null) {
+            return content;
         } else {
             throw new DaoFailure("There's no such content in database!");
         }
     }
 
-    private IContent extractContentFromTable(String[] contentData) throws DaoFailure {
+    private List<IContent> extractContents(PreparedStatement preparedStatement) throws SQLException {
+        return getProcessManager().getObjectsCollection(preparedStatement, this::mapContent);
+    }
 
-        int ID_INDEX = 0;
-        int FILE_PATH_INDEX = 1;
-        int CREATION_DATE_INDEX = 2;
-        int TEXT_ID_INDEX = 3;
-        
-        try {
-            int id = Integer.parseInt(contentData[ID_INDEX]);
-            String filepath = contentData[FILE_PATH_INDEX];
-            String creationDate = contentData[CREATION_DATE_INDEX];
-            int textId = Integer.parseInt(contentData[TEXT_ID_INDEX]);
+    private IContent mapContent(ResultSet resultSet) throws SQLException {
 
-            return new Content(id, filepath, creationDate, textId);
+        // column indexes follow COLUMNS order
+        final int ID_INDEX = 1;
+        final int FILE_PATH_INDEX = 2;
+        final int CREATION_DATE_INDEX = 3;
+        final int TEXT_ID_INDEX = 4;
 
-        } catch (Exception ex) {
-            throw new DaoFailure(ex.getMessage());
-        }
+        return new Content( resultSet.getInt(ID_INDEX),
+                            resultSet.getString(FILE_PATH_INDEX),
+                            resultSet.getString(CREATION_DATE_INDEX),
+                            resultSet.getInt(TEXT_ID_INDEX));
     }
 }
@@ -0,0 +1,141 @@
+package com.jarq.system.models.repository;
+
+import com.jarq.system.dao.CurrentUnitOfWork;
+import com.jarq.system.dao.IEntityCache;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.models.text.IText;
+import com.jarq.system.models.user.IUser;
+
+import java.util.Collection;
+import java.util.List;
+
+public class CachedDaoRepository implements IDaoRepository {
+
+    /**
+     * read-through, write-through cache of repositories imported by id (parents looked up on every save),
+     * callers get copies, removed repository takes its cached texts with it
+     */
+
+    private final IDaoRepository dao;
+    private final IEntityCache<IRepository> repositories;
+    private final IEntityCache<IText> texts;
+
+    public static IDaoRepository getInstance(IDaoRepository dao, IEntityCache<IRepository> repositories,
+                                             IEntityCache<IText> texts) {
+        return new CachedDaoRepository(dao, repositories, texts);
+    }
+
+    private CachedDaoRepository(IDaoRepository dao, IEntityCache<IRepository> repositories,
+                                IEntityCache<IText> texts) {
+        this.dao = dao;
+        this.repositories = repositories;
+        this.texts = texts;
+    }
+
+    @Override
+    public IRepository createNullRepository() {
+        return dao.createNullRepository();
+    }
+
+    @Override
+    public IRepository createRepository(IUser user, String repositoryName) throws DaoFailure {
+        IRepository repository = dao.createRepository(user, repositoryName);
+        cache(repository);
+        return repository;
+    }
+
+    @Override
+    public IRepository importRepository(int repositoryId) throws DaoFailure {
+        IRepository cached = repositories.get(repositoryId);
+        if(cached != null) {
+            return copy(cached);
+        }
+        long stamp = repositories.stamp();
+        IRepository repository = dao.importRepository(repositoryId);
+        repositories.putIfUnchanged(repositoryId, copy(repository), stamp);
+        return repository;
+    }
+
+    @Override
+    public List<IRepository> importRepositoriesByUserId(int userId) throws DaoFailure {
+        return dao.importRepositoriesByUserId(userId);
+    }
+
+    @Override
+    public List<IRepository> importRepositoriesByUser(IUser user) throws DaoFailure {
+        return dao.importRepositoriesByUser(user);
+    }
+
+    @Override
+    public boolean updateRepository(IRepository repository) throws DaoFailure {
+        try {
+            boolean isUpdated = dao.updateRepository(repository);
+            if(isUpdated) {
+                cache(repository);
+            } else {
+                repositories.invalidate(repository.getId());
+            }
+            return isUpdated;
+
+        } catch (DaoFailure ex) {
+            repositories.invalidate(repository.getId());
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean removeRepository(IRepository repository) throws DaoFailure {
+        return removeRepository(repository.getId());
+    }
+
+    @Override
+    public boolean removeRepository(int repositoryId) throws DaoFailure {
+        try {
+            return dao.removeRepository(repositoryId);
+        } finally {
+            invalidate(repositoryId);
+        }
+    }
+
+    @Override
+    public int removeRepositoriesByUserId(int userId) throws DaoFailure {
+        try {
+            return dao.removeRepositoriesByUserId(userId);
+        } finally {
+            repositories.invalidateIf(repository -> repository.getUserId() == userId);
+            texts.invalidateIf(text -> text.getUserId() == userId);
+        }
+    }
+
+    @Override
+    public int removeRepositoriesByUser(IUser user) throws DaoFailure {
+        return removeRepositoriesByUserId(user.getId());
+    }
+
+    @Override
+    public int removeRepositories(Collection<Integer> repositoryIds) throws DaoFailure {
+        try {
+            return dao.removeRepositories(repositoryIds);
+        } finally {
+            repositoryIds.forEach(this::invalidate);
+        }
+    }
+
+    private void cache(IRepository repository) {
+        int repositoryId = repository.getId();
+        repositories.put(repositoryId, copy(repository));
+        CurrentUnitOfWork.onRollback(() -> repositories.invalidate(repositoryId));
+    }
+
+    private void invalidate(int repositoryId) {
+        repositories.invalidate(repositoryId);
+        texts.invalidateIf(text -> text.getRepositoryId() == repositoryId);
+    }
+
+    private IRepository copy(IRepository repository) {
+        Repository copy = new Repository(repository.getId(), repository.getName(),
+                repository.getCreationDate(), repository.getUserId());
+        copy.setLastModificationDate(repository.getLastModificationDate());
+        return copy;
+    }
+}
@@ -4,6 +4,7 @@ import com.jarq.system.dao.Dao;
 import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.models.user.IUser;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface IDaoRepository extends Dao {
@@ -24,7 +25,10 @@ public interface IDaoRepository extends Dao {
 
     boolean removeRepository(int repositoryId) throws DaoFailure;
 
-    boolean removeRepositoriesByUserId(int userId) throws DaoFailure;
+    // bulk removals return number of removed repositories (texts & contents go by cascade)
+    int removeRepositoriesByUserId(int userId) throws DaoFailure;
 
-    boolean removeRepositoriesByUser(IUser user) throws DaoFailure;
+    int removeRepositoriesByUser(IUser user) throws DaoFailure;
+
+    int removeRepositories(Collection<Integer> repositoryIds) throws DaoFailure;
 }
@@ -3,24 +3,29 @@ package com.jarq.system.models.repository;
 import com.jarq.system.dao.SqlDao;
 import com.jarq.system.enums.DbTable;
 import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
 import com.jarq.system.helpers.datetimer.IDateTimer;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
 import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
 import com.jarq.system.models.user.IUser;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class SQLiteDaoRepository extends SqlDao implements IDaoRepository {
 
+    private static final String COLUMNS = "id, name, creation_date, last_modification_date, user_id";
     private final String defaultTable;
     private final IDateTimer dateTimer;
 
-    public SQLiteDaoRepository(Connection connection, JDBCProcessManager processManager,
-                               DbTable defaultTable, IDateTimer dateTimer) {
-        super(connection, processManager);
+    public SQLiteDaoRepository(DatabaseManager databaseManager, JDBCProcessManager processManager,
+                               IIdAllocator idAllocator, DbTable defaultTable,
+                               IDateTimer dateTimer) {
+        super(databaseManager, processManager, idAllocator);
         this.defaultTable = defaultTable.getTable();
         this.dateTimer = dateTimer;
     }
@@ -41,50 +46,52 @@ public class SQLiteDaoRepository extends SqlDao implements IDaoRepository {
         String query = String.format("INSERT INTO %s " +
                 "VALUES(?, ?, ?, ?, ?)", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, id);
-            preparedStatement.setString(2, repositoryName);
-            preparedStatement.setString(3, creationDateTime);
-            preparedStatement.setString(4, creationDateTime);
-            preparedStatement.setInt(5, userId);
-
-            getProcessManager().executeStatement(preparedStatement);
+        try {
+            withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setInt(1, id);
+                preparedStatement.setString(2, repositoryName);
+                preparedStatement.setString(3, creationDateTime);
+                preparedStatement.setString(4, creationDateTime);
+                preparedStatement.setInt(5, userId);
+            }, this::executeStatement);
 
             return repository;
 
         } catch (SQLException ex) {
+            releaseId(defaultTable, id);
             throw new DaoFailure(ex.getMessage());
         }
     }
 
     @Override
     public IRepository importRepository(int repositoryId) throws DaoFailure {
-        String query = String.format("SELECT * FROM %s WHERE id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, repositoryId);
-            return extractRepository(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, repositoryId),
+                    this::extractRepository);
 
         } catch(SQLException | DaoFailure ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
     @Override
     public List<IRepository> importRepositoriesByUserId(int userId) throws DaoFailure {
-        List<IRepository> repositories = new ArrayList<>();
-        String query = String.format("SELECT * FROM %s WHERE user_id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, userId);
-
-            List<String[]> repositoriesData = getProcessManager()
-                    .getObjectsDataCollection(preparedStatement);
-            for(String[] data : repositoriesData) {
-                repositories.add(extractRepositoryFromTable(data));
-            }
-            return repositories;
+        String query = String.format("SELECT %s FROM %s WHERE user_id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::extractRepositories);
 
-        } catch(SQLException | DaoFailure ex){
+        } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
@@ -105,14 +112,14 @@ public class SQLiteDaoRepository extends SqlDao implements IDaoRepository {
         String query = String.format(   "UPDATE %s SET name=?, creation_date=?, last_modification_date=?, " +
                 "user_id=? WHERE id=?", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setString(1, name);
-            preparedStatement.setString(2, creationDate);
-            preparedStatement.setString(3, lastModificationDate);
-            preparedStatement.setInt(4, userId);
-            preparedStatement.setInt(5, id);
-
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            return withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, name);
+                preparedStatement.setString(2, creationDate);
+                preparedStatement.setString(3, lastModificationDate);
+                preparedStatement.setInt(4, userId);
+                preparedStatement.setInt(5, id);
+            }, this::executeStatement);
 
         } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
@@ -128,10 +135,14 @@ public class SQLiteDaoRepository extends SqlDao implements IDaoRepository {
     public boolean removeRepository(int repositoryId) throws DaoFailure {
         String query = String.format("DELETE FROM %s WHERE id=?", defaultTable);
 
-        try (PreparedStatement preparedStatement = getConnection().prepareStatement(query)) {
-            preparedStatement.setInt(1, repositoryId);
-
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            boolean isRemoved = withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, repositoryId),
+                    this::executeStatement);
+            if(isRemoved) {
+                releaseRemovedId(defaultTable, repositoryId);
+            }
+            return isRemoved;
 
         } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
@@ -139,59 +150,57 @@ public class SQLiteDaoRepository extends SqlDao implements IDaoRepository {
     }
 
     @Override
-    public boolean removeRepositoriesByUserId(int userId) throws DaoFailure {
-        String query = String.format("SELECT id FROM %s WHERE user_id=?", defaultTable);
-
-        try (PreparedStatement preparedStatement = getConnection().prepareStatement(query)) {
-            preparedStatement.setInt(1, userId);
-            List<String[]> nestedCollection = getProcessManager().getObjectsDataCollection(preparedStatement);
-            int[] idCollection = gatherIdFromNestedList(nestedCollection);
-            for(int repositoryId : idCollection) {
-                removeRepository(repositoryId);
-            }
-            return true;
+    public int removeRepositoriesByUserId(int userId) throws DaoFailure {
+        // single statement - texts & contents are removed by ON DELETE CASCADE
+        String query = String.format("DELETE FROM %s WHERE user_id=?", defaultTable);
+
+        try {
+            return withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::executeUpdate);
 
-        } catch (Exception ex) {
+        } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
     }
 
     @Override
-    public boolean removeRepositoriesByUser(IUser user) throws DaoFailure {
+    public int removeRepositoriesByUser(IUser user) throws DaoFailure {
         return removeRepositoriesByUserId(user.getId());
     }
 
+    @Override
+    public int removeRepositories(Collection<Integer> repositoryIds) throws DaoFailure {
+        return removeByIds(defaultTable, repositoryIds);
+    }
+
     private IRepository extractRepository(PreparedStatement preparedStatement) throws DaoFailure, SQLException {
-        String[] repositoryData = getProcessManager().getObjectData(preparedStatement);
-        if(repositoryData.length > 0) {
-            return extractRepositoryFromTable(repositoryData);
+        IRepository repository = getProcessManager().getObject(preparedStatement, this::mapRepository);
+        if(repository != null) {
+            return repository;
         } else {
             throw new DaoFailure("There's no such repository in database!");
         }
     }
 
-    private IRepository extractRepositoryFromTable(String[] repositoryData) throws DaoFailure {
-
-        int ID_INDEX = 0;
-        int NAME_INDEX = 1;
-        int CREATION_DATE_INDEX = 2;
-        int MODIFICATION_DATE_INDEX = 3;
-        int USER_ID_INDEX = 4;
-
-        try {
-            int id = Integer.parseInt(repositoryData[ID_INDEX]);
-            String name = repositoryData[NAME_INDEX];
-            String creationDate = repositoryData[CREATION_DATE_INDEX];
-            String lastModificationDate = repositoryData[MODIFICATION_DATE_INDEX];
-            int userId = Integer.parseInt(repositoryData[USER_ID_INDEX]);
-
-            IRepository repository = new Repository(id, name, creationDate, userId);
-            repository.setLastModificationDate(lastModificationDate);
-
-            return repository;
+    private List<IRepository> extractRepositories(PreparedStatement preparedStatement) throws SQLException {
+        return getProcessManager().getObjectsCollection(preparedStatement, this::mapRepository);
+    }
 
-        } catch (Exception ex) {
-            throw new DaoFailure(ex.getMessage());
-        }
+    private IRepository mapRepository(ResultSet resultSet) throws SQLException {
+
+        // column indexes follow COLUMNS order
+        final int ID_INDEX = 1;
+        final int NAME_INDEX = 2;
+        final int CREATION_DATE_INDEX = 3;
+        final int MODIFICATION_DATE_INDEX = 4;
+        final int USER_ID_INDEX = 5;
+
+        IRepository repository = new Repository(resultSet.getInt(ID_INDEX),
+                                                resultSet.getString(NAME_INDEX),
+                                                resultSet.getString(CREATION_DATE_INDEX),
+                                                resultSet.getInt(USER_ID_INDEX));
+        repository.setLastModificationDate(resultSet.getString(MODIFICATION_DATE_INDEX));
+        return repository;
     }
 }
@@ -0,0 +1,150 @@
+package com.jarq.system.models.text;
+
+import com.jarq.system.dao.CurrentUnitOfWork;
+import com.jarq.system.dao.IEntityCache;
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.user.IUser;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CachedDaoText implements IDaoText {
+
+    /**
+     * read-through, write-through cache of texts imported by id - callers get copies (texts are mutable),
+     * lists, pages & streams always come from database
+     */
+
+    private final IDaoText dao;
+    private final IEntityCache<IText> texts;
+
+    public static IDaoText getInstance(IDaoText dao, IEntityCache<IText> texts) {
+        return new CachedDaoText(dao, texts);
+    }
+
+    private CachedDaoText(IDaoText dao, IEntityCache<IText> texts) {
+        this.dao = dao;
+        this.texts = texts;
+    }
+
+    @Override
+    public IText createNullText() {
+        return dao.createNullText();
+    }
+
+    @Override
+    public IText createText(IRepository repository, String title) throws DaoFailure {
+        IText text = dao.createText(repository, title);
+        cache(text);
+        return text;
+    }
+
+    @Override
+    public IText importText(int textId) throws DaoFailure {
+        IText cached = texts.get(textId);
+        if(cached != null) {
+            return copy(cached);
+        }
+        long stamp = texts.stamp();
+        IText text = dao.importText(textId);
+        texts.putIfUnchanged(textId, copy(text), stamp);
+        return text;
+    }
+
+    @Override
+    public List<IText> importTextsByRepositoryId(int repositoryId) throws DaoFailure {
+        return dao.importTextsByRepositoryId(repositoryId);
+    }
+
+    @Override
+    public List<IText> importTextsByRepository(IRepository repository) throws DaoFailure {
+        return dao.importTextsByRepository(repository);
+    }
+
+    @Override
+    public List<IText> importTextsByUser(IUser user) throws DaoFailure {
+        return dao.importTextsByUser(user);
+    }
+
+    @Override
+    public Page<IText> importTextsByRepositoryId(int repositoryId, PageCursor cursor, int pageSize)
+            throws DaoFailure {
+        return dao.importTextsByRepositoryId(repositoryId, cursor, pageSize);
+    }
+
+    @Override
+    public Page<IText> importTextsByUser(IUser user, PageCursor cursor, int pageSize) throws DaoFailure {
+        return dao.importTextsByUser(user, cursor, pageSize);
+    }
+
+    @Override
+    public Stream<IText> streamTextsByUser(IUser user, int fetchSize) throws DaoFailure {
+        return dao.streamTextsByUser(user, fetchSize);
+    }
+
+    @Override
+    public boolean updateText(IText text) throws DaoFailure {
+        try {
+            boolean isUpdated = dao.updateText(text);
+            if(isUpdated) {
+                cache(text);
+            } else {
+                texts.invalidate(text.getId());
+            }
+            return isUpdated;
+
+        } catch (DaoFailure ex) {
+            texts.invalidate(text.getId());
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean removeText(IText text) throws DaoFailure {
+        return removeText(text.getId());
+    }
+
+    @Override
+    public boolean removeText(int textId) throws DaoFailure {
+        try {
+            return dao.removeText(textId);
+        } finally {
+            texts.invalidate(textId);
+        }
+    }
+
+    @Override
+    public int removeTextsByRepositoryId(int repositoryId) throws DaoFailure {
+        try {
+            return dao.removeTextsByRepositoryId(repositoryId);
+        } finally {
+            texts.invalidateIf(text -> text.getRepositoryId() == repositoryId);
+        }
+    }
+
+    @Override
+    public int removeTexts(Collection<Integer> textIds) throws DaoFailure {
+        try {
+            return dao.removeTexts(textIds);
+        } finally {
+            textIds.forEach(texts::invalidate);
+        }
+    }
+
+    private void cache(IText text) {
+        int textId = text.getId();
+        texts.put(textId, copy(text));
+        CurrentUnitOfWork.onRollback(() -> texts.invalidate(textId));
+    }
+
+    private IText copy(IText text) {
+        Text copy = new Text(text.getId(), text.getTitle(), text.getCreationDate(),
+                text.getRepositoryId(), text.getUserId());
+        copy.setModificationDate(text.getModificationDate());
+        return copy;
+    }
+}
@@ -1,11 +1,15 @@
 package com.jarq.system.models.text;
 
 import com.jarq.system.dao.Dao;
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.models.repository.IRepository;
 import com.jarq.system.models.user.IUser;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IDaoText extends Dao {
 
@@ -22,9 +26,22 @@ public interface IDaoText extends Dao {
 
     List<IText> importTextsByUser(IUser user) throws DaoFailure;
 
+    // most recently modified first
+    Page<IText> importTextsByRepositoryId(int repositoryId, PageCursor cursor, int pageSize) throws DaoFailure;
+
+    Page<IText> importTextsByUser(IUser user, PageCursor cursor, int pageSize) throws DaoFailure;
+
+    // stream keeps read connection until closed - use try-with-resources
+    Stream<IText> streamTextsByUser(IUser user, int fetchSize) throws DaoFailure;
+
     boolean updateText(IText text) throws DaoFailure;
 
     boolean removeText(IText text) throws DaoFailure;
 
     boolean removeText(int textId) throws DaoFailure;
+
+    // bulk removals return number of removed texts (contents go by cascade)
+    int removeTextsByRepositoryId(int repositoryId) throws DaoFailure;
+
+    int removeTexts(Collection<Integer> textIds) throws DaoFailure;
 }
@@ -1,27 +1,36 @@
 package com.jarq.system.models.text;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.dao.SqlDao;
 import com.jarq.system.enums.DbTable;
 import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
 import com.jarq.system.helpers.datetimer.IDateTimer;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
 import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
 import com.jarq.system.models.repository.IRepository;
 import com.jarq.system.models.user.IUser;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class SQLiteDaoText extends SqlDao implements IDaoText {
 
+    private static final String COLUMNS = "id, title, creation_date, last_modification_date, " +
+                                          "repository_id, user_id";
     private final String defaultTable;
     private final IDateTimer dateTimer;
 
-    public SQLiteDaoText(Connection connection, JDBCProcessManager processManager,
-                         DbTable defaultTable, IDateTimer dateTimer) {
-        super(connection, processManager);
+    public SQLiteDaoText(DatabaseManager databaseManager, JDBCProcessManager processManager,
+                         IIdAllocator idAllocator, DbTable defaultTable,
+                         IDateTimer dateTimer) {
+        super(databaseManager, processManager, idAllocator);
         this.defaultTable = defaultTable.getTable();
         this.dateTimer = dateTimer;
     }
@@ -44,18 +53,19 @@ public class SQLiteDaoText extends SqlDao implements IDaoText {
         String query = String.format("INSERT INTO %s " +
                 "VALUES(?, ?, ?, ?, ?, ?)", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, id);
-            preparedStatement.setString(2, title);
-            preparedStatement.setString(3, creationDate);
-            preparedStatement.setString(4, creationDate);
-            preparedStatement.setInt(5, repositoryId);
-            preparedStatement.setInt(6, userId);
-
-            getProcessManager().executeStatement(preparedStatement);
+        try {
+            withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setInt(1, id);
+                preparedStatement.setString(2, title);
+                preparedStatement.setString(3, creationDate);
+                preparedStatement.setString(4, creationDate);
+                preparedStatement.setInt(5, repositoryId);
+                preparedStatement.setInt(6, userId);
+            }, this::executeStatement);
             return text;
 
         } catch (SQLException ex) {
+            releaseId(defaultTable, id);
             throw new DaoFailure(ex.getMessage());
         }
     }
@@ -63,25 +73,33 @@ public class SQLiteDaoText extends SqlDao implements IDaoText {
     @Override
     public IText importText(int textId) throws DaoFailure {
 
-        String query = String.format("SELECT * FROM %s WHERE id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, textId);
-            return extractText(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, textId),
+                    this::extractText);
 
         } catch(SQLException | DaoFailure ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
     @Override
     public List<IText> importTextsByRepositoryId(int repositoryId) throws DaoFailure {
-        String query = String.format("SELECT * FROM %s WHERE repository_id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, repositoryId);
-            return extractTexts(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE repository_id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, repositoryId),
+                    this::extractTexts);
 
-        } catch(SQLException | DaoFailure ex){
+        } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
@@ -94,12 +112,41 @@ public class SQLiteDaoText extends SqlDao implements IDaoText {
     public List<IText> importTextsByUser(IUser user) throws DaoFailure {
 
         int userId = user.getId();
-        String query = String.format("SELECT * FROM %s WHERE user_id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, userId);
-            return extractTexts(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE user_id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::extractTexts);
 
-        } catch(SQLException | DaoFailure ex){
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public Page<IText> importTextsByRepositoryId(int repositoryId, PageCursor cursor, int pageSize)
+            throws DaoFailure {
+        return importTextsPage("repository_id", repositoryId, cursor, pageSize);
+    }
+
+    @Override
+    public Page<IText> importTextsByUser(IUser user, PageCursor cursor, int pageSize) throws DaoFailure {
+        return importTextsPage("user_id", user.getId(), cursor, pageSize);
+    }
+
+    @Override
+    public Stream<IText> streamTextsByUser(IUser user, int fetchSize) throws DaoFailure {
+
+        int userId = user.getId();
+        String query = String.format("SELECT %s FROM %s WHERE user_id=?", COLUMNS, defaultTable);
+        try {
+            return streamObjects(query, preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::mapText, fetchSize);
+
+        } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
         }
     }
@@ -118,68 +165,103 @@ public class SQLiteDaoText extends SqlDao implements IDaoText {
     public boolean removeText(int textId) throws DaoFailure {
 
         String query = String.format("DELETE FROM %s WHERE id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, textId);
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            boolean isRemoved = withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, textId),
+                    this::executeStatement);
+            if(isRemoved) {
+                releaseRemovedId(defaultTable, textId);
+            }
+            return isRemoved;
 
         } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
     }
 
-    private IText extractText(PreparedStatement preparedStatement)
-            throws DaoFailure, SQLException {
-
-        String[] textData = getProcessManager().getObjectData(preparedStatement);
-        if(textData.length > 0) {
-            return extractTextFromTable(textData);
-        } else {
-            throw new DaoFailure("There's no such text in database!");
-        }
-    }
+    @Override
+    public int removeTextsByRepositoryId(int repositoryId) throws DaoFailure {
 
-    private List<IText> extractTexts(PreparedStatement preparedStatement)
-            throws DaoFailure, SQLException {
+        String query = String.format("DELETE FROM %s WHERE repository_id=?", defaultTable);
         try {
-            List<String[]> dataCollection = getProcessManager().getObjectsDataCollection(preparedStatement);
-            List<IText> texts = new ArrayList<>();
+            return withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, repositoryId),
+                    this::executeUpdate);
 
-            for(String[] data : dataCollection) {
-                texts.add(extractTextFromTable(data));
-            }
-            return texts;
-        } catch (DaoFailure ex) {
+        } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
     }
 
-    private IText extractTextFromTable(String[] textData) throws DaoFailure {
+    @Override
+    public int removeTexts(Collection<Integer> textIds) throws DaoFailure {
+        return removeByIds(defaultTable, textIds);
+    }
 
-        int ID_INDEX = 0;
-        int TITLE_INDEX = 1;
-        int CREATION_DATE_INDEX = 2;
-        int LAST_MODIFICATION_DATE_INDEX = 3;
-        int REPOSITORY_ID_INDEX = 4;
-        int USER_ID_INDEX = 5;
+    private Page<IText> importTextsPage(String ownerColumn, int ownerId, PageCursor cursor, int pageSize)
+            throws DaoFailure {
 
+        checkPageSize(pageSize);
+        // seek past last row of previous page instead of OFFSET - deep pages cost like the first one
+        String seek = cursor.isFirst() ? "" : " AND (last_modification_date, id) < (?, ?)";
+        String query = String.format(   "SELECT %s FROM %s WHERE %s=?%s " +
+                                        "ORDER BY last_modification_date DESC, id DESC LIMIT ?",
+                                        COLUMNS, defaultTable, ownerColumn, seek);
+        Connection connection = getReadConnection();
         try {
-            int id = Integer.parseInt(textData[ID_INDEX]);
-            String title = textData[TITLE_INDEX];
-            String creationDate = textData[CREATION_DATE_INDEX];
-            String lastModificationDate = textData[LAST_MODIFICATION_DATE_INDEX];
-            int repositoryId = Integer.parseInt(textData[REPOSITORY_ID_INDEX]);
-            int userId = Integer.parseInt(textData[USER_ID_INDEX]);
+            List<IText> rows = withStatement(connection, query, preparedStatement -> {
+                int index = 1;
+                preparedStatement.setInt(index++, ownerId);
+                if(! cursor.isFirst()) {
+                    preparedStatement.setString(index++, cursor.getSortKey());
+                    preparedStatement.setInt(index++, cursor.getId());
+                }
+                preparedStatement.setInt(index, pageSize + 1);
+            }, this::extractTexts);
+            return Page.of(rows, pageSize,
+                    text -> PageCursor.after(text.getModificationDate(), text.getId()));
+
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
 
-            IText text = new Text(id, title, creationDate, repositoryId, userId);
-            text.setModificationDate(lastModificationDate);
+    private IText extractText(PreparedStatement preparedStatement)
+            throws DaoFailure, SQLException {
 
+        IText text = getProcessManager().getObject(preparedStatement, this::mapText);
+        if(text != null) {
             return text;
-
-        } catch (Exception ex) {
-            throw new DaoFailure(ex.getMessage());
+        } else {
+            throw new DaoFailure("There's no such text in database!");
         }
     }
 
+    private List<IText> extractTexts(PreparedStatement preparedStatement) throws SQLException {
+        return getProcessManager().getObjectsCollection(preparedStatement, this::mapText);
+    }
+
+    private IText mapText(ResultSet resultSet) throws SQLException {
+
+        // column indexes follow COLUMNS order
+        final int ID_INDEX = 1;
+        final int TITLE_INDEX = 2;
+        final int CREATION_DATE_INDEX = 3;
+        final int LAST_MODIFICATION_DATE_INDEX = 4;
+        final int REPOSITORY_ID_INDEX = 5;
+        final int USER_ID_INDEX = 6;
+
+        IText text = new Text(  resultSet.getInt(ID_INDEX),
+                                resultSet.getString(TITLE_INDEX),
+                                resultSet.getString(CREATION_DATE_INDEX),
+                                resultSet.getInt(REPOSITORY_ID_INDEX),
+                                resultSet.getInt(USER_ID_INDEX));
+        text.setModificationDate(resultSet.getString(LAST_MODIFICATION_DATE_INDEX));
+        return text;
+    }
+
     private boolean update(IText text) throws DaoFailure {
 
         int id = text.getId();
@@ -190,12 +272,12 @@ public class SQLiteDaoText extends SqlDao implements IDaoText {
         String query = String.format(   "UPDATE %s SET title=?, last_modification_date=? " +
                                         "WHERE id=?", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setString(1, title);
-            preparedStatement.setString(2, lastModificationDate);
-            preparedStatement.setInt(3, id);
-
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            return withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, title);
+                preparedStatement.setString(2, lastModificationDate);
+                preparedStatement.setInt(3, id);
+            }, this::executeStatement);
 
         } catch(SQLException ex) {
             throw new DaoFailure(ex.getMessage());
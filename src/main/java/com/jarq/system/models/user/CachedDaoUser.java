@@ -0,0 +1,139 @@
+package com.jarq.system.models.user;
+
+import com.jarq.system.dao.CurrentUnitOfWork;
+import com.jarq.system.dao.IEntityCache;
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.text.IText;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CachedDaoUser implements IDaoUser {
+
+    /**
+     * read-through, write-through cache of users imported by id - callers get copies (users are mutable),
+     * removed user takes its cached repositories & texts with it (they go by cascade)
+     */
+
+    private final IDaoUser dao;
+    private final IEntityCache<IUser> users;
+    private final IEntityCache<IRepository> repositories;
+    private final IEntityCache<IText> texts;
+
+    public static IDaoUser getInstance(IDaoUser dao, IEntityCache<IUser> users,
+                                       IEntityCache<IRepository> repositories, IEntityCache<IText> texts) {
+        return new CachedDaoUser(dao, users, repositories, texts);
+    }
+
+    private CachedDaoUser(IDaoUser dao, IEntityCache<IUser> users,
+                          IEntityCache<IRepository> repositories, IEntityCache<IText> texts) {
+        this.dao = dao;
+        this.users = users;
+        this.repositories = repositories;
+        this.texts = texts;
+    }
+
+    @Override
+    public IUser createNullUser() {
+        return dao.createNullUser();
+    }
+
+    @Override
+    public IUser createUser(String name, String surname, String email) throws DaoFailure {
+        IUser user = dao.createUser(name, surname, email);
+        cache(user);
+        return user;
+    }
+
+    @Override
+    public IUser importUser(int userId) throws DaoFailure {
+        IUser cached = users.get(userId);
+        if(cached != null) {
+            return copy(cached);
+        }
+        long stamp = users.stamp();
+        IUser user = dao.importUser(userId);
+        users.putIfUnchanged(userId, copy(user), stamp);
+        return user;
+    }
+
+    @Override
+    public IUser importUserByMail(String email) throws DaoFailure {
+        return dao.importUserByMail(email);
+    }
+
+    @Override
+    public List<IUser> importAllUsers() throws DaoFailure {
+        return dao.importAllUsers();
+    }
+
+    @Override
+    public Page<IUser> importAllUsers(PageCursor cursor, int pageSize) throws DaoFailure {
+        return dao.importAllUsers(cursor, pageSize);
+    }
+
+    @Override
+    public Stream<IUser> streamAllUsers(int fetchSize) throws DaoFailure {
+        return dao.streamAllUsers(fetchSize);
+    }
+
+    @Override
+    public boolean updateUser(IUser user) throws DaoFailure {
+        try {
+            boolean isUpdated = dao.updateUser(user);
+            if(isUpdated) {
+                cache(user);
+            } else {
+                users.invalidate(user.getId());
+            }
+            return isUpdated;
+
+        } catch (DaoFailure ex) {
+            users.invalidate(user.getId());
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean removeUser(IUser user) throws DaoFailure {
+        return removeUser(user.getId());
+    }
+
+    @Override
+    public boolean removeUser(int userId) throws DaoFailure {
+        try {
+            return dao.removeUser(userId);
+        } finally {
+            invalidate(userId);
+        }
+    }
+
+    @Override
+    public int removeUsers(Collection<Integer> userIds) throws DaoFailure {
+        try {
+            return dao.removeUsers(userIds);
+        } finally {
+            userIds.forEach(this::invalidate);
+        }
+    }
+
+    private void cache(IUser user) {
+        int userId = user.getId();
+        users.put(userId, copy(user));
+        CurrentUnitOfWork.onRollback(() -> users.invalidate(userId));
+    }
+
+    private void invalidate(int userId) {
+        users.invalidate(userId);
+        repositories.invalidateIf(repository -> repository.getUserId() == userId);
+        texts.invalidateIf(text -> text.getUserId() == userId);
+    }
+
+    private IUser copy(IUser user) {
+        return new User(user.getId(), user.getName(), user.getSurname(), user.getEmail(), user.getPassword());
+    }
+}
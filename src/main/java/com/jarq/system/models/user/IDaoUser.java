@@ -1,9 +1,13 @@
 package com.jarq.system.models.user;
 
 import com.jarq.system.dao.Dao;
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.exceptions.DaoFailure;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface IDaoUser extends Dao {
 
@@ -18,9 +22,18 @@ public interface IDaoUser extends Dao {
 
     List<IUser> importAllUsers() throws DaoFailure;
 
+    // ordered by id
+    Page<IUser> importAllUsers(PageCursor cursor, int pageSize) throws DaoFailure;
+
+    // stream keeps read connection until closed - use try-with-resources
+    Stream<IUser> streamAllUsers(int fetchSize) throws DaoFailure;
+
     boolean updateUser(IUser user) throws DaoFailure;
 
     boolean removeUser(IUser user) throws DaoFailure;
 
     boolean removeUser(int userId) throws DaoFailure;
+
+    // returns number of removed users (their addresses, repositories, texts & contents go by cascade)
+    int removeUsers(Collection<Integer> userIds) throws DaoFailure;
 }
@@ -1,23 +1,30 @@
 package com.jarq.system.models.user;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.dao.SqlDao;
 import com.jarq.system.enums.DbTable;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
 import com.jarq.system.managers.databaseManagers.JDBCProcessManager;
 import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.idAllocator.IIdAllocator;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class SQLiteDaoUser extends SqlDao implements IDaoUser {
 
+    private static final String COLUMNS = "id, name, surname, email, password";
     private final String defaultTable;
 
-    public SQLiteDaoUser(Connection connection, JDBCProcessManager processManager,
-                         DbTable defaultTable) {
-        super(connection, processManager);
+    public SQLiteDaoUser(DatabaseManager databaseManager, JDBCProcessManager processManager,
+                         IIdAllocator idAllocator, DbTable defaultTable) {
+        super(databaseManager, processManager, idAllocator);
         this.defaultTable = defaultTable.getTable();
     }
 
@@ -35,59 +42,102 @@ public class SQLiteDaoUser extends SqlDao implements IDaoUser {
         String query = String.format("INSERT INTO %s " +
                 "VALUES(?, ?, ?, ?, ?)", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, id);
-            preparedStatement.setString(2, name);
-            preparedStatement.setString(3, surname);
-            preparedStatement.setString(4, email);
-            preparedStatement.setString(5, temporaryPassword);
-
-            getProcessManager().executeStatement(preparedStatement);
+        try {
+            withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setInt(1, id);
+                preparedStatement.setString(2, name);
+                preparedStatement.setString(3, surname);
+                preparedStatement.setString(4, email);
+                preparedStatement.setString(5, temporaryPassword);
+            }, this::executeStatement);
 
             return user;
 
         } catch (SQLException ex) {
+            releaseId(defaultTable, id);
             throw new DaoFailure(ex.getMessage());
         }
     }
 
     @Override
     public IUser importUser(int userId) throws DaoFailure {
-        String query = String.format("SELECT * FROM %s WHERE id=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setInt(1, userId);
-            return extractUser(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE id=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::extractUser);
 
         } catch(SQLException | DaoFailure ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
     @Override
     public IUser importUserByMail(String email) throws DaoFailure {
-        String query = String.format("SELECT * FROM %s WHERE email=?", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setString(1, email);
-            return extractUser(preparedStatement);
+        String query = String.format("SELECT %s FROM %s WHERE email=?", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query,
+                    preparedStatement -> preparedStatement.setString(1, email),
+                    this::extractUser);
 
         } catch(SQLException | DaoFailure ex){
             throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
         }
     }
 
     @Override
     public List<IUser> importAllUsers() throws DaoFailure {
-        List<IUser> users = new ArrayList<>();
-        String query = String.format("SELECT * FROM %s", defaultTable);
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
+        String query = String.format("SELECT %s FROM %s", COLUMNS, defaultTable);
+        Connection connection = getReadConnection();
+        try {
+            return withStatement(connection, query, preparedStatement -> {},
+                    this::extractUsers);
 
-            List<String[]> usersData = getProcessManager().getObjectsDataCollection(preparedStatement);
-            for(String[] data : usersData) {
-                users.add(extractUserFromTable(data));
-            }
-            return users;
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
 
-        } catch(SQLException | DaoFailure ex){
+    @Override
+    public Page<IUser> importAllUsers(PageCursor cursor, int pageSize) throws DaoFailure {
+
+        checkPageSize(pageSize);
+        // seek on primary key instead of OFFSET
+        String seek = cursor.isFirst() ? "" : " WHERE id > ?";
+        String query = String.format("SELECT %s FROM %s%s ORDER BY id LIMIT ?", COLUMNS, defaultTable, seek);
+        Connection connection = getReadConnection();
+        try {
+            List<IUser> rows = withStatement(connection, query, preparedStatement -> {
+                int index = 1;
+                if(! cursor.isFirst()) {
+                    preparedStatement.setInt(index++, cursor.getId());
+                }
+                preparedStatement.setInt(index, pageSize + 1);
+            }, this::extractUsers);
+            return Page.of(rows, pageSize, user -> PageCursor.after(user.getId()));
+
+        } catch(SQLException ex){
+            throw new DaoFailure(ex.getMessage());
+        } finally {
+            releaseReadConnection(connection);
+        }
+    }
+
+    @Override
+    public Stream<IUser> streamAllUsers(int fetchSize) throws DaoFailure {
+        String query = String.format("SELECT %s FROM %s", COLUMNS, defaultTable);
+        try {
+            return streamObjects(query, preparedStatement -> {}, this::mapUser, fetchSize);
+
+        } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
         }
     }
@@ -104,14 +154,14 @@ public class SQLiteDaoUser extends SqlDao implements IDaoUser {
         String query = String.format(   "UPDATE %s SET name=?, surname=?, email=?, " +
                                         "password=? WHERE id=?", defaultTable);
 
-        try ( PreparedStatement preparedStatement = getConnection().prepareStatement(query) ) {
-            preparedStatement.setString(1, name);
-            preparedStatement.setString(2, surname);
-            preparedStatement.setString(3, email);
-            preparedStatement.setString(4, password);
-            preparedStatement.setInt(5, id);
-
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            return withStatement(getConnection(), query, preparedStatement -> {
+                preparedStatement.setString(1, name);
+                preparedStatement.setString(2, surname);
+                preparedStatement.setString(3, email);
+                preparedStatement.setString(4, password);
+                preparedStatement.setInt(5, id);
+            }, this::executeStatement);
 
         } catch(SQLException ex){
             throw new DaoFailure(ex.getMessage());
@@ -127,44 +177,51 @@ public class SQLiteDaoUser extends SqlDao implements IDaoUser {
     public boolean removeUser(int userId) throws DaoFailure {
         String query = String.format("DELETE FROM %s WHERE id=?", defaultTable);
 
-        try (PreparedStatement preparedStatement = getConnection().prepareStatement(query)) {
-            preparedStatement.setInt(1, userId);
-
-            return getProcessManager().executeStatement(preparedStatement);
+        try {
+            boolean isRemoved = withStatement(getConnection(), query,
+                    preparedStatement -> preparedStatement.setInt(1, userId),
+                    this::executeStatement);
+            if(isRemoved) {
+                releaseRemovedId(defaultTable, userId);
+            }
+            return isRemoved;
 
         } catch (SQLException ex) {
             throw new DaoFailure(ex.getMessage());
         }
     }
 
+    @Override
+    public int removeUsers(Collection<Integer> userIds) throws DaoFailure {
+        return removeByIds(defaultTable, userIds);
+    }
+
     private IUser extractUser(PreparedStatement preparedStatement) throws DaoFailure, SQLException {
-        String[] userData = getProcessManager().getObjectData(preparedStatement);
-        if(userData.length > 0) {
-            return extractUserFromTable(userData);
+        IUser user = getProcessManager().getObject(preparedStatement, this::mapUser);
+        if(user != null) {
+            return user;
         } else {
             throw new DaoFailure("There's no such user in database!");
         }
     }
 
-    private IUser extractUserFromTable(String[] userData) throws DaoFailure {
-
-        int ID_INDEX = 0;
-        int NAME_INDEX = 1;
-        int SURNAME_INDEX = 2;
-        int EMAIL_INDEX = 3;
-        int PASSWORD_INDEX = 4;
+    private List<IUser> extractUsers(PreparedStatement preparedStatement) throws SQLException {
+        return getProcessManager().getObjectsCollection(preparedStatement, this::mapUser);
+    }
 
-        try {
-            int id = Integer.parseInt(userData[ID_INDEX]);
-            String name = userData[NAME_INDEX];
-            String surname = userData[SURNAME_INDEX];
-            String email = userData[EMAIL_INDEX];
-            String password = userData[PASSWORD_INDEX];
+    private IUser mapUser(ResultSet resultSet) throws SQLException {
 
-            return new User(id, name, surname, email, password);
+        // column indexes follow COLUMNS order
+        final int ID_INDEX = 1;
+        final int NAME_INDEX = 2;
+        final int SURNAME_INDEX = 3;
+        final int EMAIL_INDEX = 4;
+        final int PASSWORD_INDEX = 5;
 
-        } catch (Exception ex) {
-            throw new DaoFailure(ex.getMessage());
-        }
+        return new User(resultSet.getInt(ID_INDEX),
+                        resultSet.getString(NAME_INDEX),
+                        resultSet.getString(SURNAME_INDEX),
+                        resultSet.getString(EMAIL_INDEX),
+                        resultSet.getString(PASSWORD_INDEX));
     }
 }
@@ -2,34 +2,37 @@ package com.jarq.system.service;
 
 import com.jarq.system.dao.IDaoFactory;
 import com.jarq.system.helpers.datetimer.IDateTimer;
-import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
 import com.jarq.system.log.ILog;
-import com.jarq.system.managers.filesManagers.IContentReader;
-import com.jarq.system.managers.filesManagers.IContentWriter;
 import com.jarq.system.managers.filesManagers.IRepositoryManager;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
 import com.jarq.system.models.address.SQLiteDaoAddress;
 import com.jarq.system.models.content.IDaoContent;
 import com.jarq.system.models.content.SQLiteDaoContent;
-import com.jarq.system.models.repository.SQLiteDaoRepository;
+import com.jarq.system.models.repository.IDaoRepository;
 import com.jarq.system.models.text.IDaoText;
-import com.jarq.system.models.text.SQLiteDaoText;
 import com.jarq.system.policy.IAddressPolicy;
 import com.jarq.system.policy.IEmailPolicy;
 import com.jarq.system.policy.IPasswordPolicy;
 import com.jarq.system.service.address.AddressService;
 import com.jarq.system.service.content.ContentService;
+import com.jarq.system.service.content.IContentCache;
+import com.jarq.system.service.content.IVersionStore;
 import com.jarq.system.service.repository.RepoService;
+import com.jarq.system.service.text.ITitleIndex;
 import com.jarq.system.service.text.TextService;
-import com.jarq.system.models.user.SQLiteDaoUser;
+import com.jarq.system.service.text.TitleIndex;
+import com.jarq.system.models.user.IDaoUser;
 import com.jarq.system.service.user.UserService;
 
 public class ServiceFactory implements IServiceFactory {
 
     private final IDaoFactory daoFactory;
     private final IRepositoryManager repositoryManager;
-    private final IContentReader<String> contentReader;
-    private final IContentWriter<String> contentWriter;
-    private final IRepositoryPath repositoryPath;
+    private final IVersionStore versionStore;
+    private final IContentCache contentCache;
+    private final ISearchIndex searchIndex;
+    private final ITitleIndex titleIndex;
+    private final int streamFetchSize;
     private final IDateTimer dateTimer;
     private final IEmailPolicy emailPolicy;
     private final IPasswordPolicy passwordPolicy;
@@ -40,24 +43,26 @@ public class ServiceFactory implements IServiceFactory {
 
     public static IServiceFactory getInstance(IDaoFactory daoFactory,
                                               IRepositoryManager repositoryManager,
-                                              IContentReader<String> contentReader,
-                                              IContentWriter<String> contentWriter,
-                                              IRepositoryPath repositoryPath,
+                                              IVersionStore versionStore,
+                                              IContentCache contentCache,
+                                              ISearchIndex searchIndex,
+                                              int streamFetchSize,
                                               IDateTimer dateTimer,
                                               IEmailPolicy emailPolicy,
                                               IPasswordPolicy passwordPolicy,
                                               IAddressPolicy addressPolicy,
                                               ILog log) {
         return new ServiceFactory(daoFactory, repositoryManager,
-                contentReader, contentWriter, repositoryPath, dateTimer,
+                versionStore, contentCache, searchIndex, streamFetchSize, dateTimer,
                 emailPolicy, passwordPolicy, addressPolicy, log);
     }
 
     private ServiceFactory(IDaoFactory daoFactory,
                            IRepositoryManager repositoryManager,
-                           IContentReader<String> contentReader,
-                           IContentWriter<String> contentWriter,
-                           IRepositoryPath repositoryPath,
+                           IVersionStore versionStore,
+                           IContentCache contentCache,
+                           ISearchIndex searchIndex,
+                           int streamFetchSize,
                            IDateTimer dateTimer,
                            IEmailPolicy emailPolicy,
                            IPasswordPolicy passwordPolicy,
@@ -65,9 +70,12 @@ public class ServiceFactory implements IServiceFactory {
                            ILog log) {
         this.daoFactory = daoFactory;
         this.repositoryManager = repositoryManager;
-        this.contentReader = contentReader;
-        this.contentWriter = contentWriter;
-        this.repositoryPath = repositoryPath;
+        this.versionStore = versionStore;
+        this.contentCache = contentCache;  // shared by all content services
+        this.searchIndex = searchIndex;  // updated by content services, queried by text services
+        this.streamFetchSize = streamFetchSize;  // rows read ahead by lazy streams
+        this.titleIndex = TitleIndex.getInstance(daoFactory.createDAO(IDaoText.class),
+                daoFactory.createDAO(IDaoUser.class), streamFetchSize);  // shared by services changing texts
         this.dateTimer = dateTimer;
         this.emailPolicy = emailPolicy;
         this.passwordPolicy = passwordPolicy;
@@ -85,38 +93,41 @@ public class ServiceFactory implements IServiceFactory {
             case("TextService"):
                 service = TextService.getInstance(
                             log, repositoryManager,
-                            daoFactory.createDAO(SQLiteDaoText.class),
-                            daoFactory.createDAO(SQLiteDaoRepository.class),
-                            daoFactory.createDAO(SQLiteDaoUser.class),
-                            dateTimer);
+                            daoFactory.createDAO(IDaoText.class),
+                            daoFactory.createDAO(IDaoRepository.class),
+                            daoFactory.createDAO(IDaoUser.class),
+                            dateTimer, searchIndex, titleIndex, streamFetchSize);
                 break;
             case("UserService"):
                 service = UserService.getInstance(
-                            log, daoFactory.createDAO(SQLiteDaoUser.class),
+                            log, daoFactory.createDAO(IDaoUser.class),
                             emailPolicy,
                             passwordPolicy,
-                            repositoryManager);
+                            repositoryManager,
+                            daoFactory.createDAO(IDaoText.class),
+                            searchIndex, titleIndex);
                 break;
             case("RepoService"):
                 service = RepoService.getInstance(
-                            log, daoFactory.createDAO(SQLiteDaoRepository.class),
-                            daoFactory.createDAO(SQLiteDaoUser.class),
-                            repositoryManager, dateTimer);
+                            log, daoFactory.createDAO(IDaoRepository.class),
+                            daoFactory.createDAO(IDaoUser.class),
+                            daoFactory.createDAO(IDaoText.class),
+                            repositoryManager, dateTimer, searchIndex, titleIndex);
                 break;
             case("AddressService"):
                 service = AddressService.getInstance(
                             log, daoFactory.createDAO(SQLiteDaoAddress.class),
-                            daoFactory.createDAO(SQLiteDaoUser.class),
+                            daoFactory.createDAO(IDaoUser.class),
                             addressPolicy);
                 break;
             case("ContentService"):
                 service = ContentService.getInstance(
-                        log, daoFactory.createDAO(SQLiteDaoContent.class),
-                        daoFactory.createDAO(SQLiteDaoText.class),
-                        daoFactory.createDAO(SQLiteDaoRepository.class),
+                        log, daoFactory.getGroupCommitter(),
+                        daoFactory.createDAO(SQLiteDaoContent.class),
+                        daoFactory.createDAO(IDaoText.class),
+                        daoFactory.createDAO(IDaoRepository.class),
                         repositoryManager, dateTimer,
-                        contentReader, contentWriter,
-                        repositoryPath);
+                        versionStore, contentCache, searchIndex, streamFetchSize);
         }
         return serviceType.cast(service);
     }
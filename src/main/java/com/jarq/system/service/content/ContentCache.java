@@ -0,0 +1,121 @@
+package com.jarq.system.service.content;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+public class ContentCache implements IContentCache {
+
+    /**
+     * LRU bounded by total bytes of cached data (not by entries count) - least recently read contents
+     * are evicted until new data fits, data larger than maxEntryBytes isn't cached at all
+     * (single huge note would flush everything else)
+     */
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final LinkedHashMap<Integer, CachedContent> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public static IContentCache getInstance(long maxBytes) {
+        return new ContentCache(maxBytes);
+    }
+
+    private ContentCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.maxEntryBytes = this.maxBytes / 8;
+    }
+
+    @Override
+    public synchronized byte[] get(int contentId, String filepath) {
+        CachedContent cached = entries.get(contentId);
+        if(cached != null && cached.filepath.equals(filepath)) {
+            hits++;
+            return cached.data;
+        }
+        misses++;
+        return null;
+    }
+
+    @Override
+    public synchronized void put(int contentId, String filepath, byte[] data) {
+        if(data.length > maxEntryBytes) {
+            invalidate(contentId);  // older data of the same content mustn't stay
+            return;
+        }
+        CachedContent previous = entries.put(contentId, new CachedContent(filepath, data));
+        if(previous != null) {
+            usedBytes -= previous.data.length;
+        }
+        usedBytes += data.length;
+        evictOverflow();
+    }
+
+    @Override
+    public synchronized void invalidate(int contentId) {
+        CachedContent removed = entries.remove(contentId);
+        if(removed != null) {
+            usedBytes -= removed.data.length;
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        usedBytes = 0;
+    }
+
+    @Override
+    public synchronized long getHitsCount() {
+        return hits;
+    }
+
+    @Override
+    public synchronized long getMissesCount() {
+        return misses;
+    }
+
+    @Override
+    public synchronized double getHitRatio() {
+        long reads = hits + misses;
+        return reads == 0 ? 0 : (double) hits / reads;
+    }
+
+    @Override
+    public synchronized long getEvictionsCount() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private void evictOverflow() {
+        Iterator<CachedContent> iterator = entries.values().iterator();
+        while(usedBytes > maxBytes && iterator.hasNext()) {
+            usedBytes -= iterator.next().data.length;
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private static class CachedContent {
+
+        private final String filepath;
+        private final byte[] data;
+
+        private CachedContent(String filepath, byte[] data) {
+            this.filepath = filepath;
+            this.data = data;
+        }
+    }
+}
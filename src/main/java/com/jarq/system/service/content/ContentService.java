@@ -1,12 +1,15 @@
 package com.jarq.system.service.content;
 
+import com.jarq.system.dao.IGroupCommitter;
+import com.jarq.system.dao.IUnitOfWork;
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.helpers.datetimer.IDateTimer;
-import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
 import com.jarq.system.log.ILog;
-import com.jarq.system.managers.filesManagers.IContentReader;
-import com.jarq.system.managers.filesManagers.IContentWriter;
+import com.jarq.system.helpers.tokenizer.TermCounter;
 import com.jarq.system.managers.filesManagers.IRepositoryManager;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
 import com.jarq.system.models.content.IContent;
 import com.jarq.system.models.content.IDaoContent;
 import com.jarq.system.models.repository.IDaoRepository;
@@ -16,50 +19,72 @@ import com.jarq.system.models.text.IText;
 import com.jarq.system.service.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 
 public class ContentService extends Service implements IContentService {
 
+    private final IGroupCommitter groupCommitter;
     private final IDaoContent daoContent;
     private final IDaoText daoText;
     private final IDaoRepository daoRepository;
     private final IRepositoryManager repositoryManager;
     private final IDateTimer dateTimer;
-    private final IContentReader<String> contentReader;
-    private final IContentWriter<String> contentWriter;
-    private final IRepositoryPath repositoryPath;
+    private final IVersionStore versionStore;
+    private final IContentCache contentCache;
+    private final ISearchIndex searchIndex;
     private final String serviceFailure = "something goes wrong with content operation. ";
+    private final int streamFetchSize;
 
-    public static IContentService getInstance(ILog log, IDaoContent daoContent,
+    public static IContentService getInstance(ILog log, IGroupCommitter groupCommitter,
+                                              IDaoContent daoContent,
                                               IDaoText daoText,
                                               IDaoRepository daoRepository,
                                               IRepositoryManager repositoryManager,
                                               IDateTimer dateTimer,
-                                              IContentReader<String> contentReader,
-                                              IContentWriter<String> contentWriter,
-                                              IRepositoryPath repositoryPath) {
-        return new ContentService(  log, daoContent, daoText, daoRepository, repositoryManager,
-                                    dateTimer, contentReader, contentWriter,
-                                    repositoryPath);
+                                              IVersionStore versionStore,
+                                              IContentCache contentCache,
+                                              ISearchIndex searchIndex,
+                                              int streamFetchSize) {
+        return new ContentService(  log, groupCommitter, daoContent, daoText, daoRepository, repositoryManager,
+                                    dateTimer, versionStore, contentCache, searchIndex, streamFetchSize);
     }
 
-    private ContentService(ILog log, IDaoContent daoContent,
+    private ContentService(ILog log, IGroupCommitter groupCommitter,
+                           IDaoContent daoContent,
                            IDaoText daoText,
                            IDaoRepository daoRepository,
                            IRepositoryManager repositoryManager,
                            IDateTimer dateTimer,
-                           IContentReader<String> contentReader,
-                           IContentWriter<String> contentWriter,
-                           IRepositoryPath repositoryPath) {
+                           IVersionStore versionStore,
+                           IContentCache contentCache,
+                           ISearchIndex searchIndex,
+                           int streamFetchSize) {
         super(log);
+        this.groupCommitter = groupCommitter;
         this.daoContent = daoContent;
         this.daoText = daoText;
         this.daoRepository = daoRepository;
         this.repositoryManager = repositoryManager;
         this.dateTimer = dateTimer;
-        this.contentReader = contentReader;
-        this.contentWriter = contentWriter;
-        this.repositoryPath = repositoryPath;
+        this.versionStore = versionStore;
+        this.contentCache = contentCache;
+        this.searchIndex = searchIndex;
+        this.streamFetchSize = streamFetchSize;
     }
 
     @Override
@@ -67,7 +92,7 @@ public class ContentService extends Service implements IContentService {
         if(data.length() == 0) {
             return "Nothing to save..";
         }
-        return create(textId, data, null);
+        return create(textId, (unitOfWork, baseFilepath) -> versionStore.store(unitOfWork, baseFilepath, data));
     }
 
     @Override
@@ -75,7 +100,27 @@ public class ContentService extends Service implements IContentService {
         if(data.length == 0) {
             return "Nothing to save..";
         }
-        return create(textId, null, data);
+        return create(textId, (unitOfWork, baseFilepath) -> versionStore.store(unitOfWork, baseFilepath, data));
+    }
+
+    @Override
+    public String createContent(int textId, InputStream data) {
+        // data is staged before grouped work - heap use doesn't depend on its size
+        try (StagedVersion stagedVersion = versionStore.stage(data)) {
+            if(stagedVersion.getLength() == 0) {
+                return "Nothing to save..";
+            }
+            return create(textId, (unitOfWork, baseFilepath) -> versionStore.store(unitOfWork, stagedVersion));
+
+        } catch (IOException ex) {
+            reportException(ex);
+            return serviceFailure;
+        }
+    }
+
+    @Override
+    public String createContent(int textId, ReadableByteChannel data) {
+        return createContent(textId, Channels.newInputStream(data));
     }
 
     @Override
@@ -94,8 +139,7 @@ public class ContentService extends Service implements IContentService {
     public String importContentsData(int contentId) {
         try {
             IContent content = daoContent.importContent(contentId);
-            String path = content.getFilepath();
-            return contentReader.readContent(path); // todo
+            return new String(readData(content), StandardCharsets.UTF_8);
         } catch (DaoFailure | IOException ex) {
             reportException(ex);
             return serviceFailure + "Cannot import data.";
@@ -106,20 +150,59 @@ public class ContentService extends Service implements IContentService {
     public byte[] importContentsBytesData(int contentId) {
         try {
             IContent content = daoContent.importContent(contentId);
-            String path = content.getFilepath();
-            return contentReader.readContentAsBytes(path); // todo
+            byte[] data = readData(content);
+            return Arrays.copyOf(data, data.length);
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return (serviceFailure + "Cannot import data.").getBytes();
+        }
+    }
+
+    @Override
+    public byte[] importContentsData(int contentId, long offset, int length) {
+        try {
+            IContent content = daoContent.importContent(contentId);
+            return versionStore.readContent(content.getFilepath(), offset, length);
         } catch (DaoFailure | IOException ex) {
             reportException(ex);
             return (serviceFailure + "Cannot import data.").getBytes();
         }
     }
 
+    @Override
+    public String importContentsLines(int contentId, int firstLine, int lineCount) {
+        try {
+            IContent content = daoContent.importContent(contentId);
+            return versionStore.readLines(content.getFilepath(), firstLine, lineCount);
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return serviceFailure + "Cannot import data.";
+        }
+    }
+
+    @Override
+    public long importContentsData(int contentId, OutputStream target) {
+        return importContentsData(contentId, Channels.newChannel(target));
+    }
+
+    @Override
+    public long importContentsData(int contentId, WritableByteChannel target) {
+        try {
+            IContent content = daoContent.importContent(contentId);
+            return versionStore.readContent(content.getFilepath(), target);
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return -1;
+        }
+    }
+
     @Override
     public boolean changeContentsData(int contentId, String data) {
         if(data.length() == 0) {
             return false;
         }
-        return changeData(contentId, data, null);
+        return changeData(contentId,
+                (unitOfWork, baseFilepath) -> versionStore.store(unitOfWork, baseFilepath, data));
     }
 
     @Override
@@ -127,7 +210,45 @@ public class ContentService extends Service implements IContentService {
         if(data.length == 0) {
             return false;
         }
-        return changeData(contentId, null, data);
+        return changeData(contentId,
+                (unitOfWork, baseFilepath) -> versionStore.store(unitOfWork, baseFilepath, data));
+    }
+
+    @Override
+    public boolean changeContentsData(int contentId, InputStream data) {
+        try (StagedVersion stagedVersion = versionStore.stage(data)) {
+            if(stagedVersion.getLength() == 0) {
+                return false;
+            }
+            return changeData(contentId, (unitOfWork, baseFilepath) -> versionStore.store(unitOfWork, stagedVersion));
+
+        } catch (IOException ex) {
+            reportException(ex);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean appendContentsData(int contentId, String data) {
+        if(data.length() == 0) {
+            return false;
+        }
+        return changeData(contentId,
+                (unitOfWork, baseFilepath) -> versionStore.append(unitOfWork, baseFilepath, data));
+    }
+
+    @Override
+    public boolean appendContentsData(int contentId, byte[] data) {
+        if(data.length == 0) {
+            return false;
+        }
+        return changeData(contentId,
+                (unitOfWork, baseFilepath) -> versionStore.append(unitOfWork, baseFilepath, data));
+    }
+
+    @Override
+    public boolean changeContentsData(int contentId, ReadableByteChannel data) {
+        return changeContentsData(contentId, Channels.newInputStream(data));
     }
 
     @Override
@@ -144,6 +265,115 @@ public class ContentService extends Service implements IContentService {
         }
     }
 
+    @Override
+    public Page<String> importContentsByText(int textId, PageCursor cursor, int pageSize) {
+        try {
+            return daoContent.importContentsByTextId(textId, cursor, pageSize)
+                    .map(IContent::toString);
+
+        } catch (DaoFailure daoFailure) {
+            reportException(daoFailure);
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Stream<String> streamContentsByText(int textId) {
+        try {
+            return daoContent.streamContentsByTextId(textId, streamFetchSize)
+                    .map(IContent::toString);
+
+        } catch (DaoFailure daoFailure) {
+            reportException(daoFailure);
+            return Stream.empty();
+        }
+    }
+
+    @Override
+    public int removeUnusedBlobs() {
+        // blobs left by cascade removals (texts, repositories, users)
+        try {
+            return removeUnusedBlobs(versionStore.importUnusedBlobs());
+
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return 0;
+        }
+    }
+
+    @Override
+    public int compactPacks() {
+        // packs are removed only when new locations of their blobs are committed
+        try {
+            List<String> compactedPacks = runGrouped(unitOfWork -> {
+                List<String> packs = versionStore.compactPacks();
+                unitOfWork.commit();
+                return packs;
+            });
+            return versionStore.removePacks(compactedPacks);
+
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return 0;
+        }
+    }
+
+    @Override
+    public int recoverFiles() {
+        try {
+            List<String> lostFilepaths = runGrouped(unitOfWork -> {
+                List<String> lost = versionStore.recover();
+                unitOfWork.commit();
+                return lost;
+            });
+            for(String filepath : lostFilepaths) {
+                report(String.format("%s Data of %s didn't reach the disk before crash", serviceFailure, filepath));
+            }
+            return lostFilepaths.size();
+
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return 0;
+        }
+    }
+
+    @Override
+    public int migrateLegacyFiles() {
+        int migratedCount = 0;
+        try {
+            for(IContent content : daoContent.importContentsWithoutBlob()) {
+                if( migrateLegacyFile(content) ) {
+                    migratedCount++;
+                }
+            }
+        } catch (DaoFailure ex) {
+            reportException(ex);
+        }
+        return migratedCount;
+    }
+
+    @Override
+    public int updateSearchIndex() {
+        // versions changed while index wasn't written (ie. by crash) - texts gone with repository or user too
+        int indexedCount = 0;
+        BitSet textIds = new BitSet();
+        try (Stream<IContent> contents = daoContent.streamNewestContents(streamFetchSize)) {
+            Iterator<IContent> iterator = contents.iterator();
+            while( iterator.hasNext() ) {
+                IContent content = iterator.next();
+                textIds.set(content.getTextId());
+                if( updateSearchIndex(content) ) {
+                    indexedCount++;
+                }
+            }
+            searchIndex.retainAll(textIds);
+
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+        }
+        return indexedCount;
+    }
+
     @Override
     public String removeContent(int contentId) {
         try {
@@ -151,9 +381,12 @@ public class ContentService extends Service implements IContentService {
             IText text = daoText.importText(content.getTextId());
             String modificationDate = dateTimer.getCurrentDateTime();
 
-            if ( daoContent.removeContent(content) && repositoryManager.removeFile(content) ) {
+            boolean isRemoved = daoContent.removeContent(content);
+            contentCache.invalidate(contentId);
+            if ( isRemoved && releaseFile(content) ) {
                 text.setModificationDate(modificationDate);
                 updateParentObjects(text);
+                indexNewestVersion(text.getId());
                 return content.toString();
             }
 
@@ -168,25 +401,11 @@ public class ContentService extends Service implements IContentService {
         }
     }
 
-    private String create(int textId, String textData, byte[] bytesData) {
+    private String create(int textId, VersionData data) {
         try {
-            final String creationDate = dateTimer.getCurrentDateTime();
-            IText text = daoText.importText(textId);
-            text.setModificationDate(creationDate);  // important to set current time;
-            IContent content = daoContent.createContent(text);
-            final String path = repositoryPath.filepath(text);
-            if( updateParentObjects(text) && repositoryManager.createFile(content) ) {
-                if(bytesData == null) {
-                    saveContentData(path, textData);
-                } else {
-                    saveContentData(path, bytesData);
-                }
-                return content.toString();
-            }
-            String message = String.format("%s Problem occurred while creating text data (id:%s)",
-                    serviceFailure, text.getId());
-            report(message);
-            return message;
+            String created = runGrouped(unitOfWork -> create(unitOfWork, textId, data));
+            indexNewestVersion(textId);
+            return created;
 
         } catch (DaoFailure | IOException ex) {
             reportException(ex);
@@ -194,31 +413,196 @@ public class ContentService extends Service implements IContentService {
         }
     }
 
-    private boolean changeData(int contentId, String textData, byte[] bytesData) {
+    private String create(IUnitOfWork unitOfWork, int textId, VersionData data)
+            throws DaoFailure, IOException {
+        // all database changes are committed at once - newly written blob is removed on rollback
+        final String creationDate = dateTimer.getCurrentDateTime();
+        IText text = daoText.importText(textId);
+        text.setModificationDate(creationDate);  // important to set current time;
+        String filepath = data.store(unitOfWork, findLatestFilepath(textId));
+        IContent content = daoContent.createContent(text, filepath);
+        if( updateParentObjects(text) ) {
+            unitOfWork.commit();
+            return content.toString();
+        }
+        String message = String.format("%s Problem occurred while creating text data (id:%s)",
+                serviceFailure, text.getId());
+        report(message);
+        return message;
+    }
+
+    private boolean changeData(int contentId, VersionData data) {
         try {
-            IContent content = daoContent.importContent(contentId);
-            IText text = daoText.importText(content.getTextId());
-            String modificationDate = dateTimer.getCurrentDateTime();
-            text.setModificationDate(modificationDate);
-            String path = content.getFilepath();
-            if(bytesData == null) {
-                contentWriter.writeContent(path, textData);
+            IContent previousContent = runGrouped(unitOfWork -> changeData(unitOfWork, contentId, data));
+            contentCache.invalidate(contentId);
+            if(previousContent == null) {
+                return false;
+            }
+            releaseFile(previousContent);
+            indexNewestVersion(previousContent.getTextId());
+            return true;
+
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return false;
+        }
+    }
+
+    private IContent changeData(IUnitOfWork unitOfWork, int contentId, VersionData data)
+            throws DaoFailure, IOException {
+        // blobs are immutable - content is pointed at (new or already stored) blob
+        IContent content = daoContent.importContent(contentId);
+        IText text = daoText.importText(content.getTextId());
+        String modificationDate = dateTimer.getCurrentDateTime();
+        text.setModificationDate(modificationDate);
+        if(! updateParentObjects(text) ) {
+            return null;
+        }
+        String filepath = data.store(unitOfWork, content.getFilepath());
+        daoContent.changeContentFilepath(content, filepath);
+        unitOfWork.commit();
+        return content;
+    }
+
+    private interface VersionData {
+        // base - version new data is most likely made from (delta is stored against it), returns filepath
+        String store(IUnitOfWork unitOfWork, String baseFilepath) throws DaoFailure, IOException;
+    }
+
+    private boolean migrateLegacyFile(IContent content) {
+        // old file is removed only when content points at blob
+        try {
+            byte[] data = versionStore.readContentAsBytes(content.getFilepath());
+            runGrouped(unitOfWork -> {
+                IContent migrated = daoContent.changeContentFilepath(content,
+                        versionStore.store(unitOfWork, null, data));
+                unitOfWork.commit();
+                return migrated;
+            });
+            contentCache.invalidate(content.getId());
+            return repositoryManager.removeFile(content);
+
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return false;
+        }
+    }
+
+    private byte[] readData(IContent content) throws DaoFailure, IOException {
+        // popular notes are decoded once - returned array is shared with cache
+        byte[] data = contentCache.get(content.getId(), content.getFilepath());
+        if(data == null) {
+            data = versionStore.readContentAsBytes(content.getFilepath());
+            contentCache.put(content.getId(), content.getFilepath(), data);
+        }
+        return data;
+    }
+
+    private String findLatestFilepath(int textId) throws DaoFailure {
+        IContent latest = findLatest(textId);
+        return latest == null ? null : latest.getFilepath();
+    }
+
+    private IContent findLatest(int textId) throws DaoFailure {
+        List<IContent> latest = daoContent.importContentsByTextId(textId, PageCursor.first(), 1).getItems();
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    private void indexNewestVersion(int textId) {
+        // after commit - failure doesn't undo the change, index is brought up to date at startup
+        try {
+            IContent latest = findLatest(textId);
+            if(latest == null) {
+                searchIndex.remove(textId);
             } else {
-                contentWriter.writeContent(path, bytesData);
+                indexVersion(latest);
             }
-            return updateParentObjects(text);
         } catch (DaoFailure | IOException ex) {
             reportException(ex);
+        }
+    }
+
+    private boolean updateSearchIndex(IContent content) {
+        // unreadable version (ie. lost file) doesn't stop the others
+        try {
+            return indexVersion(content);
+
+        } catch (DaoFailure | IOException ex) {
+            reportException(ex);
+            return false;
+        }
+    }
+
+    private boolean indexVersion(IContent content) throws DaoFailure, IOException {
+        // blob filepath changes with data - the same one is indexed already
+        long version = versionOf(content.getFilepath());
+        if( searchIndex.isCurrent(content.getTextId(), version) ) {
             return false;
         }
+        IText text = daoText.importText(content.getTextId());
+        TermCounter terms = searchIndex.newTermCounter();
+        versionStore.readContent(content.getFilepath(), terms);  // streamed - long note isn't kept in heap
+        searchIndex.put(text.getId(), text.getUserId(), text.getRepositoryId(), version, terms);
+        return true;
     }
 
-    private void saveContentData(String path, String data) throws IOException {
-        contentWriter.writeContent(path, data);
+    private long versionOf(String filepath) throws IOException {
+        // 64 bits of filepath's SHA-256 - unlike hashCode() two filepaths of one text don't collide
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(filepath.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(hash).getLong();
+
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex.getMessage());
+        }
     }
 
-    private void saveContentData(String path, byte[] data) throws IOException {
-        contentWriter.writeContent(path, data);
+    private boolean releaseFile(IContent content) throws DaoFailure, IOException {
+        // called after commit - file of removed (or replaced) version goes if nothing else uses it
+        if(! versionStore.isBlob(content.getFilepath()) ) {
+            return repositoryManager.removeFile(content);  // file written before blobs were introduced
+        }
+        removeUnusedBlobs(Collections.singletonList(content.getFilepath()));
+        return true;
+    }
+
+    private int removeUnusedBlobs(List<String> filepaths) throws DaoFailure, IOException {
+        // rows are removed first, files only when that is committed - failed commit leaves no dangling row
+        List<String> removedFilepaths = runGrouped(unitOfWork -> {
+            List<String> removed = versionStore.removeUnused(filepaths);
+            unitOfWork.commit();
+            return removed;
+        });
+        if(removedFilepaths.isEmpty()) {
+            return 0;
+        }
+        runGrouped(unitOfWork -> {
+            int removedCount = versionStore.removeFiles(removedFilepaths);  // packed blobs have no own file
+            unitOfWork.commit();
+            return removedCount;
+        });
+        return removedFilepaths.size();
+    }
+
+    private <T> T runGrouped(IGroupCommitter.GroupedWork<T> work) throws DaoFailure, IOException {
+        // concurrent saves share one database commit
+        try {
+            return groupCommitter.submit(work).get();
+
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DaoFailure(ex.getMessage());
+
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if(cause instanceof DaoFailure) {
+                throw (DaoFailure) cause;
+            }
+            if(cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new DaoFailure(cause.getMessage());
+        }
     }
 
     private boolean updateParentObjects(IText text) throws DaoFailure {
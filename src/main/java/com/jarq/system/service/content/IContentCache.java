@@ -0,0 +1,31 @@
+package com.jarq.system.service.content;
+
+public interface IContentCache {
+
+    /**
+     * decoded (UTF-8) data of contents keyed by content id - entry is valid only for filepath it was read from,
+     * so content pointed at other file (or id given again to new content) is never served stale data
+     */
+
+    // null if not cached (or cached for other file) - returned array is shared, don't change it
+    byte[] get(int contentId, String filepath);
+
+    void put(int contentId, String filepath, byte[] data);
+
+    void invalidate(int contentId);
+
+    void clear();
+
+    long getHitsCount();
+
+    long getMissesCount();
+
+    // hits / (hits + misses), 0 before first read
+    double getHitRatio();
+
+    long getEvictionsCount();
+
+    long getUsedBytes();
+
+    long getMaxBytes();
+}
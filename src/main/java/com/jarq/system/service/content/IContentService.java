@@ -1,24 +1,79 @@
 package com.jarq.system.service.content;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.service.IService;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.stream.Stream;
+
 public interface IContentService extends IService {
 
     String createContent(int textId, String data);
 
     String createContent(int textId, byte[] data);
 
+    // streaming variants for large notes - given streams and channels aren't closed
+    String createContent(int textId, InputStream data);
+
+    String createContent(int textId, ReadableByteChannel data);
+
     String importContent(int contentId);
 
     String importContentsData(int contentId);
 
     byte[] importContentsBytesData(int contentId);
 
+    // part of data - page of a long note costs no whole read
+    byte[] importContentsData(int contentId, long offset, int length);
+
+    // lines counted from 0
+    String importContentsLines(int contentId, int firstLine, int lineCount);
+
+    // returns number of written bytes, -1 on failure; versions up to 1 MB may be kept as deltas and
+    // are rebuilt in memory first - larger ones are always stored whole and streamed
+    long importContentsData(int contentId, OutputStream target);
+
+    long importContentsData(int contentId, WritableByteChannel target);
+
     boolean changeContentsData(int contentId, String data);
 
     boolean changeContentsData(int contentId, byte[] data);
 
+    boolean changeContentsData(int contentId, InputStream data);
+
+    // data is added at the end of content - autosave of journal costs as much as the new part
+    // (notes over 1 MB are copied into new whole version, so they can be streamed)
+    boolean appendContentsData(int contentId, String data);
+
+    boolean appendContentsData(int contentId, byte[] data);
+
+    boolean changeContentsData(int contentId, ReadableByteChannel data);
+
     String[] importContentsByText(int textId);
 
+    Page<String> importContentsByText(int textId, PageCursor cursor, int pageSize);
+
+    // lazy variant for long content history - close the stream after use
+    Stream<String> streamContentsByText(int textId);
+
     String removeContent(int contentId);
+
+    // returns number of removed, not referenced blobs
+    int removeUnusedBlobs();
+
+    // returns number of removed pack files (their live data is moved to active pack)
+    int compactPacks();
+
+    // call at startup, before content is served - returns number of versions which data was lost by crash
+    int recoverFiles();
+
+    // moves versions kept in per text files (named by second) to blobs - returns number of moved ones
+    int migrateLegacyFiles();
+
+    // call at startup, after files are recovered - returns number of texts which newest version was (re)indexed
+    int updateSearchIndex();
 }
@@ -0,0 +1,70 @@
+package com.jarq.system.service.content;
+
+import com.jarq.system.dao.IUnitOfWork;
+import com.jarq.system.exceptions.DaoFailure;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.List;
+
+public interface IVersionStore {
+
+    /**
+     * versions data kept in blobs, new version can be stored as delta against the one it was made from
+     * (baseFilepath) unless it's too large to be cached - returns filepath to be saved in contents table
+     */
+    String store(IUnitOfWork unitOfWork, String baseFilepath, String data) throws DaoFailure, IOException;
+
+    String store(IUnitOfWork unitOfWork, String baseFilepath, byte[] data) throws DaoFailure, IOException;
+
+    // new version is base followed by appended data - costs follow appended data size, not base size,
+    // except for versions too large to be cached: they're copied (streamed) into new whole blob
+    String append(IUnitOfWork unitOfWork, String baseFilepath, String appended) throws DaoFailure, IOException;
+
+    String append(IUnitOfWork unitOfWork, String baseFilepath, byte[] appended) throws DaoFailure, IOException;
+
+    // reads source till its end into temporary file - call before grouped work, close after it
+    StagedVersion stage(InputStream source) throws IOException;
+
+    // staged data is stored whole (no delta) in its own blob file
+    String store(IUnitOfWork unitOfWork, StagedVersion stagedVersion) throws DaoFailure, IOException;
+
+    String readContent(String filepath) throws DaoFailure, IOException;
+
+    // whole blobs are streamed, deltas (and packed blobs) are reconstructed in memory - returns number
+    // of written bytes
+    long readContent(String filepath, WritableByteChannel target) throws DaoFailure, IOException;
+
+    byte[] readContentAsBytes(String filepath) throws DaoFailure, IOException;
+
+    // raw files are read at position (lines located by index), other versions are decoded (cached)
+    byte[] readContent(String filepath, long offset, int length) throws DaoFailure, IOException;
+
+    String readLines(String filepath, int firstLine, int lineCount) throws DaoFailure, IOException;
+
+    // false for files written before blobs were introduced
+    boolean isBlob(String filepath);
+
+    List<String> importUnusedBlobs() throws DaoFailure;
+
+    // removes rows of not referenced blobs (and bases left unused by them), returns their filepaths
+    List<String> removeUnused(Collection<String> filepaths) throws DaoFailure;
+
+    // has to run after removeUnused was committed - skips blobs stored again meanwhile
+    int removeFiles(Collection<String> filepaths) throws DaoFailure, IOException;
+
+    // copies live blobs out of mostly dead packs (has to be committed), returns packs to remove
+    List<String> compactPacks() throws DaoFailure, IOException;
+
+    // has to run after compactPacks was committed
+    int removePacks(Collection<String> packPaths) throws IOException;
+
+    /**
+     * reconciles files with blobs table after crash (nothing else may write meanwhile): removes half written
+     * temporary files and files of not committed works, cuts pack tails nothing points at,
+     * returns filepaths of registered blobs which data didn't reach the disk
+     */
+    List<String> recover() throws DaoFailure, IOException;
+}
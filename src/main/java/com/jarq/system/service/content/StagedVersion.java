@@ -0,0 +1,55 @@
+package com.jarq.system.service.content;
+
+import com.jarq.system.managers.filesManagers.IBlobStore;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+public class StagedVersion implements AutoCloseable {
+
+    /**
+     * streamed data already hashed and encoded into temporary file - staging happens before grouped work,
+     * so slow source doesn't hold other saves, closing removes file if it wasn't stored
+     */
+
+    private final String stagedFilepath;
+    private final String hash;
+    private final long length;
+    private final IBlobStore blobStore;
+
+    StagedVersion(String stagedFilepath, String hash, long length, IBlobStore blobStore) {
+        this.stagedFilepath = stagedFilepath;
+        this.hash = hash;
+        this.length = length;
+        this.blobStore = blobStore;
+    }
+
+    public String getStagedFilepath() {
+        return stagedFilepath;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    // length of streamed (not encoded) data
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( Files.exists(Paths.get(stagedFilepath)) ) {
+            blobStore.remove(stagedFilepath);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "StagedVersion{" +
+                "hash='" + hash + '\'' +
+                ", length=" + length +
+                '}';
+    }
+}
@@ -0,0 +1,623 @@
+package com.jarq.system.service.content;
+
+import com.jarq.system.dao.IUnitOfWork;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.codec.IContentCodec;
+import com.jarq.system.helpers.delta.IDeltaEncoder;
+import com.jarq.system.managers.filesManagers.ContentChannels;
+import com.jarq.system.managers.filesManagers.IBlobStore;
+import com.jarq.system.managers.filesManagers.IContentReader;
+import com.jarq.system.managers.filesManagers.ILineIndex;
+import com.jarq.system.managers.filesManagers.IPackStore;
+import com.jarq.system.managers.filesManagers.LineIndex;
+import com.jarq.system.managers.filesManagers.PackLocation;
+import com.jarq.system.managers.filesManagers.StoredBlob;
+import com.jarq.system.models.blob.IBlob;
+import com.jarq.system.models.blob.IDaoBlob;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Stream;
+
+public class VersionStore implements IVersionStore {
+
+    /**
+     * versions as blobs named by hash of their data - stored whole (keyframe) or as delta against
+     * previous version of the chain, so history grows with edits size, not with text size
+     */
+
+    private final IBlobStore blobStore;
+    private final IDaoBlob daoBlob;
+    private final IContentReader<String> contentReader;
+    // blobs are appended to pack files and located by blobs table columns, null - every blob has its own file
+    private final IPackStore packStore;
+    // codec id is kept in stored data (raw blobs are still read), null - blobs are stored raw
+    private final IContentCodec codec;
+    private final IDeltaEncoder deltaEncoder;
+    private final int keyframeInterval;  // every keyframeInterval-th version of a chain is stored whole
+    private final Charset charset;
+    private final ILineIndex lineIndex;
+    // versions rebuilt when read (not when written) - blobs never change, so entries are never stale;
+    // arrays are shared with readBlob callers, whatever leaves this class is a copy
+    private final LinkedHashMap<String, byte[]> reconstructed = new LinkedHashMap<>(64, 0.75f, true);
+    private final long maxCacheBytes;
+    // length & unfinished hash of recently written versions - appends don't read their base
+    private final Map<String, AppendState> appendStates;
+
+    private long cachedBytes;
+
+    public static IVersionStore getInstance(IBlobStore blobStore, IDaoBlob daoBlob,
+                                            IContentReader<String> contentReader,
+                                            IDeltaEncoder deltaEncoder, int keyframeInterval,
+                                            Charset charset) {
+        return new VersionStore(blobStore, daoBlob, contentReader, null, null,
+                                deltaEncoder, keyframeInterval, charset);
+    }
+
+    public static IVersionStore getInstance(IBlobStore blobStore, IDaoBlob daoBlob,
+                                            IContentReader<String> contentReader, IPackStore packStore,
+                                            IContentCodec codec,
+                                            IDeltaEncoder deltaEncoder, int keyframeInterval,
+                                            Charset charset) {
+        return new VersionStore(blobStore, daoBlob, contentReader, packStore, codec,
+                                deltaEncoder, keyframeInterval, charset);
+    }
+
+    private VersionStore(IBlobStore blobStore, IDaoBlob daoBlob, IContentReader<String> contentReader,
+                         IPackStore packStore, IContentCodec codec,
+                         IDeltaEncoder deltaEncoder, int keyframeInterval,
+                         Charset charset) {
+        this.blobStore = blobStore;
+        this.daoBlob = daoBlob;
+        this.contentReader = contentReader;
+        this.packStore = packStore;
+        this.codec = codec;
+        this.deltaEncoder = deltaEncoder;
+        this.keyframeInterval = keyframeInterval;  // 1 or less - every version is stored whole
+        this.charset = charset;
+        this.lineIndex = LineIndex.getInstance();
+        this.maxCacheBytes = 8 * 1024 * 1024;
+        final int cacheCapacity = 32;
+        this.appendStates = new LinkedHashMap<String, AppendState>(cacheCapacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AppendState> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+    }
+
+    @Override
+    public String store(IUnitOfWork unitOfWork, String baseFilepath, String data) throws DaoFailure, IOException {
+        return store(unitOfWork, baseFilepath, data.getBytes(charset));
+    }
+
+    @Override
+    public String store(IUnitOfWork unitOfWork, String baseFilepath, byte[] data) throws DaoFailure, IOException {
+        MessageDigest digest = blobStore.createDigest();
+        digest.update(data);
+        AppendState appendState = new AppendState(copy(digest), data.length);
+        String hash = blobStore.hash(digest);
+        String filepath = blobStore.blobFilepath(hash);
+        remember(filepath, appendState);
+        if( daoBlob.isBlobRegistered(filepath) ) {
+            return filepath;  // identical data is already stored (whole or as delta)
+        }
+        byte[] storedData = data;
+        // version too large to stay cached is kept whole - so it can be streamed
+        IBlob base = isCacheable(data.length) ? findDeltaBase(baseFilepath) : null;
+        if(base != null) {
+            byte[] delta = deltaEncoder.encode(readBlob(base), data);
+            if(delta.length < data.length) {
+                storedData = delta;
+                daoBlob.registerDelta(hash, filepath, base.getFilepath(), base.getDepth() + 1);
+            }
+        }
+        if(storedData == data) {
+            daoBlob.registerBlob(hash, filepath);
+        }
+        writeStoredData(unitOfWork, hash, filepath, storedData);
+        return filepath;
+    }
+
+    @Override
+    public String append(IUnitOfWork unitOfWork, String baseFilepath, String appended)
+            throws DaoFailure, IOException {
+        return append(unitOfWork, baseFilepath, appended.getBytes(charset));
+    }
+
+    @Override
+    public String append(IUnitOfWork unitOfWork, String baseFilepath, byte[] appended)
+            throws DaoFailure, IOException {
+        // delta is built without base, loose base of new keyframe is only streamed (copied with appended data)
+        if(! isBlob(baseFilepath) || ! daoBlob.isBlobRegistered(baseFilepath) ) {
+            return store(unitOfWork, null, concat(readContentAsBytes(baseFilepath), appended));
+        }
+        IBlob baseBlob = daoBlob.importBlob(baseFilepath);
+        IBlob base = findDeltaBase(baseFilepath);
+        boolean isBaseLoose = ! baseBlob.isDelta() && ! baseBlob.isPacked();
+        AppendState baseState = base != null ? findAppendState(baseBlob) : null;
+        // new keyframe when chain is long enough - or when version is too large to stay cached,
+        // delta would be rebuilt in memory by every read (whole blob is streamed)
+        if(baseState == null || ! isCacheable(baseState.length + appended.length) ) {
+            if(isBaseLoose) {
+                return storeStreamed(unitOfWork, baseBlob, appended);
+            }
+            return store(unitOfWork, baseFilepath, concat(readBlob(baseBlob), appended));
+        }
+        MessageDigest digest = copy(baseState.digest);
+        digest.update(appended);
+        AppendState appendState = new AppendState(copy(digest), baseState.length + appended.length);
+        String hash = blobStore.hash(digest);
+        String filepath = blobStore.blobFilepath(hash);
+        remember(filepath, appendState);
+        if( daoBlob.isBlobRegistered(filepath) ) {
+            return filepath;
+        }
+        byte[] delta = deltaEncoder.encodeAppend((int) baseState.length, appended);
+        daoBlob.registerDelta(hash, filepath, baseFilepath, base.getDepth() + 1);
+        writeStoredData(unitOfWork, hash, filepath, delta);
+        return filepath;
+    }
+
+    @Override
+    public StagedVersion stage(InputStream source) throws IOException {
+        // streamed data goes through temporary file - it's never held in memory
+        String stagedFilepath = blobStore.createStagingFile();
+        try {
+            MessageDigest digest = blobStore.createDigest();
+            long length;
+            // source belongs to caller - it isn't closed here
+            InputStream hashedSource = new DigestInputStream(source, digest);
+            try (OutputStream staged = encode(Files.newOutputStream(Paths.get(stagedFilepath)))) {
+                length = ContentChannels.copy(hashedSource, Channels.newChannel(staged));
+            }
+            return new StagedVersion(stagedFilepath, blobStore.hash(digest), length, blobStore);
+
+        } catch (IOException | RuntimeException ex) {
+            blobStore.remove(stagedFilepath);
+            throw ex;
+        }
+    }
+
+    @Override
+    public String store(IUnitOfWork unitOfWork, StagedVersion stagedVersion) throws DaoFailure, IOException {
+        String hash = stagedVersion.getHash();
+        String filepath = blobStore.blobFilepath(hash);
+        if( daoBlob.isBlobRegistered(filepath) ) {
+            return filepath;  // staged file is removed when staged version is closed
+        }
+        daoBlob.registerBlob(hash, filepath);
+        // large data isn't copied into pack - staged file just becomes the blob
+        StoredBlob blob = blobStore.storeStaged(hash, stagedVersion.getStagedFilepath());
+        if( blob.isNew() ) {
+            unitOfWork.onRollback(() -> blobStore.remove(filepath));
+        }
+        return filepath;
+    }
+
+    @Override
+    public String readContent(String filepath) throws DaoFailure, IOException {
+        if(! isBlob(filepath) ) {
+            return contentReader.readContent(filepath);
+        }
+        IBlob blob = daoBlob.importBlob(filepath);
+        if( isReadAtPosition(blob) ) {
+            // plain loose blobs are read (and cached) by content reader, not kept among reconstructed ones
+            return new String(contentReader.readContentAsBytes(filepath), charset);
+        }
+        return new String(readBlob(blob), charset);
+    }
+
+    @Override
+    public long readContent(String filepath, WritableByteChannel target) throws DaoFailure, IOException {
+        if(! isBlob(filepath) ) {
+            return contentReader.readContent(filepath, target);
+        }
+        IBlob blob = daoBlob.importBlob(filepath);
+        if( isReadAtPosition(blob) ) {
+            return contentReader.readContent(filepath, target);
+        }
+        if( blob.isDelta() || blob.isPacked() || isCached(filepath) ) {
+            return ContentChannels.write(readBlob(blob), target);  // packed blobs are small by design
+        }
+        try (InputStream data = decode(blobStore.openStream(filepath))) {
+            return ContentChannels.copy(data, target);
+        }
+    }
+
+    @Override
+    public byte[] readContentAsBytes(String filepath) throws DaoFailure, IOException {
+        if(! isBlob(filepath) ) {
+            return contentReader.readContentAsBytes(filepath);
+        }
+        IBlob blob = daoBlob.importBlob(filepath);
+        if( isReadAtPosition(blob) ) {
+            return contentReader.readContentAsBytes(filepath);
+        }
+        byte[] data = readBlob(blob);
+        return Arrays.copyOf(data, data.length);
+    }
+
+    @Override
+    public byte[] readContent(String filepath, long offset, int length) throws DaoFailure, IOException {
+        if(! isBlob(filepath) ) {
+            return contentReader.readContent(filepath, offset, length);
+        }
+        if(offset < 0 || length < 0) {
+            throw new IOException("Offset and length can't be negative!");
+        }
+        IBlob blob = daoBlob.importBlob(filepath);
+        if( isReadAtPosition(blob) ) {
+            return contentReader.readContent(filepath, offset, length);
+        }
+        if( blob.isDelta() || blob.isPacked() || isCached(filepath) ) {
+            byte[] data = readBlob(blob);
+            int start = (int) Math.min(offset, data.length);
+            return Arrays.copyOfRange(data, start, (int) Math.min((long) start + length, data.length));
+        }
+        try (InputStream data = decode(blobStore.openStream(filepath))) {
+            long skipped = data.skip(offset);
+            while(skipped < offset && data.read() >= 0) {
+                skipped++;
+            }
+            byte[] range = new byte[length];
+            int read = 0;
+            int count;
+            while(read < length && (count = data.read(range, read, length - read)) >= 0) {
+                read += count;
+            }
+            return Arrays.copyOf(range, read);
+        }
+    }
+
+    @Override
+    public String readLines(String filepath, int firstLine, int lineCount) throws DaoFailure, IOException {
+        if(! isBlob(filepath) ) {
+            return contentReader.readLines(filepath, firstLine, lineCount);
+        }
+        IBlob blob = daoBlob.importBlob(filepath);
+        if( isReadAtPosition(blob) ) {
+            return contentReader.readLines(filepath, firstLine, lineCount);
+        }
+        byte[] lines;
+        if( blob.isDelta() || blob.isPacked() || isCached(filepath) ) {
+            lines = lineIndex.readLines(new ByteArrayInputStream(readBlob(blob)), firstLine, lineCount);
+        } else {
+            try (InputStream data = decode(blobStore.openStream(filepath))) {
+                lines = lineIndex.readLines(data, firstLine, lineCount);
+            }
+        }
+        String text = new String(lines, charset).replace("\r\n", "\n");  // the same as contentReader returns
+        return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+    }
+
+    @Override
+    public boolean isBlob(String filepath) {
+        return blobStore.isBlob(filepath);
+    }
+
+    @Override
+    public List<String> importUnusedBlobs() throws DaoFailure {
+        return daoBlob.importUnusedBlobsFilepaths();
+    }
+
+    @Override
+    public List<String> removeUnused(Collection<String> filepaths) throws DaoFailure {
+        Deque<String> filepathsToCheck = new ArrayDeque<>(filepaths);
+        List<String> removedFilepaths = new ArrayList<>();
+        while(! filepathsToCheck.isEmpty() ) {
+            String filepath = filepathsToCheck.poll();
+            if(! isBlob(filepath) || ! daoBlob.isBlobRegistered(filepath) ) {
+                continue;
+            }
+            IBlob blob = daoBlob.importBlob(filepath);
+            if( daoBlob.removeUnusedBlob(filepath) ) {
+                removedFilepaths.add(filepath);
+                if( blob.isDelta() ) {
+                    filepathsToCheck.add(blob.getBaseFilepath());  // trigger released the base
+                }
+            }
+        }
+        return removedFilepaths;
+    }
+
+    @Override
+    public int removeFiles(Collection<String> filepaths) throws DaoFailure, IOException {
+        int removedCount = 0;
+        for(String filepath : filepaths) {
+            if(! daoBlob.isBlobRegistered(filepath) && blobStore.remove(filepath) ) {
+                removedCount++;
+            }
+            synchronized (reconstructed) {
+                byte[] removed = reconstructed.remove(filepath);
+                if(removed != null) {
+                    cachedBytes -= removed.length;
+                }
+            }
+        }
+        return removedCount;
+    }
+
+    @Override
+    public List<String> compactPacks() throws DaoFailure, IOException {
+        List<String> compactedPacks = new ArrayList<>();
+        if(packStore == null) {
+            return compactedPacks;
+        }
+        String activePack = packStore.getActivePack();
+        for(String packPath : packStore.importPacks()) {
+            if(packPath.equals(activePack)) {
+                continue;
+            }
+            // pack mostly alive isn't worth copying
+            if(daoBlob.importPackLiveBytes(packPath) * 2 > packStore.size(packPath)) {
+                continue;
+            }
+            for(IBlob blob : daoBlob.importBlobsByPack(packPath)) {
+                byte[] storedData = packStore.read(packPath, blob.getPackOffset(), blob.getPackLength());
+                PackLocation location = packStore.append(storedData);
+                daoBlob.changeBlobLocation(blob.getFilepath(), location.getPackPath(),
+                        location.getOffset(), location.getLength());
+            }
+            compactedPacks.add(packPath);
+        }
+        return compactedPacks;
+    }
+
+    @Override
+    public int removePacks(Collection<String> packPaths) throws IOException {
+        int removedCount = 0;
+        if(packStore == null) {
+            return removedCount;
+        }
+        for(String packPath : packPaths) {
+            if( packStore.remove(packPath) ) {
+                removedCount++;
+            }
+        }
+        return removedCount;
+    }
+
+    @Override
+    public List<String> recover() throws DaoFailure, IOException {
+        for(String filepath : blobStore.importStoredFiles()) {
+            if( filepath.endsWith(".tmp") ) {
+                blobStore.remove(filepath);
+            } else if( filepath.endsWith(LineIndex.EXTENSION) ) {
+                String indexedFilepath = filepath.substring(0, filepath.length() - LineIndex.EXTENSION.length());
+                if(! Files.exists(Paths.get(indexedFilepath)) ) {
+                    Files.deleteIfExists(Paths.get(filepath));
+                }
+            } else if(! daoBlob.isBlobRegistered(filepath) ) {
+                blobStore.remove(filepath);
+            }
+        }
+        if(packStore != null) {
+            for(String packPath : packStore.importPacks()) {
+                packStore.truncate(packPath, daoBlob.importPackEnd(packPath));
+            }
+        }
+        List<String> lostFilepaths = new ArrayList<>();
+        Map<String, Long> packSizes = new HashMap<>();
+        final int fetchSize = 200;
+        try (Stream<IBlob> blobs = daoBlob.streamAllBlobs(fetchSize)) {
+            Iterator<IBlob> iterator = blobs.iterator();
+            while(iterator.hasNext()) {
+                IBlob blob = iterator.next();
+                if( isLost(blob, packSizes) ) {
+                    lostFilepaths.add(blob.getFilepath());
+                }
+            }
+        }
+        return lostFilepaths;
+    }
+
+    private boolean isLost(IBlob blob, Map<String, Long> packSizes) throws IOException {
+        if(! blob.isPacked() ) {
+            // renamed file which data wasn't synced is usually left empty - stored data never is
+            Path path = Paths.get(blob.getFilepath());
+            return ! Files.isRegularFile(path) || Files.size(path) == 0;
+        }
+        Long packSize = packSizes.get(blob.getPackPath());
+        if(packSize == null) {
+            packSize = Files.exists(Paths.get(blob.getPackPath())) ? packStore.size(blob.getPackPath()) : -1;
+            packSizes.put(blob.getPackPath(), packSize);
+        }
+        return blob.getPackOffset() + blob.getPackLength() > packSize;
+    }
+
+    private IBlob findDeltaBase(String baseFilepath) throws DaoFailure {
+        if(keyframeInterval <= 1 || baseFilepath == null || ! isBlob(baseFilepath)
+                || ! daoBlob.isBlobRegistered(baseFilepath) ) {
+            return null;
+        }
+        IBlob base = daoBlob.importBlob(baseFilepath);
+        return base.getDepth() + 1 < keyframeInterval ? base : null;  // else new keyframe
+    }
+
+    private byte[] readBlob(IBlob blob) throws DaoFailure, IOException {
+        String filepath = blob.getFilepath();
+        synchronized (reconstructed) {
+            byte[] data = reconstructed.get(filepath);
+            if(data != null) {
+                return data;
+            }
+        }
+        byte[] data = readStoredData(blob);
+        if( blob.isDelta() ) {
+            // chain is at most keyframeInterval long - cached bases shorten it
+            data = deltaEncoder.decode(readBlob(daoBlob.importBlob(blob.getBaseFilepath())), data);
+        }
+        cache(filepath, data);
+        return data;
+    }
+
+    private byte[] readStoredData(IBlob blob) throws DaoFailure, IOException {
+        byte[] encodedData = readEncodedData(blob);
+        return codec != null ? codec.decode(encodedData) : encodedData;
+    }
+
+    private byte[] readEncodedData(IBlob blob) throws DaoFailure, IOException {
+        if(! blob.isPacked() ) {
+            return blobStore.read(blob.getFilepath());
+        }
+        try {
+            return packStore.read(blob.getPackPath(), blob.getPackOffset(), blob.getPackLength());
+
+        } catch (NoSuchFileException ex) {
+            // pack was compacted after location was read - blob row points at its new place
+            IBlob movedBlob = daoBlob.importBlob(blob.getFilepath());
+            return packStore.read(movedBlob.getPackPath(), movedBlob.getPackOffset(), movedBlob.getPackLength());
+        }
+    }
+
+    private void writeStoredData(IUnitOfWork unitOfWork, String hash, String filepath, byte[] storedData)
+            throws DaoFailure, IOException {
+        byte[] encodedData = codec != null ? codec.encode(storedData) : storedData;
+        if(packStore != null && isCacheable(storedData.length)) {  // large blob gets own file to be streamed
+            // appended data of rolled back work is dead - reclaimed by compaction
+            PackLocation location = packStore.append(encodedData);
+            daoBlob.changeBlobLocation(filepath, location.getPackPath(), location.getOffset(), location.getLength());
+        } else {
+            // file without row (left by failed commit) is overwritten - it could keep other encoding
+            StoredBlob blob = blobStore.store(hash, encodedData);
+            if( blob.isNew() ) {
+                unitOfWork.onRollback(() -> blobStore.remove(filepath));
+            }
+        }
+    }
+
+    private AppendState findAppendState(IBlob blob) throws DaoFailure, IOException {
+        String filepath = blob.getFilepath();
+        synchronized (appendStates) {
+            AppendState appendState = appendStates.get(filepath);
+            if(appendState != null) {
+                return appendState;
+            }
+        }
+        // version wasn't stored (or appended to) lately - its data is hashed once
+        MessageDigest digest = blobStore.createDigest();
+        long length = 0;
+        if( blob.isDelta() || blob.isPacked() ) {
+            byte[] data = readBlob(blob);
+            digest.update(data);
+            length = data.length;
+        } else {
+            // loose version is hashed as stream - it isn't loaded
+            try (InputStream data = decode(blobStore.openStream(filepath))) {
+                byte[] buffer = new byte[8192];
+                int count;
+                while((count = data.read(buffer)) >= 0) {
+                    digest.update(buffer, 0, count);
+                    length += count;
+                }
+            }
+        }
+        AppendState appendState = new AppendState(digest, length);
+        remember(filepath, appendState);
+        return appendState;
+    }
+
+    private String storeStreamed(IUnitOfWork unitOfWork, IBlob base, byte[] appended)
+            throws DaoFailure, IOException {
+        // loose base and appended data are staged as new whole blob - base isn't loaded
+        try (InputStream data = new SequenceInputStream(decode(blobStore.openStream(base.getFilepath())),
+                                                        new ByteArrayInputStream(appended));
+             StagedVersion stagedVersion = stage(data)) {
+            return store(unitOfWork, stagedVersion);
+        }
+    }
+
+    private void remember(String filepath, AppendState appendState) {
+        synchronized (appendStates) {
+            appendStates.put(filepath, appendState);
+        }
+    }
+
+    private MessageDigest copy(MessageDigest digest) throws IOException {
+        // remembered state stays untouched - it's continued by every append to the version
+        try {
+            return (MessageDigest) digest.clone();
+
+        } catch (CloneNotSupportedException ex) {
+            throw new IOException(ex.getMessage());
+        }
+    }
+
+    private byte[] concat(byte[] data, byte[] appended) {
+        byte[] result = Arrays.copyOf(data, data.length + appended.length);
+        System.arraycopy(appended, 0, result, data.length, appended.length);
+        return result;
+    }
+
+    private boolean isReadAtPosition(IBlob blob) throws IOException {
+        // whole, not encoded blob in its own file is read like any other file
+        if( blob.isDelta() || blob.isPacked() ) {
+            return false;
+        }
+        final int headerLength = 4;
+        return codec == null
+                || ! codec.isEncoded(contentReader.readContent(blob.getFilepath(), 0, headerLength));
+    }
+
+    private OutputStream encode(OutputStream target) throws IOException {
+        return codec != null ? codec.encode(target) : target;
+    }
+
+    private InputStream decode(InputStream storedData) throws IOException {
+        return codec != null ? codec.decode(storedData) : storedData;
+    }
+
+    private boolean isCached(String filepath) {
+        synchronized (reconstructed) {
+            return reconstructed.containsKey(filepath);
+        }
+    }
+
+    private boolean isCacheable(long dataLength) {
+        // the same accounting as ContentCache - single huge version would flush every delta base
+        return dataLength <= maxCacheBytes / 8;
+    }
+
+    private void cache(String filepath, byte[] data) {
+        if(! isCacheable(data.length) ) {
+            return;
+        }
+        synchronized (reconstructed) {
+            byte[] previous = reconstructed.put(filepath, data);
+            if(previous != null) {
+                cachedBytes -= previous.length;
+            }
+            cachedBytes += data.length;
+            Iterator<byte[]> iterator = reconstructed.values().iterator();
+            while(cachedBytes > maxCacheBytes && iterator.hasNext()) {
+                cachedBytes -= iterator.next().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class AppendState {
+
+        private final MessageDigest digest;  // state after data was hashed - digest isn't finished
+        private final long length;
+
+        private AppendState(MessageDigest digest, long length) {
+            this.digest = digest;
+            this.length = length;
+        }
+    }
+}
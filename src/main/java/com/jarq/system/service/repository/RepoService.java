@@ -4,11 +4,15 @@ import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.helpers.datetimer.IDateTimer;
 import com.jarq.system.log.ILog;
 import com.jarq.system.managers.filesManagers.IRepositoryManager;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
 import com.jarq.system.models.repository.IDaoRepository;
 import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.text.IDaoText;
+import com.jarq.system.models.text.IText;
 import com.jarq.system.models.user.IDaoUser;
 import com.jarq.system.models.user.IUser;
 import com.jarq.system.service.Service;
+import com.jarq.system.service.text.ITitleIndex;
 
 import java.io.IOException;
 import java.util.List;
@@ -17,30 +21,43 @@ public class RepoService extends Service implements IRepoService {
 
     private final IDaoRepository daoRepository;
     private final IDaoUser daoUser;
+    private final IDaoText daoText;
     private final IRepositoryManager repositoryManager;
     private final IDateTimer dateTimer;
+    private final ISearchIndex searchIndex;
+    private final ITitleIndex titleIndex;
     private final String serviceFailure = "something goes wrong with repository operation..";
 
     public static IRepoService getInstance( ILog log,
                                             IDaoRepository daoRepository,
                                             IDaoUser daoUser,
+                                            IDaoText daoText,
                                             IRepositoryManager repositoryManager,
-                                            IDateTimer dateTimer) {
+                                            IDateTimer dateTimer,
+                                            ISearchIndex searchIndex,
+                                            ITitleIndex titleIndex) {
 
-        return new RepoService(log, daoRepository, daoUser, repositoryManager, dateTimer);
+        return new RepoService(log, daoRepository, daoUser, daoText, repositoryManager, dateTimer,
+                searchIndex, titleIndex);
     }
 
 
     private RepoService(ILog log,
                         IDaoRepository daoRepository,
                         IDaoUser daoUser,
+                        IDaoText daoText,
                         IRepositoryManager repositoryManager,
-                        IDateTimer dateTimer) {
+                        IDateTimer dateTimer,
+                        ISearchIndex searchIndex,
+                        ITitleIndex titleIndex) {
         super(log);
         this.daoRepository = daoRepository;
         this.daoUser = daoUser;
+        this.daoText = daoText;
         this.repositoryManager = repositoryManager;
         this.dateTimer = dateTimer;
+        this.searchIndex = searchIndex;
+        this.titleIndex = titleIndex;
     }
 
     @Override
@@ -103,9 +120,14 @@ public class RepoService extends Service implements IRepoService {
     public String removeRepository(int repositoryId) {
         try {
             IRepository repository = daoRepository.importRepository(repositoryId);
+            List<IText> texts = daoText.importTextsByRepository(repository);
 
             boolean dbCleared = daoRepository.removeRepository(repository);
             boolean repoCleared = repositoryManager.removeRepository(repository);
+            titleIndex.removeRepository(repository);  // texts are removed by cascade
+            if ( dbCleared ) {
+                removeFromSearchIndex(texts);
+            }
             if ( dbCleared && repoCleared ) {
                 return repository.toString(); // todo
             }
@@ -131,10 +153,14 @@ public class RepoService extends Service implements IRepoService {
                 return output; // todo
             }
 
+            IUser user = daoUser.importUser(userId);
+            List<IText> texts = daoText.importTextsByUser(user);
+
             // clearing database & repo (validating at the same time)
-            boolean dbFailure = ! daoRepository.removeRepositoriesByUserId(userId);
-            boolean repoFailure = ! repositoryManager
-                    .removeUserRepositories(daoUser.importUser(userId));
+            boolean dbFailure = daoRepository.removeRepositoriesByUserId(userId) != repositories.size();
+            titleIndex.removeUser(userId);
+            removeFromSearchIndex(texts);
+            boolean repoFailure = ! repositoryManager.removeUserRepositories(user);
 
             if ( dbFailure | repoFailure ) {
                 String message = String.format("Problem occurred while removing " +
@@ -150,6 +176,13 @@ public class RepoService extends Service implements IRepoService {
         }
     }
 
+    private void removeFromSearchIndex(List<IText> texts) throws IOException {
+        // texts went by cascade - they'd be found (and skipped) till next startup otherwise
+        for(IText text : texts) {
+            searchIndex.remove(text.getId());
+        }
+    }
+
     private String updateRepository(IRepository repository) throws DaoFailure {
         if ( daoRepository.updateRepository(repository) ) {
             return repository.toString();
@@ -1,7 +1,11 @@
 package com.jarq.system.service.text;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.service.IService;
 
+import java.util.stream.Stream;
+
 public interface ITextService extends IService {
 
     String createText(int repositoryId, String title);
@@ -12,6 +16,21 @@ public interface ITextService extends IService {
 
     String[] importTextsByUser(int userId);
 
+    Page<String> importTextsByRepository(int repositoryId, PageCursor cursor, int pageSize);
+
+    Page<String> importTextsByUser(int userId, PageCursor cursor, int pageSize);
+
+    // lazy variant for users with many texts - close the stream after use
+    Stream<String> streamTextsByUser(int userId);
+
+    // texts which newest version matches query best (BM25) first - answered by search index
+    String[] searchTextsByUser(int userId, String query, int limit);
+
+    String[] searchTextsByRepository(int repositoryId, String query, int limit);
+
+    // titles of user's texts starting with prefix (case insensitive) alphabetically - answered from memory
+    String[] completeTitlesByUser(int userId, String prefix, int limit);
+
     String changeTitle(int textId, String title);
 
     String removeText(int textId);
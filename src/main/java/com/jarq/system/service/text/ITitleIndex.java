@@ -0,0 +1,30 @@
+package com.jarq.system.service.text;
+
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.text.IText;
+
+import java.util.List;
+
+public interface ITitleIndex {
+
+    /**
+     * titles of texts kept in memory per user for completion - user's titles are read from database
+     * at the first completion, changes have to be passed on after they are saved
+     */
+
+    // titles starting with prefix (case insensitive) in alphabetical order, at most limit of them
+    List<TitleMatch> complete(int userId, String prefix, int limit) throws DaoFailure;
+
+    // new text or new title of text
+    void put(IText text);
+
+    void remove(IText text);
+
+    void removeRepository(IRepository repository);
+
+    void removeUser(int userId);
+
+    // number of users which titles are kept
+    int getUsersCount();
+}
@@ -1,9 +1,13 @@
 package com.jarq.system.service.text;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.helpers.datetimer.IDateTimer;
 import com.jarq.system.log.ILog;
 import com.jarq.system.managers.filesManagers.IRepositoryManager;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
+import com.jarq.system.managers.indexManagers.SearchHit;
 import com.jarq.system.models.repository.IDaoRepository;
 import com.jarq.system.models.repository.IRepository;
 import com.jarq.system.models.text.IDaoText;
@@ -13,7 +17,9 @@ import com.jarq.system.models.user.IUser;
 import com.jarq.system.service.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class TextService extends Service implements ITextService {
 
@@ -22,7 +28,10 @@ public class TextService extends Service implements ITextService {
     private final IDaoRepository daoRepository;
     private final IDaoUser daoUser;
     private final IDateTimer dateTimer;
+    private final ISearchIndex searchIndex;
+    private final ITitleIndex titleIndex;
     private final String serviceFailure = "something goes wrong with text operation.";
+    private final int streamFetchSize;
 
 
     public static ITextService getInstance( ILog log,
@@ -30,9 +39,12 @@ public class TextService extends Service implements ITextService {
                                             IDaoText daoText,
                                             IDaoRepository daoRepository,
                                             IDaoUser daoUser,
-                                            IDateTimer dateTimer) {
+                                            IDateTimer dateTimer,
+                                            ISearchIndex searchIndex,
+                                            ITitleIndex titleIndex,
+                                            int streamFetchSize) {
         return new TextService(log, repositoryManager,
-                    daoText, daoRepository, daoUser, dateTimer);
+                    daoText, daoRepository, daoUser, dateTimer, searchIndex, titleIndex, streamFetchSize);
     }
 
     private TextService(ILog log,
@@ -40,13 +52,19 @@ public class TextService extends Service implements ITextService {
                         IDaoText daoText,
                         IDaoRepository daoRepository,
                         IDaoUser daoUser,
-                        IDateTimer dateTimer) {
+                        IDateTimer dateTimer,
+                        ISearchIndex searchIndex,
+                        ITitleIndex titleIndex,
+                        int streamFetchSize) {
         super(log);
         this.repositoryManager = repositoryManager;
         this.daoText = daoText;
         this.daoRepository = daoRepository;
         this.daoUser = daoUser;
         this.dateTimer = dateTimer;
+        this.searchIndex = searchIndex;
+        this.titleIndex = titleIndex;
+        this.streamFetchSize = streamFetchSize;
     }
 
     @Override
@@ -58,6 +76,7 @@ public class TextService extends Service implements ITextService {
             repository.setLastModificationDate(dateTimer.getCurrentDateTime());  // update repository's modification date;
             daoRepository.updateRepository(repository);
             repositoryManager.createDir(text);
+            titleIndex.put(text);
             return text.toString(); // todo
 
         } catch (DaoFailure | IOException ex) {
@@ -107,6 +126,79 @@ public class TextService extends Service implements ITextService {
         }
     }
 
+    @Override
+    public Page<String> importTextsByRepository(int repositoryId, PageCursor cursor, int pageSize) {
+        try {
+            return daoText.importTextsByRepositoryId(repositoryId, cursor, pageSize)
+                    .map(IText::toString);
+
+        } catch (DaoFailure daoFailure) {
+            reportException(daoFailure);
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Page<String> importTextsByUser(int userId, PageCursor cursor, int pageSize) {
+        try {
+            IUser user = daoUser.importUser(userId);
+            return daoText.importTextsByUser(user, cursor, pageSize)
+                    .map(IText::toString);
+
+        } catch (DaoFailure daoFailure) {
+            reportException(daoFailure);
+            return Page.empty();
+        }
+    }
+
+    @Override
+    public Stream<String> streamTextsByUser(int userId) {
+        try {
+            IUser user = daoUser.importUser(userId);
+            return daoText.streamTextsByUser(user, streamFetchSize)
+                    .map(IText::toString);
+
+        } catch (DaoFailure daoFailure) {
+            reportException(daoFailure);
+            return Stream.empty();
+        }
+    }
+
+    @Override
+    public String[] searchTextsByUser(int userId, String query, int limit) {
+        try {
+            return importHits(searchIndex.searchByUser(userId, query, limit));
+
+        } catch (IOException ex) {
+            reportException(ex);
+            return new String[0];
+        }
+    }
+
+    @Override
+    public String[] searchTextsByRepository(int repositoryId, String query, int limit) {
+        try {
+            return importHits(searchIndex.searchByRepository(repositoryId, query, limit));
+
+        } catch (IOException ex) {
+            reportException(ex);
+            return new String[0];
+        }
+    }
+
+    @Override
+    public String[] completeTitlesByUser(int userId, String prefix, int limit) {
+        try {
+            return titleIndex.complete(userId, prefix, limit).stream()
+                    .map(TitleMatch::toString)
+                    .toArray(String[]::new);
+
+        } catch (DaoFailure daoFailure) {
+            reportException(daoFailure);
+            return new String[0];
+        }
+    }
+
     @Override
     public String changeTitle(int textId, String title) {
         try {
@@ -129,6 +221,10 @@ public class TextService extends Service implements ITextService {
 
             boolean dbCleared = daoText.removeText(text);
             boolean repoCleared = repositoryManager.removeTextDirectory(text);
+            searchIndex.remove(textId);
+            if ( dbCleared ) {
+                titleIndex.remove(text);
+            }
 
             if ( dbCleared && repoCleared ) {
                 return text.toString(); // todo
@@ -144,9 +240,22 @@ public class TextService extends Service implements ITextService {
         }
     }
 
+    private String[] importHits(List<SearchHit> hits) {
+        // text whose removal didn't reach the index (ie. by crash) stays there till startup - it's skipped
+        List<String> texts = new ArrayList<>();
+        for(SearchHit hit : hits) {
+            try {
+                texts.add(daoText.importText(hit.getTextId()).toString());
+            } catch (DaoFailure ignored) {
+            }
+        }
+        return texts.toArray(new String[0]);
+    }
+
     private String updateTextAndRepository(IText text) throws DaoFailure {
         updateRepositoryModificationDate(text);
         if ( daoText.updateText(text) ) {
+            titleIndex.put(text);
             return text.toString();
         }
 
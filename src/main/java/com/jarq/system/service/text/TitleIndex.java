@@ -0,0 +1,197 @@
+package com.jarq.system.service.text;
+
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.text.IDaoText;
+import com.jarq.system.models.text.IText;
+import com.jarq.system.models.user.IDaoUser;
+import com.jarq.system.models.user.IUser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+public class TitleIndex implements ITitleIndex {
+
+    /**
+     * titles of every user are kept in array sorted by lowercase title - completion is binary search
+     * for the first title not lower than prefix and scan of the prefix range; array is replaced (not
+     * changed) by writers, so completion doesn't wait for them. Changes of users not loaded yet are
+     * skipped - database is read at their first completion anyway
+     */
+
+    private final IDaoText daoText;
+    private final IDaoUser daoUser;
+    private final int fetchSize;
+    private final ConcurrentMap<Integer, UserTitles> users = new ConcurrentHashMap<>();
+
+    public static ITitleIndex getInstance(IDaoText daoText, IDaoUser daoUser, int fetchSize) {
+        return new TitleIndex(daoText, daoUser, fetchSize);
+    }
+
+    private TitleIndex(IDaoText daoText, IDaoUser daoUser, int fetchSize) {
+        this.daoText = daoText;
+        this.daoUser = daoUser;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public List<TitleMatch> complete(int userId, String prefix, int limit) throws DaoFailure {
+        Title[] titles = load(userId);
+        String key = normalize(prefix);
+        List<TitleMatch> matches = new ArrayList<>();
+        for(int i = lowerBound(titles, key); i < titles.length && matches.size() < limit; i++) {
+            if(! titles[i].key.startsWith(key) ) {
+                break;  // the rest is out of prefix range
+            }
+            matches.add(new TitleMatch(titles[i].textId, titles[i].title));
+        }
+        return matches;
+    }
+
+    @Override
+    public void put(IText text) {
+        UserTitles userTitles = users.get(text.getUserId());
+        if(userTitles != null) {
+            userTitles.put(new Title(text));
+        }
+    }
+
+    @Override
+    public void remove(IText text) {
+        UserTitles userTitles = users.get(text.getUserId());
+        if(userTitles != null) {
+            userTitles.removeIf(title -> title.textId == text.getId());
+        }
+    }
+
+    @Override
+    public void removeRepository(IRepository repository) {
+        UserTitles userTitles = users.get(repository.getUserId());
+        if(userTitles != null) {
+            userTitles.removeIf(title -> title.repositoryId == repository.getId());
+        }
+    }
+
+    @Override
+    public void removeUser(int userId) {
+        UserTitles userTitles = users.get(userId);
+        if(userTitles != null) {
+            userTitles.clear();  // waits for load in progress
+            users.remove(userId, userTitles);
+        }
+    }
+
+    @Override
+    public int getUsersCount() {
+        return users.size();
+    }
+
+    private Title[] load(int userId) throws DaoFailure {
+        UserTitles userTitles = users.computeIfAbsent(userId, id -> new UserTitles());
+        Title[] titles = userTitles.titles;
+        if(titles != null) {
+            return titles;
+        }
+        try {
+            return userTitles.load(userId);
+
+        } catch (DaoFailure ex) {
+            users.remove(userId, userTitles);  // ie. there's no such user
+            throw ex;
+        }
+    }
+
+    private static int lowerBound(Title[] titles, String key) {
+        int low = 0;
+        int high = titles.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(titles[middle].key.compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static String normalize(String title) {
+        return title == null ? "" : title.toLowerCase(Locale.ROOT);
+    }
+
+    private class UserTitles {
+
+        // null till loaded - changes are made under lock (after load), reads don't need it
+        private volatile Title[] titles;
+
+        synchronized Title[] load(int userId) throws DaoFailure {
+            if(titles == null) {
+                IUser user = daoUser.importUser(userId);
+                try (Stream<IText> texts = daoText.streamTextsByUser(user, fetchSize)) {
+                    Title[] loaded = texts.map(Title::new).toArray(Title[]::new);
+                    Arrays.sort(loaded);
+                    titles = loaded;
+                }
+            }
+            return titles;
+        }
+
+        synchronized void put(Title title) {
+            if(titles == null) {
+                return;
+            }
+            // the same text may be put again (ie. loaded after it was saved) - older title is replaced
+            Title[] others = without(titles, other -> other.textId == title.textId);
+            int position = Arrays.binarySearch(others, title);
+            position = position < 0 ? -position - 1 : position;
+            Title[] changed = new Title[others.length + 1];
+            System.arraycopy(others, 0, changed, 0, position);
+            changed[position] = title;
+            System.arraycopy(others, position, changed, position + 1, others.length - position);
+            titles = changed;
+        }
+
+        synchronized void removeIf(Predicate<Title> predicate) {
+            if(titles != null) {
+                titles = without(titles, predicate);
+            }
+        }
+
+        synchronized void clear() {
+            titles = null;
+        }
+
+        private Title[] without(Title[] titles, Predicate<Title> predicate) {
+            return Arrays.stream(titles)
+                    .filter(predicate.negate())
+                    .toArray(Title[]::new);
+        }
+    }
+
+    private static class Title implements Comparable<Title> {
+
+        private final String key;
+        private final String title;
+        private final int textId;
+        private final int repositoryId;
+
+        private Title(IText text) {
+            this.key = normalize(text.getTitle());
+            this.title = text.getTitle();
+            this.textId = text.getId();
+            this.repositoryId = text.getRepositoryId();
+        }
+
+        @Override
+        public int compareTo(Title other) {
+            int comparison = key.compareTo(other.key);
+            return comparison != 0 ? comparison : Integer.compare(textId, other.textId);
+        }
+    }
+}
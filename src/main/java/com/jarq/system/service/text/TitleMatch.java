@@ -0,0 +1,28 @@
+package com.jarq.system.service.text;
+
+public class TitleMatch {
+
+    private final int textId;
+    private final String title;
+
+    TitleMatch(int textId, String title) {
+        this.textId = textId;
+        this.title = title;
+    }
+
+    public int getTextId() {
+        return textId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String toString() {
+        return "TitleMatch{" +
+                "textId=" + textId +
+                ", title='" + title + '\'' +
+                '}';
+    }
+}
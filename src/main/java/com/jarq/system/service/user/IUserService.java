@@ -1,5 +1,7 @@
 package com.jarq.system.service.user;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.exceptions.ServiceException;
 import com.jarq.system.service.IService;
 
@@ -9,6 +11,8 @@ public interface IUserService extends IService {
 
     String importUser(int userId);
 
+    Page<String> importUsers(PageCursor cursor, int pageSize);
+
     String changeUserName(int userId, String name);
 
     String changeUserSurname(int userId, String surname);
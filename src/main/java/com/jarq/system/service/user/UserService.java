@@ -1,16 +1,23 @@
 package com.jarq.system.service.user;
 
+import com.jarq.system.dao.Page;
+import com.jarq.system.dao.PageCursor;
 import com.jarq.system.exceptions.DaoFailure;
 import com.jarq.system.exceptions.ServiceException;
 import com.jarq.system.log.ILog;
 import com.jarq.system.managers.filesManagers.IRepositoryManager;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
+import com.jarq.system.models.text.IDaoText;
+import com.jarq.system.models.text.IText;
 import com.jarq.system.policy.IEmailPolicy;
 import com.jarq.system.policy.IPasswordPolicy;
 import com.jarq.system.models.user.IDaoUser;
 import com.jarq.system.models.user.IUser;
 import com.jarq.system.service.Service;
+import com.jarq.system.service.text.ITitleIndex;
 
 import java.io.IOException;
+import java.util.List;
 
 public class UserService extends Service implements IUserService {
 
@@ -19,20 +26,31 @@ public class UserService extends Service implements IUserService {
     private final IPasswordPolicy passwordPolicy;
     private final String serviceFailure = "something goes wrong with user data operation.";
     private final IRepositoryManager repositoryManager;
+    private final IDaoText daoText;
+    private final ISearchIndex searchIndex;
+    private final ITitleIndex titleIndex;
 
     public static IUserService getInstance(ILog log, IDaoUser daoUser, IEmailPolicy emailPolicy,
                                            IPasswordPolicy passwordPolicy,
-                                           IRepositoryManager repositoryManager) {
-        return new UserService(log, daoUser, emailPolicy, passwordPolicy, repositoryManager);
+                                           IRepositoryManager repositoryManager,
+                                           IDaoText daoText,
+                                           ISearchIndex searchIndex,
+                                           ITitleIndex titleIndex) {
+        return new UserService(log, daoUser, emailPolicy, passwordPolicy, repositoryManager,
+                daoText, searchIndex, titleIndex);
     }
 
     private UserService(ILog log, IDaoUser daoUser, IEmailPolicy emailPolicy,
-                        IPasswordPolicy passwordPolicy, IRepositoryManager repositoryManager) {
+                        IPasswordPolicy passwordPolicy, IRepositoryManager repositoryManager,
+                        IDaoText daoText, ISearchIndex searchIndex, ITitleIndex titleIndex) {
         super(log);
         this.daoUser = daoUser;
         this.emailPolicy = emailPolicy;
         this.passwordPolicy = passwordPolicy;
         this.repositoryManager = repositoryManager;
+        this.daoText = daoText;
+        this.searchIndex = searchIndex;
+        this.titleIndex = titleIndex;
     }
 
     @Override
@@ -64,6 +82,18 @@ public class UserService extends Service implements IUserService {
         }
     }
 
+    @Override
+    public Page<String> importUsers(PageCursor cursor, int pageSize) {
+        try {
+            return daoUser.importAllUsers(cursor, pageSize)
+                    .map(IUser::toString);
+
+        } catch (DaoFailure daoFailure) {
+            reportException(daoFailure);
+            return Page.empty();
+        }
+    }
+
     @Override
     public String changeUserName(int userId, String name) {
 
@@ -127,9 +157,17 @@ public class UserService extends Service implements IUserService {
     public String removeUser(int userId) {
         try {
             IUser user = daoUser.importUser(userId);
+            List<IText> texts = daoText.importTextsByUser(user);
 
             boolean repoCleared = repositoryManager.removeUserRepositories(user);
             boolean dbCleared = daoUser.removeUser(user);
+            titleIndex.removeUser(userId);
+            if ( dbCleared ) {
+                // texts went by cascade - they'd be found (and skipped) till next startup otherwise
+                for(IText text : texts) {
+                    searchIndex.remove(text.getId());
+                }
+            }
 
             if ( dbCleared && repoCleared ) {
                 return user.toString(); // todo
@@ -0,0 +1,51 @@
+CREATE TABLE IF NOT EXISTS `users` (
+	`id`	INTEGER NOT NULL UNIQUE,
+	`name`	TEXT NOT NULL,
+	`surname`	TEXT NOT NULL,
+	`email`	TEXT NOT NULL UNIQUE,
+	`password`	TEXT NOT NULL DEFAULT 123,
+	PRIMARY KEY(`id`)
+);
+
+CREATE TABLE IF NOT EXISTS `addresses` (
+	`id`	INTEGER NOT NULL UNIQUE,
+	`postal_code`	TEXT NOT NULL,
+	`city`	TEXT NOT NULL,
+	`street`	TEXT NOT NULL,
+	`house_no`	TEXT NOT NULL,
+	`apartment_no`	TEXT DEFAULT '-',
+	`user_id`	INTEGER NOT NULL,
+	FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE,
+	PRIMARY KEY(`id`)
+);
+
+CREATE TABLE IF NOT EXISTS `repositories` (
+	`id`	INTEGER NOT NULL UNIQUE,
+	`name`	TEXT NOT NULL,
+	`creation_date`	TEXT NOT NULL,
+	`last_modification_date`	TEXT,
+	`user_id`	INTEGER NOT NULL,
+	FOREIGN KEY(`user_id`) REFERENCES `users`(`id`) ON DELETE CASCADE,
+	PRIMARY KEY(`id`)
+);
+
+CREATE TABLE IF NOT EXISTS `texts` (
+	`id`	INTEGER NOT NULL UNIQUE,
+	`title`	TEXT NOT NULL,
+	`creation_date`	TEXT NOT NULL,
+	`last_modification_date`	TEXT NOT NULL,
+	`repository_id`	INTEGER NOT NULL,
+	`user_id`	INTEGER NOT NULL,
+	FOREIGN KEY(`repository_id`) REFERENCES `repositories`(`id`) ON DELETE CASCADE,
+	PRIMARY KEY(`id`),
+	FOREIGN KEY(`user_id`) REFERENCES `users`(`id`)
+);
+
+CREATE TABLE IF NOT EXISTS `contents` (
+	`id`	INTEGER NOT NULL UNIQUE,
+	`filepath`	TEXT NOT NULL,
+	`creation_date`	TEXT NOT NULL,
+	`text_id`	INTEGER NOT NULL,
+	PRIMARY KEY(`id`),
+	FOREIGN KEY(`text_id`) REFERENCES `texts`(`id`) ON DELETE CASCADE
+);
@@ -0,0 +1,9 @@
+CREATE INDEX IF NOT EXISTS `idx_addresses_user` ON `addresses` (`user_id`);
+
+CREATE INDEX IF NOT EXISTS `idx_repositories_user` ON `repositories` (`user_id`);
+
+CREATE INDEX IF NOT EXISTS `idx_texts_repository` ON `texts` (`repository_id`, `last_modification_date`);
+
+CREATE INDEX IF NOT EXISTS `idx_texts_user` ON `texts` (`user_id`, `last_modification_date`);
+
+CREATE INDEX IF NOT EXISTS `idx_contents_text` ON `contents` (`text_id`, `creation_date`);
@@ -0,0 +1,25 @@
+CREATE TABLE IF NOT EXISTS `blobs` (
+	`hash`	TEXT NOT NULL UNIQUE,
+	`filepath`	TEXT NOT NULL UNIQUE,
+	`ref_count`	INTEGER NOT NULL DEFAULT 0,
+	PRIMARY KEY(`hash`)
+);
+
+CREATE INDEX IF NOT EXISTS `idx_blobs_ref_count` ON `blobs` (`ref_count`);
+
+CREATE TRIGGER IF NOT EXISTS `trg_contents_blob_insert` AFTER INSERT ON `contents`
+BEGIN
+	UPDATE `blobs` SET `ref_count` = `ref_count` + 1 WHERE `filepath` = NEW.`filepath`;
+END;
+
+CREATE TRIGGER IF NOT EXISTS `trg_contents_blob_delete` AFTER DELETE ON `contents`
+BEGIN
+	UPDATE `blobs` SET `ref_count` = `ref_count` - 1 WHERE `filepath` = OLD.`filepath`;
+END;
+
+CREATE TRIGGER IF NOT EXISTS `trg_contents_blob_update` AFTER UPDATE OF `filepath` ON `contents`
+WHEN OLD.`filepath` <> NEW.`filepath`
+BEGIN
+	UPDATE `blobs` SET `ref_count` = `ref_count` - 1 WHERE `filepath` = OLD.`filepath`;
+	UPDATE `blobs` SET `ref_count` = `ref_count` + 1 WHERE `filepath` = NEW.`filepath`;
+END;
@@ -0,0 +1,15 @@
+ALTER TABLE `blobs` ADD COLUMN `base_filepath` TEXT;
+
+ALTER TABLE `blobs` ADD COLUMN `depth` INTEGER NOT NULL DEFAULT 0;
+
+CREATE TRIGGER IF NOT EXISTS `trg_blobs_base_insert` AFTER INSERT ON `blobs`
+WHEN NEW.`base_filepath` IS NOT NULL
+BEGIN
+	UPDATE `blobs` SET `ref_count` = `ref_count` + 1 WHERE `filepath` = NEW.`base_filepath`;
+END;
+
+CREATE TRIGGER IF NOT EXISTS `trg_blobs_base_delete` AFTER DELETE ON `blobs`
+WHEN OLD.`base_filepath` IS NOT NULL
+BEGIN
+	UPDATE `blobs` SET `ref_count` = `ref_count` - 1 WHERE `filepath` = OLD.`base_filepath`;
+END;
@@ -0,0 +1,7 @@
+ALTER TABLE `blobs` ADD COLUMN `pack_path` TEXT;
+
+ALTER TABLE `blobs` ADD COLUMN `pack_offset` INTEGER;
+
+ALTER TABLE `blobs` ADD COLUMN `pack_length` INTEGER;
+
+CREATE INDEX IF NOT EXISTS `idx_blobs_pack` ON `blobs` (`pack_path`);
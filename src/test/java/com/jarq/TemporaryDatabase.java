@@ -0,0 +1,69 @@
+package com.jarq;
+
+import com.jarq.system.enums.DbFilePath;
+import com.jarq.system.exceptions.DatabaseCreationFailure;
+import com.jarq.system.managers.databaseManagers.DatabaseConfig;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.SQLiteCreator;
+import com.jarq.system.managers.databaseManagers.SQLiteManager;
+import com.jarq.system.managers.databaseManagers.SQLiteMigrator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+public class TemporaryDatabase implements DatabaseConfig {
+
+    /**
+     * sqlite database in temporary file for tests which need real one - empty till it's created
+     * (migrated & set up like application's database) or filled by test itself, removed by delete()
+     */
+
+    private final File databaseFile;
+
+    public static TemporaryDatabase getInstance(String prefix) throws IOException {
+        return new TemporaryDatabase(File.createTempFile(prefix, ".db"));
+    }
+
+    private TemporaryDatabase(File databaseFile) {
+        this.databaseFile = databaseFile;
+    }
+
+    // schema of application's database with its setup data
+    public TemporaryDatabase create() throws DatabaseCreationFailure {
+        SQLiteCreator.getInstance(this, SQLiteMigrator.getInstance(this, DbFilePath.DB_MIGRATIONS),
+                DbFilePath.DB_SETUP_SCRIPT).createDatabase();
+        return this;
+    }
+
+    public DatabaseManager openManager() {
+        return SQLiteManager.getSQLiteManager(this);
+    }
+
+    public void delete() {
+        databaseFile.delete();
+    }
+
+    @Override
+    public String getUrl() {
+        return "jdbc:sqlite:" + databaseFile.getPath();
+    }
+
+    @Override
+    public String getDriver() {
+        return "org.sqlite.JDBC";
+    }
+
+    @Override
+    public String getFilepath() {
+        return databaseFile.getPath();
+    }
+
+    @Override
+    public Properties getProperties() {
+        // cascades are enforced like in application's database
+        org.sqlite.SQLiteConfig config = new org.sqlite.SQLiteConfig();
+        config.enforceForeignKeys(true);
+        return config.toProperties();
+    }
+}
@@ -0,0 +1,95 @@
+package com.jarq;
+
+import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.text.IText;
+import com.jarq.system.models.user.IUser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TemporaryRepositoryPath implements IRepositoryPath {
+
+    /**
+     * repositories in temporary directory for tests which write files - paths are built
+     * like RepositoryPath builds them, everything is removed by delete()
+     */
+
+    private final Path rootDir;
+    private final String separator = File.separator;
+
+    public static TemporaryRepositoryPath getInstance(String prefix) throws IOException {
+        return new TemporaryRepositoryPath(Files.createTempDirectory(prefix));
+    }
+
+    private TemporaryRepositoryPath(Path rootDir) {
+        this.rootDir = rootDir;
+    }
+
+    public void delete() throws IOException {
+        try (Stream<Path> paths = Files.walk(rootDir)) {
+            List<Path> deepestFirst = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+            for(Path path : deepestFirst) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Override
+    public String filepath(IText text) {
+        return textDir(text) + text.getModificationDate().replaceAll("[^A-Za-z0-9]", "_") + ".md";
+    }
+
+    @Override
+    public String filepath(IText text, int contentId) {
+        return textDir(text) + text.getModificationDate().replaceAll("[^A-Za-z0-9]", "_")
+                + "-" + contentId + ".md";
+    }
+
+    @Override
+    public String textDir(IText text) {
+        return String.format("%s%s%s%s%s%s%s", root(), text.getUserId(), separator,
+                text.getRepositoryId(), separator, text.getId(), separator);
+    }
+
+    @Override
+    public String repositoryDir(IRepository repository) {
+        return String.format("%s%s%s%s%s", root(), repository.getUserId(), separator,
+                repository.getId(), separator);
+    }
+
+    @Override
+    public String userDir(IUser user) {
+        return root() + user.getId() + separator;
+    }
+
+    @Override
+    public String blobsDir() {
+        return root() + "blobs" + separator;
+    }
+
+    @Override
+    public String blobFilepath(String hash) {
+        return blobsDir() + hash.substring(0, 2) + separator + hash + ".md";
+    }
+
+    @Override
+    public String packsDir() {
+        return root() + "packs" + separator;
+    }
+
+    @Override
+    public String indexDir() {
+        return root() + "index" + separator;
+    }
+
+    private String root() {
+        return rootDir.toString() + separator;
+    }
+}
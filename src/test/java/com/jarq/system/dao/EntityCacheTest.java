@@ -0,0 +1,55 @@
+package com.jarq.system.dao;
+
+import com.jarq.AbstractTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EntityCacheTest extends AbstractTest {
+
+    private IEntityCache<String> entityCache;
+
+    @Before
+    public void setUp() {
+        entityCache = EntityCache.getInstance(2);
+    }
+
+    @Test
+    public void putIfUnchanged_should_skip_row_read_before_write() {
+
+        long stamp = entityCache.stamp();
+        entityCache.put(1, "written");
+        entityCache.putIfUnchanged(1, "read", stamp);
+        entityCache.putIfUnchanged(2, "read", stamp);
+
+        assertEquals("written", entityCache.get(1));
+        assertNull(entityCache.get(2));
+    }
+
+    @Test
+    public void put_should_evict_least_recently_used() {
+
+        entityCache.put(1, "one");
+        entityCache.put(2, "two");
+        entityCache.get(1);
+        entityCache.put(3, "three");
+
+        assertNull(entityCache.get(2));
+        assertEquals("one", entityCache.get(1));
+        assertEquals(1, entityCache.getEvictionsCount());
+        assertEquals(2, entityCache.getHitsCount());
+    }
+
+    @Test
+    public void invalidateIf_should_remove_matching_entities() {
+
+        entityCache.put(1, "child of 7");
+        entityCache.put(2, "child of 8");
+
+        entityCache.invalidateIf(entity -> entity.endsWith("7"));
+
+        assertNull(entityCache.get(1));
+        assertEquals("child of 8", entityCache.get(2));
+    }
+}
@@ -0,0 +1,49 @@
+package com.jarq.system.dao;
+
+import com.jarq.AbstractTest;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PageTest extends AbstractTest {
+
+    @Test
+    public void of_with_extra_row_has_next_page() {
+        List<Integer> rows = Arrays.asList(9, 8, 7);
+        Page<Integer> page = Page.of(rows, 2, PageCursor::after);
+
+        assertEquals(Arrays.asList(9, 8), page.getItems());
+        assertTrue(page.hasNext());
+        assertEquals(8, page.getNextCursor().getId());
+        assertFalse(page.getNextCursor().isFirst());
+    }
+
+    @Test
+    public void of_without_extra_row_is_last_page() {
+        List<Integer> rows = Arrays.asList(9, 8);
+        Page<Integer> page = Page.of(rows, 2, PageCursor::after);
+
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.hasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void map_keeps_cursor() {
+        Page<Integer> page = Page.of(Arrays.asList(3, 2, 1), 2, PageCursor::after);
+        Page<String> mapped = page.map(String::valueOf);
+
+        assertEquals(Arrays.asList("3", "2"), mapped.getItems());
+        assertSame(page.getNextCursor(), mapped.getNextCursor());
+    }
+
+    @Test
+    public void empty() {
+        Page<String> page = Page.empty();
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.hasNext());
+    }
+}
@@ -0,0 +1,139 @@
+package com.jarq.system.dao;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SqlGroupCommitterTest extends AbstractTest {
+
+    private TemporaryDatabase database;
+    private DatabaseManager databaseManager;
+    private IGroupCommitter groupCommitter;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("groupCommit");
+        databaseManager = database.openManager();
+        try (Statement statement = databaseManager.getConnection().createStatement()) {
+            statement.executeUpdate("CREATE TABLE notes (id INTEGER PRIMARY KEY)");
+        }
+        groupCommitter = SqlGroupCommitter.getInstance(databaseManager, 16, 50);
+    }
+
+    @After
+    public void tearDown() {
+        groupCommitter.shutdown();
+        databaseManager.closeConnection();
+        database.delete();
+    }
+
+    @Test
+    public void concurrent_works_share_commits() throws Exception {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for(int id = 1; id <= 10; id++) {
+            futures.add(groupCommitter.submit(insertNote(id, true)));
+        }
+        for(CompletableFuture<Integer> future : futures) {
+            future.get();
+        }
+        assertEquals(10, countNotes());
+        assertEquals(10, groupCommitter.getCommittedWorksCount());
+        assertTrue(groupCommitter.getCommitsCount() < 10);
+    }
+
+    @Test
+    public void failed_work_does_not_break_group() throws Exception {
+        CompletableFuture<Integer> first = groupCommitter.submit(insertNote(1, true));
+        CompletableFuture<Integer> duplicate = groupCommitter.submit(insertNote(1, true));
+        CompletableFuture<Integer> second = groupCommitter.submit(insertNote(2, true));
+
+        assertEquals(1, (int) first.get());
+        assertEquals(2, (int) second.get());
+        try {
+            duplicate.get();
+            fail();
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof SQLException);
+        }
+        assertEquals(2, countNotes());
+    }
+
+    @Test
+    public void work_without_commit_is_rolled_back() throws Exception {
+        final boolean[] isCompensated = {false};
+        groupCommitter.submit(unitOfWork -> {
+            unitOfWork.onRollback(() -> isCompensated[0] = true);
+            return insertNote(1, false).run(unitOfWork);
+        }).get();
+
+        assertEquals(0, countNotes());
+        assertTrue(isCompensated[0]);
+    }
+
+    @Test
+    public void error_in_work_fails_group_and_keeps_committer_working() throws Exception {
+        // group is full (and committed) only when all three works are queued
+        IGroupCommitter committer = SqlGroupCommitter.getInstance(databaseManager, 3, 5000);
+        try {
+            List<CompletableFuture<Integer>> group = new ArrayList<>();
+            group.add(committer.submit(insertNote(1, true)));
+            group.add(committer.submit(unitOfWork -> {
+                insertNote(2, true).run(unitOfWork);
+                throw new OutOfMemoryError("note too large");
+            }));
+            group.add(committer.submit(insertNote(3, true)));
+            for(CompletableFuture<Integer> future : group) {
+                try {
+                    future.get(5, TimeUnit.SECONDS);
+                    fail();
+                } catch (ExecutionException expected) {
+                }
+            }
+            assertEquals(0, countNotes());
+
+            List<CompletableFuture<Integer>> nextGroup = new ArrayList<>();
+            for(int id = 4; id <= 6; id++) {
+                nextGroup.add(committer.submit(insertNote(id, true)));
+            }
+            for(CompletableFuture<Integer> future : nextGroup) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+            assertEquals(3, countNotes());
+        } finally {
+            committer.shutdown();
+        }
+    }
+
+    private IGroupCommitter.GroupedWork<Integer> insertNote(int id, boolean isCommitted) {
+        return unitOfWork -> {
+            try (Statement statement = databaseManager.getConnection().createStatement()) {
+                statement.executeUpdate("INSERT INTO notes VALUES (" + id + ")");
+            }
+            if(isCommitted) {
+                unitOfWork.commit();
+            }
+            return id;
+        };
+    }
+
+    private int countNotes() throws Exception {
+        try (   Statement statement = databaseManager.getConnection().createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM notes")  ) {
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.jarq.system.dao;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+public class SqlUnitOfWorkTest extends AbstractTest {
+
+    private TemporaryDatabase database;
+    private DatabaseManager databaseManager;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("unitOfWork");
+        databaseManager = database.openManager();
+        try (Statement statement = databaseManager.getConnection().createStatement()) {
+            statement.executeUpdate("CREATE TABLE notes (id INTEGER PRIMARY KEY)");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.closeConnection();
+        database.delete();
+    }
+
+    @Test
+    public void commit_keeps_changes() throws Exception {
+        try (IUnitOfWork unitOfWork = SqlUnitOfWork.begin(databaseManager)) {
+            insertNote(1);
+            unitOfWork.commit();
+        }
+        assertEquals(1, countNotes());
+        assertFalse(databaseManager.getWriterLock().isLocked());
+    }
+
+    @Test
+    public void close_without_commit_rolls_back_and_compensates() throws Exception {
+        final boolean[] isCompensated = {false};
+        try (IUnitOfWork unitOfWork = SqlUnitOfWork.begin(databaseManager)) {
+            insertNote(1);
+            unitOfWork.onRollback(() -> isCompensated[0] = true);
+        }
+        assertEquals(0, countNotes());
+        assertTrue(isCompensated[0]);
+        assertTrue(databaseManager.getConnection().getAutoCommit());
+        assertFalse(databaseManager.getWriterLock().isLocked());
+    }
+
+    @Test(expected = DaoFailure.class)
+    public void begin_twice_in_same_thread() throws Exception {
+        try (IUnitOfWork ignored = SqlUnitOfWork.begin(databaseManager)) {
+            SqlUnitOfWork.begin(databaseManager);
+        }
+    }
+
+    private void insertNote(int id) throws Exception {
+        try (Statement statement = databaseManager.getConnection().createStatement()) {
+            statement.executeUpdate("INSERT INTO notes VALUES (" + id + ")");
+        }
+    }
+
+    private int countNotes() throws Exception {
+        try (   Statement statement = databaseManager.getConnection().createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM notes")  ) {
+            return resultSet.getInt(1);
+        }
+    }
+}
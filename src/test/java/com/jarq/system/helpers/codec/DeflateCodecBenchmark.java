@@ -0,0 +1,165 @@
+package com.jarq.system.helpers.codec;
+
+import com.jarq.system.dao.IDaoFactory;
+import com.jarq.system.dao.SqlDaoFactory;
+import com.jarq.system.enums.DbDriver;
+import com.jarq.system.enums.DbFilePath;
+import com.jarq.system.enums.DbUrl;
+import com.jarq.system.enums.FileExtension;
+import com.jarq.system.enums.RepositoriesPath;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.datetimer.DateTimer;
+import com.jarq.system.helpers.delta.LineDeltaEncoder;
+import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
+import com.jarq.system.helpers.repositoryPath.RepositoryPath;
+import com.jarq.system.managers.databaseManagers.DatabaseConfig;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.SQLProcessManager;
+import com.jarq.system.managers.databaseManagers.SQLiteConfig;
+import com.jarq.system.managers.databaseManagers.SQLiteManager;
+import com.jarq.system.managers.filesManagers.*;
+import com.jarq.system.models.blob.SQLiteDaoBlob;
+import com.jarq.system.models.content.IContent;
+import com.jarq.system.models.content.SQLiteDaoContent;
+import com.jarq.system.service.content.IVersionStore;
+import com.jarq.system.service.content.VersionStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+
+public class DeflateCodecBenchmark {
+
+    /**
+     * not a unit test - run by hand from project directory:
+     * java ... com.jarq.system.helpers.codec.DeflateCodecBenchmark
+     * newest version of every note (application's database & repository) is read through version store,
+     * reports compression ratio and write / read throughput of raw and compressed files
+     */
+
+    private static final int ROUNDS = 20;
+    private static final int THRESHOLD = 512;
+
+    public static void main(String[] args) throws IOException, DaoFailure {
+
+        DatabaseConfig databaseConfig = SQLiteConfig.createSQLiteConfiguration(DbUrl.SQLITE, DbDriver.SQLITE,
+                DbFilePath.SQLITE_DATABASE);
+        List<byte[]> notes = loadNotes(databaseConfig);
+        if(notes.isEmpty()) {
+            System.out.println("No notes in " + new File(databaseConfig.getFilepath()).getAbsolutePath());
+            return;
+        }
+        long corpusBytes = notes.stream().mapToLong(note -> note.length).sum();
+        System.out.printf("%d notes, %d bytes, threshold %d bytes%n", notes.size(), corpusBytes, THRESHOLD);
+        System.out.printf("%-14s %8s %12s %12s%n", "codec", "ratio", "write MB/s", "read MB/s");
+
+        Path workDir = Files.createTempDirectory("codec-benchmark");
+        try {
+            run("raw", TextWriter.getInstance(StandardCharsets.UTF_8),
+                    TextReader.getInstance(StandardCharsets.UTF_8), notes, workDir);
+            for(int level : new int[] {Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION, Deflater.BEST_COMPRESSION}) {
+                IContentCodec codec = DeflateCodec.getInstance(THRESHOLD, level);
+                run("deflate " + level, CompressingTextWriter.getInstance(StandardCharsets.UTF_8, codec),
+                        CompressingTextReader.getInstance(StandardCharsets.UTF_8, codec), notes, workDir);
+            }
+        } finally {
+            try (Stream<Path> paths = Files.walk(workDir)) {
+                for(Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static void run(String name, IContentWriter<String> writer, IContentReader<String> reader,
+                            List<byte[]> notes, Path workDir) throws IOException {
+
+        List<String> paths = new ArrayList<>();
+        for(int i = 0; i < notes.size(); i++) {
+            paths.add(workDir.resolve(i + ".md").toString());
+        }
+        long corpusBytes = notes.stream().mapToLong(note -> note.length).sum() * ROUNDS;
+        for(int i = 0; i < notes.size(); i++) {
+            // warm up - first round measures JIT rather than codec
+            writer.writeContent(paths.get(i), notes.get(i));
+            reader.readContentAsBytes(paths.get(i));
+        }
+
+        long writeStart = System.nanoTime();
+        for(int round = 0; round < ROUNDS; round++) {
+            for(int i = 0; i < notes.size(); i++) {
+                writer.writeContent(paths.get(i), notes.get(i));
+            }
+        }
+        long writeNanos = System.nanoTime() - writeStart;
+
+        long readStart = System.nanoTime();
+        for(int round = 0; round < ROUNDS; round++) {
+            for(String path : paths) {
+                reader.readContentAsBytes(path);
+            }
+        }
+        long readNanos = System.nanoTime() - readStart;
+
+        long storedBytes = 0;
+        for(String path : paths) {
+            storedBytes += Files.size(Paths.get(path));
+        }
+        double ratio = (double) corpusBytes / ROUNDS / storedBytes;
+        System.out.printf("%-14s %8.2f %12.1f %12.1f%n", name, ratio,
+                megabytesPerSecond(corpusBytes, writeNanos), megabytesPerSecond(corpusBytes, readNanos));
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+
+    private static List<byte[]> loadNotes(DatabaseConfig databaseConfig) throws IOException, DaoFailure {
+        // files on disk are blobs - deltas, packs & compressed data have to be decoded first
+        List<byte[]> notes = new ArrayList<>();
+        if(! new File(databaseConfig.getFilepath()).exists() ) {
+            return notes;
+        }
+        DatabaseManager databaseManager = SQLiteManager.getSQLiteManager(databaseConfig);
+        try {
+            IRepositoryPath repositoryPath = RepositoryPath.getInstance(RepositoriesPath.FILES_REPOSITORY,
+                    FileExtension.MD);
+            IDaoFactory daoFactory = SqlDaoFactory.getInstance(databaseManager, SQLProcessManager.getInstance(),
+                    DateTimer.getInstance(), repositoryPath);
+            long maxPackSize = 32 * 1024 * 1024;
+            int keyframeInterval = 16;  // not used by reads
+            IVersionStore versionStore = VersionStore.getInstance(
+                    BlobStore.getInstance(repositoryPath, StandardCharsets.UTF_8),
+                    daoFactory.createDAO(SQLiteDaoBlob.class), TextReader.getInstance(StandardCharsets.UTF_8),
+                    PackStore.getInstance(repositoryPath, maxPackSize), DeflateCodec.getInstance(THRESHOLD),
+                    LineDeltaEncoder.getInstance(), keyframeInterval, StandardCharsets.UTF_8);
+
+            final int fetchSize = 200;
+            List<String> filepaths;
+            try (Stream<IContent> contents = daoFactory.createDAO(SQLiteDaoContent.class)
+                    .streamNewestContents(fetchSize)) {
+                filepaths = contents.map(IContent::getFilepath).collect(Collectors.toList());
+            }
+            for(String filepath : filepaths) {
+                try {
+                    notes.add(versionStore.readContentAsBytes(filepath));
+                } catch (NoSuchFileException ex) {
+                    System.out.println("Skipped missing file " + filepath);  // ie. rows of setup script
+                }
+            }
+        } finally {
+            databaseManager.closeConnection();
+        }
+        return notes;
+    }
+}
@@ -0,0 +1,92 @@
+package com.jarq.system.helpers.codec;
+
+import com.jarq.AbstractTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class DeflateCodecTest extends AbstractTest {
+
+    private IContentCodec codec;
+
+    @Before
+    public void setUp() {
+        codec = DeflateCodec.getInstance(64);
+    }
+
+    @Test
+    public void getInstance() {
+        assertNotNull(codec);
+        assertTrue(codec instanceof DeflateCodec);
+    }
+
+    @Test
+    public void decode_should_return_compressed_data() throws IOException {
+
+        byte[] data = getNote().getBytes(StandardCharsets.UTF_8);
+
+        byte[] encoded = codec.encode(data);
+
+        assertTrue(encoded.length < data.length);
+        assertArrayEquals(data, codec.decode(encoded));
+        assertArrayEquals(data, codec.decode(codec.encode(data)));  // reused deflater
+    }
+
+    @Test
+    public void encode_should_keep_short_data_raw() throws IOException {
+
+        byte[] data = "short note".getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(data, codec.encode(data));
+        assertArrayEquals(data, codec.decode(data));  // written before codec was introduced
+    }
+
+    @Test
+    public void decode_should_return_raw_data_looking_like_encoded() throws IOException {
+
+        byte[] data = {0, 'J', 'Q', 1, 0, 0, 0, 9};
+
+        byte[] encoded = codec.encode(data);
+
+        assertFalse(java.util.Arrays.equals(data, encoded));
+        assertArrayEquals(data, codec.decode(encoded));
+    }
+
+    @Test
+    public void decode_should_return_streamed_data() throws IOException {
+
+        byte[] data = getNote().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+
+        try (OutputStream stream = codec.encode(encoded)) {
+            stream.write(data);
+        }
+
+        assertTrue(encoded.size() < data.length);
+        assertArrayEquals(data, codec.decode(encoded.toByteArray()));
+        assertArrayEquals(data, readAll(codec.decode(new ByteArrayInputStream(encoded.toByteArray()))));
+        assertArrayEquals(data, readAll(codec.decode(new ByteArrayInputStream(codec.encode(data)))));
+        assertArrayEquals(data, readAll(codec.decode(new ByteArrayInputStream(data))));  // raw
+    }
+
+    private byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int read;
+        while((read = stream.read()) >= 0) {
+            output.write(read);
+        }
+        return output.toByteArray();
+    }
+
+    private String getNote() {
+        StringBuilder note = new StringBuilder();
+        for(int i = 0; i < 50; i++) {
+            note.append("# Day ").append(i).append("\n\nToday I wrote some notes about markdown.\n\n");
+        }
+        return note.toString();
+    }
+}
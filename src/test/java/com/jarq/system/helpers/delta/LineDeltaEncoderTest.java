@@ -0,0 +1,78 @@
+package com.jarq.system.helpers.delta;
+
+import com.jarq.AbstractTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class LineDeltaEncoderTest extends AbstractTest {
+
+    private IDeltaEncoder deltaEncoder;
+
+    @Before
+    public void setUp() {
+        deltaEncoder = LineDeltaEncoder.getInstance();
+    }
+
+    @Test
+    public void getInstance() {
+        assertNotNull(deltaEncoder);
+        assertTrue(deltaEncoder instanceof LineDeltaEncoder);
+    }
+
+    @Test
+    public void decode_should_rebuild_target() throws IOException {
+
+        byte[] base = getLongText(200).getBytes(StandardCharsets.UTF_8);
+        byte[] target = getLongText(200)
+                .replace("line number 42 ", "changed line ")
+                .concat("appended line\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        byte[] delta = deltaEncoder.encode(base, target);
+
+        assertArrayEquals(target, deltaEncoder.decode(base, delta));
+        assertTrue(delta.length < 200);  // grows with edit, not with text size
+    }
+
+    @Test
+    public void decode_should_rebuild_appended_target() throws IOException {
+
+        byte[] base = getLongText(200).getBytes(StandardCharsets.UTF_8);
+        byte[] appended = "appended line\n".getBytes(StandardCharsets.UTF_8);
+        byte[] target = getLongText(200).concat("appended line\n").getBytes(StandardCharsets.UTF_8);
+
+        byte[] delta = deltaEncoder.encodeAppend(base.length, appended);
+
+        assertArrayEquals(target, deltaEncoder.decode(base, delta));
+        assertArrayEquals(appended, deltaEncoder.decode(new byte[0], deltaEncoder.encodeAppend(0, appended)));
+    }
+
+    @Test
+    public void decode_should_rebuild_target_without_common_lines() throws IOException {
+
+        byte[] base = "first\nsecond".getBytes(StandardCharsets.UTF_8);
+        byte[] target = "other\n\nżółć".getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(target, deltaEncoder.decode(base, deltaEncoder.encode(base, target)));
+        assertArrayEquals(new byte[0], deltaEncoder.decode(base, deltaEncoder.encode(base, new byte[0])));
+    }
+
+    @Test(expected = IOException.class)
+    public void decode_should_reject_corrupted_delta() throws IOException {
+
+        deltaEncoder.decode(new byte[0], new byte[] {7, 0, 0});
+    }
+
+    private String getLongText(int linesCount) {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < linesCount; i++) {
+            text.append("line number ").append(i).append(" of a long note\n");
+        }
+        return text.toString();
+    }
+}
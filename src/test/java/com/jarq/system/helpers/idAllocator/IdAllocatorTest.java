@@ -0,0 +1,128 @@
+package com.jarq.system.helpers.idAllocator;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.system.dao.IDaoFactory;
+import com.jarq.system.dao.IUnitOfWork;
+import com.jarq.system.dao.SqlDaoFactory;
+import com.jarq.system.helpers.datetimer.DateTimer;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.SQLProcessManager;
+import com.jarq.system.models.user.IDaoUser;
+import com.jarq.system.models.user.IUser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+public class IdAllocatorTest extends AbstractTest {
+
+    private IIdAllocator idAllocator;
+    private Connection connection;
+    private final String table = "texts";
+
+    @Before
+    public void setUp() throws Exception {
+        idAllocator = IdAllocator.getInstance();
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE texts (id INTEGER PRIMARY KEY)");
+            statement.executeUpdate("INSERT INTO texts VALUES (1), (2), (4), (7)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void getInstance() {
+        assertNotNull(idAllocator);
+        assertTrue(idAllocator instanceof IdAllocator);
+    }
+
+    @Test
+    public void allocate_should_fill_gaps_from_lowest() throws Exception {
+
+        assertEquals(3, idAllocator.allocate(connection, table));
+        assertEquals(5, idAllocator.allocate(connection, table));
+        assertEquals(6, idAllocator.allocate(connection, table));
+        assertEquals(8, idAllocator.allocate(connection, table));
+    }
+
+    @Test
+    public void allocate_should_reuse_released_id() throws Exception {
+
+        assertEquals(3, idAllocator.allocate(connection, table));
+        idAllocator.release(table, 2);
+
+        assertEquals(2, idAllocator.allocate(connection, table));
+        assertEquals(5, idAllocator.allocate(connection, table));
+    }
+
+    @Test
+    public void allocate_should_seed_only_once() throws Exception {
+
+        assertEquals(3, idAllocator.allocate(connection, table));
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO texts VALUES (3)");
+        }
+        assertEquals(5, idAllocator.allocate(connection, table));
+    }
+
+    @Test
+    public void release_should_merge_free_intervals() {
+
+        FreeIdPool pool = new FreeIdPool(1);
+        for(int i=1; i<=5; i++) {
+            pool.reserve(i);
+        }
+        pool.release(2);
+        pool.release(4);
+        pool.release(3);
+
+        assertFalse(pool.isFree(1));
+        assertTrue(pool.isFree(2) && pool.isFree(3) && pool.isFree(4));
+        assertFalse(pool.isFree(5));
+        assertEquals(2, pool.allocate());
+        assertEquals(3, pool.allocate());
+        assertEquals(4, pool.allocate());
+        assertEquals(6, pool.allocate());
+    }
+
+    @Test
+    public void removed_id_should_stay_taken_when_removal_is_rolled_back() throws Exception {
+
+        TemporaryDatabase database = TemporaryDatabase.getInstance("idAllocator").create();
+        DatabaseManager databaseManager = database.openManager();
+        try {
+            IDaoFactory daoFactory = SqlDaoFactory.getInstance(databaseManager, SQLProcessManager.getInstance(),
+                    DateTimer.getInstance(), null);
+            IDaoUser daoUser = daoFactory.createDAO(IDaoUser.class);
+            IUser user = daoUser.createUser("Jan", "Nowak", "jan.nowak@test.pl");
+
+            try (IUnitOfWork ignored = daoFactory.beginUnitOfWork()) {
+                assertTrue(daoUser.removeUser(user.getId()));
+            }
+            IUser nextUser = daoUser.createUser("Anna", "Nowak", "anna.nowak@test.pl");
+
+            assertTrue(nextUser.getId() != user.getId());
+            assertEquals(user.getId(), daoUser.importUser(user.getId()).getId());
+
+            try (IUnitOfWork unitOfWork = daoFactory.beginUnitOfWork()) {
+                assertTrue(daoUser.removeUser(user.getId()));
+                unitOfWork.commit();
+            }
+            assertEquals(user.getId(), daoUser.createUser("Ewa", "Nowak", "ewa.nowak@test.pl").getId());
+        } finally {
+            databaseManager.closeConnection();
+            database.delete();
+        }
+    }
+}
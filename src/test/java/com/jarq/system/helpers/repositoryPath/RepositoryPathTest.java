@@ -62,6 +62,27 @@ public class RepositoryPathTest extends AbstractTest {
         assertEquals(expected, filepath);
     }
 
+    @Test
+    public void filepath_with_content_id() {
+
+        IText text = mock(Text.class);
+
+        when(text.getUserId()).thenReturn(1);
+        when(text.getRepositoryId()).thenReturn(1);
+        when(text.getId()).thenReturn(3);
+        when(text.getModificationDate()).thenReturn("2018-10-10 12:00:00");
+
+        String expected = String.format("%s1%s1%s3%s2018_10_10_12_00_00-17%s",
+                pathBegin,
+                separator,
+                separator,
+                separator,
+                fileExtension);
+
+        assertEquals(expected, repositoryPath.filepath(text, 17));
+        assertFalse(repositoryPath.filepath(text, 17).equals(repositoryPath.filepath(text, 18)));
+    }
+
     @Test
     public void textDir() {
 
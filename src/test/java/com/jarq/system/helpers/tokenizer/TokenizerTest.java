@@ -0,0 +1,35 @@
+package com.jarq.system.helpers.tokenizer;
+
+import com.jarq.AbstractTest;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class TokenizerTest extends AbstractTest {
+
+    private final ITokenizer tokenizer = Tokenizer.getInstance(StandardCharsets.UTF_8, 8, 100);
+
+    @Test
+    public void tokenize_should_return_distinct_lowercase_terms() {
+
+        assertEquals(Arrays.asList("note", "2018", "draft"),
+                tokenizer.tokenize("Note 2018: note-draft, verylongterm!"));
+    }
+
+    @Test
+    public void termCounter_should_count_characters_split_between_writes() {
+
+        TermCounter termCounter = tokenizer.newTermCounter();
+        for(byte part : "Zażółć gęślą zażółć".getBytes(StandardCharsets.UTF_8)) {
+            termCounter.write(ByteBuffer.wrap(new byte[] {part}));
+        }
+
+        assertEquals(Integer.valueOf(2), termCounter.getTerms().get("zażółć"));
+        assertEquals(Integer.valueOf(1), termCounter.getTerms().get("gęślą"));
+        assertEquals(3, termCounter.getLength());
+    }
+}
@@ -0,0 +1,114 @@
+package com.jarq.system.managers.databaseManagers;
+
+import com.jarq.AbstractTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+public class PreparedStatementCacheTest extends AbstractTest {
+
+    private static final String FIRST_QUERY = "SELECT 1";
+    private static final String SECOND_QUERY = "SELECT 2";
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Test
+    public void prepare_should_reuse_released_statement() throws Exception {
+
+        StatementCache cache = PreparedStatementCache.getInstance(2);
+
+        PreparedStatement statement = cache.prepare(connection, FIRST_QUERY);
+        assertTrue(cache.release(statement));
+
+        assertSame(statement, cache.prepare(connection, FIRST_QUERY));
+        assertEquals(1, cache.getHitsCount());
+        assertEquals(1, cache.getMissesCount());
+    }
+
+    @Test
+    public void prepare_should_give_not_cached_statement_while_cached_one_is_in_use() throws Exception {
+
+        StatementCache cache = PreparedStatementCache.getInstance(2);
+
+        PreparedStatement cached = cache.prepare(connection, FIRST_QUERY);
+        PreparedStatement busy = cache.prepare(connection, FIRST_QUERY);
+
+        assertNotSame(cached, busy);
+        assertEquals(0, cache.getHitsCount());
+        assertEquals(2, cache.getMissesCount());
+        assertFalse(cache.release(busy));  // caller closes it
+        assertTrue(cache.release(cached));
+        assertSame(cached, cache.prepare(connection, FIRST_QUERY));
+    }
+
+    @Test
+    public void evicted_statement_should_be_left_open_till_its_user_releases_it() throws Exception {
+
+        StatementCache cache = PreparedStatementCache.getInstance(1);
+
+        PreparedStatement inUse = cache.prepare(connection, FIRST_QUERY);
+        PreparedStatement other = cache.prepare(connection, SECOND_QUERY);
+
+        assertEquals(1, cache.getEvictionsCount());
+        assertFalse(inUse.isClosed());
+        assertFalse(cache.release(inUse));  // not cached anymore - caller closes it
+        assertTrue(cache.release(other));
+
+        PreparedStatement next = cache.prepare(connection, FIRST_QUERY);
+        assertNotSame(inUse, next);
+        assertTrue(other.isClosed());  // evicted while idle
+        assertEquals(2, cache.getEvictionsCount());
+    }
+
+    @Test
+    public void statement_released_after_failed_bind_should_be_handed_out_again() throws Exception {
+
+        StatementCache cache = PreparedStatementCache.getInstance(2);
+        JDBCProcessManager processManager = SQLProcessManager.getInstance(cache);
+
+        PreparedStatement statement = processManager.prepareStatement(connection, FIRST_QUERY);
+        try {
+            statement.setInt(2, 1);  // there's no such parameter
+            fail();
+        } catch (SQLException | RuntimeException ex) {  // driver throws unchecked one
+            processManager.releaseStatement(statement);
+        }
+
+        assertSame(statement, processManager.prepareStatement(connection, FIRST_QUERY));
+        assertEquals(1, cache.getHitsCount());
+    }
+
+    @Test
+    public void purge_should_forget_statements_of_connection() throws Exception {
+
+        StatementCache cache = PreparedStatementCache.getInstance(2);
+
+        PreparedStatement idle = cache.prepare(connection, FIRST_QUERY);
+        PreparedStatement inUse = cache.prepare(connection, SECOND_QUERY);
+        assertTrue(cache.release(idle));
+        cache.purge(connection);
+
+        assertTrue(idle.isClosed());
+        assertFalse(inUse.isClosed());
+        assertFalse(cache.release(inUse));  // not cached anymore - caller closes it
+        assertNotSame(idle, cache.prepare(connection, FIRST_QUERY));
+        assertEquals(0, cache.getHitsCount());
+    }
+}
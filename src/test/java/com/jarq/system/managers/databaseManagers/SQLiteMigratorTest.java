@@ -0,0 +1,84 @@
+package com.jarq.system.managers.databaseManagers;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.system.enums.DbFilePath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SQLiteMigratorTest extends AbstractTest {
+
+    private TemporaryDatabase database;
+    private DatabaseMigrator migrator;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("migrator");
+        migrator = SQLiteMigrator.getInstance(database, DbFilePath.DB_MIGRATIONS);
+    }
+
+    @After
+    public void tearDown() {
+        database.delete();
+    }
+
+    @Test
+    public void migrate_empty_database_to_latest_version() throws Exception {
+        assertEquals(0, migrator.getSchemaVersion());
+
+        int version = migrator.migrate();
+
+        assertEquals(migrator.getLatestVersion(), version);
+        assertEquals(version, migrator.getSchemaVersion());
+        assertTrue(getIndexes().contains("idx_contents_text"));
+        assertTrue(getIndexes().contains("idx_texts_user"));
+    }
+
+    @Test
+    public void migrate_is_repeatable() throws Exception {
+        int version = migrator.migrate();
+        assertEquals(version, migrator.migrate());
+    }
+
+    @Test
+    public void migrate_keeps_data_of_unversioned_database() throws Exception {
+        try (   Connection connection = DriverManager.getConnection(database.getUrl());
+                Statement statement = connection.createStatement()  ) {
+            statement.executeUpdate("CREATE TABLE users (id INTEGER NOT NULL UNIQUE, name TEXT NOT NULL, " +
+                    "surname TEXT NOT NULL, email TEXT NOT NULL UNIQUE, password TEXT NOT NULL DEFAULT 123, " +
+                    "PRIMARY KEY(id))");
+            statement.executeUpdate("INSERT INTO users VALUES (1, 'a', 'b', 'c', 'd')");
+        }
+
+        migrator.migrate();
+
+        try (   Connection connection = DriverManager.getConnection(database.getUrl());
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM users")  ) {
+            assertEquals(1, resultSet.getInt(1));
+        }
+    }
+
+    private List<String> getIndexes() throws Exception {
+        List<String> indexes = new ArrayList<>();
+        try (   Connection connection = DriverManager.getConnection(database.getUrl());
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(
+                        "SELECT name FROM sqlite_master WHERE type='index'")  ) {
+            while (resultSet.next()) {
+                indexes.add(resultSet.getString(1));
+            }
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,130 @@
+package com.jarq.system.managers.databaseManagers;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.Assert.*;
+
+public class SQLitePoolManagerTest extends AbstractTest {
+
+    private TemporaryDatabase database;
+    private PooledDatabaseManager poolManager;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("pool");
+        poolManager = SQLitePoolManager.getSQLitePoolManager(database, 1, 50);
+        try (Statement statement = poolManager.getConnection().createStatement()) {
+            statement.executeUpdate("CREATE TABLE notes (id INTEGER PRIMARY KEY)");
+            statement.executeUpdate("INSERT INTO notes VALUES (1)");
+        }
+    }
+
+    @After
+    public void tearDown() {
+        poolManager.closeConnection();
+        database.delete();
+    }
+
+    @Test
+    public void writer_should_use_wal_journal() throws Exception {
+        try (   Statement statement = poolManager.getConnection().createStatement();
+                ResultSet resultSet = statement.executeQuery("PRAGMA journal_mode")  ) {
+            assertEquals("wal", resultSet.getString(1));
+        }
+    }
+
+    @Test
+    public void reader_should_see_committed_data_during_writer_transaction() throws Exception {
+        Connection writer = poolManager.getConnection();
+        writer.setAutoCommit(false);
+        try (Statement statement = writer.createStatement()) {
+            statement.executeUpdate("INSERT INTO notes VALUES (2)");
+
+            Connection reader = poolManager.getReadConnection();
+            try {
+                assertTrue(reader != writer);
+                assertTrue(reader.isReadOnly());
+                assertEquals(1, countNotes(reader));
+            } finally {
+                poolManager.releaseReadConnection(reader);
+            }
+        } finally {
+            writer.rollback();
+            writer.setAutoCommit(true);
+        }
+    }
+
+    @Test
+    public void checkout_should_fail_when_pool_is_exhausted() throws Exception {
+        Connection reader = poolManager.getReadConnection();
+        try {
+            poolManager.getReadConnection();
+            fail();
+        } catch (SQLException expected) {
+            assertEquals(1, poolManager.getCheckoutTimeoutsCount());
+            assertEquals(0, poolManager.getIdleReadersCount());
+        }
+        poolManager.releaseReadConnection(reader);
+
+        assertEquals(1, poolManager.getIdleReadersCount());
+        assertTrue(reader == poolManager.getReadConnection());
+        assertEquals(3, poolManager.getCheckoutsCount());
+        assertTrue(poolManager.getTotalCheckoutWaitNanos() > 0);
+    }
+
+    @Test
+    public void interrupted_checkout_should_fail_without_writer() throws Exception {
+        Connection reader = poolManager.getReadConnection();
+        Thread.currentThread().interrupt();
+        try {
+            poolManager.getReadConnection();
+            fail();
+        } catch (SQLException expected) {
+            assertTrue(Thread.interrupted());
+        } finally {
+            poolManager.releaseReadConnection(reader);
+        }
+    }
+
+    @Test
+    public void writer_given_back_as_reader_should_not_be_pooled() throws Exception {
+        poolManager.releaseReadConnection(poolManager.getConnection());
+
+        assertEquals(0, poolManager.getIdleReadersCount());
+        assertTrue(poolManager.getReadConnection() != poolManager.getConnection());
+    }
+
+    @Test
+    public void statements_of_forgotten_reader_should_be_purged() throws Exception {
+        StatementCache statementCache = PreparedStatementCache.getInstance(4);
+        PooledDatabaseManager cachingPool = SQLitePoolManager.getSQLitePoolManager(database, 1, 50, statementCache);
+        try {
+            Connection reader = cachingPool.getReadConnection();
+            PreparedStatement statement = statementCache.prepare(reader, "SELECT id FROM notes");
+            reader.close();
+            cachingPool.releaseReadConnection(reader);
+
+            assertTrue(cachingPool.getReadConnection() != reader);  // closed one is forgotten
+            assertFalse(statementCache.release(statement));
+        } finally {
+            cachingPool.closeConnection();
+        }
+    }
+
+    private int countNotes(Connection connection) throws SQLException {
+        try (   Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery("SELECT count(*) FROM notes")  ) {
+            return resultSet.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.FileRelatedTest;
+import com.jarq.system.enums.FileExtension;
+import com.jarq.system.enums.RepositoriesPath;
+import com.jarq.system.helpers.repositoryPath.RepositoryPath;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class BlobStoreTest extends FileRelatedTest {
+
+    private IBlobStore blobStore;
+
+    @Before
+    public void setUp() {
+        blobStore = BlobStore.getInstance(RepositoryPath.getInstance(RepositoriesPath.TEST_FILES_REPOSITORY,
+                FileExtension.MD), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void store_should_write_same_data_once() throws IOException {
+
+        StoredBlob first = blobStore.store("blob test data");
+        StoredBlob second = blobStore.store("blob test data".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(first.getFilepath(), second.getFilepath());
+        assertFalse(second.isNew());
+        assertTrue(blobStore.isBlob(first.getFilepath()));
+        assertEquals("blob test data", readTestFile(first.getFilepath()));
+
+        assertTrue(blobStore.remove(first.getFilepath()));
+        assertFalse(new File(first.getFilepath()).exists());
+    }
+
+    @Test(expected = IOException.class)
+    public void remove_should_refuse_not_blob_file() throws IOException {
+
+        blobStore.remove(RepositoriesPath.WRITER_TEST_FILE.getPath());
+    }
+}
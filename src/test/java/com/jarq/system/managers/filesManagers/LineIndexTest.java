@@ -0,0 +1,88 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.FileRelatedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class LineIndexTest extends FileRelatedTest {
+
+    private String testFile;
+    private ILineIndex lineIndex;
+
+    @Before
+    public void setUp() throws IOException {
+        lineIndex = LineIndex.getInstance();
+        testFile = Files.createTempFile("lineIndexTest", ".md").toString();
+        Files.write(Paths.get(testFile), getText().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        lineIndex.remove(testFile);
+        removePath(testFile);
+    }
+
+    @Test
+    public void locate_should_return_range_of_lines() throws IOException {
+
+        LineRange range = lineIndex.locate(testFile, 500, 3);
+        byte[] data = Files.readAllBytes(Paths.get(testFile));
+
+        assertTrue(checkIfFileExists(testFile + LineIndex.EXTENSION));
+        assertEquals("line 500\nline 501\nline 502",
+                new String(data, (int) range.getOffset(), range.getLength(), StandardCharsets.UTF_8));
+        assertEquals(0, lineIndex.locate(testFile, 1000, 3).getLength());
+    }
+
+    @Test
+    public void locate_should_use_rebuilt_index_after_file_was_changed() throws IOException {
+
+        lineIndex.locate(testFile, 0, 1);
+        Files.write(Paths.get(testFile), "first\nsecond\n".getBytes(StandardCharsets.UTF_8));
+
+        LineRange range = lineIndex.locate(testFile, 1, 5);
+
+        assertEquals(6, range.getOffset());
+        assertEquals("second".length(), range.getLength());
+    }
+
+    @Test
+    public void readLines_should_return_the_same_lines_as_located() throws IOException {
+
+        byte[] data = getText().getBytes(StandardCharsets.UTF_8);
+
+        for(int firstLine : new int[] {0, 10, 998, 999, 1000}) {
+            LineRange range = lineIndex.locate(testFile, firstLine, 2);
+            byte[] lines = lineIndex.readLines(new ByteArrayInputStream(data), firstLine, 2);
+            assertEquals(new String(data, (int) range.getOffset(), range.getLength(), StandardCharsets.UTF_8),
+                    new String(lines, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    public void readLines_of_reader() throws IOException {
+
+        IContentReader<String> reader = TextReader.getInstance(StandardCharsets.UTF_8);
+
+        assertEquals("line 10\nline 11", reader.readLines(testFile, 10, 2));
+        assertEquals("line 999", reader.readLines(testFile, 999, 10));
+        assertEquals("line 0", new String(reader.readContent(testFile, 0, 6), StandardCharsets.UTF_8));
+    }
+
+    private String getText() {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 1000; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.FileRelatedTest;
+import com.jarq.system.enums.RepositoriesPath;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class MappedTextReaderTest extends FileRelatedTest {
+
+    private final String testFile = RepositoriesPath.READER_TEST_FILE.getPath();
+    private final IContentReader<String> textReader = TextReader.getInstance(StandardCharsets.UTF_8);
+
+    @Test
+    public void readContent_should_return_the_same_text_as_TextReader() throws IOException {
+
+        String expected = textReader.readContent(testFile);
+
+        assertEquals(expected, getMappingReader().readContent(testFile));
+        assertEquals(expected, getHeapReader().readContent(testFile));
+    }
+
+    @Test
+    public void readContent_as_bytes() throws IOException {
+
+        byte[] expected = textReader.readContentAsBytes(testFile);
+
+        assertArrayEquals(expected, getMappingReader().readContentAsBytes(testFile));
+        assertArrayEquals(expected, getHeapReader().readContentAsBytes(testFile));
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void readContent_as_buffer_should_be_read_only() throws IOException {
+
+        ByteBuffer buffer = getHeapReader().readContentAsBuffer(testFile);
+
+        assertEquals(textReader.readContentAsBytes(testFile).length, buffer.remaining());
+        buffer.put((byte) 0);
+    }
+
+    private IContentReader<String> getMappingReader() {
+        return MappedTextReader.getInstance(StandardCharsets.UTF_8, 0);
+    }
+
+    private IContentReader<String> getHeapReader() {
+        return MappedTextReader.getInstance(StandardCharsets.UTF_8, Long.MAX_VALUE);
+    }
+}
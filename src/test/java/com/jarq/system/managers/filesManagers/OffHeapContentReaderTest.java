@@ -0,0 +1,114 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.system.FileRelatedTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class OffHeapContentReaderTest extends FileRelatedTest {
+
+    private final int pageSize = 64 * 1024;
+    private final List<String> testFiles = new ArrayList<>();
+    private IOffHeapContentReader reader;
+
+    @Before
+    public void setUp() {
+        reader = OffHeapContentReader.getInstance(TextReader.getInstance(StandardCharsets.UTF_8),
+                StandardCharsets.UTF_8, 8 * pageSize);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for(String testFile : testFiles) {
+            removePath(testFile);
+        }
+    }
+
+    @Test
+    public void readContent_should_return_the_same_data_as_reader_behind() throws IOException {
+
+        String text = getText(2000);
+        String testFile = createTestFile(text + "\r\n");
+        IContentReader<String> textReader = TextReader.getInstance(StandardCharsets.UTF_8);
+
+        reader.readContent(testFile);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long written = reader.readContent(testFile, Channels.newChannel(output));
+
+        assertEquals(textReader.readContent(testFile), reader.readContent(testFile));
+        assertArrayEquals(textReader.readContentAsBytes(testFile), output.toByteArray());
+        assertEquals(output.size(), written);
+        assertEquals("line 1999", new String(reader.readContent(testFile, text.length() - 9, 9),
+                StandardCharsets.UTF_8));
+        assertEquals(1, reader.getMissesCount());
+        assertEquals(3, reader.getHitsCount());
+    }
+
+    @Test
+    public void readContent_should_evict_least_recently_read_files() throws IOException {
+
+        List<String> files = new ArrayList<>();
+        for(int i = 0; i < 6; i++) {
+            files.add(createTestFile(getText(10000)));  // 2 pages each
+        }
+        for(String file : files) {
+            reader.readContentAsBytes(file);
+        }
+
+        assertEquals(8 * pageSize, reader.getUsedBytes());
+        assertEquals(2, reader.getEvictionsCount());
+        assertEquals(getText(10000), new String(reader.readContentAsBytes(files.get(0)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readContent_should_read_changed_file_again() throws IOException {
+
+        String testFile = createTestFile("first");
+        reader.readContent(testFile);
+
+        Files.write(Paths.get(testFile), "second version".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("second version", reader.readContent(testFile));
+        assertEquals(2, reader.getMissesCount());
+    }
+
+    @Test
+    public void readContent_should_remember_data_too_large_to_cache() throws IOException {
+
+        String text = getText(30000);  // 3 pages - more than quarter of cache
+        String testFile = createTestFile(text);
+
+        reader.readContent(testFile);
+
+        assertEquals(text, new String(reader.readContentAsBytes(testFile), StandardCharsets.UTF_8));
+        assertEquals(0, reader.getUsedBytes());
+        assertEquals(2, reader.getMissesCount());
+    }
+
+    private String createTestFile(String text) throws IOException {
+        Path path = Files.createTempFile("offHeapReaderTest", ".md");
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        testFiles.add(path.toString());
+        return path.toString();
+    }
+
+    private String getText(int linesCount) {
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < linesCount; i++) {
+            text.append("line ").append(i).append('\n');
+        }
+        return text.deleteCharAt(text.length() - 1).toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.jarq.system.managers.filesManagers;
+
+import com.jarq.AbstractTest;
+import com.jarq.system.enums.FileExtension;
+import com.jarq.system.enums.RepositoriesPath;
+import com.jarq.system.helpers.repositoryPath.RepositoryPath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+public class PackStoreTest extends AbstractTest {
+
+    private IPackStore packStore;
+
+    @Before
+    public void setUp() throws IOException {
+        packStore = PackStore.getInstance(RepositoryPath.getInstance(RepositoriesPath.TEST_FILES_REPOSITORY,
+                FileExtension.MD), 32);
+        removePacks();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        removePacks();
+    }
+
+    @Test
+    public void read_should_return_appended_data() throws IOException {
+
+        PackLocation first = packStore.append(getBytes("first version"));
+        PackLocation second = packStore.append(getBytes("second"));
+
+        assertEquals(first.getPackPath(), second.getPackPath());
+        assertEquals(first.getLength(), second.getOffset());
+        assertArrayEquals(getBytes("first version"),
+                packStore.read(first.getPackPath(), first.getOffset(), first.getLength()));
+        assertArrayEquals(getBytes("second"),
+                packStore.read(second.getPackPath(), second.getOffset(), second.getLength()));
+    }
+
+    @Test
+    public void append_should_start_new_pack_when_active_is_full() throws IOException {
+
+        PackLocation first = packStore.append(getBytes("data taking most of the pack"));
+        PackLocation second = packStore.append(getBytes("next data"));
+
+        assertFalse(first.getPackPath().equals(second.getPackPath()));
+        assertEquals(second.getPackPath(), packStore.getActivePack());
+        assertEquals(2, packStore.importPacks().size());
+        assertFalse(packStore.remove(second.getPackPath()));
+        assertTrue(packStore.remove(first.getPackPath()));
+    }
+
+    @Test
+    public void remove_should_flush_durability_policy_before_pack_is_gone() throws IOException {
+
+        final String[] removedPack = new String[1];
+        final boolean[] isFlushedBeforeRemoval = {false};
+        IDurabilityPolicy durabilityPolicy = new IDurabilityPolicy() {
+            @Override
+            public void sync(FileChannel channel, Path target) {}
+
+            @Override
+            public void syncDirectory(Path directory) {}
+
+            @Override
+            public void flush() {
+                isFlushedBeforeRemoval[0] = Files.exists(Paths.get(removedPack[0]));
+            }
+
+            @Override
+            public void shutdown() {}
+        };
+        packStore = PackStore.getInstance(RepositoryPath.getInstance(RepositoriesPath.TEST_FILES_REPOSITORY,
+                FileExtension.MD), 32, durabilityPolicy);
+
+        removedPack[0] = packStore.append(getBytes("data taking most of the pack")).getPackPath();
+        packStore.append(getBytes("copied data"));
+
+        assertTrue(packStore.remove(removedPack[0]));
+        assertTrue(isFlushedBeforeRemoval[0]);
+        assertFalse(Files.exists(Paths.get(removedPack[0])));
+    }
+
+    private byte[] getBytes(String data) {
+        return data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void removePacks() throws IOException {
+        for(String packPath : packStore.importPacks()) {
+            Files.deleteIfExists(Paths.get(packPath));
+        }
+    }
+}
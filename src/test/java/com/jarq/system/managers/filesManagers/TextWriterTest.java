@@ -5,8 +5,15 @@ import com.jarq.system.enums.RepositoriesPath;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.channels.Channels;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -51,6 +58,39 @@ public class TextWriterTest extends FileRelatedTest {
         assertEquals(getTestText(), output);
     }
 
+    @Test
+    public void writeContent_from_channel() throws IOException {
+
+        String testFilepath = RepositoriesPath.WRITER_TEST_FILE.getPath();
+        byte[] data = getTestText().getBytes(StandardCharsets.UTF_8);
+
+        long written = writer.writeContent(testFilepath,
+                Channels.newChannel(new ByteArrayInputStream(data)));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long read = TextReader.getInstance(StandardCharsets.UTF_8)
+                .readContent(testFilepath, Channels.newChannel(output));
+
+        assertEquals(data.length, written);
+        assertEquals(data.length, read);
+        assertEquals(getTestText(), new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeContent_should_replace_file_at_once() throws IOException {
+
+        String testFilepath = RepositoriesPath.WRITER_TEST_FILE.getPath();
+        Path directory = Paths.get(testFilepath).toAbsolutePath().getParent();
+        IContentWriter<String> syncingWriter = TextWriter
+                .getInstance(StandardCharsets.UTF_8, DurabilityPolicy.perWrite());
+
+        syncingWriter.writeContent(testFilepath, getTestText());
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertFalse(files.anyMatch(path -> path.toString().endsWith(".tmp")));
+        }
+        assertEquals(getTestText(), readTestFile(testFilepath));
+    }
+
     private String getTestText() {
 
         return "I. \n" +
@@ -0,0 +1,135 @@
+package com.jarq.system.managers.indexManagers;
+
+import com.jarq.AbstractTest;
+import com.jarq.system.helpers.tokenizer.ITokenizer;
+import com.jarq.system.helpers.tokenizer.TermCounter;
+import com.jarq.system.helpers.tokenizer.Tokenizer;
+import com.jarq.system.managers.filesManagers.DurabilityPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class SearchIndexTest extends AbstractTest {
+
+    private final ITokenizer tokenizer = Tokenizer.getInstance(StandardCharsets.UTF_8);
+    private Path indexDir;
+    private ISearchIndex searchIndex;
+
+    @Before
+    public void setUp() throws IOException {
+        indexDir = Files.createTempDirectory("searchIndexTest");
+        searchIndex = open();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        searchIndex.close();
+        try (Stream<Path> paths = Files.walk(indexDir)) {
+            for(Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void search_should_rank_texts_of_given_scope() throws IOException {
+
+        put(1, 1, 10, "apple banana cherry");
+        put(2, 1, 10, "apple apple apple");
+        put(3, 1, 11, "banana only");
+        put(4, 2, 12, "apple of other user");
+
+        assertEquals(asList(2, 1), textIds(searchIndex.searchByUser(1, "Apple", 10)));
+        assertEquals(asList(3, 1), textIds(searchIndex.searchByUser(1, "banana", 10)));
+        assertEquals(asList(3), textIds(searchIndex.searchByRepository(11, "banana apple", 10)));
+        assertEquals(asList(2), textIds(searchIndex.searchByUser(1, "apple", 1)));
+    }
+
+    @Test
+    public void put_should_replace_version_kept_in_segments() throws IOException {
+
+        searchIndex = open(2, 2);
+        for(int textId = 1; textId <= 9; textId++) {
+            put(textId, 1, 10, "common word" + textId);
+        }
+        put(1, 1, 10, "replaced");
+        searchIndex.remove(2);
+        searchIndex.close();
+        searchIndex = open(2, 2);
+
+        assertEquals(asList(3, 4, 5, 6, 7, 8, 9), textIds(searchIndex.searchByUser(1, "common", 10)));
+        assertEquals(asList(1), textIds(searchIndex.searchByUser(1, "replaced", 10)));
+        assertEquals(8, searchIndex.getTextsCount());
+        assertTrue(searchIndex.isCurrent(1, "replaced".hashCode()));
+    }
+
+    @Test
+    public void open_should_replay_changes_not_flushed() throws IOException {
+
+        put(1, 1, 10, "journaled note");
+        put(2, 1, 10, "removed note");
+        searchIndex.remove(2);
+
+        ISearchIndex reopened = open();  // previous one wasn't closed - like after crash
+
+        assertEquals(asList(1), textIds(reopened.searchByUser(1, "note", 10)));
+        assertEquals(0, reopened.getSegmentsCount());
+        reopened.close();
+    }
+
+    @Test
+    public void isCurrent_should_compare_whole_long_version() throws IOException {
+
+        long version = 1L << 40 | 7;
+        put(1, 1, 10, "versioned note", version);
+        assertTrue(searchIndex.isCurrent(1, version));
+        assertFalse(searchIndex.isCurrent(1, 7));  // the same low bits
+
+        ISearchIndex replayed = open();
+        assertTrue(replayed.isCurrent(1, version));
+        replayed.close();  // flushed to segment
+
+        ISearchIndex reopened = open();
+        assertTrue(reopened.isCurrent(1, version));
+        assertFalse(reopened.isCurrent(1, 7));
+        reopened.close();
+    }
+
+    private ISearchIndex open() {
+        return SearchIndex.getInstance(indexDir.toString(), tokenizer, DurabilityPolicy.osManaged());
+    }
+
+    private ISearchIndex open(int maxBufferedTexts, int mergeFactor) {
+        return SearchIndex.getInstance(indexDir.toString(), tokenizer, DurabilityPolicy.osManaged(),
+                maxBufferedTexts, mergeFactor);
+    }
+
+    private void put(int textId, int userId, int repositoryId, String data) throws IOException {
+        put(textId, userId, repositoryId, data, data.hashCode());
+    }
+
+    private void put(int textId, int userId, int repositoryId, String data, long version) throws IOException {
+        TermCounter terms = searchIndex.newTermCounter();
+        terms.add(data);
+        searchIndex.put(textId, userId, repositoryId, version, terms);
+    }
+
+    private List<Integer> textIds(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::getTextId).collect(Collectors.toList());
+    }
+
+    private List<Integer> asList(Integer... textIds) {
+        return java.util.Arrays.asList(textIds);
+    }
+}
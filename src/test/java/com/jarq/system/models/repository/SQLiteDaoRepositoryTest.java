@@ -0,0 +1,128 @@
+package com.jarq.system.models.repository;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.system.dao.IDaoFactory;
+import com.jarq.system.dao.IUnitOfWork;
+import com.jarq.system.dao.SqlDaoFactory;
+import com.jarq.system.helpers.datetimer.DateTimer;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.SQLProcessManager;
+import com.jarq.system.models.content.IDaoContent;
+import com.jarq.system.models.content.SQLiteDaoContent;
+import com.jarq.system.models.text.IDaoText;
+import com.jarq.system.models.text.IText;
+import com.jarq.system.models.text.SQLiteDaoText;
+import com.jarq.system.models.user.IDaoUser;
+import com.jarq.system.models.user.IUser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SQLiteDaoRepositoryTest extends AbstractTest {
+
+    private TemporaryDatabase database;
+    private DatabaseManager databaseManager;
+    private IDaoFactory daoFactory;
+    private IDaoRepository daoRepository;
+    private IDaoText daoText;
+    private IDaoContent daoContent;
+    private IDaoUser daoUser;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("daoRepository").create();
+        databaseManager = database.openManager();
+        daoFactory = SqlDaoFactory.getInstance(databaseManager, SQLProcessManager.getInstance(),
+                DateTimer.getInstance(), null);
+        daoRepository = daoFactory.createDAO(SQLiteDaoRepository.class);
+        daoText = daoFactory.createDAO(SQLiteDaoText.class);
+        daoContent = daoFactory.createDAO(SQLiteDaoContent.class);
+        daoUser = daoFactory.createDAO(IDaoUser.class);
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.closeConnection();
+        database.delete();
+    }
+
+    @Test
+    public void importRepository_should_map_every_column() throws Exception {
+
+        IUser user = daoUser.createUser("Jan", "Nowak", "jan.nowak@test.pl");
+        IRepository repository = daoRepository.createRepository(user, "notes");
+        repository.setName("changed notes");
+        repository.setLastModificationDate("2018-05-01 10:21:59");
+        assertTrue(daoRepository.updateRepository(repository));
+
+        IRepository imported = daoRepository.importRepository(repository.getId());
+
+        assertEquals(repository.getId(), imported.getId());
+        assertEquals("changed notes", imported.getName());
+        assertEquals(repository.getCreationDate(), imported.getCreationDate());
+        assertEquals("2018-05-01 10:21:59", imported.getLastModificationDate());
+        assertEquals(user.getId(), imported.getUserId());
+    }
+
+    @Test
+    public void removeRepositoriesByUserId_should_count_only_repositories() throws Exception {
+
+        IUser user = daoUser.createUser("Jan", "Nowak", "jan.nowak@test.pl");
+        IUser otherUser = daoUser.createUser("Anna", "Nowak", "anna.nowak@test.pl");
+        List<IText> texts = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            IRepository repository = daoRepository.createRepository(user, "notes " + i);
+            for(int j = 0; j < 2; j++) {
+                IText text = daoText.createText(repository, "text " + j);
+                daoContent.createContent(text, "text-" + i + "-" + j + ".md");
+                texts.add(text);
+            }
+        }
+        IRepository otherRepository = daoRepository.createRepository(otherUser, "other notes");
+        IText otherText = daoText.createText(otherRepository, "other text");
+        daoContent.createContent(otherText, "other.md");
+        int repositoriesCount = daoRepository.importRepositoriesByUserId(user.getId()).size();
+
+        // RepoService compares the count with repositories it read before - cascaded rows can't be counted
+        assertEquals(repositoriesCount, daoRepository.removeRepositoriesByUserId(user.getId()));
+
+        assertTrue(daoRepository.importRepositoriesByUserId(user.getId()).isEmpty());
+        assertTrue(daoText.importTextsByUser(user).isEmpty());
+        for(IText text : texts) {
+            assertTrue(daoContent.importContentsByTextId(text.getId()).isEmpty());
+        }
+        assertEquals(1, daoText.importTextsByUser(otherUser).size());
+        assertEquals(1, daoContent.importContentsByTextId(otherText.getId()).size());
+        assertEquals(0, daoRepository.removeRepositoriesByUserId(user.getId()));
+    }
+
+    @Test
+    public void removeRepositories_should_remove_more_ids_than_one_statement_takes() throws Exception {
+
+        IUser user = daoUser.createUser("Jan", "Nowak", "jan.nowak@test.pl");
+        List<Integer> repositoryIds = new ArrayList<>();
+        IText lastText = null;
+        try (IUnitOfWork unitOfWork = daoFactory.beginUnitOfWork()) {
+            for(int i = 0; i < 700; i++) {
+                IRepository repository = daoRepository.createRepository(user, "notes " + i);
+                repositoryIds.add(repository.getId());
+                lastText = daoText.createText(repository, "text " + i);
+            }
+            unitOfWork.commit();
+        }
+        IRepository kept = daoRepository.createRepository(user, "kept");
+
+        assertEquals(700, daoRepository.removeRepositories(repositoryIds));
+
+        List<IRepository> repositories = daoRepository.importRepositoriesByUserId(user.getId());
+        assertEquals(1, repositories.size());
+        assertEquals(kept.getId(), repositories.get(0).getId());
+        assertTrue(daoText.importTextsByRepositoryId(lastText.getRepositoryId()).isEmpty());
+    }
+}
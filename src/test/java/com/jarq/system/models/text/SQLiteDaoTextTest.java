@@ -0,0 +1,160 @@
+package com.jarq.system.models.text;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.system.dao.IDaoFactory;
+import com.jarq.system.dao.IUnitOfWork;
+import com.jarq.system.dao.SqlDaoFactory;
+import com.jarq.system.exceptions.DaoFailure;
+import com.jarq.system.helpers.datetimer.DateTimer;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.PooledDatabaseManager;
+import com.jarq.system.managers.databaseManagers.SQLProcessManager;
+import com.jarq.system.managers.databaseManagers.SQLitePoolManager;
+import com.jarq.system.models.content.IDaoContent;
+import com.jarq.system.models.content.SQLiteDaoContent;
+import com.jarq.system.models.repository.IDaoRepository;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.user.IDaoUser;
+import com.jarq.system.models.user.IUser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class SQLiteDaoTextTest extends AbstractTest {
+
+    private TemporaryDatabase database;
+    private DatabaseManager databaseManager;
+    private IDaoFactory daoFactory;
+    private IDaoText daoText;
+    private IDaoContent daoContent;
+    private IUser user;
+    private IRepository repository;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("daoText").create();
+        databaseManager = database.openManager();
+        daoFactory = SqlDaoFactory.getInstance(databaseManager, SQLProcessManager.getInstance(),
+                DateTimer.getInstance(), null);
+        daoText = daoFactory.createDAO(SQLiteDaoText.class);
+        daoContent = daoFactory.createDAO(SQLiteDaoContent.class);
+        user = daoFactory.createDAO(IDaoUser.class).createUser("Jan", "Nowak", "jan.nowak@test.pl");
+        repository = daoFactory.createDAO(IDaoRepository.class).createRepository(user, "notes");
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.closeConnection();
+        database.delete();
+    }
+
+    @Test
+    public void importText_should_map_every_column() throws Exception {
+
+        IText text = daoText.createText(repository, "title");
+        text.setTitle("changed title");
+        text.setModificationDate("2018-05-01 10:21:59");
+        assertTrue(daoText.updateText(text));
+
+        IText imported = daoText.importText(text.getId());
+
+        assertEquals(text.getId(), imported.getId());
+        assertEquals("changed title", imported.getTitle());
+        assertEquals(text.getCreationDate(), imported.getCreationDate());
+        assertEquals("2018-05-01 10:21:59", imported.getModificationDate());
+        assertEquals(repository.getId(), imported.getRepositoryId());
+        assertEquals(user.getId(), imported.getUserId());
+    }
+
+    @Test
+    public void removeTextsByRepositoryId_should_count_texts_and_cascade_to_contents() throws Exception {
+
+        IText first = daoText.createText(repository, "first");
+        IText second = daoText.createText(repository, "second");
+        daoContent.createContent(first, "first.md");
+        daoContent.createContent(first, "first-1.md");
+        daoContent.createContent(second, "second.md");
+        IRepository otherRepository = daoFactory.createDAO(IDaoRepository.class).createRepository(user, "other");
+        IText other = daoText.createText(otherRepository, "other");
+
+        assertEquals(2, daoText.removeTextsByRepositoryId(repository.getId()));
+
+        assertTrue(daoText.importTextsByRepositoryId(repository.getId()).isEmpty());
+        assertTrue(daoContent.importContentsByTextId(first.getId()).isEmpty());
+        assertTrue(daoContent.importContentsByTextId(second.getId()).isEmpty());
+        assertEquals(other.getId(), daoText.importText(other.getId()).getId());
+        assertEquals(0, daoText.removeTextsByRepositoryId(repository.getId()));
+    }
+
+    @Test
+    public void removeTexts_should_remove_more_ids_than_one_statement_takes() throws Exception {
+
+        List<Integer> textIds = new ArrayList<>();
+        try (IUnitOfWork unitOfWork = daoFactory.beginUnitOfWork()) {
+            for(int i = 0; i < 1200; i++) {
+                IText text = daoText.createText(repository, "text " + i);
+                textIds.add(text.getId());
+                daoContent.createContent(text, "text-" + i + ".md");
+            }
+            unitOfWork.commit();
+        }
+        IText kept = daoText.createText(repository, "kept");
+        List<Integer> removedIds = new ArrayList<>(textIds);
+        removedIds.addAll(Arrays.asList(-1, -2));  // not existing ones aren't counted
+
+        assertEquals(1200, daoText.removeTexts(removedIds));
+
+        List<IText> texts = daoText.importTextsByRepositoryId(repository.getId());
+        assertEquals(1, texts.size());
+        assertEquals(kept.getId(), texts.get(0).getId());
+        assertTrue(daoContent.importContentsByTextId(textIds.get(700)).isEmpty());
+        assertEquals(0, daoText.removeTexts(new ArrayList<>()));
+    }
+
+    @Test
+    public void streamTextsByUser_should_give_connection_back_when_closed() throws Exception {
+
+        daoText.createText(repository, "first");
+        daoText.createText(repository, "second");
+        PooledDatabaseManager poolManager = SQLitePoolManager.getSQLitePoolManager(database, 1, 50);
+        try {
+            IDaoText pooledDaoText = SqlDaoFactory.getInstance(poolManager, SQLProcessManager.getInstance(),
+                    DateTimer.getInstance(), null).createDAO(SQLiteDaoText.class);
+
+            for(int i = 0; i < 3; i++) {  // single reader - every stream waits for previous one
+                try (Stream<IText> texts = pooledDaoText.streamTextsByUser(user, 1)) {
+                    assertEquals(0, poolManager.getIdleReadersCount());
+                    assertEquals(Arrays.asList("first", "second"),
+                            texts.map(IText::getTitle).sorted().collect(Collectors.toList()));
+                }
+                assertEquals(1, poolManager.getIdleReadersCount());
+            }
+
+            try (Stream<IText> texts = pooledDaoText.streamTextsByUser(user, 1)) {
+                assertTrue(texts.findFirst().isPresent());
+            }
+            assertEquals(1, poolManager.getIdleReadersCount());  // not read till end
+            assertEquals(0, poolManager.getCheckoutTimeoutsCount());
+
+        } finally {
+            poolManager.closeConnection();
+        }
+    }
+
+    @Test(expected = DaoFailure.class)
+    public void importText_should_fail_for_removed_text() throws Exception {
+
+        IText text = daoText.createText(repository, "title");
+        assertEquals(1, daoText.removeTexts(Arrays.asList(text.getId())));
+        daoText.importText(text.getId());
+    }
+}
@@ -5,17 +5,21 @@ import com.jarq.system.dao.IDaoFactory;
 import com.jarq.system.dao.SqlDaoFactory;
 import com.jarq.system.helpers.datetimer.DateTimer;
 import com.jarq.system.helpers.datetimer.IDateTimer;
-import com.jarq.system.helpers.repositoryPath.IRepositoryPath;
-import com.jarq.system.helpers.repositoryPath.RepositoryPath;
 import com.jarq.system.log.ILog;
 import com.jarq.system.log.Logger;
 import com.jarq.system.managers.filesManagers.*;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
+import com.jarq.system.managers.indexManagers.SearchIndex;
 
 import com.jarq.system.policy.*;
 import com.jarq.system.service.address.AddressService;
 import com.jarq.system.service.address.IAddressService;
+import com.jarq.system.service.content.ContentCache;
 import com.jarq.system.service.content.ContentService;
+import com.jarq.system.service.content.IContentCache;
 import com.jarq.system.service.content.IContentService;
+import com.jarq.system.service.content.IVersionStore;
+import com.jarq.system.service.content.VersionStore;
 import com.jarq.system.service.repository.IRepoService;
 import com.jarq.system.service.repository.RepoService;
 import com.jarq.system.service.text.ITextService;
@@ -36,9 +40,9 @@ public class ServiceFactoryTest extends AbstractTest {
     public void setUp() {
         IDaoFactory daoFactory = mock(SqlDaoFactory.class);
         IRepositoryManager repositoryManager = mock(RepositoryManager.class);
-        IContentReader<String> contentReader = mock(TextReader.class);
-        IContentWriter<String> contentWriter = mock(TextWriter.class);
-        IRepositoryPath repositoryPath = mock(RepositoryPath.class);
+        IVersionStore versionStore = mock(VersionStore.class);
+        IContentCache contentCache = mock(ContentCache.class);
+        ISearchIndex searchIndex = mock(SearchIndex.class);
         IDateTimer dateTimer = mock(DateTimer.class);
         IEmailPolicy emailPolicy = mock(EmailPolicy.class);
         IPasswordPolicy passwordPolicy = mock(PasswordPolicy.class);
@@ -46,8 +50,7 @@ public class ServiceFactoryTest extends AbstractTest {
         ILog log = mock(Logger.class);
 
         serviceFactory = ServiceFactory.getInstance(daoFactory,
-                repositoryManager, contentReader, contentWriter,
-                repositoryPath, dateTimer, emailPolicy,
+                repositoryManager, versionStore, contentCache, searchIndex, 200, dateTimer, emailPolicy,
                 passwordPolicy, addressPolicy, log);
     }
 
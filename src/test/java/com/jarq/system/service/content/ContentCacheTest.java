@@ -0,0 +1,65 @@
+package com.jarq.system.service.content;
+
+import com.jarq.AbstractTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContentCacheTest extends AbstractTest {
+
+    private IContentCache contentCache;
+
+    @Before
+    public void setUp() {
+        contentCache = ContentCache.getInstance(800);
+    }
+
+    @Test
+    public void getInstance() {
+        assertNotNull(contentCache);
+        assertTrue(contentCache instanceof ContentCache);
+    }
+
+    @Test
+    public void get_should_return_data_only_for_file_it_was_read_from() {
+
+        byte[] data = new byte[50];
+        contentCache.put(1, "a.md", data);
+
+        assertSame(data, contentCache.get(1, "a.md"));
+        assertNull(contentCache.get(1, "b.md"));
+        assertEquals(0.5, contentCache.getHitRatio(), 0.001);
+
+        contentCache.invalidate(1);
+
+        assertNull(contentCache.get(1, "a.md"));
+        assertEquals(0, contentCache.getUsedBytes());
+    }
+
+    @Test
+    public void put_should_evict_least_recently_read_to_fit_max_bytes() {
+
+        contentCache.put(1, "a.md", new byte[100]);
+        contentCache.put(2, "b.md", new byte[100]);
+        contentCache.get(1, "a.md");
+        for(int id = 3; id < 10; id++) {
+            contentCache.put(id, id + ".md", new byte[100]);
+        }
+
+        assertNotNull(contentCache.get(1, "a.md"));
+        assertNull(contentCache.get(2, "b.md"));
+        assertEquals(800, contentCache.getUsedBytes());
+        assertEquals(1, contentCache.getEvictionsCount());
+    }
+
+    @Test
+    public void put_should_skip_data_larger_than_part_of_cache() {
+
+        contentCache.put(1, "a.md", new byte[10]);
+        contentCache.put(1, "a.md", new byte[101]);
+
+        assertNull(contentCache.get(1, "a.md"));
+        assertEquals(0, contentCache.getUsedBytes());
+    }
+}
@@ -0,0 +1,296 @@
+package com.jarq.system.service.content;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.TemporaryRepositoryPath;
+import com.jarq.system.dao.IUnitOfWork;
+import com.jarq.system.dao.SqlDaoFactory;
+import com.jarq.system.helpers.codec.DeflateCodec;
+import com.jarq.system.helpers.codec.IContentCodec;
+import com.jarq.system.helpers.datetimer.DateTimer;
+import com.jarq.system.helpers.delta.LineDeltaEncoder;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.SQLProcessManager;
+import com.jarq.system.managers.filesManagers.BlobStore;
+import com.jarq.system.managers.filesManagers.IBlobStore;
+import com.jarq.system.managers.filesManagers.IPackStore;
+import com.jarq.system.managers.filesManagers.PackStore;
+import com.jarq.system.managers.filesManagers.TextReader;
+import com.jarq.system.models.blob.IBlob;
+import com.jarq.system.models.blob.IDaoBlob;
+import com.jarq.system.models.blob.SQLiteDaoBlob;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class VersionStoreTest extends AbstractTest {
+
+    private final IUnitOfWork unitOfWork = new NoUnitOfWork();
+    private TemporaryRepositoryPath repositoryPath;
+    private IBlobStore blobStore;
+    private TemporaryDatabase database;
+    private DatabaseManager databaseManager;
+    private IDaoBlob daoBlob;
+
+    @Before
+    public void setUp() throws Exception {
+        repositoryPath = TemporaryRepositoryPath.getInstance("versionStoreTest");
+        blobStore = BlobStore.getInstance(repositoryPath, StandardCharsets.UTF_8);
+        database = TemporaryDatabase.getInstance("versionStore").create();
+        databaseManager = database.openManager();
+        daoBlob = SqlDaoFactory.getInstance(databaseManager, SQLProcessManager.getInstance(),
+                DateTimer.getInstance(), repositoryPath).createDAO(SQLiteDaoBlob.class);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        databaseManager.closeConnection();
+        database.delete();
+        repositoryPath.delete();
+    }
+
+    @Test
+    public void store_should_keep_identical_data_once() throws Exception {
+        IVersionStore versionStore = create(4);
+
+        String filepath = versionStore.store(unitOfWork, null, lines(20, "a"));
+        String storedAgain = versionStore.store(unitOfWork, null, lines(20, "a").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(filepath, storedAgain);
+        assertEquals(1, blobStore.importStoredFiles().size());
+        assertEquals(lines(20, "a"), versionStore.readContent(filepath));
+    }
+
+    @Test
+    public void store_should_start_new_keyframe_at_keyframe_interval() throws Exception {
+        IVersionStore versionStore = create(3);
+
+        String first = versionStore.store(unitOfWork, null, edited(0));
+        String second = versionStore.store(unitOfWork, first, edited(1));
+        String third = versionStore.store(unitOfWork, second, edited(2));
+        String fourth = versionStore.store(unitOfWork, third, edited(3));
+
+        assertFalse(daoBlob.importBlob(first).isDelta());
+        assertTrue(daoBlob.importBlob(second).isDelta());
+        assertEquals(first, daoBlob.importBlob(second).getBaseFilepath());
+        assertEquals(2, daoBlob.importBlob(third).getDepth());
+        assertFalse(daoBlob.importBlob(fourth).isDelta());
+        assertEquals(0, daoBlob.importBlob(fourth).getDepth());
+
+        IVersionStore fresh = create(3);  // nothing cached - deltas are rebuilt from files
+        assertEquals(edited(2), fresh.readContent(third));
+        assertEquals(edited(3), fresh.readContent(fourth));
+    }
+
+    @Test
+    public void append_should_store_the_same_version_as_store_of_whole_data() throws Exception {
+        IVersionStore versionStore = create(4);
+
+        String base = versionStore.store(unitOfWork, null, lines(20, "a"));
+        String appended = versionStore.append(unitOfWork, base, "appended line\n");
+        String appendedAgain = create(4).append(unitOfWork, appended, "next line\n");
+
+        assertTrue(daoBlob.importBlob(appended).isDelta());
+        assertEquals(2, daoBlob.importBlob(appendedAgain).getDepth());
+        String expected = lines(20, "a") + "appended line\nnext line\n";
+        assertEquals(expected, create(4).readContent(appendedAgain));
+        assertEquals(appendedAgain, create(1).store(unitOfWork, null, expected));
+    }
+
+    @Test
+    public void append_should_copy_loose_base_into_new_keyframe() throws Exception {
+        assertAppendedToBase(create(1), false);
+    }
+
+    @Test
+    public void append_should_copy_packed_base_into_new_keyframe() throws Exception {
+        IPackStore packStore = PackStore.getInstance(repositoryPath, 1024 * 1024);
+        assertAppendedToBase(create(packStore, null, 1), true);
+    }
+
+    @Test
+    public void append_should_copy_compressed_base_into_new_keyframe() throws Exception {
+        assertAppendedToBase(create(null, DeflateCodec.getInstance(0), 1), false);
+    }
+
+    @Test
+    public void append_should_build_delta_on_packed_and_compressed_base() throws Exception {
+        IPackStore packStore = PackStore.getInstance(repositoryPath, 1024 * 1024);
+        IVersionStore versionStore = create(packStore, DeflateCodec.getInstance(0), 4);
+
+        String base = versionStore.store(unitOfWork, null, lines(20, "a"));
+        String appended = create(packStore, DeflateCodec.getInstance(0), 4).append(unitOfWork, base, "tail\n");
+
+        assertTrue(daoBlob.importBlob(appended).isDelta());
+        assertTrue(daoBlob.importBlob(appended).isPacked());
+        assertEquals(lines(20, "a") + "tail\n",
+                create(packStore, DeflateCodec.getInstance(0), 4).readContent(appended));
+    }
+
+    @Test
+    public void store_should_keep_version_too_large_to_cache_whole() throws Exception {
+        IPackStore packStore = PackStore.getInstance(repositoryPath, 4 * 1024 * 1024);
+        IVersionStore versionStore = create(packStore, null, 4);
+        String large = lines(100000, "a");
+
+        String base = versionStore.store(unitOfWork, null, large);
+        String edited = versionStore.store(unitOfWork, base, large.replace("line 1 a\n", "line 1 b\n"));
+
+        assertFalse(daoBlob.importBlob(edited).isDelta());
+        assertFalse(daoBlob.importBlob(edited).isPacked());
+        assertFalse(daoBlob.importBlob(base).isPacked());
+    }
+
+    @Test
+    public void append_should_stream_version_too_large_to_cache() throws Exception {
+        IPackStore packStore = PackStore.getInstance(repositoryPath, 4 * 1024 * 1024);
+        IVersionStore versionStore = create(packStore, DeflateCodec.getInstance(0), 4);
+        String small = lines(20, "a");
+        String large = lines(100000, "b");
+
+        String base = versionStore.store(unitOfWork, null, small);
+        String appended = versionStore.append(unitOfWork, base, large);
+        String appendedAgain = versionStore.append(unitOfWork, appended, "tail\n");
+
+        assertFalse(daoBlob.importBlob(appended).isDelta());
+        assertFalse(daoBlob.importBlob(appended).isPacked());
+        assertFalse(daoBlob.importBlob(appendedAgain).isDelta());
+        assertFalse(daoBlob.importBlob(appendedAgain).isPacked());
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        long written = create(packStore, DeflateCodec.getInstance(0), 4)
+                .readContent(appendedAgain, Channels.newChannel(target));
+        assertEquals(target.size(), written);
+        assertEquals(small + large + "tail\n", new String(target.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readContent_should_read_range_and_lines_of_delta() throws Exception {
+        IVersionStore versionStore = create(4);
+
+        String base = versionStore.store(unitOfWork, null, edited(0));
+        String delta = versionStore.store(unitOfWork, base, edited(1));
+        assertTrue(daoBlob.importBlob(delta).isDelta());
+
+        IVersionStore fresh = create(4);
+        byte[] data = edited(1).getBytes(StandardCharsets.UTF_8);
+        assertEquals(new String(data, 5, 10, StandardCharsets.UTF_8),
+                new String(fresh.readContent(delta, 5, 10), StandardCharsets.UTF_8));
+        assertEquals(0, fresh.readContent(delta, data.length + 10, 10).length);
+        assertEquals("line 1 edited 1\nline 2 a", fresh.readLines(delta, 1, 2));
+        assertEquals(edited(1), new String(fresh.readContentAsBytes(delta), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void removeUnused_should_remove_delta_bases_left_unused() throws Exception {
+        IVersionStore versionStore = create(4);
+
+        String first = versionStore.store(unitOfWork, null, edited(0));
+        String second = versionStore.store(unitOfWork, first, edited(1));
+        String third = versionStore.store(unitOfWork, second, edited(2));
+        String other = versionStore.store(unitOfWork, null, lines(5, "other"));
+        assertEquals(1, daoBlob.importReferencesCount(first));
+
+        List<String> removed = versionStore.removeUnused(Collections.singletonList(third));
+
+        assertEquals(3, removed.size());
+        assertTrue(removed.containsAll(Arrays.asList(first, second, third)));
+        assertFalse(daoBlob.isBlobRegistered(first));
+        assertTrue(daoBlob.isBlobRegistered(other));
+        assertEquals(3, versionStore.removeFiles(removed));
+        assertEquals(Collections.singletonList(other), blobStore.importStoredFiles());
+    }
+
+    @Test
+    public void recover_should_remove_not_registered_files_and_report_lost_blobs() throws Exception {
+        IPackStore packStore = PackStore.getInstance(repositoryPath, 1024 * 1024);
+        IVersionStore versionStore = create(packStore, null, 1);
+        String packed = versionStore.store(unitOfWork, null, lines(5, "packed"));
+        IBlob packedBlob = daoBlob.importBlob(packed);
+
+        String staged = blobStore.createStagingFile();
+        String notCommitted = blobStore.store("not committed").getFilepath();
+        String lostHash = blobStore.hash("lost".getBytes(StandardCharsets.UTF_8));
+        daoBlob.registerBlob(lostHash, blobStore.blobFilepath(lostHash));
+        packStore.append("not committed".getBytes(StandardCharsets.UTF_8));
+
+        List<String> lost = versionStore.recover();
+
+        assertEquals(Collections.singletonList(blobStore.blobFilepath(lostHash)), lost);
+        assertFalse(new File(staged).exists());
+        assertFalse(new File(notCommitted).exists());
+        assertEquals(packedBlob.getPackOffset() + packedBlob.getPackLength(),
+                packStore.size(packedBlob.getPackPath()));
+        assertEquals(lines(5, "packed"), create(packStore, null, 1).readContent(packed));
+    }
+
+    private void assertAppendedToBase(IVersionStore versionStore, boolean isPacked) throws Exception {
+        String base = versionStore.store(unitOfWork, null, lines(20, "a"));
+        assertEquals(isPacked, daoBlob.importBlob(base).isPacked());
+
+        String appended = versionStore.append(unitOfWork, base, "appended line\n");
+
+        assertFalse(daoBlob.importBlob(appended).isDelta());
+        assertEquals(lines(20, "a") + "appended line\n", versionStore.readContent(appended));
+        assertEquals(appended, versionStore.store(unitOfWork, null, lines(20, "a") + "appended line\n"));
+    }
+
+    private IVersionStore create(int keyframeInterval) {
+        return create(null, null, keyframeInterval);
+    }
+
+    private IVersionStore create(IPackStore packStore, IContentCodec codec,
+                                 int keyframeInterval) {
+        return VersionStore.getInstance(blobStore, daoBlob, TextReader.getInstance(StandardCharsets.UTF_8),
+                packStore, codec, LineDeltaEncoder.getInstance(), keyframeInterval, StandardCharsets.UTF_8);
+    }
+
+    private String lines(int count, String word) {
+        StringBuilder data = new StringBuilder();
+        for(int i=0; i<count; i++) {
+            data.append("line ").append(i).append(' ').append(word).append('\n');
+        }
+        return data.toString();
+    }
+
+    // the same text with one line changed
+    private String edited(int version) {
+        return lines(20, "a").replace("line 1 a\n", "line 1 edited " + version + "\n");
+    }
+
+    private static class NoUnitOfWork implements IUnitOfWork {
+
+        // dao writes go straight to database - files are removed by test itself
+
+        @Override
+        public void onRollback(Compensation compensation) {
+        }
+
+        @Override
+        public void onCommit(CommitHook commitHook) {
+            commitHook.afterCommit();
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void rollback() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.jarq.system.service.repository;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.TemporaryRepositoryPath;
+import com.jarq.system.dao.IDaoFactory;
+import com.jarq.system.dao.SqlDaoFactory;
+import com.jarq.system.helpers.datetimer.DateTimer;
+import com.jarq.system.helpers.tokenizer.TermCounter;
+import com.jarq.system.helpers.tokenizer.Tokenizer;
+import com.jarq.system.managers.databaseManagers.DatabaseManager;
+import com.jarq.system.managers.databaseManagers.SQLProcessManager;
+import com.jarq.system.managers.filesManagers.DurabilityPolicy;
+import com.jarq.system.managers.filesManagers.IRepositoryManager;
+import com.jarq.system.managers.filesManagers.RepositoryManager;
+import com.jarq.system.managers.indexManagers.ISearchIndex;
+import com.jarq.system.managers.indexManagers.SearchIndex;
+import com.jarq.system.models.repository.IDaoRepository;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.text.IDaoText;
+import com.jarq.system.models.text.IText;
+import com.jarq.system.models.user.IDaoUser;
+import com.jarq.system.models.user.IUser;
+import com.jarq.system.service.text.TitleIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RepoServiceTest extends AbstractTest {
+
+    private final List<String> reports = new ArrayList<>();
+    private TemporaryDatabase database;
+    private DatabaseManager databaseManager;
+    private TemporaryRepositoryPath repositoryPath;
+    private IRepositoryManager repositoryManager;
+    private ISearchIndex searchIndex;
+    private IDaoUser daoUser;
+    private IDaoRepository daoRepository;
+    private IDaoText daoText;
+    private IRepoService repoService;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("repoService").create();
+        databaseManager = database.openManager();
+        repositoryPath = TemporaryRepositoryPath.getInstance("repoService");
+        repositoryManager = RepositoryManager.getInstance(repositoryPath);
+        searchIndex = SearchIndex.getInstance(repositoryPath.indexDir(), Tokenizer.getInstance(StandardCharsets.UTF_8),
+                DurabilityPolicy.osManaged());
+        IDaoFactory daoFactory = SqlDaoFactory.getInstance(databaseManager, SQLProcessManager.getInstance(),
+                DateTimer.getInstance(), repositoryPath);
+        daoUser = daoFactory.createDAO(IDaoUser.class);
+        daoRepository = daoFactory.createDAO(IDaoRepository.class);
+        daoText = daoFactory.createDAO(IDaoText.class);
+        repoService = RepoService.getInstance(reports::add, daoRepository, daoUser, daoText, repositoryManager,
+                DateTimer.getInstance(), searchIndex, TitleIndex.getInstance(daoText, daoUser, 10));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        searchIndex.close();
+        databaseManager.closeConnection();
+        database.delete();
+        repositoryPath.delete();
+    }
+
+    @Test
+    public void removeUserRepositories_should_remove_all_repositories_with_their_texts() throws Exception {
+
+        IUser user = daoUser.createUser("Jan", "Nowak", "jan.nowak@test.pl");
+        repositoryManager.createDir(user);
+        List<IText> texts = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            IRepository repository = daoRepository.createRepository(user, "notes " + i);
+            repositoryManager.createDir(repository);
+            for(int j = 0; j < 2; j++) {
+                IText text = daoText.createText(repository, "text " + j);
+                repositoryManager.createDir(text);
+                index(text, "shared words");
+                texts.add(text);
+            }
+        }
+
+        String[] removed = repoService.removeUserRepositories(user.getId());
+
+        // count of removed rows matched imported repositories - cascaded texts weren't counted in
+        assertEquals(3, removed.length);
+        assertTrue(reports.isEmpty());
+        assertTrue(daoRepository.importRepositoriesByUserId(user.getId()).isEmpty());
+        assertTrue(daoText.importTextsByUser(user).isEmpty());
+        assertTrue(searchIndex.searchByUser(user.getId(), "shared", 10).isEmpty());
+        assertFalse(new File(repositoryPath.userDir(user)).exists());
+    }
+
+    @Test
+    public void removeUserRepositories_should_return_nothing_for_user_without_repositories() throws Exception {
+
+        IUser user = daoUser.createUser("Jan", "Nowak", "jan.nowak@test.pl");
+
+        assertEquals(0, repoService.removeUserRepositories(user.getId()).length);
+        assertTrue(reports.isEmpty());
+    }
+
+    private void index(IText text, String data) throws Exception {
+        TermCounter terms = searchIndex.newTermCounter();
+        terms.add(data);
+        searchIndex.put(text.getId(), text.getUserId(), text.getRepositoryId(), data.hashCode(), terms);
+    }
+}
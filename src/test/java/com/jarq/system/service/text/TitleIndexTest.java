@@ -0,0 +1,96 @@
+package com.jarq.system.service.text;
+
+import com.jarq.AbstractTest;
+import com.jarq.TemporaryDatabase;
+import com.jarq.system.dao.IDaoFactory;
+import com.jarq.system.dao.SqlDaoFactory;
+import com.jarq.system.enums.FileExtension;
+import com.jarq.system.enums.RepositoriesPath;
+import com.jarq.system.helpers.datetimer.DateTimer;
+import com.jarq.system.helpers.repositoryPath.RepositoryPath;
+import com.jarq.system.managers.databaseManagers.*;
+import com.jarq.system.models.repository.IDaoRepository;
+import com.jarq.system.models.repository.IRepository;
+import com.jarq.system.models.text.IDaoText;
+import com.jarq.system.models.text.IText;
+import com.jarq.system.models.user.IDaoUser;
+import com.jarq.system.models.user.IUser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TitleIndexTest extends AbstractTest {
+
+    private TemporaryDatabase database;
+    private DatabaseManager databaseManager;
+    private IDaoText daoText;
+    private IUser user;
+    private IRepository repository;
+    private ITitleIndex titleIndex;
+
+    @Before
+    public void setUp() throws Exception {
+        database = TemporaryDatabase.getInstance("titleIndex").create();
+        databaseManager = database.openManager();
+        IDaoFactory daoFactory = SqlDaoFactory.getInstance(databaseManager,
+                SQLProcessManager.getInstance(PreparedStatementCache.getInstance(8)), DateTimer.getInstance(),
+                RepositoryPath.getInstance(RepositoriesPath.TEST_FILES_REPOSITORY, FileExtension.MD));
+        IDaoUser daoUser = daoFactory.createDAO(IDaoUser.class);
+        daoText = daoFactory.createDAO(IDaoText.class);
+        user = daoUser.createUser("Title", "Index", "title@index.com");
+        repository = daoFactory.createDAO(IDaoRepository.class).createRepository(user, "notes");
+        titleIndex = TitleIndex.getInstance(daoText, daoUser, 200);
+    }
+
+    @After
+    public void tearDown() {
+        databaseManager.closeConnection();
+        database.delete();
+    }
+
+    @Test
+    public void complete_should_return_titles_of_prefix_range_alphabetically() throws Exception {
+
+        for(String title : Arrays.asList("Meeting notes", "recipes", "meat", "Meeting agenda", "me")) {
+            daoText.createText(repository, title);
+        }
+
+        assertEquals(Arrays.asList("Meeting agenda", "Meeting notes"), titles("MEET", 10));
+        assertEquals(Arrays.asList("me", "meat"), titles("me", 2));
+        assertEquals(Arrays.asList(), titles("x", 10));
+        assertEquals(1, titleIndex.getUsersCount());
+    }
+
+    @Test
+    public void complete_should_follow_changes_passed_on() throws Exception {
+
+        IText first = daoText.createText(repository, "draft");
+        assertEquals(Arrays.asList("draft"), titles("d", 10));
+
+        IText second = daoText.createText(repository, "diary");
+        titleIndex.put(second);
+        first.setTitle("final");
+        daoText.updateText(first);
+        titleIndex.put(first);
+        titleIndex.put(first);  // the same text isn't kept twice
+
+        assertEquals(Arrays.asList("diary"), titles("d", 10));
+        assertEquals(Arrays.asList("final"), titles("f", 10));
+
+        titleIndex.remove(second);
+        titleIndex.removeRepository(repository);
+        assertEquals(Arrays.asList(), titles("", 10));
+    }
+
+    private List<String> titles(String prefix, int limit) throws Exception {
+        return titleIndex.complete(user.getId(), prefix, limit).stream()
+                .map(TitleMatch::getTitle)
+                .collect(Collectors.toList());
+    }
+}